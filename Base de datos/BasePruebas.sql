@@ -5,6 +5,7 @@ DROP SEQUENCE "SEQ_ESTADO_TARJETA";
 DROP SEQUENCE "SEQ_ESTADO_TRANS";
 DROP SEQUENCE "SEQ_TRANSACION";
 DROP SEQUENCE "SEQ_TRANSACION";
+DROP SEQUENCE "SEQ_NUMERO_TARJETA";
 DROP TABLE "ESTADO_TARJETA" cascade constraints;
 DROP TABLE "ESTADO_TRANS" cascade constraints;
 DROP TABLE "PRODUCTO" cascade constraints;
@@ -15,6 +16,10 @@ DROP TABLE "ESTADO_TARJETA" cascade constraints;
 DROP TABLE "TARJETA" cascade constraints;
 DROP TABLE "ESTADO_TRANS" cascade constraints;
 DROP TABLE "TRANSACIONES" cascade constraints;
+DROP TABLE "RESERVA_IDEMPOTENCIA" cascade constraints;
+DROP TABLE "RESUMEN_DIARIO_TARJETA" cascade constraints;
+DROP TABLE "LIQUIDACION_MARCA" cascade constraints;
+DROP TABLE "LIQUIDACION_PENDIENTE" cascade constraints;
 --------------------------------------------------------
 --  DDL for Sequence SEQ_ESTADO_TARJETA
 --------------------------------------------------------
@@ -29,12 +34,18 @@ DROP TABLE "TRANSACIONES" cascade constraints;
 --  DDL for Sequence SEQ_TRANSACION
 --------------------------------------------------------
 
-   CREATE SEQUENCE  "SEQ_TRANSACION"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 1 START WITH 61 CACHE 20 NOORDER  NOCYCLE  NOKEEP  NOSCALE  GLOBAL ;
+   CREATE SEQUENCE  "SEQ_TRANSACION"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 50 START WITH 61 CACHE 20 NOORDER  NOCYCLE  NOKEEP  NOSCALE  GLOBAL ;
 --------------------------------------------------------
 --  DDL for Sequence SEQ_TRANSACION
 --------------------------------------------------------
 
-   CREATE SEQUENCE  "SEQ_TRANSACION"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 1 START WITH 61 CACHE 20 NOORDER  NOCYCLE  NOKEEP  NOSCALE  GLOBAL ;
+   CREATE SEQUENCE  "SEQ_TRANSACION"  MINVALUE 1 MAXVALUE 9999999999999999999999999999 INCREMENT BY 50 START WITH 61 CACHE 20 NOORDER  NOCYCLE  NOKEEP  NOSCALE  GLOBAL ;
+--------------------------------------------------------
+--  DDL for Sequence SEQ_NUMERO_TARJETA
+--------------------------------------------------------
+-- Bloques de 1000 series para los numeros de tarjeta (cada NEXTVAL es el inicio de un bloque)
+
+   CREATE SEQUENCE  "SEQ_NUMERO_TARJETA"  MINVALUE 0 MAXVALUE 999999999 INCREMENT BY 1000 START WITH 0 NOCACHE  NOORDER  NOCYCLE  NOKEEP  NOSCALE  GLOBAL ;
 --------------------------------------------------------
 --  DDL for Table ESTADO_TARJETA
 --------------------------------------------------------
@@ -109,7 +120,9 @@ DROP TABLE "TRANSACIONES" cascade constraints;
 	"VALOR_TRANS" NUMBER(15,2), 
 	"MONEDA" VARCHAR2(20 BYTE), 
 	"DESCRIPCION" VARCHAR2(500 BYTE), 
-	"ID_ANULA" NUMBER
+	"ID_ANULA" NUMBER, 
+	"LLAVE_IDEMPOTENCIA" VARCHAR2(64 BYTE), 
+	 CONSTRAINT "UK_TRANSACIONES_LLAVE" UNIQUE ("LLAVE_IDEMPOTENCIA")
    ) SEGMENT CREATION IMMEDIATE 
   PCTFREE 10 PCTUSED 40 INITRANS 1 MAXTRANS 255 
  NOCOMPRESS LOGGING
@@ -191,7 +204,9 @@ DROP TABLE "TRANSACIONES" cascade constraints;
 	"VALOR_TRANS" NUMBER(15,2), 
 	"MONEDA" VARCHAR2(20 BYTE), 
 	"DESCRIPCION" VARCHAR2(500 BYTE), 
-	"ID_ANULA" NUMBER
+	"ID_ANULA" NUMBER, 
+	"LLAVE_IDEMPOTENCIA" VARCHAR2(64 BYTE), 
+	 CONSTRAINT "UK_TRANSACIONES_LLAVE" UNIQUE ("LLAVE_IDEMPOTENCIA")
    ) SEGMENT CREATION IMMEDIATE 
   PCTFREE 10 PCTUSED 40 INITRANS 1 MAXTRANS 255 
  NOCOMPRESS LOGGING
@@ -199,6 +214,54 @@ DROP TABLE "TRANSACIONES" cascade constraints;
   PCTINCREASE 0 FREELISTS 1 FREELIST GROUPS 1
   BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)
   TABLESPACE "USERS" ;
+--------------------------------------------------------
+--  DDL for Table RESERVA_IDEMPOTENCIA
+--------------------------------------------------------
+
+  CREATE TABLE "RESERVA_IDEMPOTENCIA" 
+   (	"LLAVE_IDEMPOTENCIA" VARCHAR2(64 BYTE) NOT NULL, 
+	"ID_TRANSACION" NUMBER, 
+	"FECHA_RESERVA" DATE, 
+	 CONSTRAINT "PK_RESERVA_IDEMPOTENCIA" PRIMARY KEY ("LLAVE_IDEMPOTENCIA")
+   ) TABLESPACE "USERS" ;
+--------------------------------------------------------
+--  DDL for Table RESUMEN_DIARIO_TARJETA
+--------------------------------------------------------
+
+  CREATE TABLE "RESUMEN_DIARIO_TARJETA" 
+   (	"ID_TARJETA" NUMBER NOT NULL, 
+	"FECHA" DATE NOT NULL, 
+	"ID_PRODUCTO" NUMBER, 
+	"MONTO_APROBADO" NUMBER(15,2) DEFAULT 0, 
+	"CANTIDAD_APROBADAS" NUMBER DEFAULT 0, 
+	"MONTO_RECHAZADO" NUMBER(15,2) DEFAULT 0, 
+	"CANTIDAD_RECHAZADAS" NUMBER DEFAULT 0, 
+	"MONTO_ANULADO" NUMBER(15,2) DEFAULT 0, 
+	"CANTIDAD_ANULADAS" NUMBER DEFAULT 0, 
+	 CONSTRAINT "PK_RESUMEN_DIARIO_TARJETA" PRIMARY KEY ("ID_TARJETA", "FECHA")
+   ) TABLESPACE "USERS" ;
+
+  CREATE INDEX "IDX_RESUMEN_DIARIO_PRODUCTO" ON "RESUMEN_DIARIO_TARJETA" ("ID_PRODUCTO", "FECHA") 
+  TABLESPACE "USERS" ;
+--------------------------------------------------------
+--  DDL for Table LIQUIDACION_MARCA
+--------------------------------------------------------
+
+  CREATE TABLE "LIQUIDACION_MARCA" 
+   (	"ID_PROCESO" VARCHAR2(50 BYTE) NOT NULL, 
+	"ULTIMO_ID_TRANSACION" NUMBER DEFAULT 0, 
+	"FECHA_EJECUCION" DATE, 
+	 CONSTRAINT "PK_LIQUIDACION_MARCA" PRIMARY KEY ("ID_PROCESO")
+   ) TABLESPACE "USERS" ;
+--------------------------------------------------------
+--  DDL for Table LIQUIDACION_PENDIENTE
+--------------------------------------------------------
+
+  CREATE TABLE "LIQUIDACION_PENDIENTE" 
+   (	"ID_TRANSACION" NUMBER NOT NULL, 
+	"FECHA_DETECCION" DATE, 
+	 CONSTRAINT "PK_LIQUIDACION_PENDIENTE" PRIMARY KEY ("ID_TRANSACION")
+   ) TABLESPACE "USERS" ;
 REM INSERTING into PRODUCTO
 SET DEFINE OFF;
 Insert into PRODUCTO (ID_PRODUCTO,DESCRIPCION) values ('102030','CREDITO');
@@ -260,6 +323,9 @@ Insert into TRANSACIONES (ID_TRANSACION,ID_TARJETA,ID_ESTADO_TRANS,FECHA_TRANS,V
 Insert into TRANSACIONES (ID_TRANSACION,ID_TARJETA,ID_ESTADO_TRANS,FECHA_TRANS,VALOR_TRANS,MONEDA,DESCRIPCION,ID_ANULA) values ('43','1020301234567891','3',to_date('02/02/25','DD/MM/RR'),'100','USD','Anulación de transacción: 42',null);
 Insert into TRANSACIONES (ID_TRANSACION,ID_TARJETA,ID_ESTADO_TRANS,FECHA_TRANS,VALOR_TRANS,MONEDA,DESCRIPCION,ID_ANULA) values ('44','7080900329319286','1',to_date('02/02/25','DD/MM/RR'),'100','USD','Exitoso','45');
 Insert into TRANSACIONES (ID_TRANSACION,ID_TARJETA,ID_ESTADO_TRANS,FECHA_TRANS,VALOR_TRANS,MONEDA,DESCRIPCION,ID_ANULA) values ('45','7080900329319286','3',to_date('02/02/25','DD/MM/RR'),'100','USD','Anulación de transacción: 44',null);
+REM INSERTING into LIQUIDACION_MARCA
+SET DEFINE OFF;
+Insert into LIQUIDACION_MARCA (ID_PROCESO,ULTIMO_ID_TRANSACION) values ('RESUMEN_DIARIO','0');
 REM INSERTING into USUARIOS
 SET DEFINE OFF;
 Insert into USUARIOS (ID,NOMBRE,CEDULA) values ('1','aa','123456');
@@ -305,6 +371,26 @@ Insert into USUARIOS (ID,NOMBRE,CEDULA) values ('2','bb','12345');
   BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)
   TABLESPACE "USERS" ;
 --------------------------------------------------------
+--  DDL for Index IDX_TRANSACIONES_TARJETA_FECHA
+--------------------------------------------------------
+
+  CREATE INDEX "IDX_TRANSACIONES_TARJETA_FECHA" ON "TRANSACIONES" ("ID_TARJETA", "FECHA_TRANS" DESC) 
+  PCTFREE 10 INITRANS 2 MAXTRANS 255 COMPUTE STATISTICS 
+  STORAGE(INITIAL 65536 NEXT 1048576 MINEXTENTS 1 MAXEXTENTS 2147483645
+  PCTINCREASE 0 FREELISTS 1 FREELIST GROUPS 1
+  BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)
+  TABLESPACE "USERS" ;
+--------------------------------------------------------
+--  DDL for Index IDX_TRANSACIONES_ANULA
+--------------------------------------------------------
+
+  CREATE INDEX "IDX_TRANSACIONES_ANULA" ON "TRANSACIONES" ("ID_ANULA") 
+  PCTFREE 10 INITRANS 2 MAXTRANS 255 COMPUTE STATISTICS 
+  STORAGE(INITIAL 65536 NEXT 1048576 MINEXTENTS 1 MAXEXTENTS 2147483645
+  PCTINCREASE 0 FREELISTS 1 FREELIST GROUPS 1
+  BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)
+  TABLESPACE "USERS" ;
+--------------------------------------------------------
 --  DDL for Index SYS_C008316
 --------------------------------------------------------
 
@@ -435,6 +521,26 @@ Insert into USUARIOS (ID,NOMBRE,CEDULA) values ('2','bb','12345');
   BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)
   TABLESPACE "USERS" ;
 --------------------------------------------------------
+--  DDL for Index IDX_TRANSACIONES_TARJETA_FECHA
+--------------------------------------------------------
+
+  CREATE INDEX "IDX_TRANSACIONES_TARJETA_FECHA" ON "TRANSACIONES" ("ID_TARJETA", "FECHA_TRANS" DESC) 
+  PCTFREE 10 INITRANS 2 MAXTRANS 255 COMPUTE STATISTICS 
+  STORAGE(INITIAL 65536 NEXT 1048576 MINEXTENTS 1 MAXEXTENTS 2147483645
+  PCTINCREASE 0 FREELISTS 1 FREELIST GROUPS 1
+  BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)
+  TABLESPACE "USERS" ;
+--------------------------------------------------------
+--  DDL for Index IDX_TRANSACIONES_ANULA
+--------------------------------------------------------
+
+  CREATE INDEX "IDX_TRANSACIONES_ANULA" ON "TRANSACIONES" ("ID_ANULA") 
+  PCTFREE 10 INITRANS 2 MAXTRANS 255 COMPUTE STATISTICS 
+  STORAGE(INITIAL 65536 NEXT 1048576 MINEXTENTS 1 MAXEXTENTS 2147483645
+  PCTINCREASE 0 FREELISTS 1 FREELIST GROUPS 1
+  BUFFER_POOL DEFAULT FLASH_CACHE DEFAULT CELL_FLASH_CACHE DEFAULT)
+  TABLESPACE "USERS" ;
+--------------------------------------------------------
 --  DDL for Index IDX_TRANSACIONES_ESTADO
 --------------------------------------------------------
 
@@ -0,0 +1,22 @@
+--------------------------------------------------------
+--  Indice de transacciones anuladas
+--------------------------------------------------------
+-- ID_ANULA guarda el ID de la transaccion de reversa. La anulacion lo marca
+-- con un UPDATE condicional (solo si todavia es NULL) en la misma transaccion
+-- que inserta la reversa y devuelve el saldo.
+--
+-- El indice permite listar las transacciones anuladas (ID_ANULA IS NOT NULL) y
+-- buscar la compra de una reversa sin recorrer TRANSACIONES. Las filas con
+-- ID_ANULA en NULL (la mayoria) no ocupan espacio en el indice.
+
+CREATE INDEX "IDX_TRANSACIONES_ANULA" ON "TRANSACIONES" ("ID_ANULA");
+
+-- Verificacion
+SELECT INDEX_NAME, COLUMN_NAME
+  FROM USER_IND_COLUMNS
+ WHERE INDEX_NAME = 'IDX_TRANSACIONES_ANULA';
+
+--------------------------------------------------------
+--  Reversion
+--------------------------------------------------------
+-- DROP INDEX "IDX_TRANSACIONES_ANULA";
@@ -0,0 +1,42 @@
+--------------------------------------------------------
+--  Llave de idempotencia de las compras
+--------------------------------------------------------
+-- El cliente puede enviar una llave (encabezado Idempotency-Key) con cada
+-- compra. Si la compra se reintenta con la misma llave, la aplicacion retorna
+-- la transaccion original en lugar de debitar otra vez.
+--
+-- La aplicacion resuelve los reintentos recientes en memoria; el indice unico
+-- cubre el resto (reinicios y varias instancias): un segundo INSERT con la
+-- misma llave falla y la compra duplicada hace rollback.
+--
+-- Con los diarios de saldos o de transacciones la fila llega a TRANSACIONES
+-- despues de responder. Esas compras reservan antes la llave en
+-- RESERVA_IDEMPOTENCIA (en la misma transaccion que el debito cuando la hay):
+-- un reintento en otra instancia encuentra la reserva y no vuelve a debitar
+-- mientras la fila original sigue en el diario.
+--
+-- Las transacciones existentes quedan con la llave en NULL. Oracle no guarda
+-- en el indice las filas con la llave en NULL, por lo que no chocan entre si.
+
+ALTER TABLE "TRANSACIONES" ADD ("LLAVE_IDEMPOTENCIA" VARCHAR2(64 BYTE));
+
+ALTER TABLE "TRANSACIONES" ADD CONSTRAINT "UK_TRANSACIONES_LLAVE" UNIQUE ("LLAVE_IDEMPOTENCIA");
+
+CREATE TABLE "RESERVA_IDEMPOTENCIA"
+   (	"LLAVE_IDEMPOTENCIA" VARCHAR2(64 BYTE) NOT NULL,
+	"ID_TRANSACION" NUMBER,
+	"FECHA_RESERVA" DATE,
+	CONSTRAINT "PK_RESERVA_IDEMPOTENCIA" PRIMARY KEY ("LLAVE_IDEMPOTENCIA")
+   ) TABLESPACE "USERS" ;
+
+-- Verificacion
+SELECT CONSTRAINT_NAME, CONSTRAINT_TYPE, STATUS
+  FROM USER_CONSTRAINTS
+ WHERE CONSTRAINT_NAME = 'UK_TRANSACIONES_LLAVE';
+
+--------------------------------------------------------
+--  Reversion
+--------------------------------------------------------
+-- DROP TABLE "RESERVA_IDEMPOTENCIA";
+-- ALTER TABLE "TRANSACIONES" DROP CONSTRAINT "UK_TRANSACIONES_LLAVE";
+-- ALTER TABLE "TRANSACIONES" DROP COLUMN "LLAVE_IDEMPOTENCIA";
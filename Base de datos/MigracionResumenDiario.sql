@@ -0,0 +1,79 @@
+--------------------------------------------------------
+--  Resumen diario de transacciones por tarjeta
+--------------------------------------------------------
+-- La aplicacion (LiquidacionDiaria) acumula en RESUMEN_DIARIO_TARJETA los
+-- montos y cantidades aprobados, rechazados y anulados de cada tarjeta por dia.
+-- Los reportes (/api/liquidacion) leen este resumen en lugar de agrupar toda
+-- TRANSACIONES.
+--
+-- LIQUIDACION_MARCA guarda el ultimo ID_TRANSACION ya acumulado. Cada
+-- ejecucion lee solo las filas con ID mayor (rango sobre la llave primaria) y
+-- mueve la marca en la misma transaccion que los totales. La marca se bloquea
+-- (SELECT ... FOR UPDATE) mientras tanto: varias instancias pueden liquidar sin
+-- sumar dos veces la misma fila.
+--
+-- La primera ejecucion parte de la marca en 0 y acumula toda la historia en
+-- lotes de liquidacion.lote filas.
+--
+-- Cada instancia reserva los ID de TRANSACIONES en bloques de 50 (ver
+-- MigracionSecuenciaTransacion.sql) y el diario de transacciones inserta
+-- despues del commit: una fila puede aparecer con un ID menor que la marca.
+-- Cada ID que la marca deja atras sin fila queda en LIQUIDACION_PENDIENTE y se
+-- vuelve a buscar en cada ejecucion hasta que aparece o pasan
+-- liquidacion.pendientes-horas. Si aun asi hay diferencias con TRANSACIONES, el
+-- resumen se reconstruye desde cero con los comandos de "Reconstruccion".
+
+CREATE TABLE "RESUMEN_DIARIO_TARJETA"
+   (	"ID_TARJETA" NUMBER NOT NULL,
+	"FECHA" DATE NOT NULL,
+	"ID_PRODUCTO" NUMBER,
+	"MONTO_APROBADO" NUMBER(15,2) DEFAULT 0,
+	"CANTIDAD_APROBADAS" NUMBER DEFAULT 0,
+	"MONTO_RECHAZADO" NUMBER(15,2) DEFAULT 0,
+	"CANTIDAD_RECHAZADAS" NUMBER DEFAULT 0,
+	"MONTO_ANULADO" NUMBER(15,2) DEFAULT 0,
+	"CANTIDAD_ANULADAS" NUMBER DEFAULT 0,
+	CONSTRAINT "PK_RESUMEN_DIARIO_TARJETA" PRIMARY KEY ("ID_TARJETA", "FECHA")
+   ) TABLESPACE "USERS" ;
+
+CREATE INDEX "IDX_RESUMEN_DIARIO_PRODUCTO" ON "RESUMEN_DIARIO_TARJETA" ("ID_PRODUCTO", "FECHA");
+
+CREATE TABLE "LIQUIDACION_MARCA"
+   (	"ID_PROCESO" VARCHAR2(50 BYTE) NOT NULL,
+	"ULTIMO_ID_TRANSACION" NUMBER DEFAULT 0,
+	"FECHA_EJECUCION" DATE,
+	CONSTRAINT "PK_LIQUIDACION_MARCA" PRIMARY KEY ("ID_PROCESO")
+   ) TABLESPACE "USERS" ;
+
+CREATE TABLE "LIQUIDACION_PENDIENTE"
+   (	"ID_TRANSACION" NUMBER NOT NULL,
+	"FECHA_DETECCION" DATE,
+	CONSTRAINT "PK_LIQUIDACION_PENDIENTE" PRIMARY KEY ("ID_TRANSACION")
+   ) TABLESPACE "USERS" ;
+
+Insert into LIQUIDACION_MARCA (ID_PROCESO,ULTIMO_ID_TRANSACION) values ('RESUMEN_DIARIO','0');
+COMMIT;
+
+-- Verificacion
+SELECT TABLE_NAME
+  FROM USER_TABLES
+ WHERE TABLE_NAME IN ('RESUMEN_DIARIO_TARJETA', 'LIQUIDACION_MARCA', 'LIQUIDACION_PENDIENTE');
+
+SELECT ID_PROCESO, ULTIMO_ID_TRANSACION, FECHA_EJECUCION
+  FROM LIQUIDACION_MARCA;
+
+--------------------------------------------------------
+--  Reconstruccion
+--------------------------------------------------------
+-- Con la aplicacion detenida (o liquidacion.habilitada=false):
+-- DELETE FROM "RESUMEN_DIARIO_TARJETA";
+-- DELETE FROM "LIQUIDACION_PENDIENTE";
+-- UPDATE "LIQUIDACION_MARCA" SET "ULTIMO_ID_TRANSACION" = 0 WHERE "ID_PROCESO" = 'RESUMEN_DIARIO';
+-- COMMIT;
+
+--------------------------------------------------------
+--  Reversion
+--------------------------------------------------------
+-- DROP TABLE "LIQUIDACION_PENDIENTE";
+-- DROP TABLE "LIQUIDACION_MARCA";
+-- DROP TABLE "RESUMEN_DIARIO_TARJETA";
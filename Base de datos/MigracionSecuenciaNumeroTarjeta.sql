@@ -0,0 +1,26 @@
+--------------------------------------------------------
+--  Secuencia para la generacion de numeros de tarjeta
+--------------------------------------------------------
+-- El numero de tarjeta es: 6 digitos del producto + 9 digitos de serie +
+-- 1 digito de control Luhn. La serie sale de esta secuencia y se permuta en la
+-- aplicacion, por lo que ya no se consulta TARJETA para evitar duplicados.
+--
+-- Cada NEXTVAL reserva un bloque de 1000 series; el incremento debe coincidir
+-- con GeneradorNumeroTarjeta.TAMANO_BLOQUE. MAXVALUE limita las series a 9
+-- digitos: al agotarse, la aplicacion rechaza la generacion.
+--
+-- Las tarjetas emitidas antes de esta migracion tienen 10 digitos aleatorios.
+-- Si un numero nuevo coincide con uno de ellos, el INSERT falla por la llave
+-- primaria (no se sobrescribe la tarjeta existente).
+
+CREATE SEQUENCE "SEQ_NUMERO_TARJETA" MINVALUE 0 MAXVALUE 999999999 INCREMENT BY 1000 START WITH 0 NOCACHE NOORDER NOCYCLE;
+
+-- Verificacion
+SELECT SEQUENCE_NAME, INCREMENT_BY, LAST_NUMBER
+  FROM USER_SEQUENCES
+ WHERE SEQUENCE_NAME = 'SEQ_NUMERO_TARJETA';
+
+--------------------------------------------------------
+--  Reversion
+--------------------------------------------------------
+-- DROP SEQUENCE "SEQ_NUMERO_TARJETA";
@@ -0,0 +1,30 @@
+--------------------------------------------------------
+--  Migracion de SEQ_TRANSACION a asignacion por bloques
+--------------------------------------------------------
+-- La aplicacion reserva los ID de TRANSACIONES de 50 en 50 (optimizador
+-- pooled-lo de Hibernate): cada NEXTVAL devuelve el inicio de un bloque y los
+-- siguientes 49 ID se asignan en memoria, sin volver a la base de datos.
+--
+-- Con pooled-lo el valor devuelto es el limite inferior del bloque, por lo que
+-- basta con cambiar el incremento: todos los ID ya emitidos quedan por debajo
+-- del siguiente NEXTVAL y no hay colisiones.
+--
+-- El incremento debe coincidir con el allocationSize de la entidad
+-- Transaccion. Si un ambiente no se migra, la aplicacion detecta la diferencia
+-- al iniciar y ajusta el tamano del bloque al incremento real de la secuencia
+-- (hibernate.id.sequence.increment_size_mismatch_strategy=fix).
+--
+-- El trigger TRG_TRANSACIONES_ID debe seguir deshabilitado: si se habilita,
+-- tomaria ID que pertenecen a bloques ya reservados por la aplicacion.
+
+ALTER SEQUENCE "SEQ_TRANSACION" INCREMENT BY 50;
+
+-- Verificacion
+SELECT SEQUENCE_NAME, INCREMENT_BY, LAST_NUMBER
+  FROM USER_SEQUENCES
+ WHERE SEQUENCE_NAME = 'SEQ_TRANSACION';
+
+--------------------------------------------------------
+--  Reversion
+--------------------------------------------------------
+-- ALTER SEQUENCE "SEQ_TRANSACION" INCREMENT BY 1;
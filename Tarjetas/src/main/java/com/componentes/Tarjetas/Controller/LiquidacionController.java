@@ -0,0 +1,61 @@
+package com.componentes.Tarjetas.Controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.componentes.Tarjetas.Service.LiquidacionDiaria;
+import com.componentes.Tarjetas.dtos.ResumenDiarioDTO;
+
+// Reportes de la liquidación diaria (fechas en formato yyyy-MM-dd). Se leen del
+// resumen: las transacciones de los últimos minutos aparecen en la siguiente
+// ejecución de la liquidación.
+@RestController
+@RequestMapping("/api/liquidacion")
+public class LiquidacionController {
+
+    @Autowired
+    private LiquidacionDiaria liquidacionDiaria;
+
+    @GetMapping("/card/{cardId}")
+    public ResponseEntity<?> resumenTarjeta(
+            @PathVariable Long cardId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            List<ResumenDiarioDTO> resumen = liquidacionDiaria.resumenTarjeta(cardId, desde, hasta);
+            return ResponseEntity.ok(resumen);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/producto/{idProducto}")
+    public ResponseEntity<?> resumenProducto(
+            @PathVariable Long idProducto,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            List<ResumenDiarioDTO> resumen = liquidacionDiaria.resumenProducto(idProducto, desde, hasta);
+            return ResponseEntity.ok(resumen);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Ejecuta la liquidación sin esperar al intervalo programado
+    @PostMapping("/ejecutar")
+    public ResponseEntity<?> ejecutar() {
+        return ResponseEntity.ok(Map.of("acumuladas", liquidacionDiaria.liquidar()));
+    }
+}
@@ -1,25 +1,50 @@
 package com.componentes.Tarjetas.Controller;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.componentes.Tarjetas.Entity.Tarjeta;
 import com.componentes.Tarjetas.Service.TarjetaService;
+import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.PaginaDTO;
+import com.componentes.Tarjetas.dtos.ProgresoAprovisionamientoDTO;
 import com.componentes.Tarjetas.dtos.SaldoTarjDTO;
 import com.componentes.Tarjetas.dtos.TarjetaDTO;
+import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
+
 @RestController
 @RequestMapping("/api/tarjetas")
 public class TarjetaController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType TEXTO_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final ObjectMapper JSON = new ObjectMapper();
     @Autowired
     private TarjetaService tarjetaService;
-//huscar todas las tarjetas
+    @Autowired
+    private TransaccionService transaccionService;
+//huscar todas las tarjetas, paginadas por cursor
     @GetMapping
-    public List<TarjetaDTO> getAllTarjetas() {
-        return tarjetaService.getAllTarjetas();
+    public ResponseEntity<?> getAllTarjetas(@RequestParam(required = false) Long cursor,
+                                            @RequestParam(required = false) Integer tamano) {
+        try {
+            PaginaDTO<TarjetaDTO> pagina = tarjetaService.getTarjetas(cursor, tamano);
+            return ResponseEntity.ok(pagina);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 // buscar tarjeta por id
     @GetMapping("/{id}")
@@ -49,6 +74,50 @@ public class TarjetaController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+    
+    //aprovisionar tarjetas sin cliente en lote; el avance se envía como NDJSON
+    //(una línea JSON por cada bloque insertado, la última con terminado=true)
+    @PostMapping("/card/{idProducto}/number/batch")
+    public ResponseEntity<StreamingResponseBody> aprovisionarTarjetas(@PathVariable Long idProducto,
+                                                                      @RequestParam Integer cantidad) {
+        try {
+            tarjetaService.validarAprovisionamiento(idProducto, cantidad);
+        } catch (RuntimeException e) {
+            // Spring solo escribe de forma asíncrona si el tipo declarado es StreamingResponseBody
+            byte[] mensaje = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(TEXTO_UTF8).body(salida -> salida.write(mensaje));
+        }
+        
+        StreamingResponseBody cuerpo = salida -> {
+            ProgresoAprovisionamientoDTO[] ultimo = { new ProgresoAprovisionamientoDTO(idProducto, 0, cantidad, false) };
+            try {
+                tarjetaService.aprovisionarTarjetas(idProducto, cantidad, progreso -> {
+                    ultimo[0] = progreso;
+                    escribirLinea(salida, progreso);
+                });
+            } catch (UncheckedIOException e) {
+                // El cliente cerró la conexión: se detiene sin crear más bloques
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // La respuesta ya empezó: el error va como última línea con lo que sí se creó
+                ProgresoAprovisionamientoDTO fallo = new ProgresoAprovisionamientoDTO(
+                        idProducto, ultimo[0].getCreadas(), cantidad, false);
+                fallo.setMensaje(e.getMessage());
+                escribirLinea(salida, fallo);
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(cuerpo);
+    }
+    
+    private static void escribirLinea(OutputStream salida, ProgresoAprovisionamientoDTO progreso) {
+        try {
+            salida.write(JSON.writeValueAsBytes(progreso));
+            salida.write('\n');
+            salida.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
     
  // activar la tarjeta con saldo
@@ -129,6 +198,22 @@ public class TarjetaController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+    //historial de transacciones de la tarjeta (fechas en formato yyyy-MM-dd)
+    @GetMapping("/card/{cardId}/transactions")
+    public ResponseEntity<?> consultarTransacciones(
+            @PathVariable Long cardId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long estado,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            List<TransaccionDTO> transacciones =
+                    transaccionService.getTransaccionesPorTarjeta(cardId, desde, hasta, estado, tamano);
+            return ResponseEntity.ok(transacciones);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
     //asignarle un titular a la tarjeta
     @PutMapping("/card/titular")
     public ResponseEntity<?> asignarTitular(@RequestBody TarjetaDTO tarjetaDTO) {
@@ -3,8 +3,12 @@ package com.componentes.Tarjetas.Controller;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,14 +17,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.componentes.Tarjetas.Service.EjecutorTransacciones;
+import com.componentes.Tarjetas.Service.EscritorAgrupado;
+import com.componentes.Tarjetas.Service.IndiceIdempotencia;
+import com.componentes.Tarjetas.Service.LibroSaldos;
 import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.PaginaDTO;
 import com.componentes.Tarjetas.dtos.RespAnuTransDTO;
+import com.componentes.Tarjetas.dtos.ResultadoCompraDTO;
 import com.componentes.Tarjetas.dtos.TransAnulacionDTO;
 import com.componentes.Tarjetas.dtos.TransCompraDTO;
 import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.componentes.Tarjetas.exceptions.LlaveIdempotenciaReutilizadaException;
 
 @RestController
 @RequestMapping("/api/transaction")
@@ -29,10 +42,31 @@ public class TransaccionController {
     @Autowired
     private TransaccionService transaccionService;
     
+    @Autowired
+    private LibroSaldos libroSaldos;
+    
+    @Autowired
+    private EscritorAgrupado escritorAgrupado;
+    
+    @Autowired
+    private IndiceIdempotencia indiceIdempotencia;
+    
+    @Autowired
+    private EjecutorTransacciones ejecutorTransacciones;
+    
+    // Listado paginado: el siguienteCursor de la respuesta se envía como cursor
     @GetMapping
-    public ResponseEntity<List<TransaccionDTO>> getAllTransacciones() {
-        List<TransaccionDTO> transacciones = transaccionService.getAllTransacciones();
-        return ResponseEntity.ok(transacciones);
+    public ResponseEntity<?> getAllTransacciones(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            PaginaDTO<TransaccionDTO> pagina = transaccionService.getTransacciones(cursor, tamano);
+            return ResponseEntity.ok(pagina);
+        } catch (RuntimeException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
     }
     
     @GetMapping("/{id}")
@@ -65,11 +99,36 @@ public class TransaccionController {
     
     //Generar compra
     
+    // La llave de idempotencia puede llegar en el encabezado Idempotency-Key o en
+    // el cuerpo (idempotencyKey); el encabezado tiene prioridad
     @PostMapping("/purchase")
-    public ResponseEntity<?> realizarCompra(@RequestBody TransCompraDTO compraDTO) {
+    public ResponseEntity<?> realizarCompra(@RequestBody TransCompraDTO compraDTO,
+            @RequestHeader(value = "Idempotency-Key", required = false) String llaveIdempotencia) {
+        return responderCompra(compraDTO, llaveIdempotencia);
+    }
+    
+    // Igual que /purchase, pero el hilo de la petición no espera a la base de
+    // datos: la compra corre en el ejecutor acotado y, si está saturado, se
+    // responde 429 de inmediato
+    @PostMapping("/purchase/async")
+    public CompletableFuture<ResponseEntity<?>> realizarCompraAsync(@RequestBody TransCompraDTO compraDTO,
+            @RequestHeader(value = "Idempotency-Key", required = false) String llaveIdempotencia) {
+        return enviar(() -> responderCompra(compraDTO, llaveIdempotencia));
+    }
+    
+    private ResponseEntity<?> responderCompra(TransCompraDTO compraDTO, String llaveIdempotencia) {
         try {
-            TransaccionDTO transaccion = transaccionService.procesarCompra(compraDTO);
+            if (llaveIdempotencia != null) {
+                compraDTO.setIdempotencyKey(llaveIdempotencia);
+            }
+            TransaccionDTO transaccion = compraDTO.getIdempotencyKey() != null
+                    ? indiceIdempotencia.ejecutar(compraDTO, () -> comprar(compraDTO))
+                    : comprar(compraDTO);
             return ResponseEntity.ok(transaccion);
+        } catch (LlaveIdempotenciaReutilizadaException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(errorResponse);
         } catch (RuntimeException e) {
             // Crear un objeto de respuesta de error
             Map<String, Object> errorResponse = new HashMap<>();
@@ -77,11 +136,45 @@ public class TransaccionController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
+    
+    private TransaccionDTO comprar(TransCompraDTO compraDTO) {
+        // Las tarjetas del libro de saldos no abren transacción en la base de datos
+        if (libroSaldos.administra(compraDTO.getCardId())) {
+            return libroSaldos.procesarCompra(compraDTO);
+        }
+        if (escritorAgrupado.habilitada()) {
+            return escritorAgrupado.ejecutar(() -> transaccionService.procesarCompra(compraDTO));
+        }
+        return transaccionService.procesarCompra(compraDTO);
+    }
+    //Compras en lote: responde el resultado de cada compra en el orden recibido
+    @PostMapping("/purchase/batch")
+    public ResponseEntity<?> realizarComprasLote(@RequestBody List<TransCompraDTO> compras) {
+        try {
+            List<ResultadoCompraDTO> resultados = transaccionService.procesarComprasLote(compras);
+            return ResponseEntity.ok(resultados);
+        } catch (RuntimeException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
     //anular la transacion 
     @PostMapping("/anulation")
     public ResponseEntity<?> anularTransaccion(@RequestBody TransAnulacionDTO anulacionDTO) {
+        return responderAnulacion(anulacionDTO);
+    }
+    
+    @PostMapping("/anulation/async")
+    public CompletableFuture<ResponseEntity<?>> anularTransaccionAsync(@RequestBody TransAnulacionDTO anulacionDTO) {
+        return enviar(() -> responderAnulacion(anulacionDTO));
+    }
+    
+    private ResponseEntity<?> responderAnulacion(TransAnulacionDTO anulacionDTO) {
         try {
-        	RespAnuTransDTO transaccion = transaccionService.anularTransaccion(anulacionDTO);
+        	RespAnuTransDTO transaccion = escritorAgrupado.habilitada()
+        	        ? escritorAgrupado.ejecutar(() -> transaccionService.anularTransaccion(anulacionDTO))
+        	        : transaccionService.anularTransaccion(anulacionDTO);
             return ResponseEntity.ok(transaccion);
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -89,4 +182,16 @@ public class TransaccionController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
+    
+    private CompletableFuture<ResponseEntity<?>> enviar(Supplier<ResponseEntity<?>> respuesta) {
+        try {
+            return ejecutorTransacciones.enviar(respuesta);
+        } catch (RejectedExecutionException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Hay demasiadas transacciones en proceso, intente de nuevo");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(errorResponse));
+        }
+    }
 }
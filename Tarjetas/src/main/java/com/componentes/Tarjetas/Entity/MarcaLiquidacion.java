@@ -0,0 +1,57 @@
+package com.componentes.Tarjetas.Entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Marca de avance de un proceso de liquidación: el último ID_TRANSACION ya
+// acumulado. Se actualiza en la misma transacción que los totales.
+@Entity
+@Table(name = "LIQUIDACION_MARCA")
+public class MarcaLiquidacion {
+
+    @Id
+    @Column(name = "ID_PROCESO", length = 50)
+    private String idProceso;
+
+    @Column(name = "ULTIMO_ID_TRANSACION")
+    private Long ultimoIdTransaccion;
+
+    @Column(name = "FECHA_EJECUCION")
+    private Date fechaEjecucion;
+
+    // Constructor vacío
+    public MarcaLiquidacion() {}
+
+    public MarcaLiquidacion(String idProceso, Long ultimoIdTransaccion) {
+        this.idProceso = idProceso;
+        this.ultimoIdTransaccion = ultimoIdTransaccion;
+    }
+
+	public String getIdProceso() {
+		return idProceso;
+	}
+
+	public void setIdProceso(String idProceso) {
+		this.idProceso = idProceso;
+	}
+
+	public Long getUltimoIdTransaccion() {
+		return ultimoIdTransaccion;
+	}
+
+	public void setUltimoIdTransaccion(Long ultimoIdTransaccion) {
+		this.ultimoIdTransaccion = ultimoIdTransaccion;
+	}
+
+	public Date getFechaEjecucion() {
+		return fechaEjecucion;
+	}
+
+	public void setFechaEjecucion(Date fechaEjecucion) {
+		this.fechaEjecucion = fechaEjecucion;
+	}
+}
@@ -0,0 +1,74 @@
+package com.componentes.Tarjetas.Entity;
+
+import java.util.Date;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+// ID_TRANSACION que la liquidación dejó atrás sin encontrar la fila (un hueco
+// debajo de la marca): puede ser un ID de un bloque reservado por otra instancia
+// que todavía no se usa, o de una compra que aún no confirma. Cada ejecución lo
+// vuelve a buscar hasta encontrarlo o hasta que vence (ver
+// Base de datos/MigracionResumenDiario.sql).
+@Entity
+@Table(name = "LIQUIDACION_PENDIENTE")
+public class PendienteLiquidacion implements Persistable<Long> {
+
+    @Id
+    @Column(name = "ID_TRANSACION")
+    private Long idTransaccion;
+
+    @Column(name = "FECHA_DETECCION")
+    private Date fechaDeteccion;
+
+    // La llave es asignada: sin esto saveAll() hace un SELECT (merge) por cada ID
+    @Transient
+    private boolean nuevo = true;
+
+    // Constructor vacío
+    public PendienteLiquidacion() {}
+
+    public PendienteLiquidacion(Long idTransaccion, Date fechaDeteccion) {
+        this.idTransaccion = idTransaccion;
+        this.fechaDeteccion = fechaDeteccion;
+    }
+
+    @Override
+    public Long getId() {
+        return idTransaccion;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        nuevo = false;
+    }
+
+	public Long getIdTransaccion() {
+		return idTransaccion;
+	}
+
+	public void setIdTransaccion(Long idTransaccion) {
+		this.idTransaccion = idTransaccion;
+	}
+
+	public Date getFechaDeteccion() {
+		return fechaDeteccion;
+	}
+
+	public void setFechaDeteccion(Date fechaDeteccion) {
+		this.fechaDeteccion = fechaDeteccion;
+	}
+}
@@ -0,0 +1,54 @@
+package com.componentes.Tarjetas.Entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Llave de idempotencia reservada por una compra que se responde antes de
+// existir en TRANSACIONES (diarios de saldos y de transacciones). La llave
+// primaria evita que dos instancias debiten la misma compra mientras la fila
+// original sigue en el diario (ver Base de datos/MigracionLlaveIdempotencia.sql).
+@Entity
+@Table(name = "RESERVA_IDEMPOTENCIA")
+public class ReservaIdempotencia {
+
+    @Id
+    @Column(name = "LLAVE_IDEMPOTENCIA", length = 64)
+    private String llave;
+
+    @Column(name = "ID_TRANSACION")
+    private Long idTransaccion;
+
+    @Column(name = "FECHA_RESERVA")
+    private Date fechaReserva;
+
+    // Constructor vacío
+    public ReservaIdempotencia() {}
+
+	public String getLlave() {
+		return llave;
+	}
+
+	public void setLlave(String llave) {
+		this.llave = llave;
+	}
+
+	public Long getIdTransaccion() {
+		return idTransaccion;
+	}
+
+	public void setIdTransaccion(Long idTransaccion) {
+		this.idTransaccion = idTransaccion;
+	}
+
+	public Date getFechaReserva() {
+		return fechaReserva;
+	}
+
+	public void setFechaReserva(Date fechaReserva) {
+		this.fechaReserva = fechaReserva;
+	}
+}
@@ -0,0 +1,206 @@
+package com.componentes.Tarjetas.Entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+// Totales de un día de una tarjeta, acumulados por LiquidacionDiaria a partir de
+// TRANSACIONES (ver Base de datos/MigracionResumenDiario.sql). Los montos son
+// brutos: una compra anulada suma en aprobado el día de la compra y en anulado
+// el día de la anulación.
+@Entity
+@Table(name = "RESUMEN_DIARIO_TARJETA", indexes = {
+    @Index(name = "IDX_RESUMEN_DIARIO_PRODUCTO", columnList = "ID_PRODUCTO, FECHA")
+})
+@IdClass(ResumenDiarioTarjeta.Llave.class)
+public class ResumenDiarioTarjeta implements Persistable<ResumenDiarioTarjeta.Llave> {
+
+    @Id
+    @Column(name = "ID_TARJETA")
+    private Long idTarjeta;
+
+    @Id
+    @Column(name = "FECHA")
+    private LocalDate fecha;
+
+    @Column(name = "ID_PRODUCTO")
+    private Long idProducto;
+
+    @Column(name = "MONTO_APROBADO", precision = 15, scale = 2)
+    private BigDecimal montoAprobado = BigDecimal.ZERO;
+
+    @Column(name = "CANTIDAD_APROBADAS")
+    private Long cantidadAprobadas = 0L;
+
+    @Column(name = "MONTO_RECHAZADO", precision = 15, scale = 2)
+    private BigDecimal montoRechazado = BigDecimal.ZERO;
+
+    @Column(name = "CANTIDAD_RECHAZADAS")
+    private Long cantidadRechazadas = 0L;
+
+    @Column(name = "MONTO_ANULADO", precision = 15, scale = 2)
+    private BigDecimal montoAnulado = BigDecimal.ZERO;
+
+    @Column(name = "CANTIDAD_ANULADAS")
+    private Long cantidadAnuladas = 0L;
+
+    // La llave es asignada: sin esto saveAll() hace un SELECT (merge) por cada
+    // día nuevo. Los resúmenes leídos o ya guardados dejan de ser nuevos.
+    @Transient
+    private boolean nuevo = true;
+
+    // Constructor vacío
+    public ResumenDiarioTarjeta() {}
+
+    public ResumenDiarioTarjeta(Long idTarjeta, LocalDate fecha, Long idProducto) {
+        this.idTarjeta = idTarjeta;
+        this.fecha = fecha;
+        this.idProducto = idProducto;
+    }
+
+    @Override
+    public Llave getId() {
+        return new Llave(idTarjeta, fecha);
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        nuevo = false;
+    }
+
+    public void sumarAprobada(BigDecimal monto) {
+        montoAprobado = montoAprobado.add(monto);
+        cantidadAprobadas++;
+    }
+
+    public void sumarRechazada(BigDecimal monto) {
+        montoRechazado = montoRechazado.add(monto);
+        cantidadRechazadas++;
+    }
+
+    public void sumarAnulada(BigDecimal monto) {
+        montoAnulado = montoAnulado.add(monto);
+        cantidadAnuladas++;
+    }
+
+	public Long getIdTarjeta() {
+		return idTarjeta;
+	}
+
+	public void setIdTarjeta(Long idTarjeta) {
+		this.idTarjeta = idTarjeta;
+	}
+
+	public LocalDate getFecha() {
+		return fecha;
+	}
+
+	public void setFecha(LocalDate fecha) {
+		this.fecha = fecha;
+	}
+
+	public Long getIdProducto() {
+		return idProducto;
+	}
+
+	public void setIdProducto(Long idProducto) {
+		this.idProducto = idProducto;
+	}
+
+	public BigDecimal getMontoAprobado() {
+		return montoAprobado;
+	}
+
+	public void setMontoAprobado(BigDecimal montoAprobado) {
+		this.montoAprobado = montoAprobado;
+	}
+
+	public Long getCantidadAprobadas() {
+		return cantidadAprobadas;
+	}
+
+	public void setCantidadAprobadas(Long cantidadAprobadas) {
+		this.cantidadAprobadas = cantidadAprobadas;
+	}
+
+	public BigDecimal getMontoRechazado() {
+		return montoRechazado;
+	}
+
+	public void setMontoRechazado(BigDecimal montoRechazado) {
+		this.montoRechazado = montoRechazado;
+	}
+
+	public Long getCantidadRechazadas() {
+		return cantidadRechazadas;
+	}
+
+	public void setCantidadRechazadas(Long cantidadRechazadas) {
+		this.cantidadRechazadas = cantidadRechazadas;
+	}
+
+	public BigDecimal getMontoAnulado() {
+		return montoAnulado;
+	}
+
+	public void setMontoAnulado(BigDecimal montoAnulado) {
+		this.montoAnulado = montoAnulado;
+	}
+
+	public Long getCantidadAnuladas() {
+		return cantidadAnuladas;
+	}
+
+	public void setCantidadAnuladas(Long cantidadAnuladas) {
+		this.cantidadAnuladas = cantidadAnuladas;
+	}
+
+    // Llave primaria compuesta (ID_TARJETA, FECHA)
+    public static class Llave implements Serializable {
+
+        private Long idTarjeta;
+        private LocalDate fecha;
+
+        public Llave() {}
+
+        public Llave(Long idTarjeta, LocalDate fecha) {
+            this.idTarjeta = idTarjeta;
+            this.fecha = fecha;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Llave otra)) {
+                return false;
+            }
+            return Objects.equals(idTarjeta, otra.idTarjeta) && Objects.equals(fecha, otra.fecha);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idTarjeta, fecha);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.componentes.Tarjetas.Entity;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.util.Date;
 
+import org.springframework.data.domain.Persistable;
+
 @Entity
 @Table(name = "TARJETA")
-public class Tarjeta {
+public class Tarjeta implements Persistable<Long> {
     
     @Id
     @Column(name = "ID_TARJETA")
@@ -28,12 +31,33 @@ public class Tarjeta {
     @Temporal(TemporalType.DATE)
     private Date fechaVencimiento;
     
-    @Column(name = "SALDO")
-    private Double saldo;
+    @Column(name = "SALDO", precision = 15, scale = 2)
+    private BigDecimal saldo;
     
     @Column(name = "MONEDA")
     private String MONEDA;
 
+    // El número de tarjeta es asignado: sin esto save() hace un SELECT (merge)
+    // antes de cada INSERT. Las tarjetas leídas o ya guardadas dejan de ser nuevas.
+    @Transient
+    private boolean nueva = true;
+
+    @Override
+    public Long getId() {
+        return idTarjeta;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        nueva = false;
+    }
+
 	public String getMONEDA() {
 		return MONEDA;
 	}
@@ -90,11 +114,11 @@ public class Tarjeta {
 		this.fechaVencimiento = fechaVencimiento;
 	}
 
-	public Double getSaldo() {
+	public BigDecimal getSaldo() {
 		return saldo;
 	}
 
-	public void setSaldo(Double saldo) {
+	public void setSaldo(BigDecimal saldo) {
 		this.saldo = saldo;
 	}
     
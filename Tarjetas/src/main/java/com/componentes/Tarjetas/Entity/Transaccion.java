@@ -1,5 +1,6 @@
 package com.componentes.Tarjetas.Entity;
 
+import java.math.BigDecimal;
 import java.util.Date;
 
 import jakarta.persistence.Column;
@@ -7,14 +8,25 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "TRANSACIONES")
-@SequenceGenerator(name = "seq_transacion", sequenceName = "seq_transacion", allocationSize = 1)
+@Table(name = "TRANSACIONES", indexes = {
+    @Index(name = "IDX_TRANSACIONES_TARJETA_FECHA", columnList = "ID_TARJETA, FECHA_TRANS DESC"),
+    // Transacciones anuladas (ver Base de datos/MigracionIndiceAnulacion.sql)
+    @Index(name = "IDX_TRANSACIONES_ANULA", columnList = "ID_ANULA")
+}, uniqueConstraints = {
+    // Ver Base de datos/MigracionLlaveIdempotencia.sql
+    @UniqueConstraint(name = "UK_TRANSACIONES_LLAVE", columnNames = "LLAVE_IDEMPOTENCIA")
+})
+// Los ID se reservan en bloques de 50 por cada NEXTVAL; debe coincidir con el
+// INCREMENT BY de SEQ_TRANSACION (ver Base de datos/MigracionSecuenciaTransacion.sql)
+@SequenceGenerator(name = "seq_transacion", sequenceName = "seq_transacion", allocationSize = 50)
 public class Transaccion {
     
     @Id
@@ -35,8 +47,8 @@ public class Transaccion {
     @Column(name = "FECHA_TRANS")
     private Date fechaTrans;
     
-    @Column(name = "VALOR_TRANS")
-    private Double valorTrans;
+    @Column(name = "VALOR_TRANS", precision = 15, scale = 2)
+    private BigDecimal valorTrans;
     
     @Column(name = "MONEDA")
     private String MONEDA;
@@ -44,12 +56,16 @@ public class Transaccion {
     @Column(name = "DESCRIPCION")
     private String DESCRIPCION;
     
+    // Llave de idempotencia enviada por el cliente en la compra (opcional)
+    @Column(name = "LLAVE_IDEMPOTENCIA", length = 64)
+    private String llaveIdempotencia;
+    
     // Constructor vacío
     public Transaccion() {}
     
     // Constructor con parámetros
     public Transaccion(Long idTrans, Long idTarjeta, EstadoTrans estadoTrans, 
-                      Date fechaTrans, Double valorTrans) {
+                      Date fechaTrans, BigDecimal valorTrans) {
         this.idTrans = idTrans;
         this.idTarjeta = idTarjeta;
         this.estadoTrans = estadoTrans;
@@ -89,11 +105,11 @@ public class Transaccion {
 		this.fechaTrans = fechaTrans;
 	}
 
-	public Double getValorTrans() {
+	public BigDecimal getValorTrans() {
 		return valorTrans;
 	}
 
-	public void setValorTrans(Double valorTrans) {
+	public void setValorTrans(BigDecimal valorTrans) {
 		this.valorTrans = valorTrans;
 	}
 
@@ -120,5 +136,13 @@ public class Transaccion {
 	public void setIdanula(Long idanula) {
 		this.idanula = idanula;
 	}
+
+	public String getLlaveIdempotencia() {
+		return llaveIdempotencia;
+	}
+
+	public void setLlaveIdempotencia(String llaveIdempotencia) {
+		this.llaveIdempotencia = llaveIdempotencia;
+	}
     
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.componentes.Tarjetas.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.componentes.Tarjetas.Entity.EstadoTarjeta;
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Producto;
+import com.github.benmanes.caffeine.cache.Cache;
+
+// Caches de las tablas de referencia (productos, estadosTarjeta, estadosTrans).
+// Las entidades que devuelve el repositorio pueden estar administradas por la
+// sesión que las leyó: la cache guarda una copia desprendida y entrega otra copia
+// en cada lectura, así un llamador que modifique el objeto no cambia lo que ven
+// los demás ni lo que Hibernate guarda al confirmar.
+//
+// Reemplaza el CacheManager que crea Spring Boot con spring.cache.type=caffeine;
+// las caches siguen siendo CaffeineCache y publican las métricas cache.gets.
+@Configuration
+public class CacheCatalogos {
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${spring.cache.cache-names:productos,estadosTarjeta,estadosTrans}") List<String> nombres,
+            @Value("${spring.cache.caffeine.spec:maximumSize=1000,expireAfterWrite=30m,recordStats}") String especificacion) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String nombre, Cache<Object, Object> cache) {
+                return new CacheDeCopias(nombre, cache, isAllowNullValues());
+            }
+        };
+        cacheManager.setCacheSpecification(especificacion);
+        cacheManager.setCacheNames(nombres);
+        return cacheManager;
+    }
+
+    // Todas las lecturas y escrituras de CaffeineCache pasan por toStoreValue y fromStoreValue
+    static class CacheDeCopias extends CaffeineCache {
+
+        CacheDeCopias(String nombre, Cache<Object, Object> cache, boolean permitirNulos) {
+            super(nombre, cache, permitirNulos);
+        }
+
+        @Override
+        protected Object toStoreValue(Object valor) {
+            return super.toStoreValue(copiar(valor));
+        }
+
+        @Override
+        protected Object fromStoreValue(Object valor) {
+            return copiar(super.fromStoreValue(valor));
+        }
+    }
+
+    // Los Optional de findById llegan ya desenvueltos; existsById es un Boolean
+    static Object copiar(Object valor) {
+        return switch (valor) {
+            case Producto producto -> new Producto(producto.getIdProducto(), producto.getDescripcion());
+            case EstadoTarjeta estado -> new EstadoTarjeta(estado.getIdEstado(), estado.getDescripcion());
+            case EstadoTrans estado -> new EstadoTrans(estado.getIdEstadoTrans(), estado.getDescripcion());
+            case List<?> lista -> {
+                List<Object> copia = new ArrayList<>(lista.size());
+                for (Object elemento : lista) {
+                    copia.add(copiar(elemento));
+                }
+                yield copia;
+            }
+            case null, default -> valor;
+        };
+    }
+}
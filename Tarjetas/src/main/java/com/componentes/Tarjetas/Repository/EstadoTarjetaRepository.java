@@ -1,10 +1,82 @@
 package com.componentes.Tarjetas.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import com.componentes.Tarjetas.Entity.EstadoTarjeta;
 
+// Se consulta en cada mapeo de TarjetaDTO; las lecturas salen de la cache
+// "estadosTarjeta" (copias, ver CacheCatalogos) y las escrituras la invalidan.
 @Repository
 public interface EstadoTarjetaRepository extends JpaRepository<EstadoTarjeta, Long> {
+
+    @Override
+    @Cacheable(cacheNames = "estadosTarjeta", key = "'id:' + #p0")
+    Optional<EstadoTarjeta> findById(Long id);
+
+    @Override
+    @Cacheable(cacheNames = "estadosTarjeta", key = "'existe:' + #p0")
+    boolean existsById(Long id);
+
+    @Override
+    @Cacheable(cacheNames = "estadosTarjeta", key = "'ids:' + #p0")
+    List<EstadoTarjeta> findAllById(Iterable<Long> ids);
+
+    @Override
+    @Cacheable(cacheNames = "estadosTarjeta", key = "'todos'")
+    List<EstadoTarjeta> findAll();
+
+    // Cualquier escritura invalida la cache completa
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    <S extends EstadoTarjeta> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    <S extends EstadoTarjeta> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    <S extends EstadoTarjeta> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    <S extends EstadoTarjeta> List<S> saveAllAndFlush(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    void delete(EstadoTarjeta entity);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    void deleteAll(Iterable<? extends EstadoTarjeta> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    void deleteAllInBatch(Iterable<EstadoTarjeta> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTarjeta", allEntries = true)
+    void deleteAllInBatch();
 }
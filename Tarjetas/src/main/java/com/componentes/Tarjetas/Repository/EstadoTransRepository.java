@@ -1,10 +1,83 @@
 package com.componentes.Tarjetas.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import com.componentes.Tarjetas.Entity.EstadoTrans;
 
+// Compras y anulaciones leen el estado (1 y 3) en cada operación, por eso se
+// sirve desde la cache "estadosTrans" (copias, ver CacheCatalogos). Guardar o
+// eliminar la invalida.
 @Repository
 public interface EstadoTransRepository extends JpaRepository<EstadoTrans, Long> {
-}
\ No newline at end of file
+
+    @Override
+    @Cacheable(cacheNames = "estadosTrans", key = "'id:' + #p0")
+    Optional<EstadoTrans> findById(Long id);
+
+    @Override
+    @Cacheable(cacheNames = "estadosTrans", key = "'existe:' + #p0")
+    boolean existsById(Long id);
+
+    @Override
+    @Cacheable(cacheNames = "estadosTrans", key = "'ids:' + #p0")
+    List<EstadoTrans> findAllById(Iterable<Long> ids);
+
+    @Override
+    @Cacheable(cacheNames = "estadosTrans", key = "'todos'")
+    List<EstadoTrans> findAll();
+
+    // Cualquier escritura invalida la cache completa
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    <S extends EstadoTrans> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    <S extends EstadoTrans> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    <S extends EstadoTrans> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    <S extends EstadoTrans> List<S> saveAllAndFlush(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    void delete(EstadoTrans entity);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    void deleteAll(Iterable<? extends EstadoTrans> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    void deleteAllInBatch(Iterable<EstadoTrans> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = "estadosTrans", allEntries = true)
+    void deleteAllInBatch();
+}
@@ -0,0 +1,23 @@
+package com.componentes.Tarjetas.Repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.componentes.Tarjetas.Entity.MarcaLiquidacion;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface MarcaLiquidacionRepository extends JpaRepository<MarcaLiquidacion, String> {
+
+    // Carga y bloquea (SELECT ... FOR UPDATE) la marca: si varias instancias
+    // liquidan a la vez, una espera a la otra y lee la marca ya avanzada
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MarcaLiquidacion m WHERE m.idProceso = :idProceso")
+    Optional<MarcaLiquidacion> bloquear(@Param("idProceso") String idProceso);
+}
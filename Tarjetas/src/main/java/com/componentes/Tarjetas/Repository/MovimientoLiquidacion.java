@@ -0,0 +1,21 @@
+package com.componentes.Tarjetas.Repository;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+// Columnas de TRANSACIONES que necesita la liquidación (sin cargar la entidad).
+// anulaciones > 0 indica que la fila es la reversa de otra transacción.
+public interface MovimientoLiquidacion {
+
+    Long getIdTrans();
+
+    Long getIdTarjeta();
+
+    Date getFechaTrans();
+
+    BigDecimal getValorTrans();
+
+    Long getIdEstadoTrans();
+
+    Long getAnulaciones();
+}
@@ -0,0 +1,30 @@
+package com.componentes.Tarjetas.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.componentes.Tarjetas.Entity.PendienteLiquidacion;
+
+@Repository
+public interface PendienteLiquidacionRepository extends JpaRepository<PendienteLiquidacion, Long> {
+
+    // IDs pendientes en orden, por lotes a partir del último revisado
+    @Query("SELECT p.idTransaccion FROM PendienteLiquidacion p WHERE p.idTransaccion > :desde ORDER BY p.idTransaccion")
+    List<Long> buscarIds(@Param("desde") Long desde, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM PendienteLiquidacion p WHERE p.idTransaccion IN :ids")
+    int quitar(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM PendienteLiquidacion p WHERE p.fechaDeteccion < :limite")
+    int quitarVencidos(@Param("limite") Date limite);
+}
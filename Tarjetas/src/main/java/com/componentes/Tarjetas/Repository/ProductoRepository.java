@@ -1,10 +1,83 @@
 package com.componentes.Tarjetas.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import com.componentes.Tarjetas.Entity.Producto;
 
+// PRODUCTO es una tabla de referencia con pocas filas: las lecturas se sirven
+// desde la cache "productos" (copias, ver CacheCatalogos) y cualquier escritura
+// la invalida completa.
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
+
+    @Override
+    @Cacheable(cacheNames = "productos", key = "'id:' + #p0")
+    Optional<Producto> findById(Long id);
+
+    @Override
+    @Cacheable(cacheNames = "productos", key = "'existe:' + #p0")
+    boolean existsById(Long id);
+
+    @Override
+    @Cacheable(cacheNames = "productos", key = "'ids:' + #p0")
+    List<Producto> findAllById(Iterable<Long> ids);
+
+    @Override
+    @Cacheable(cacheNames = "productos", key = "'todos'")
+    List<Producto> findAll();
+
+    // Cualquier escritura invalida la cache completa
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    <S extends Producto> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    <S extends Producto> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    <S extends Producto> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    <S extends Producto> List<S> saveAllAndFlush(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    void delete(Producto entity);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    void deleteAll(Iterable<? extends Producto> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    void deleteAllInBatch(Iterable<Producto> entities);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = "productos", allEntries = true)
+    void deleteAllInBatch();
 }
@@ -0,0 +1,10 @@
+package com.componentes.Tarjetas.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.componentes.Tarjetas.Entity.ReservaIdempotencia;
+
+@Repository
+public interface ReservaIdempotenciaRepository extends JpaRepository<ReservaIdempotencia, String> {
+}
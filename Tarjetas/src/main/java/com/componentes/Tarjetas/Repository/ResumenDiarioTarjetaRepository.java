@@ -0,0 +1,40 @@
+package com.componentes.Tarjetas.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.componentes.Tarjetas.Entity.ResumenDiarioTarjeta;
+import com.componentes.Tarjetas.dtos.ResumenDiarioDTO;
+
+@Repository
+public interface ResumenDiarioTarjetaRepository
+        extends JpaRepository<ResumenDiarioTarjeta, ResumenDiarioTarjeta.Llave> {
+
+    // Rango sobre la llave primaria (ID_TARJETA, FECHA)
+    List<ResumenDiarioTarjeta> findByIdTarjetaAndFechaBetweenOrderByFechaAsc(Long idTarjeta, LocalDate desde,
+                                                                             LocalDate hasta);
+
+    // Días ya acumulados de un lote de la liquidación en una sola consulta
+    // (findAllById con llave compuesta hace un SELECT por cada llave). Puede
+    // traer combinaciones de tarjeta y fecha que no están en el lote.
+    @Query("SELECT r FROM ResumenDiarioTarjeta r WHERE r.idTarjeta IN :tarjetas AND r.fecha IN :fechas")
+    List<ResumenDiarioTarjeta> buscarDelLote(@Param("tarjetas") Collection<Long> tarjetas,
+                                             @Param("fechas") Collection<LocalDate> fechas);
+
+    // Totales por día de un producto, sobre el índice IDX_RESUMEN_DIARIO_PRODUCTO
+    @Query("SELECT new com.componentes.Tarjetas.dtos.ResumenDiarioDTO(r.idProducto, r.fecha, "
+         + "SUM(r.montoAprobado), SUM(r.cantidadAprobadas), SUM(r.montoRechazado), SUM(r.cantidadRechazadas), "
+         + "SUM(r.montoAnulado), SUM(r.cantidadAnuladas)) "
+         + "FROM ResumenDiarioTarjeta r WHERE r.idProducto = :idProducto "
+         + "AND r.fecha BETWEEN :desde AND :hasta "
+         + "GROUP BY r.idProducto, r.fecha ORDER BY r.fecha")
+    List<ResumenDiarioDTO> totalizarProducto(@Param("idProducto") Long idProducto,
+                                             @Param("desde") LocalDate desde,
+                                             @Param("hasta") LocalDate hasta);
+}
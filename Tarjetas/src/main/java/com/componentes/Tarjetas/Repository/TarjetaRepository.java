@@ -1,11 +1,68 @@
 package com.componentes.Tarjetas.Repository;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 
-
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.componentes.Tarjetas.Entity.Tarjeta;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface TarjetaRepository extends JpaRepository<Tarjeta, Long> {
-}
\ No newline at end of file
+public interface TarjetaRepository extends JpaRepository<Tarjeta, Long>, TarjetaRepositoryCustom {
+
+    // Paginación por llave (keyset) sobre ID_TARJETA
+    List<Tarjeta> findByIdTarjetaGreaterThanOrderByIdTarjetaAsc(Long idTarjeta, Limit limit);
+
+    // Debita el saldo en una sola sentencia: solo afecta la fila si la tarjeta
+    // está activa y tiene saldo suficiente. Retorna el número de filas actualizadas.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Tarjeta t SET t.saldo = t.saldo - :monto "
+         + "WHERE t.idTarjeta = :idTarjeta AND t.idEstado = 1 AND t.saldo >= :monto")
+    int debitarSaldo(@Param("idTarjeta") Long idTarjeta, @Param("monto") BigDecimal monto);
+
+    // Devuelve saldo a la tarjeta en una sola sentencia (anulaciones). Retorna 0
+    // si la tarjeta no existe.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Tarjeta t SET t.saldo = t.saldo + :monto WHERE t.idTarjeta = :idTarjeta")
+    int acreditarSaldo(@Param("idTarjeta") Long idTarjeta, @Param("monto") BigDecimal monto);
+
+    // Saldo vigente leído de la base de datos (no del contexto de persistencia)
+    @Query("SELECT t.saldo FROM Tarjeta t WHERE t.idTarjeta = :idTarjeta")
+    BigDecimal consultarSaldo(@Param("idTarjeta") Long idTarjeta);
+
+    // Los cambios de estado, titular y saldo fijo son UPDATE de una sola columna:
+    // nunca vuelven a escribir un SALDO leído antes y no pisan débitos concurrentes.
+    // Limpian el contexto para que la entidad leída antes no se guarde completa al confirmar.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Tarjeta t SET t.idEstado = :idEstado WHERE t.idTarjeta = :idTarjeta")
+    int cambiarEstado(@Param("idTarjeta") Long idTarjeta, @Param("idEstado") Long idEstado);
+
+    // Solo afecta la fila si la tarjeta sigue sin cliente asignado
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Tarjeta t SET t.titular = :titular "
+         + "WHERE t.idTarjeta = :idTarjeta AND t.titular = 'sin cliente asignado'")
+    int asignarTitular(@Param("idTarjeta") Long idTarjeta, @Param("titular") String titular);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Tarjeta t SET t.saldo = :saldo WHERE t.idTarjeta = :idTarjeta")
+    int fijarSaldo(@Param("idTarjeta") Long idTarjeta, @Param("saldo") BigDecimal saldo);
+
+    // Carga y bloquea (SELECT ... FOR UPDATE) las tarjetas de un lote de compras.
+    // El orden por ID hace que lotes concurrentes tomen los bloqueos en el mismo orden.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Tarjeta> findByIdTarjetaInOrderByIdTarjetaAsc(Collection<Long> idsTarjetas);
+}
@@ -0,0 +1,11 @@
+package com.componentes.Tarjetas.Repository;
+
+import java.util.List;
+
+import com.componentes.Tarjetas.Entity.Tarjeta;
+
+public interface TarjetaRepositoryCustom {
+
+    // Inserta tarjetas nuevas en un solo lote JDBC y las desasocia al terminar
+    void insertarLote(List<Tarjeta> tarjetas);
+}
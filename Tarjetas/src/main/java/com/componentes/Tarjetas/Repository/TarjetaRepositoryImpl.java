@@ -0,0 +1,39 @@
+package com.componentes.Tarjetas.Repository;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.componentes.Tarjetas.Entity.Tarjeta;
+
+import jakarta.persistence.EntityManager;
+
+// Implementación de TarjetaRepositoryCustom (Spring Data la asocia por el sufijo Impl)
+class TarjetaRepositoryImpl implements TarjetaRepositoryCustom {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // Cada llamada es su propia transacción: si falla un bloque, los anteriores
+    // quedan guardados. El tamaño del lote JDBC se sube solo para esta sesión
+    // (hibernate.jdbc.batch_size sigue aplicando al resto) y se limpia el contexto
+    // para que la memoria no crezca con la cantidad total de tarjetas.
+    @Override
+    @Transactional
+    public void insertarLote(List<Tarjeta> tarjetas) {
+        Session sesion = entityManager.unwrap(Session.class);
+        Integer tamanoAnterior = sesion.getJdbcBatchSize();
+        sesion.setJdbcBatchSize(tarjetas.size());
+        try {
+            for (Tarjeta tarjeta : tarjetas) {
+                entityManager.persist(tarjeta);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            sesion.setJdbcBatchSize(tamanoAnterior);
+        }
+    }
+}
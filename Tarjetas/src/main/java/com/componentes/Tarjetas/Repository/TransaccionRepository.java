@@ -1,10 +1,65 @@
 package com.componentes.Tarjetas.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.componentes.Tarjetas.Entity.Transaccion;
 
 @Repository
 public interface TransaccionRepository extends JpaRepository<Transaccion, Long> {
+
+    // Paginación por llave (keyset): busca a partir del último ID entregado,
+    // así cada página es un rango sobre el índice de ID_TRANSACION
+    @EntityGraph(attributePaths = "estadoTrans")
+    List<Transaccion> findByIdTransGreaterThanOrderByIdTransAsc(Long idTrans, Limit limit);
+
+    // Historial de una tarjeta, resuelto con un rango sobre el índice
+    // IDX_TRANSACIONES_TARJETA_FECHA (ID_TARJETA, FECHA_TRANS DESC)
+    @EntityGraph(attributePaths = "estadoTrans")
+    @Query("SELECT t FROM Transaccion t WHERE t.idTarjeta = :idTarjeta "
+         + "AND t.fechaTrans >= :desde AND t.fechaTrans < :hasta "
+         + "AND (:idEstado IS NULL OR t.estadoTrans.idEstadoTrans = :idEstado) "
+         + "ORDER BY t.fechaTrans DESC")
+    List<Transaccion> buscarHistorialTarjeta(@Param("idTarjeta") Long idTarjeta,
+                                             @Param("desde") Date desde,
+                                             @Param("hasta") Date hasta,
+                                             @Param("idEstado") Long idEstado,
+                                             Limit limit);
+
+    // Marca la transacción como anulada en una sola sentencia, solo si nadie la
+    // anuló antes. Retorna 0 si otra anulación se adelantó.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaccion t SET t.idanula = :idAnula WHERE t.idTrans = :idTrans AND t.idanula IS NULL")
+    int marcarAnulada(@Param("idTrans") Long idTrans, @Param("idAnula") Long idAnula);
+
+    // Filas nuevas para la liquidación, en orden de ID a partir de la marca. La
+    // subconsulta usa IDX_TRANSACIONES_ANULA para reconocer las reversas.
+    @Query("SELECT t.idTrans AS idTrans, t.idTarjeta AS idTarjeta, t.fechaTrans AS fechaTrans, "
+         + "t.valorTrans AS valorTrans, t.estadoTrans.idEstadoTrans AS idEstadoTrans, "
+         + "(SELECT COUNT(o) FROM Transaccion o WHERE o.idanula = t.idTrans) AS anulaciones "
+         + "FROM Transaccion t WHERE t.idTrans > :marca ORDER BY t.idTrans")
+    List<MovimientoLiquidacion> buscarParaLiquidar(@Param("marca") Long marca, Limit limit);
+
+    // Las mismas columnas para los ID pendientes (huecos que quedaron debajo de la marca)
+    @Query("SELECT t.idTrans AS idTrans, t.idTarjeta AS idTarjeta, t.fechaTrans AS fechaTrans, "
+         + "t.valorTrans AS valorTrans, t.estadoTrans.idEstadoTrans AS idEstadoTrans, "
+         + "(SELECT COUNT(o) FROM Transaccion o WHERE o.idanula = t.idTrans) AS anulaciones "
+         + "FROM Transaccion t WHERE t.idTrans IN :ids")
+    List<MovimientoLiquidacion> buscarPendientesDeLiquidar(@Param("ids") Collection<Long> ids);
+
+    // Compra registrada con la llave de idempotencia (índice único de LLAVE_IDEMPOTENCIA)
+    @EntityGraph(attributePaths = "estadoTrans")
+    Optional<Transaccion> findByLlaveIdempotencia(String llaveIdempotencia);
 }
@@ -0,0 +1,189 @@
+package com.componentes.Tarjetas.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Diario (write-ahead log) del libro de saldos, sobre segmentos "saldos-*.seg"
+// (DiarioSegmentado). Cada movimiento se agrega antes de responder y queda
+// pendiente hasta que el drenado lo confirma en la base de datos. Al reiniciar,
+// los movimientos posteriores a la última confirmación se vuelven a aplicar.
+final class DiarioSaldos implements Closeable {
+
+    private static final int TAMANO_SEGMENTO = 8 * 1024 * 1024;
+
+    // Movimiento pendiente y la posición del diario donde termina
+    private record Pendiente(MovimientoSaldo movimiento, long fin) {}
+
+    private final DiarioSegmentado segmentos;
+    private final ReentrantLock candado = new ReentrantLock();
+    private final ArrayDeque<Pendiente> pendientes = new ArrayDeque<>();
+
+    private long siguienteSecuencia = 1;
+
+    DiarioSaldos(Path directorio) {
+        segmentos = new DiarioSegmentado(directorio, "saldos", TAMANO_SEGMENTO);
+    }
+
+    // Lee el diario y deja como pendientes los movimientos que no alcanzaron a
+    // confirmarse en la base de datos
+    List<MovimientoSaldo> recuperar() {
+        candado.lock();
+        try {
+            List<MovimientoSaldo> recuperados = new ArrayList<>();
+            for (DiarioSegmentado.Registro registro : segmentos.recuperar()) {
+                MovimientoSaldo movimiento = leer(ByteBuffer.wrap(registro.datos()));
+                pendientes.add(new Pendiente(movimiento, registro.fin()));
+                recuperados.add(movimiento);
+                siguienteSecuencia = Math.max(siguienteSecuencia, movimiento.secuencia() + 1);
+            }
+            return recuperados;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // Agrega el movimiento al final del diario (sin sincronizar a disco) y lo deja
+    // pendiente de drenado. Retorna la posición que se debe sincronizar.
+    long agregar(MovimientoSaldo movimiento) {
+        candado.lock();
+        try {
+            MovimientoSaldo conSecuencia = movimiento.conSecuencia(siguienteSecuencia++);
+            long fin = segmentos.agregar(escribir(conSecuencia));
+            pendientes.add(new Pendiente(conSecuencia, fin));
+            return fin;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    void sincronizar(long hasta) {
+        segmentos.sincronizar(hasta);
+    }
+
+    List<MovimientoSaldo> pendientes(int maximo) {
+        candado.lock();
+        try {
+            List<MovimientoSaldo> lote = new ArrayList<>(Math.min(maximo, pendientes.size()));
+            for (Pendiente pendiente : pendientes) {
+                if (lote.size() == maximo) {
+                    break;
+                }
+                lote.add(pendiente.movimiento());
+            }
+            return lote;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // Último saldo pendiente de una tarjeta (null si no tiene movimientos pendientes)
+    Long ultimoSaldoPendiente(long idTarjeta) {
+        candado.lock();
+        try {
+            var iterador = pendientes.descendingIterator();
+            while (iterador.hasNext()) {
+                MovimientoSaldo movimiento = iterador.next().movimiento();
+                if (movimiento.idTarjeta() == idTarjeta) {
+                    return movimiento.saldoCentavos();
+                }
+            }
+            return null;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // true si la compra idTrans sigue pendiente (todavía no está en TRANSACIONES)
+    boolean compraPendiente(long idTrans) {
+        candado.lock();
+        try {
+            for (Pendiente pendiente : pendientes) {
+                MovimientoSaldo movimiento = pendiente.movimiento();
+                if (movimiento.tipo() == MovimientoSaldo.COMPRA && movimiento.idTrans() != null
+                        && movimiento.idTrans() == idTrans) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // Marca como confirmados los primeros movimientos pendientes (el lote que
+    // entregó pendientes())
+    void aplicados(List<MovimientoSaldo> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        long fin;
+        candado.lock();
+        try {
+            var iterador = pendientes.iterator();
+            Pendiente ultimo = null;
+            for (int i = 0; i < lote.size(); i++) {
+                ultimo = iterador.next();
+            }
+            fin = ultimo.fin();
+        } finally {
+            candado.unlock();
+        }
+        segmentos.confirmar(fin);
+        candado.lock();
+        try {
+            for (int i = 0; i < lote.size(); i++) {
+                pendientes.poll();
+            }
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        segmentos.close();
+    }
+
+    private static byte[] escribir(MovimientoSaldo movimiento) {
+        String valor = movimiento.valor() != null ? movimiento.valor().toPlainString() : null;
+        ByteBuffer buffer = ByteBuffer.allocate(5 * Long.BYTES + 2 + DiarioSegmentado.longitudTexto(valor)
+                + DiarioSegmentado.longitudTexto(movimiento.moneda())
+                + DiarioSegmentado.longitudTexto(movimiento.descripcion())
+                + DiarioSegmentado.longitudTexto(movimiento.llave()));
+        buffer.putLong(movimiento.secuencia())
+                .put(movimiento.tipo())
+                .putLong(movimiento.idTarjeta())
+                .putLong(movimiento.idTrans() != null ? movimiento.idTrans() : -1L)
+                .putLong(movimiento.saldoCentavos())
+                .putLong(movimiento.fecha())
+                .put((byte) (movimiento.exitosa() ? 1 : 0));
+        DiarioSegmentado.escribirTexto(buffer, valor);
+        DiarioSegmentado.escribirTexto(buffer, movimiento.moneda());
+        DiarioSegmentado.escribirTexto(buffer, movimiento.descripcion());
+        DiarioSegmentado.escribirTexto(buffer, movimiento.llave());
+        return buffer.array();
+    }
+
+    private static MovimientoSaldo leer(ByteBuffer buffer) {
+        long secuencia = buffer.getLong();
+        byte tipo = buffer.get();
+        long idTarjeta = buffer.getLong();
+        long idTrans = buffer.getLong();
+        long saldo = buffer.getLong();
+        long fecha = buffer.getLong();
+        boolean exitosa = buffer.get() == 1;
+        String valor = DiarioSegmentado.leerTexto(buffer);
+        String moneda = DiarioSegmentado.leerTexto(buffer);
+        String descripcion = DiarioSegmentado.leerTexto(buffer);
+        String llave = DiarioSegmentado.leerTexto(buffer);
+        return new MovimientoSaldo(secuencia, tipo, idTarjeta, idTrans >= 0 ? idTrans : null,
+                valor != null ? new BigDecimal(valor) : null, saldo, fecha, exitosa, moneda, descripcion, llave);
+    }
+}
@@ -0,0 +1,277 @@
+package com.componentes.Tarjetas.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Archivo de solo-agregar dividido en segmentos de tamaño fijo mapeados en
+// memoria (<prefijo>-<número>.seg). Escribir un registro es copiar bytes al
+// mapa; sincronizar() hace el fsync y lo comparten todos los hilos que
+// escribieron antes. <prefijo>.chk guarda la posición hasta la que el contenido
+// ya se confirmó en la base de datos; los segmentos anteriores se borran.
+//
+// Una posición es número de segmento * tamanoSegmento + desplazamiento. Cada
+// registro es: longitud (int), CRC32 del contenido (int) y el contenido. Una
+// longitud 0 marca el fin del segmento (el archivo nuevo viene en ceros) y un
+// CRC inválido es una escritura interrumpida: lo que sigue se descarta.
+final class DiarioSegmentado implements Closeable {
+
+    // Un registro recuperado y la posición donde termina
+    record Registro(byte[] datos, long fin) {}
+
+    private static final int CABECERA = 2 * Integer.BYTES;
+
+    private final Path directorio;
+    private final String prefijo;
+    private final int tamanoSegmento;
+    private final FileChannel control;
+
+    private final ReentrantLock candadoEscritura = new ReentrantLock();
+    private final ReentrantLock candadoSincronizacion = new ReentrantLock();
+
+    private long segmentoActual;
+    private MappedByteBuffer mapa;
+    private long posicion;
+    private volatile long posicionSincronizada;
+
+    DiarioSegmentado(Path directorio, String prefijo, int tamanoSegmento) {
+        this.directorio = directorio;
+        this.prefijo = prefijo;
+        this.tamanoSegmento = tamanoSegmento;
+        try {
+            Files.createDirectories(directorio);
+            control = FileChannel.open(directorio.resolve(prefijo + ".chk"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario en " + directorio, e);
+        }
+    }
+
+    // Lee los registros posteriores a la última confirmación y deja el diario
+    // listo para seguir agregando después del último registro válido
+    List<Registro> recuperar() {
+        candadoEscritura.lock();
+        try {
+            long confirmada = leerConfirmada();
+            TreeMap<Long, Path> segmentos = segmentos();
+            List<Registro> registros = new ArrayList<>();
+            long fin = 0;
+            for (var entrada : segmentos.entrySet()) {
+                long numero = entrada.getKey();
+                if ((numero + 1) * tamanoSegmento <= confirmada) {
+                    Files.delete(entrada.getValue());
+                    continue;
+                }
+                MappedByteBuffer segmento = mapear(numero);
+                int desplazamiento = leerSegmento(segmento, numero, confirmada, registros);
+                fin = numero * tamanoSegmento + desplazamiento;
+                segmentoActual = numero;
+                mapa = segmento;
+            }
+            if (mapa == null) {
+                // Diario vacío: se empieza en el primer segmento que no quedó confirmado
+                segmentoActual = (confirmada + tamanoSegmento - 1) / tamanoSegmento;
+                mapa = mapear(segmentoActual);
+                fin = segmentoActual * tamanoSegmento;
+            } else {
+                // Lo que queda después del último registro válido se limpia para que
+                // un registro nuevo más corto no deje restos legibles detrás
+                byte[] ceros = new byte[8192];
+                for (int i = (int) (fin - segmentoActual * tamanoSegmento); i < tamanoSegmento; i += ceros.length) {
+                    mapa.put(i, ceros, 0, Math.min(ceros.length, tamanoSegmento - i));
+                }
+                mapa.force();
+            }
+            posicion = fin;
+            posicionSincronizada = fin;
+            return registros;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el diario " + prefijo, e);
+        } finally {
+            candadoEscritura.unlock();
+        }
+    }
+
+    // Agrega un registro (sin sincronizar a disco). Retorna la posición donde
+    // termina, que es la que se pasa a sincronizar() y confirmar().
+    long agregar(byte[] datos) {
+        int longitud = CABECERA + datos.length;
+        if (longitud > tamanoSegmento) {
+            throw new IllegalArgumentException("Registro de " + datos.length + " bytes no cabe en un segmento");
+        }
+        candadoEscritura.lock();
+        try {
+            int desplazamiento = (int) (posicion - segmentoActual * tamanoSegmento);
+            if (desplazamiento + longitud > tamanoSegmento) {
+                // El segmento lleno se sincroniza antes de soltarlo: sincronizar()
+                // solo fuerza el segmento actual
+                mapa.force();
+                segmentoActual++;
+                mapa = mapear(segmentoActual);
+                desplazamiento = 0;
+            }
+            mapa.putInt(desplazamiento, datos.length);
+            mapa.putInt(desplazamiento + Integer.BYTES, crc(datos));
+            mapa.put(desplazamiento + CABECERA, datos);
+            posicion = segmentoActual * tamanoSegmento + desplazamiento + longitud;
+            return posicion;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el diario " + prefijo, e);
+        } finally {
+            candadoEscritura.unlock();
+        }
+    }
+
+    // Sincronización agrupada: un solo force cubre a todos los hilos que
+    // escribieron antes de que empezara
+    void sincronizar(long hasta) {
+        if (posicionSincronizada >= hasta) {
+            return;
+        }
+        candadoSincronizacion.lock();
+        try {
+            if (posicionSincronizada >= hasta) {
+                return;
+            }
+            MappedByteBuffer segmento;
+            long escrito;
+            candadoEscritura.lock();
+            try {
+                segmento = mapa;
+                escrito = posicion;
+            } finally {
+                candadoEscritura.unlock();
+            }
+            segmento.force();
+            posicionSincronizada = escrito;
+        } finally {
+            candadoSincronizacion.unlock();
+        }
+    }
+
+    // Marca como aplicado todo lo anterior a la posición y borra los segmentos
+    // que quedaron completos antes de ella
+    void confirmar(long hasta) {
+        try {
+            control.write(ByteBuffer.allocate(Long.BYTES).putLong(hasta).flip(), 0);
+            control.force(false);
+            // El segmento en uso nunca se borra, aunque haya quedado lleno y confirmado
+            long segmentoConfirmado;
+            candadoEscritura.lock();
+            try {
+                segmentoConfirmado = Math.min(hasta / tamanoSegmento, segmentoActual);
+            } finally {
+                candadoEscritura.unlock();
+            }
+            for (var entrada : segmentos().headMap(segmentoConfirmado).entrySet()) {
+                Files.deleteIfExists(entrada.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo actualizar el control del diario " + prefijo, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        candadoEscritura.lock();
+        try {
+            if (mapa != null) {
+                mapa.force();
+            }
+            control.close();
+        } finally {
+            candadoEscritura.unlock();
+        }
+    }
+
+    private int leerSegmento(MappedByteBuffer segmento, long numero, long confirmada, List<Registro> registros) {
+        int desplazamiento = 0;
+        while (desplazamiento + CABECERA <= tamanoSegmento) {
+            int longitud = segmento.getInt(desplazamiento);
+            if (longitud <= 0 || desplazamiento + CABECERA + longitud > tamanoSegmento) {
+                break;
+            }
+            byte[] datos = new byte[longitud];
+            segmento.get(desplazamiento + CABECERA, datos);
+            if (segmento.getInt(desplazamiento + Integer.BYTES) != crc(datos)) {
+                break;
+            }
+            desplazamiento += CABECERA + longitud;
+            long fin = numero * tamanoSegmento + desplazamiento;
+            if (fin > confirmada) {
+                registros.add(new Registro(datos, fin));
+            }
+        }
+        return desplazamiento;
+    }
+
+    private long leerConfirmada() throws IOException {
+        ByteBuffer marca = ByteBuffer.allocate(Long.BYTES);
+        return control.read(marca, 0) == Long.BYTES ? marca.flip().getLong() : 0L;
+    }
+
+    private TreeMap<Long, Path> segmentos() throws IOException {
+        TreeMap<Long, Path> segmentos = new TreeMap<>();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.forEach(archivo -> {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.startsWith(prefijo + "-") && nombre.endsWith(".seg")) {
+                    segmentos.put(Long.parseLong(nombre.substring(prefijo.length() + 1, nombre.length() - 4)), archivo);
+                }
+            });
+        }
+        return segmentos;
+    }
+
+    private MappedByteBuffer mapear(long numero) throws IOException {
+        Path archivo = directorio.resolve(String.format("%s-%010d.seg", prefijo, numero));
+        // El mapa sigue siendo válido después de cerrar el canal
+        try (FileChannel canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        }
+    }
+
+    // Textos de los registros: longitud (int, -1 si es null) y bytes UTF-8
+    static int longitudTexto(String valor) {
+        return Integer.BYTES + (valor != null ? valor.getBytes(StandardCharsets.UTF_8).length : 0);
+    }
+
+    static void escribirTexto(ByteBuffer buffer, String valor) {
+        if (valor == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] datos = valor.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(datos.length).put(datos);
+    }
+
+    static String leerTexto(ByteBuffer buffer) {
+        int longitud = buffer.getInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] datos = new byte[longitud];
+        buffer.get(datos);
+        return new String(datos, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] datos) {
+        CRC32 crc = new CRC32();
+        crc.update(datos);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,392 @@
+package com.componentes.Tarjetas.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Transaccion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+// Diario local de las filas de TRANSACIONES de compras y anulaciones
+// (transacciones.diario.habilitado). En lugar del INSERT, la fila se agrega a
+// los segmentos "transacciones-*.seg" (DiarioSegmentado) y se sincroniza a disco
+// antes de responder; un hilo de fondo las inserta después en lotes. Al iniciar,
+// las filas que no alcanzaron a insertarse se vuelven a aplicar.
+//
+// Si la fila se registra dentro de una transacción, solo se inserta cuando esa
+// transacción confirma (el débito de la compra): al confirmar se agrega al diario
+// una marca CONFIRMAR y, si hace rollback, una marca DESCARTAR. Las dos marcas se
+// sincronizan a disco antes de responder. Mientras está pendiente, la fila
+// todavía no aparece en las consultas. Una compra con llave de idempotencia
+// reserva antes la llave en RESERVA_IDEMPOTENCIA, en la misma transacción que el
+// débito (ver IndiceIdempotencia).
+//
+// Al reiniciar solo se insertan las filas con su marca CONFIRMAR (o registradas
+// fuera de una transacción). Una fila sin marca es de una transacción que la
+// caída dejó sin terminar o que confirmó justo antes del fsync de la marca: una
+// anulación se inserta si la compra original quedó marcada con su ID (ID_ANULA
+// se escribe en la misma transacción); el resto no se inserta y se registra en
+// el log como transaccion_sin_confirmar para conciliarla.
+@Service
+public class DiarioTransacciones {
+
+    private static final Logger log = LoggerFactory.getLogger(DiarioTransacciones.class);
+
+    private static final int TAMANO_SEGMENTO = 32 * 1024 * 1024;
+    private static final byte REGISTRAR = 1;
+    private static final byte DESCARTAR = 2;
+    private static final byte CONFIRMAR = 3;
+    private static final byte REGISTRAR_CONFIRMADA = 4;
+
+    private static final String CONTAR_ANULADAS_POR = "SELECT COUNT(*) FROM TRANSACIONES WHERE ID_ANULA = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${transacciones.diario.habilitado:false}")
+    private boolean habilitado;
+
+    @Value("${transacciones.diario.directorio:diario-transacciones}")
+    private String directorio;
+
+    @Value("${transacciones.diario.intervalo-ms:20}")
+    private long intervaloMs;
+
+    @Value("${transacciones.diario.lote-maximo:500}")
+    private int loteMaximo;
+
+    // Fila pendiente, la posición del diario donde termina y si su transacción
+    // ya confirmó. Se leen y modifican con el candado del diario.
+    private static final class Pendiente {
+        private final Transaccion transaccion;
+        private final long fin;
+        private boolean lista;
+
+        private Pendiente(Transaccion transaccion, long fin, boolean lista) {
+            this.transaccion = transaccion;
+            this.fin = fin;
+            this.lista = lista;
+        }
+    }
+
+    private final ReentrantLock candado = new ReentrantLock();
+    private final ReentrantLock candadoDrenado = new ReentrantLock();
+    private final Map<Long, Pendiente> pendientes = new LinkedHashMap<>();
+
+    private DiarioSegmentado segmentos;
+    private ScheduledExecutorService drenador;
+    private TransactionTemplate transactionTemplate;
+    private FilasTransaccion filasTransaccion;
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // esperarInsercion puede llamarse dentro de otra transacción (escritura
+        // agrupada): el lote se confirma por su cuenta antes de mover la marca
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        filasTransaccion = new FilasTransaccion(entityManagerFactory, jdbcTemplate);
+
+        // Lo que quedó sin insertar se aplica antes de atender solicitudes
+        segmentos = new DiarioSegmentado(Path.of(directorio), "transacciones", TAMANO_SEGMENTO);
+        for (DiarioSegmentado.Registro registro : segmentos.recuperar()) {
+            ByteBuffer buffer = ByteBuffer.wrap(registro.datos());
+            byte tipo = buffer.get();
+            if (tipo == REGISTRAR || tipo == REGISTRAR_CONFIRMADA) {
+                Transaccion transaccion = leer(buffer);
+                pendientes.put(transaccion.getIdTrans(),
+                        new Pendiente(transaccion, registro.fin(), tipo == REGISTRAR_CONFIRMADA));
+            } else if (tipo == CONFIRMAR) {
+                Pendiente pendiente = pendientes.get(buffer.getLong());
+                if (pendiente != null) {
+                    pendiente.lista = true;
+                }
+            } else if (tipo == DESCARTAR) {
+                pendientes.remove(buffer.getLong());
+            }
+        }
+        conciliarSinConfirmar();
+        if (!pendientes.isEmpty()) {
+            log.info("Diario de transacciones: {} filas pendientes recuperadas", pendientes.size());
+        }
+        while (drenar() > 0) {
+            // hasta vaciar el diario
+        }
+
+        drenador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "drenado-transacciones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        drenador.scheduleWithFixedDelay(this::drenarPendientes, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() throws IOException {
+        if (segmentos == null) {
+            return;
+        }
+        drenador.shutdown();
+        try {
+            drenador.awaitTermination(10, TimeUnit.SECONDS);
+            drenarPendientes();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Lo que no se alcanzó a insertar queda en el diario para el próximo inicio
+            segmentos.close();
+        }
+    }
+
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    // Registra la fila en el diario en lugar de insertarla. Asigna el ID si no lo
+    // tiene y retorna la misma transacción.
+    public Transaccion registrar(Transaccion transaccion) {
+        if (transaccion.getIdTrans() == null) {
+            transaccion.setIdTrans(filasTransaccion.siguienteId());
+        }
+        if (transaccion.getLlaveIdempotencia() != null) {
+            filasTransaccion.reservarLlave(transaccion.getLlaveIdempotencia(), transaccion.getIdTrans(),
+                    transaccion.getFechaTrans());
+        }
+        boolean enTransaccion = TransactionSynchronizationManager.isSynchronizationActive();
+        byte[] datos = escribir(enTransaccion ? REGISTRAR : REGISTRAR_CONFIRMADA, transaccion);
+
+        long fin;
+        candado.lock();
+        try {
+            fin = segmentos.agregar(datos);
+            pendientes.put(transaccion.getIdTrans(), new Pendiente(transaccion, fin, !enTransaccion));
+        } finally {
+            candado.unlock();
+        }
+
+        if (enTransaccion) {
+            Long idTrans = transaccion.getIdTrans();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado == STATUS_COMMITTED) {
+                        marcarLista(idTrans);
+                    } else {
+                        descartar(idTrans);
+                    }
+                }
+            });
+        }
+        // Un solo fsync cubre las filas que llegaron mientras se esperaba el disco
+        segmentos.sincronizar(fin);
+        return transaccion;
+    }
+
+    // Si la transacción sigue en el diario, la inserta antes de continuar (por
+    // ejemplo, para anularla)
+    public void esperarInsercion(Long idTrans) {
+        if (!habilitado || !pendiente(idTrans)) {
+            return;
+        }
+        drenar();
+        if (pendiente(idTrans)) {
+            throw new RuntimeException("La transacción " + idTrans + " todavía se está registrando, intente de nuevo");
+        }
+    }
+
+    // Inserta en una sola transacción hasta loteMaximo filas del inicio del
+    // diario cuyas transacciones ya confirmaron. Retorna cuántas se insertaron.
+    public int drenar() {
+        if (segmentos == null) {
+            return 0;
+        }
+        candadoDrenado.lock();
+        try {
+            List<Transaccion> lote = new ArrayList<>();
+            long fin = -1;
+            candado.lock();
+            try {
+                // Se avanza en orden: una fila sin confirmar detiene el lote para
+                // que la marca del diario nunca pase por encima de ella
+                for (Pendiente pendiente : pendientes.values()) {
+                    if (!pendiente.lista || lote.size() == loteMaximo) {
+                        break;
+                    }
+                    lote.add(pendiente.transaccion);
+                    fin = pendiente.fin;
+                }
+            } finally {
+                candado.unlock();
+            }
+            if (lote.isEmpty()) {
+                return 0;
+            }
+
+            transactionTemplate.executeWithoutResult(estado -> filasTransaccion.insertar(lote));
+            segmentos.confirmar(fin);
+
+            candado.lock();
+            try {
+                Iterator<Pendiente> iterador = pendientes.values().iterator();
+                for (int i = 0; i < lote.size(); i++) {
+                    iterador.next();
+                    iterador.remove();
+                }
+            } finally {
+                candado.unlock();
+            }
+            return lote.size();
+        } finally {
+            candadoDrenado.unlock();
+        }
+    }
+
+    private void drenarPendientes() {
+        try {
+            while (drenar() == loteMaximo) {
+                // sigue mientras haya lotes completos
+            }
+        } catch (RuntimeException e) {
+            // Las filas siguen en el diario: se reintenta en el siguiente ciclo
+            log.error("No se pudieron insertar las transacciones del diario", e);
+        }
+    }
+
+    private boolean pendiente(Long idTrans) {
+        candado.lock();
+        try {
+            return pendientes.containsKey(idTrans);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // La transacción confirmó: la marca se sincroniza antes de que la petición
+    // responda, así una compra aceptada no se pierde al reiniciar. El fsync es
+    // agrupado: lo comparten las marcas y filas que llegaron mientras se esperaba el disco.
+    private void marcarLista(Long idTrans) {
+        long fin;
+        candado.lock();
+        try {
+            Pendiente pendiente = pendientes.get(idTrans);
+            if (pendiente == null) {
+                return;
+            }
+            pendiente.lista = true;
+            fin = segmentos.agregar(marca(CONFIRMAR, idTrans));
+        } finally {
+            candado.unlock();
+        }
+        segmentos.sincronizar(fin);
+    }
+
+    // Solo al iniciar, antes del primer drenado
+    private void conciliarSinConfirmar() {
+        Iterator<Pendiente> iterador = pendientes.values().iterator();
+        while (iterador.hasNext()) {
+            Pendiente pendiente = iterador.next();
+            if (pendiente.lista) {
+                continue;
+            }
+            Long idTrans = pendiente.transaccion.getIdTrans();
+            Integer anuladas = jdbcTemplate.queryForObject(CONTAR_ANULADAS_POR, Integer.class, idTrans);
+            if (anuladas != null && anuladas > 0) {
+                pendiente.lista = true;
+            } else {
+                iterador.remove();
+                log.error("transaccion_sin_confirmar id={} tarjeta={} valor={} estado={} fecha={}", idTrans,
+                        pendiente.transaccion.getIdTarjeta(), pendiente.transaccion.getValorTrans(),
+                        pendiente.transaccion.getEstadoTrans().getIdEstadoTrans(),
+                        pendiente.transaccion.getFechaTrans().getTime());
+            }
+        }
+    }
+
+    // La transacción que registró la fila hizo rollback: se quita de los
+    // pendientes y se marca en el diario para que no se aplique al reiniciar
+    private void descartar(Long idTrans) {
+        long fin;
+        candado.lock();
+        try {
+            pendientes.remove(idTrans);
+            fin = segmentos.agregar(marca(DESCARTAR, idTrans));
+        } finally {
+            candado.unlock();
+        }
+        segmentos.sincronizar(fin);
+    }
+
+    private static byte[] marca(byte tipo, Long idTrans) {
+        return ByteBuffer.allocate(1 + Long.BYTES).put(tipo).putLong(idTrans).array();
+    }
+
+    private static byte[] escribir(byte tipo, Transaccion transaccion) {
+        String valor = transaccion.getValorTrans() != null ? transaccion.getValorTrans().toPlainString() : null;
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 5 * Long.BYTES + DiarioSegmentado.longitudTexto(valor)
+                + DiarioSegmentado.longitudTexto(transaccion.getMONEDA())
+                + DiarioSegmentado.longitudTexto(transaccion.getDESCRIPCION())
+                + DiarioSegmentado.longitudTexto(transaccion.getLlaveIdempotencia()));
+        buffer.put(tipo)
+                .putLong(transaccion.getIdTrans())
+                .putLong(transaccion.getIdTarjeta() != null ? transaccion.getIdTarjeta() : -1L)
+                .putLong(transaccion.getIdanula() != null ? transaccion.getIdanula() : -1L)
+                .putLong(transaccion.getEstadoTrans().getIdEstadoTrans())
+                .putLong(transaccion.getFechaTrans().getTime());
+        DiarioSegmentado.escribirTexto(buffer, valor);
+        DiarioSegmentado.escribirTexto(buffer, transaccion.getMONEDA());
+        DiarioSegmentado.escribirTexto(buffer, transaccion.getDESCRIPCION());
+        DiarioSegmentado.escribirTexto(buffer, transaccion.getLlaveIdempotencia());
+        return buffer.array();
+    }
+
+    private static Transaccion leer(ByteBuffer buffer) {
+        long idTrans = buffer.getLong();
+        long idTarjeta = buffer.getLong();
+        long idAnula = buffer.getLong();
+        long idEstado = buffer.getLong();
+        long fecha = buffer.getLong();
+        String valor = DiarioSegmentado.leerTexto(buffer);
+        Transaccion transaccion = new Transaccion(idTrans, idTarjeta >= 0 ? idTarjeta : null,
+                new EstadoTrans(idEstado, null), new Date(fecha), valor != null ? new BigDecimal(valor) : null);
+        transaccion.setIdanula(idAnula >= 0 ? idAnula : null);
+        transaccion.setMONEDA(DiarioSegmentado.leerTexto(buffer));
+        transaccion.setDESCRIPCION(DiarioSegmentado.leerTexto(buffer));
+        transaccion.setLlaveIdempotencia(DiarioSegmentado.leerTexto(buffer));
+        return transaccion;
+    }
+}
@@ -0,0 +1,54 @@
+package com.componentes.Tarjetas.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Ejecutor acotado de los endpoints asíncronos de compra y anulación: el hilo
+// de la petición se libera mientras la compra espera a la base de datos. A lo
+// sumo "hilos" compras en curso y "cola" en espera; si ambos están llenos la
+// solicitud se rechaza de inmediato (RejectedExecutionException) en lugar de
+// acumularse.
+@Service
+public class EjecutorTransacciones {
+
+    @Value("${transacciones.async.hilos:16}")
+    private int hilos;
+
+    @Value("${transacciones.async.cola:100}")
+    private int cola;
+
+    private ThreadPoolExecutor ejecutor;
+
+    @PostConstruct
+    public void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(cola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "transacciones-async-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        ejecutor.shutdown();
+        ejecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // Lanza RejectedExecutionException si el ejecutor está saturado
+    public <T> CompletableFuture<T> enviar(Supplier<T> trabajo) throws RejectedExecutionException {
+        return CompletableFuture.supplyAsync(trabajo, ejecutor);
+    }
+}
@@ -0,0 +1,217 @@
+package com.componentes.Tarjetas.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+// Confirmación agrupada (group commit) de compras y anulaciones
+// (escritura.agrupada.habilitada). Las solicitudes que llegan juntas se
+// ejecutan una tras otra en un solo hilo y dentro de una sola transacción, que
+// se confirma una vez: un commit (y una escritura del redo log) por lote en
+// lugar de uno por solicitud. El lote se cierra al llegar a lote-maximo o
+// cuando pasan espera-maxima-ms desde la primera solicitud.
+//
+// Una compra rechazada (CompraRechazadaException) queda registrada igual que
+// en el flujo individual. Cualquier otro error de una solicitud (una anulación
+// ya anulada o no encontrada, por ejemplo) deshace el lote: esa solicitud recibe
+// su error y las demás se vuelven a ejecutar juntas en un lote nuevo, sin ella.
+// Las métricas de compras y anulaciones se registran al confirmar, así lo que se
+// vuelve a ejecutar no se cuenta dos veces.
+//
+// Si falla el commit no se sabe si el lote quedó confirmado: no se vuelve a
+// ejecutar (duplicaría débitos) y todas las solicitudes del lote reciben el error.
+@Service
+public class EscritorAgrupado {
+
+    private static final Logger log = LoggerFactory.getLogger(EscritorAgrupado.class);
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${escritura.agrupada.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${escritura.agrupada.lote-maximo:64}")
+    private int loteMaximo;
+
+    @Value("${escritura.agrupada.espera-maxima-ms:2}")
+    private long esperaMaximaMs;
+
+    // Trabajo de una solicitud y el resultado que espera quien la envió
+    private static final class Solicitud<T> {
+        private final Supplier<T> trabajo;
+        private final CompletableFuture<T> futuro = new CompletableFuture<>();
+        private T resultado;
+        private RuntimeException rechazo;
+
+        private Solicitud(Supplier<T> trabajo) {
+            this.trabajo = trabajo;
+        }
+
+        private void ejecutar() {
+            resultado = null;
+            rechazo = null;
+            try {
+                resultado = trabajo.get();
+            } catch (CompraRechazadaException e) {
+                rechazo = e;
+            }
+        }
+
+        private void completar() {
+            if (rechazo != null) {
+                futuro.completeExceptionally(rechazo);
+            } else {
+                futuro.complete(resultado);
+            }
+        }
+    }
+
+    private final BlockingQueue<Solicitud<?>> pendientes = new LinkedBlockingQueue<>();
+
+    private TransactionTemplate transactionTemplate;
+    private Thread escritor;
+    private volatile boolean activo;
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        activo = true;
+        escritor = new Thread(this::escribir, "escritor-agrupado");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        if (escritor == null) {
+            return;
+        }
+        activo = false;
+        escritor.interrupt();
+        escritor.join(TimeUnit.SECONDS.toMillis(10));
+        // Lo que no alcanzó a entrar en un lote se ejecuta de forma individual
+        List<Solicitud<?>> restantes = new ArrayList<>();
+        pendientes.drainTo(restantes);
+        restantes.forEach(this::ejecutarSola);
+    }
+
+    public boolean habilitada() {
+        return habilitada;
+    }
+
+    // Envía el trabajo al lote en curso y espera a que su transacción confirme.
+    // Los errores se relanzan tal como los lanzó el trabajo.
+    public <T> T ejecutar(Supplier<T> trabajo) {
+        if (!activo) {
+            throw new RuntimeException("La escritura agrupada no está disponible");
+        }
+        Solicitud<T> solicitud = new Solicitud<>(trabajo);
+        pendientes.add(solicitud);
+        try {
+            return solicitud.futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private void escribir() {
+        List<Solicitud<?>> lote = new ArrayList<>(loteMaximo);
+        while (activo) {
+            try {
+                lote.add(pendientes.take());
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+                while (lote.size() < loteMaximo) {
+                    Solicitud<?> siguiente = pendientes.poll(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+                procesar(lote);
+            } catch (InterruptedException e) {
+                lote.forEach(this::ejecutarSola);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en la escritura agrupada", e);
+                lote.forEach(solicitud -> solicitud.futuro.completeExceptionally(e));
+            }
+            lote.clear();
+        }
+    }
+
+    private void procesar(List<Solicitud<?>> lote) {
+        List<Solicitud<?>> restantes = new ArrayList<>(lote);
+        while (!restantes.isEmpty()) {
+            RuntimeException[] error = new RuntimeException[1];
+            Solicitud<?> fallida;
+            try {
+                fallida = transactionTemplate.execute(estado -> {
+                    for (Solicitud<?> solicitud : restantes) {
+                        try {
+                            solicitud.ejecutar();
+                            // Los UPDATE masivos (debitarSaldo) limpian el contexto de
+                            // persistencia: lo de cada solicitud se envía antes de seguir
+                            entityManager.flush();
+                            entityManager.clear();
+                        } catch (RuntimeException e) {
+                            error[0] = e;
+                            estado.setRollbackOnly();
+                            return solicitud;
+                        }
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.error("No se pudo confirmar un lote de {} solicitudes", restantes.size(), e);
+                restantes.forEach(solicitud -> solicitud.futuro.completeExceptionally(e));
+                return;
+            }
+
+            if (fallida == null) {
+                restantes.forEach(Solicitud::completar);
+                return;
+            }
+            fallida.futuro.completeExceptionally(error[0]);
+            restantes.remove(fallida);
+        }
+    }
+
+    private void ejecutarSola(Solicitud<?> solicitud) {
+        try {
+            transactionTemplate.executeWithoutResult(estado -> solicitud.ejecutar());
+            solicitud.completar();
+        } catch (RuntimeException e) {
+            solicitud.futuro.completeExceptionally(e);
+        }
+    }
+}
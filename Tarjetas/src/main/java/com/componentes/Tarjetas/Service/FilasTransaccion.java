@@ -0,0 +1,128 @@
+package com.componentes.Tarjetas.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.componentes.Tarjetas.Entity.Transaccion;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Filas de TRANSACIONES que se responden antes de existir en la base de datos
+// (diarios de saldos y de transacciones): el ID se toma del mismo generador
+// (y bloque pooled-lo) que usa Hibernate al guardar una Transaccion, y después
+// se insertan en lote con JDBC.
+final class FilasTransaccion {
+
+    private static final Logger log = LoggerFactory.getLogger(FilasTransaccion.class);
+
+    private static final String INSERTAR = "INSERT INTO TRANSACIONES "
+            + "(ID_TRANSACION, ID_TARJETA, ID_ANULA, ID_ESTADO_TRANS, FECHA_TRANS, VALOR_TRANS, MONEDA, DESCRIPCION, "
+            + "LLAVE_IDEMPOTENCIA) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String RESERVAR = "INSERT INTO RESERVA_IDEMPOTENCIA "
+            + "(LLAVE_IDEMPOTENCIA, ID_TRANSACION, FECHA_RESERVA) VALUES (?, ?, ?)";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final BeforeExecutionGenerator generador;
+    private final JdbcTemplate jdbcTemplate;
+
+    FilasTransaccion(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.generador = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Transaccion.class).getGenerator();
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Solo va a la base de datos una vez por bloque de IDs
+    Long siguienteId() {
+        try (StatelessSession sesion = sessionFactory.openStatelessSession()) {
+            return (Long) generador.generate((SharedSessionContractImplementor) sesion, null, null, EventType.INSERT);
+        }
+    }
+
+    // Reserva la llave de idempotencia antes de debitar. Dentro de la transacción
+    // de la compra la reserva se confirma (o se deshace) junto con el débito;
+    // fuera de ella se confirma sola. Si otra compra ya tiene la llave lanza
+    // DuplicateKeyException (DataIntegrityViolationException) y la compra no se
+    // registra.
+    void reservarLlave(String llave, Long idTrans, Date fecha) {
+        jdbcTemplate.update(RESERVAR, llave, idTrans, new Timestamp(fecha.getTime()));
+    }
+
+    // Inserta las filas que todavía no existen: una fila puede haberse confirmado
+    // sin alcanzar a marcarse en el diario (caída entre el commit y la marca).
+    // Cada fila ya debitó la tarjeta, así que nunca se omite: si su llave de
+    // idempotencia ya está registrada o se repite en el lote (no debería pasar,
+    // la llave se reserva antes de debitar) la fila se inserta sin llave y se
+    // deja el error en el log para conciliarla. De lo contrario el índice único
+    // bloquearía el lote completo.
+    int insertar(List<Transaccion> transacciones) {
+        Set<Long> existentes = existentes(transacciones);
+        Set<String> llaves = llavesExistentes(transacciones);
+        List<Object[]> filas = new ArrayList<>(transacciones.size());
+        for (Transaccion transaccion : transacciones) {
+            if (existentes.contains(transaccion.getIdTrans())) {
+                continue;
+            }
+            String llave = transaccion.getLlaveIdempotencia();
+            if (llave != null && !llaves.add(llave)) {
+                log.error("transaccion_llave_duplicada id={} llave={} tarjeta={} valor={}",
+                        transaccion.getIdTrans(), llave, transaccion.getIdTarjeta(), transaccion.getValorTrans());
+                llave = null;
+            }
+            filas.add(new Object[] { transaccion.getIdTrans(), transaccion.getIdTarjeta(), transaccion.getIdanula(),
+                    transaccion.getEstadoTrans().getIdEstadoTrans(), new Timestamp(transaccion.getFechaTrans().getTime()),
+                    transaccion.getValorTrans(), transaccion.getMONEDA(), transaccion.getDESCRIPCION(), llave });
+        }
+        if (!filas.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERTAR, filas);
+        }
+        return filas.size();
+    }
+
+    private Set<Long> existentes(List<Transaccion> transacciones) {
+        if (transacciones.isEmpty()) {
+            return Collections.emptySet();
+        }
+        StringBuilder sql = new StringBuilder("SELECT ID_TRANSACION FROM TRANSACIONES WHERE ID_TRANSACION IN (");
+        Object[] ids = new Object[transacciones.size()];
+        for (int i = 0; i < ids.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            ids[i] = transacciones.get(i).getIdTrans();
+        }
+        sql.append(')');
+        return new HashSet<>(jdbcTemplate.queryForList(sql.toString(), Long.class, ids));
+    }
+
+    private Set<String> llavesExistentes(List<Transaccion> transacciones) {
+        List<Object> llaves = new ArrayList<>();
+        for (Transaccion transaccion : transacciones) {
+            if (transaccion.getLlaveIdempotencia() != null) {
+                llaves.add(transaccion.getLlaveIdempotencia());
+            }
+        }
+        if (llaves.isEmpty()) {
+            return Collections.emptySet();
+        }
+        StringBuilder sql = new StringBuilder("SELECT LLAVE_IDEMPOTENCIA FROM TRANSACIONES WHERE LLAVE_IDEMPOTENCIA IN (");
+        for (int i = 0; i < llaves.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        return new HashSet<>(jdbcTemplate.queryForList(sql.toString(), String.class, llaves.toArray()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.componentes.Tarjetas.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.componentes.Tarjetas.util.NumeroTarjeta;
+
+import jakarta.persistence.EntityManager;
+
+// Entrega números de tarjeta sin consultar si ya existen. Las series se reservan
+// en bloques de TAMANO_BLOQUE con un solo NEXTVAL de SEQ_NUMERO_TARJETA (la
+// secuencia avanza de a TAMANO_BLOQUE y cada valor es el inicio de un bloque),
+// así que varias instancias de la aplicación nunca entregan la misma serie.
+// Las series que quedan sin usar al reiniciar se pierden, igual que con los ID.
+@Service
+public class GeneradorNumeroTarjeta {
+
+    public static final String SECUENCIA = "SEQ_NUMERO_TARJETA";
+    public static final int TAMANO_BLOQUE = 1000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // ReentrantLock y no synchronized: con hilos virtuales un synchronized que
+    // espera a la base de datos bloquea también el hilo de plataforma
+    private final ReentrantLock candado = new ReentrantLock();
+    private long siguienteSerie;
+    private long finBloque;
+    private String consultaSecuencia;
+
+    public Long generar(Long idProducto) {
+        return generar(idProducto, 1)[0];
+    }
+
+    public long[] generar(Long idProducto, int cantidad) {
+        if (idProducto == null || idProducto < 0 || idProducto > NumeroTarjeta.PRODUCTO_MAXIMO) {
+            throw new RuntimeException("El ID del producto debe tener 6 dígitos");
+        }
+        if (cantidad <= 0) {
+            throw new RuntimeException("La cantidad de tarjetas debe ser mayor a 0");
+        }
+
+        long[] numeros = reservarSeries(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            numeros[i] = NumeroTarjeta.componer(idProducto, numeros[i]);
+        }
+        return numeros;
+    }
+
+    private long[] reservarSeries(int cantidad) {
+        long[] series = new long[cantidad];
+        candado.lock();
+        try {
+            for (int i = 0; i < cantidad; i++) {
+                if (siguienteSerie >= finBloque) {
+                    siguienteSerie = siguienteBloque();
+                    finBloque = siguienteSerie + TAMANO_BLOQUE;
+                }
+                series[i] = siguienteSerie++;
+            }
+        } finally {
+            candado.unlock();
+        }
+        return series;
+    }
+
+    private long siguienteBloque() {
+        if (consultaSecuencia == null) {
+            // El SELECT de NEXTVAL depende del dialecto (Oracle en producción, H2 en pruebas)
+            consultaSecuencia = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect().getSequenceSupport()
+                    .getSequenceNextValString(SECUENCIA);
+        }
+        long inicio = ((Number) entityManager.createNativeQuery(consultaSecuencia).getSingleResult()).longValue();
+        if (inicio < 0 || inicio + TAMANO_BLOQUE > NumeroTarjeta.SERIES_POR_PRODUCTO) {
+            throw new RuntimeException("Se agotaron los números de tarjeta disponibles");
+        }
+        return inicio;
+    }
+}
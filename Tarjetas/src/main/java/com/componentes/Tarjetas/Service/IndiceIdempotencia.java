@@ -0,0 +1,229 @@
+package com.componentes.Tarjetas.Service;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.componentes.Tarjetas.Entity.ReservaIdempotencia;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.ReservaIdempotenciaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.dtos.TransCompraDTO;
+import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
+import com.componentes.Tarjetas.exceptions.LlaveIdempotenciaReutilizadaException;
+
+// Compras con llave de idempotencia: un reintento con la misma llave retorna el
+// resultado de la compra original (o su mismo rechazo) sin volver a validar ni
+// tocar TARJETA. Las llaves recientes se guardan en memoria, hasta capacidad
+// entradas durante vigencia-minutos; si la llave no está en memoria se busca en
+// TRANSACIONES.LLAVE_IDEMPOTENCIA, cuyo índice único evita el duplicado cuando
+// dos instancias reciben el mismo reintento.
+//
+// Con los diarios de saldos o de transacciones la fila llega a TRANSACIONES
+// después de responder: la compra reserva antes su llave en RESERVA_IDEMPOTENCIA.
+// Si la llave está reservada pero la fila sigue en el diario, se drena (cuando
+// está en esta instancia) y si todavía no aparece el reintento falla sin debitar.
+//
+// Cada llave guarda la huella de su compra (tarjeta, valor y moneda). Un
+// reintento con la misma llave y otra huella no es un reintento sino otra compra:
+// se rechaza con LlaveIdempotenciaReutilizadaException. En la base de datos la
+// huella se toma de las columnas de la transacción registrada.
+@Service
+public class IndiceIdempotencia {
+
+    static final int LONGITUD_MAXIMA = 64;
+    private static final Long ESTADO_EXITOSO = 1L;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ReservaIdempotenciaRepository reservaIdempotenciaRepository;
+
+    @Autowired
+    private DiarioTransacciones diarioTransacciones;
+
+    @Autowired
+    private LibroSaldos libroSaldos;
+
+    @Value("${idempotencia.capacidad:100000}")
+    private int capacidad;
+
+    @Value("${idempotencia.vigencia-minutos:1440}")
+    private long vigenciaMinutos;
+
+    // Resultado de la compra de una llave. Mientras la compra está en curso, los
+    // reintentos esperan el mismo futuro en lugar de ejecutarla otra vez.
+    private static final class Entrada {
+        private final CompletableFuture<TransaccionDTO> resultado = new CompletableFuture<>();
+        private final long creada = System.nanoTime();
+        private final String huella;
+
+        private Entrada(String huella) {
+            this.huella = huella;
+        }
+    }
+
+    private final ReentrantLock candado = new ReentrantLock();
+    // En orden de llegada: las más antiguas se descartan primero
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entrada> masAntigua) {
+            return size() > capacidad;
+        }
+    };
+
+    // La llave es compraDTO.getIdempotencyKey()
+    public TransaccionDTO ejecutar(TransCompraDTO compraDTO, Supplier<TransaccionDTO> compra) {
+        String llave = compraDTO.getIdempotencyKey();
+        if (llave == null || llave.isBlank() || llave.length() > LONGITUD_MAXIMA) {
+            throw new RuntimeException("La llave de idempotencia debe tener entre 1 y " + LONGITUD_MAXIMA + " caracteres");
+        }
+        String huella = huella(compraDTO.getCardId(), compraDTO.getPrice(), compraDTO.getMoneda());
+
+        Entrada entrada;
+        boolean propia = false;
+        candado.lock();
+        try {
+            descartarVencidas();
+            entrada = entradas.get(llave);
+            if (entrada == null) {
+                entrada = new Entrada(huella);
+                entradas.put(llave, entrada);
+                propia = true;
+            }
+        } finally {
+            candado.unlock();
+        }
+        if (!propia) {
+            validarHuella(llave, entrada.huella, huella);
+            return esperar(entrada);
+        }
+
+        try {
+            TransaccionDTO resultado = registrada(llave, huella);
+            if (resultado == null) {
+                resultado = compra.get();
+            }
+            entrada.resultado.complete(resultado);
+            return resultado;
+        } catch (CompraRechazadaException e) {
+            entrada.resultado.completeExceptionally(e);
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia registró la misma llave mientras se procesaba la compra
+            return original(llave, huella, entrada, e);
+        } catch (RuntimeException e) {
+            // La compra no quedó registrada: un reintento debe poder ejecutarla
+            quitar(llave, entrada);
+            entrada.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private TransaccionDTO original(String llave, String huella, Entrada entrada,
+            DataIntegrityViolationException error) {
+        try {
+            TransaccionDTO resultado = registrada(llave, huella);
+            if (resultado == null) {
+                throw error;
+            }
+            entrada.resultado.complete(resultado);
+            return resultado;
+        } catch (CompraRechazadaException e) {
+            entrada.resultado.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            quitar(llave, entrada);
+            entrada.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // La respuesta se arma igual que en procesarCompra; una compra rechazada
+    // vuelve a lanzar su CompraRechazadaException
+    private TransaccionDTO registrada(String llave, String huella) {
+        Transaccion transaccion = transaccionRepository.findByLlaveIdempotencia(llave).orElse(null);
+        if (transaccion == null) {
+            ReservaIdempotencia reserva = reservaIdempotenciaRepository.findById(llave).orElse(null);
+            if (reserva == null) {
+                return null;
+            }
+            // La compra original sigue en un diario
+            diarioTransacciones.esperarInsercion(reserva.getIdTransaccion());
+            libroSaldos.esperarInsercion(reserva.getIdTransaccion());
+            transaccion = transaccionRepository.findByLlaveIdempotencia(llave).orElseThrow(() -> new RuntimeException(
+                    "La compra con la llave de idempotencia " + llave + " todavía se está registrando, intente de nuevo"));
+        }
+        validarHuella(llave, huella(transaccion.getIdTarjeta(), transaccion.getValorTrans(), transaccion.getMONEDA()),
+                huella);
+        if (!ESTADO_EXITOSO.equals(transaccion.getEstadoTrans().getIdEstadoTrans())) {
+            throw new CompraRechazadaException(transaccion.getDESCRIPCION());
+        }
+        TransaccionDTO respuestaDTO = new TransaccionDTO();
+        respuestaDTO.setIdTrans(transaccion.getIdTrans());
+        respuestaDTO.setIdTarjeta(transaccion.getIdTarjeta());
+        respuestaDTO.setEstadoTransDescripcion(transaccion.getEstadoTrans().getDescripcion());
+        respuestaDTO.setFechaTrans(transaccion.getFechaTrans());
+        respuestaDTO.setValorTrans(transaccion.getValorTrans());
+        respuestaDTO.setMoneda(transaccion.getMONEDA());
+        return respuestaDTO;
+    }
+
+    // El valor sin ceros a la derecha: 10, 10.0 y 10.00 son la misma compra
+    static String huella(Long idTarjeta, BigDecimal valor, String moneda) {
+        return idTarjeta + "|" + (valor != null ? valor.stripTrailingZeros().toPlainString() : null) + "|" + moneda;
+    }
+
+    private static void validarHuella(String llave, String registrada, String recibida) {
+        if (!registrada.equals(recibida)) {
+            throw new LlaveIdempotenciaReutilizadaException(
+                    "La llave de idempotencia " + llave + " ya se usó para otra compra");
+        }
+    }
+
+    private static TransaccionDTO esperar(Entrada entrada) {
+        try {
+            return entrada.resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private void quitar(String llave, Entrada entrada) {
+        candado.lock();
+        try {
+            entradas.remove(llave, entrada);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // Se llama con el candado tomado
+    private void descartarVencidas() {
+        long limite = System.nanoTime() - TimeUnit.MINUTES.toNanos(vigenciaMinutos);
+        Iterator<Entrada> iterador = entradas.values().iterator();
+        while (iterador.hasNext()) {
+            Entrada entrada = iterador.next();
+            if (entrada.creada - limite >= 0) {
+                break;
+            }
+            iterador.remove();
+        }
+    }
+}
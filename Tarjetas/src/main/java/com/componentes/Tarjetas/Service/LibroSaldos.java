@@ -0,0 +1,394 @@
+package com.componentes.Tarjetas.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.dtos.TransCompraDTO;
+import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+import com.componentes.Tarjetas.util.Dinero;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+// Libro de saldos en memoria para las tarjetas "calientes" (saldos.memoria.tarjetas).
+// Sus compras se autorizan en el proceso, bajo un candado por franja de tarjetas,
+// sin tocar la fila de TARJETA: cada movimiento se escribe en el diario
+// (DiarioSaldos) y se sincroniza a disco antes de responder, y un hilo de fondo
+// lo confirma después en la base de datos en lotes (INSERT de las transacciones
+// y un UPDATE del saldo final por tarjeta).
+//
+// Mientras está activo, el saldo de esas tarjetas solo debe cambiar por aquí:
+// recargas y anulaciones pasan por acreditar(), y solo una instancia de la
+// aplicación puede administrar cada tarjeta.
+@Service
+public class LibroSaldos {
+
+    private static final Logger log = LoggerFactory.getLogger(LibroSaldos.class);
+
+    private static final int FRANJAS = 64;
+    private static final long ESTADO_EXITOSO = 1L;
+    private static final long ESTADO_FALLIDO = 3L;
+
+    private static final String ACTUALIZAR_SALDO = "UPDATE TARJETA SET SALDO = ? WHERE ID_TARJETA = ?";
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MetricasTransacciones metricasTransacciones;
+
+    @Value("${saldos.memoria.tarjetas:}")
+    private String tarjetasConfiguradas;
+
+    @Value("${saldos.memoria.directorio:diario-saldos}")
+    private String directorio;
+
+    @Value("${saldos.memoria.intervalo-ms:20}")
+    private long intervaloMs;
+
+    @Value("${saldos.memoria.lote-maximo:500}")
+    private int loteMaximo;
+
+    private final ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+    private final Map<Long, Cuenta> cuentas = new ConcurrentHashMap<>();
+    private final ReentrantLock candadoDrenado = new ReentrantLock();
+
+    private Set<Long> tarjetas = Collections.emptySet();
+    private DiarioSaldos diario;
+    private ScheduledExecutorService drenador;
+    private TransactionTemplate transactionTemplate;
+    private FilasTransaccion filasTransaccion;
+
+    // Copia de la tarjeta (estado y vencimiento) y su saldo vigente. Solo se
+    // lee o modifica con el candado de su franja.
+    private static final class Cuenta {
+        private final Tarjeta tarjeta;
+        private long saldoCentavos;
+
+        private Cuenta(Tarjeta tarjeta, long saldoCentavos) {
+            this.tarjeta = tarjeta;
+            this.saldoCentavos = saldoCentavos;
+        }
+    }
+
+    public LibroSaldos() {
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        tarjetas = leerTarjetas(tarjetasConfiguradas);
+        if (tarjetas.isEmpty()) {
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // esperarInsercion se llama dentro de la anulación: el lote se confirma
+        // por su cuenta antes de marcar los movimientos como aplicados
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        filasTransaccion = new FilasTransaccion(entityManagerFactory, jdbcTemplate);
+
+        // Lo que quedó en el diario sin confirmar se aplica antes de atender compras
+        diario = new DiarioSaldos(Path.of(directorio));
+        List<MovimientoSaldo> recuperados = diario.recuperar();
+        if (!recuperados.isEmpty()) {
+            log.info("Diario de saldos: {} movimientos pendientes recuperados", recuperados.size());
+        }
+        while (drenar() > 0) {
+            // hasta vaciar el diario
+        }
+
+        drenador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "drenado-saldos");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        drenador.scheduleWithFixedDelay(this::drenarPendientes, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() throws IOException {
+        if (diario == null) {
+            return;
+        }
+        drenador.shutdown();
+        try {
+            drenador.awaitTermination(10, TimeUnit.SECONDS);
+            drenarPendientes();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Lo que no se alcanzó a confirmar queda en el diario para el próximo inicio
+            diario.close();
+        }
+    }
+
+    public boolean administra(Long idTarjeta) {
+        return idTarjeta != null && tarjetas.contains(idTarjeta);
+    }
+
+    // Compra sobre una tarjeta del libro. Mismo resultado que
+    // TransaccionService.procesarCompra: la transacción (exitosa o rechazada)
+    // queda registrada y una compra rechazada lanza CompraRechazadaException.
+    public TransaccionDTO procesarCompra(TransCompraDTO compraDTO) {
+        long inicio = System.nanoTime();
+        Long idTarjeta = compraDTO.getCardId();
+        // El ID se pide fuera del candado: solo va a la base de datos una vez por bloque
+        Long idTrans = filasTransaccion.siguienteId();
+        Date fecha = new Date();
+        // La llave se reserva antes del débito: la fila llega a TRANSACIONES después
+        if (compraDTO.getIdempotencyKey() != null) {
+            filasTransaccion.reservarLlave(compraDTO.getIdempotencyKey(), idTrans, fecha);
+        }
+
+        String mensajeError;
+        long posicion;
+        Long idProducto;
+        ReentrantLock candado = franja(idTarjeta);
+        candado.lock();
+        try {
+            Cuenta cuenta = cuenta(idTarjeta);
+            idProducto = cuenta != null ? cuenta.tarjeta.getIdProducto() : null;
+            mensajeError = TransaccionService.validarCompra(compraDTO, cuenta != null ? cuenta.tarjeta : null,
+                    cuenta != null ? cuenta.saldoCentavos : 0L);
+            long saldoFinal = cuenta != null ? cuenta.saldoCentavos : 0L;
+            if (mensajeError == null) {
+                saldoFinal = Dinero.debitar(saldoFinal, Dinero.aCentavos(compraDTO.getPrice()));
+            }
+            posicion = diario.agregar(new MovimientoSaldo(0L, MovimientoSaldo.COMPRA, idTarjeta, idTrans,
+                    compraDTO.getPrice(), saldoFinal, fecha.getTime(), mensajeError == null,
+                    compraDTO.getMoneda(), mensajeError == null ? "Exitoso" : mensajeError,
+                    compraDTO.getIdempotencyKey()));
+            if (cuenta != null) {
+                cuenta.saldoCentavos = saldoFinal;
+            }
+        } finally {
+            candado.unlock();
+        }
+        // Un solo fsync cubre las compras que llegaron mientras se esperaba el disco
+        diario.sincronizar(posicion);
+
+        EstadoTrans estadoTrans = estadoTransRepository
+                .findById(mensajeError == null ? ESTADO_EXITOSO : ESTADO_FALLIDO)
+                .orElseThrow(() -> new RuntimeException("Estado de transacción no encontrado"));
+
+        TransaccionDTO respuestaDTO = new TransaccionDTO();
+        respuestaDTO.setIdTrans(idTrans);
+        respuestaDTO.setIdTarjeta(idTarjeta);
+        respuestaDTO.setEstadoTransDescripcion(estadoTrans.getDescripcion());
+        respuestaDTO.setFechaTrans(fecha);
+        respuestaDTO.setValorTrans(compraDTO.getPrice());
+        respuestaDTO.setMoneda(compraDTO.getMoneda());
+
+        metricasTransacciones.compra(idProducto, mensajeError, inicio, compraDTO.getPrice());
+        if (mensajeError != null) {
+            throw new CompraRechazadaException(mensajeError);
+        }
+        return respuestaDTO;
+    }
+
+    // Suma un monto al saldo (recargas y anulaciones). Retorna el nuevo saldo.
+    public BigDecimal acreditar(Long idTarjeta, BigDecimal monto) {
+        long posicion;
+        long saldoFinal;
+        ReentrantLock candado = franja(idTarjeta);
+        candado.lock();
+        try {
+            Cuenta cuenta = cuenta(idTarjeta);
+            if (cuenta == null) {
+                throw new RuntimeException("No existe una tarjeta con el ID: " + idTarjeta);
+            }
+            saldoFinal = Dinero.acreditar(cuenta.saldoCentavos, Dinero.aCentavos(monto));
+            posicion = diario.agregar(new MovimientoSaldo(0L, MovimientoSaldo.AJUSTE, idTarjeta, null,
+                    monto, saldoFinal, System.currentTimeMillis(), true, null, null, null));
+            cuenta.saldoCentavos = saldoFinal;
+        } finally {
+            candado.unlock();
+        }
+        diario.sincronizar(posicion);
+        return Dinero.desdeCentavos(saldoFinal);
+    }
+
+    public BigDecimal saldo(Long idTarjeta) {
+        ReentrantLock candado = franja(idTarjeta);
+        candado.lock();
+        try {
+            Cuenta cuenta = cuenta(idTarjeta);
+            if (cuenta == null) {
+                throw new RuntimeException("No existe una tarjeta con el ID: " + idTarjeta);
+            }
+            return Dinero.desdeCentavos(cuenta.saldoCentavos);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // Se llama después de cambiar el estado de una tarjeta del libro: refresca la
+    // copia en memoria. El cambio de estado solo escribe ID_ESTADO, así que SALDO
+    // no cambia; la tarjeta recibida se deja con el saldo vigente para la respuesta.
+    public void actualizarTarjeta(Tarjeta tarjeta) {
+        Long idTarjeta = tarjeta.getIdTarjeta();
+        ReentrantLock candado = franja(idTarjeta);
+        candado.lock();
+        try {
+            Cuenta cuenta = cuenta(idTarjeta);
+            if (cuenta == null) {
+                return;
+            }
+            cuenta.tarjeta.setIdEstado(tarjeta.getIdEstado());
+            cuenta.tarjeta.setFechaVencimiento(tarjeta.getFechaVencimiento());
+            tarjeta.setSaldo(Dinero.desdeCentavos(cuenta.saldoCentavos));
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // Las compras del libro llegan a TRANSACIONES con el drenado: antes de anular
+    // una compra reciente se drena el diario hasta que quede insertada
+    public void esperarInsercion(Long idTrans) {
+        if (diario == null || idTrans == null || !diario.compraPendiente(idTrans)) {
+            return;
+        }
+        while (drenar() > 0 && diario.compraPendiente(idTrans)) {
+            // el movimiento puede estar después del primer lote
+        }
+        if (diario.compraPendiente(idTrans)) {
+            throw new RuntimeException("La transacción " + idTrans + " todavía se está registrando, intente de nuevo");
+        }
+    }
+
+    // Confirma en la base de datos hasta loteMaximo movimientos del diario, en una
+    // sola transacción. Retorna cuántos se confirmaron.
+    public int drenar() {
+        if (diario == null) {
+            return 0;
+        }
+        candadoDrenado.lock();
+        try {
+            List<MovimientoSaldo> lote = diario.pendientes(loteMaximo);
+            if (lote.isEmpty()) {
+                return 0;
+            }
+            transactionTemplate.executeWithoutResult(estado -> confirmar(lote));
+            diario.aplicados(lote);
+            return lote.size();
+        } finally {
+            candadoDrenado.unlock();
+        }
+    }
+
+    private void drenarPendientes() {
+        try {
+            while (drenar() == loteMaximo) {
+                // sigue mientras haya lotes completos
+            }
+        } catch (RuntimeException e) {
+            // Los movimientos siguen en el diario: se reintenta en el siguiente ciclo
+            log.error("No se pudieron confirmar los saldos en la base de datos", e);
+        }
+    }
+
+    private void confirmar(List<MovimientoSaldo> lote) {
+        List<Transaccion> compras = new ArrayList<>();
+        Map<Long, Long> saldosFinales = new LinkedHashMap<>();
+        for (MovimientoSaldo movimiento : lote) {
+            if (movimiento.tipo() == MovimientoSaldo.COMPRA) {
+                Transaccion compra = new Transaccion(movimiento.idTrans(), movimiento.idTarjeta(),
+                        new EstadoTrans(movimiento.exitosa() ? ESTADO_EXITOSO : ESTADO_FALLIDO, null),
+                        new Date(movimiento.fecha()), movimiento.valor());
+                compra.setMONEDA(movimiento.moneda());
+                compra.setDESCRIPCION(movimiento.descripcion());
+                compra.setLlaveIdempotencia(movimiento.llave());
+                compras.add(compra);
+            }
+            saldosFinales.put(movimiento.idTarjeta(), movimiento.saldoCentavos());
+        }
+        filasTransaccion.insertar(compras);
+
+        // El saldo se escribe como valor absoluto: repetir el lote no lo altera
+        List<Object[]> saldos = new ArrayList<>(saldosFinales.size());
+        saldosFinales.forEach((idTarjeta, saldo) -> saldos.add(new Object[] { Dinero.desdeCentavos(saldo), idTarjeta }));
+        jdbcTemplate.batchUpdate(ACTUALIZAR_SALDO, saldos);
+    }
+
+    // Se llama con el candado de la franja. La primera vez se lee la tarjeta; si el
+    // diario tiene movimientos sin confirmar, su último saldo es el vigente.
+    private Cuenta cuenta(Long idTarjeta) {
+        Cuenta cuenta = cuentas.get(idTarjeta);
+        if (cuenta != null || idTarjeta == null) {
+            return cuenta;
+        }
+        Tarjeta tarjeta = tarjetaRepository.findById(idTarjeta).orElse(null);
+        if (tarjeta == null) {
+            return null;
+        }
+        Long pendiente = diario.ultimoSaldoPendiente(idTarjeta);
+        long saldo = pendiente != null ? pendiente : TransaccionService.centavosSaldo(tarjeta);
+        cuenta = new Cuenta(tarjeta, saldo);
+        cuentas.put(idTarjeta, cuenta);
+        return cuenta;
+    }
+
+    private ReentrantLock franja(Long idTarjeta) {
+        int hash = idTarjeta != null ? Long.hashCode(idTarjeta) : 0;
+        return franjas[(hash ^ (hash >>> 16)) & (FRANJAS - 1)];
+    }
+
+    private static Set<Long> leerTarjetas(String valor) {
+        Set<Long> ids = new HashSet<>();
+        if (valor == null) {
+            return ids;
+        }
+        for (String parte : valor.split(",")) {
+            if (!parte.isBlank()) {
+                ids.add(Long.parseLong(parte.trim()));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,313 @@
+package com.componentes.Tarjetas.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.componentes.Tarjetas.Entity.MarcaLiquidacion;
+import com.componentes.Tarjetas.Entity.PendienteLiquidacion;
+import com.componentes.Tarjetas.Entity.ResumenDiarioTarjeta;
+import com.componentes.Tarjetas.Repository.MarcaLiquidacionRepository;
+import com.componentes.Tarjetas.Repository.MovimientoLiquidacion;
+import com.componentes.Tarjetas.Repository.PendienteLiquidacionRepository;
+import com.componentes.Tarjetas.Repository.ResumenDiarioTarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.dtos.ResumenDiarioDTO;
+import com.componentes.Tarjetas.mappers.ResumenDiarioMapper;
+import com.componentes.Tarjetas.util.NumeroTarjeta;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Liquidación diaria incremental: acumula los montos aprobados, rechazados y
+// anulados de TRANSACIONES por tarjeta y por día en RESUMEN_DIARIO_TARJETA, y
+// los reportes se leen de ese resumen en lugar de recorrer TRANSACIONES.
+//
+// Cada ejecución lee las filas con ID_TRANSACION mayor que la marca de
+// LIQUIDACION_MARCA, en lotes y en orden de ID. Cada lote suma sus totales y
+// mueve la marca en una sola transacción, con la marca bloqueada (SELECT ... FOR
+// UPDATE): las instancias que liquidan a la vez se turnan.
+//
+// Clasificación de las filas:
+//   estado 1 (exitosa)                          -> aprobada
+//   estado 3, reversa de otra (ID_ANULA la apunta) -> anulada, el día de la anulación
+//   estado 3, el resto                          -> rechazada
+//
+// Las filas no aparecen en el orden de su ID: cada instancia reserva los ID en
+// bloques de 50, y el diario de transacciones inserta después del commit. Cada
+// ID que la marca deja atrás sin encontrar su fila se guarda en
+// LIQUIDACION_PENDIENTE, y cada ejecución empieza por buscar esos ID y acumular
+// los que ya aparecieron. Un pendiente que no aparece en pendientes-horas se da
+// por no usado (un bloque que se perdió al reiniciar una instancia). Un salto de
+// más de hueco-maximo ID seguidos (la secuencia se movió a mano) no se sigue y
+// queda en el log. El retardo-segundos sigue deteniendo la marca en la primera
+// fila reciente, para que los huecos normales ni siquiera se registren.
+@Service
+public class LiquidacionDiaria {
+
+    private static final Logger log = LoggerFactory.getLogger(LiquidacionDiaria.class);
+
+    public static final String PROCESO = "RESUMEN_DIARIO";
+
+    private static final long ESTADO_EXITOSA = 1L;
+    private static final long ESTADO_FALLIDA = 3L;
+    private static final int DIAS_MAXIMOS_REPORTE = 366;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private ResumenDiarioTarjetaRepository resumenDiarioTarjetaRepository;
+
+    @Autowired
+    private MarcaLiquidacionRepository marcaLiquidacionRepository;
+
+    @Autowired
+    private PendienteLiquidacionRepository pendienteLiquidacionRepository;
+
+    @Autowired
+    private ResumenDiarioMapper resumenDiarioMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${liquidacion.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${liquidacion.intervalo-ms:60000}")
+    private long intervaloMs;
+
+    @Value("${liquidacion.lote:1000}")
+    private int lote;
+
+    @Value("${liquidacion.retardo-segundos:120}")
+    private long retardoSegundos;
+
+    @Value("${liquidacion.pendientes-horas:24}")
+    private long pendientesHoras;
+
+    @Value("${liquidacion.hueco-maximo:1000}")
+    private int huecoMaximo;
+
+    private ScheduledExecutorService programador;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void iniciar() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (!habilitada) {
+            return;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "liquidacion-diaria");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::liquidarProgramada, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        if (programador == null) {
+            return;
+        }
+        programador.shutdown();
+        programador.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // Acumula los pendientes que ya aparecieron y todas las filas nuevas con más
+    // de retardo-segundos. Retorna cuántas filas de TRANSACIONES se acumularon.
+    public int liquidar() {
+        int total = transactionTemplate.execute(estado -> liquidarPendientes());
+        Date corte = new Date(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(retardoSegundos));
+        while (true) {
+            int[] resultado = transactionTemplate.execute(estado -> liquidarLote(corte));
+            total += resultado[0];
+            // Lote incompleto o detenido en una fila reciente: no queda nada más por ahora
+            if (resultado[1] == 1 || resultado[0] < lote) {
+                return total;
+            }
+        }
+    }
+
+    // Un error (base de datos no disponible) no debe detener las ejecuciones siguientes
+    private void liquidarProgramada() {
+        try {
+            int filas = liquidar();
+            if (filas > 0) {
+                log.info("Liquidacion diaria: {} transacciones acumuladas", filas);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Liquidacion diaria fallida, se reintenta en {} ms", intervaloMs, e);
+        }
+    }
+
+    // Con la marca bloqueada, igual que los lotes
+    private int liquidarPendientes() {
+        bloquearMarca();
+        int vencidos = pendienteLiquidacionRepository
+                .quitarVencidos(new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(pendientesHoras)));
+        if (vencidos > 0) {
+            log.warn("Liquidacion diaria: {} ID pendientes vencidos sin aparecer en TRANSACIONES", vencidos);
+        }
+        int total = 0;
+        Long desde = 0L;
+        while (true) {
+            List<Long> ids = pendienteLiquidacionRepository.buscarIds(desde, Limit.of(lote));
+            if (ids.isEmpty()) {
+                return total;
+            }
+            List<MovimientoLiquidacion> aparecidos = transaccionRepository.buscarPendientesDeLiquidar(ids);
+            if (!aparecidos.isEmpty()) {
+                acumular(aparecidos);
+                List<Long> encontrados = new ArrayList<>(aparecidos.size());
+                aparecidos.forEach(movimiento -> encontrados.add(movimiento.getIdTrans()));
+                pendienteLiquidacionRepository.quitar(encontrados);
+                total += aparecidos.size();
+            }
+            desde = ids.get(ids.size() - 1);
+        }
+    }
+
+    // Retorna {filas acumuladas, 1 si se detuvo en una fila posterior al corte}
+    private int[] liquidarLote(Date corte) {
+        MarcaLiquidacion marca = bloquearMarca();
+        List<MovimientoLiquidacion> movimientos =
+                transaccionRepository.buscarParaLiquidar(marca.getUltimoIdTransaccion(), Limit.of(lote));
+
+        List<MovimientoLiquidacion> acumular = new ArrayList<>();
+        boolean detenida = false;
+        for (MovimientoLiquidacion movimiento : movimientos) {
+            if (movimiento.getFechaTrans().after(corte)) {
+                detenida = true;
+                break;
+            }
+            acumular.add(movimiento);
+        }
+        if (acumular.isEmpty()) {
+            return new int[] { 0, detenida ? 1 : 0 };
+        }
+
+        acumular(acumular);
+        registrarHuecos(marca.getUltimoIdTransaccion(), acumular);
+
+        marca.setUltimoIdTransaccion(acumular.get(acumular.size() - 1).getIdTrans());
+        marca.setFechaEjecucion(new Date());
+        return new int[] { acumular.size(), detenida ? 1 : 0 };
+    }
+
+    private MarcaLiquidacion bloquearMarca() {
+        return marcaLiquidacionRepository.bloquear(PROCESO)
+                .orElseGet(() -> marcaLiquidacionRepository.save(new MarcaLiquidacion(PROCESO, 0L)));
+    }
+
+    // Los ID que faltan entre la marca y las filas del lote (en orden de ID). Con
+    // la marca en 0 (primera ejecución) no hay huecos: la historia empieza donde empiece.
+    private void registrarHuecos(long marca, List<MovimientoLiquidacion> movimientos) {
+        Date ahora = new Date();
+        List<PendienteLiquidacion> pendientes = new ArrayList<>();
+        long anterior = marca;
+        for (MovimientoLiquidacion movimiento : movimientos) {
+            long id = movimiento.getIdTrans();
+            if (anterior > 0 && id - anterior - 1 > huecoMaximo) {
+                log.warn("Liquidacion diaria: salto de {} ID entre {} y {}, no se siguen", id - anterior - 1,
+                        anterior, id);
+            } else if (anterior > 0) {
+                for (long faltante = anterior + 1; faltante < id; faltante++) {
+                    pendientes.add(new PendienteLiquidacion(faltante, ahora));
+                }
+            }
+            anterior = id;
+        }
+        pendienteLiquidacionRepository.saveAll(pendientes);
+    }
+
+    private void acumular(List<MovimientoLiquidacion> acumular) {
+        ZoneId zona = ZoneId.systemDefault();
+        // Un solo SELECT para los días ya existentes del lote
+        Set<Long> tarjetas = new HashSet<>();
+        Set<LocalDate> fechas = new HashSet<>();
+        for (MovimientoLiquidacion movimiento : acumular) {
+            tarjetas.add(movimiento.getIdTarjeta());
+            fechas.add(dia(movimiento, zona));
+        }
+        Map<ResumenDiarioTarjeta.Llave, ResumenDiarioTarjeta> resumenes = new HashMap<>();
+        for (ResumenDiarioTarjeta resumen : resumenDiarioTarjetaRepository.buscarDelLote(tarjetas, fechas)) {
+            resumenes.put(resumen.getId(), resumen);
+        }
+
+        List<ResumenDiarioTarjeta> nuevos = new ArrayList<>();
+        for (MovimientoLiquidacion movimiento : acumular) {
+            LocalDate dia = dia(movimiento, zona);
+            ResumenDiarioTarjeta resumen = resumenes.computeIfAbsent(
+                    new ResumenDiarioTarjeta.Llave(movimiento.getIdTarjeta(), dia), llave -> {
+                        ResumenDiarioTarjeta nuevo = new ResumenDiarioTarjeta(movimiento.getIdTarjeta(), dia,
+                                NumeroTarjeta.producto(movimiento.getIdTarjeta()));
+                        nuevos.add(nuevo);
+                        return nuevo;
+                    });
+            sumar(resumen, movimiento);
+        }
+        // Los existentes se actualizan al confirmar; los nuevos se insertan
+        resumenDiarioTarjetaRepository.saveAll(nuevos);
+    }
+
+    private static void sumar(ResumenDiarioTarjeta resumen, MovimientoLiquidacion movimiento) {
+        long estado = movimiento.getIdEstadoTrans() != null ? movimiento.getIdEstadoTrans() : 0L;
+        if (estado == ESTADO_EXITOSA) {
+            resumen.sumarAprobada(movimiento.getValorTrans());
+        } else if (estado == ESTADO_FALLIDA && movimiento.getAnulaciones() > 0) {
+            resumen.sumarAnulada(movimiento.getValorTrans());
+        } else if (estado == ESTADO_FALLIDA) {
+            resumen.sumarRechazada(movimiento.getValorTrans());
+        }
+    }
+
+    private static LocalDate dia(MovimientoLiquidacion movimiento, ZoneId zona) {
+        return movimiento.getFechaTrans().toInstant().atZone(zona).toLocalDate();
+    }
+
+    // Totales por día de una tarjeta, del resumen (no incluye lo que aún no se liquida)
+    public List<ResumenDiarioDTO> resumenTarjeta(Long idTarjeta, LocalDate desde, LocalDate hasta) {
+        LocalDate[] rango = validarRango(desde, hasta);
+        return resumenDiarioMapper.toDtoList(resumenDiarioTarjetaRepository
+                .findByIdTarjetaAndFechaBetweenOrderByFechaAsc(idTarjeta, rango[0], rango[1]));
+    }
+
+    // Totales por día de todas las tarjetas de un producto
+    public List<ResumenDiarioDTO> resumenProducto(Long idProducto, LocalDate desde, LocalDate hasta) {
+        LocalDate[] rango = validarRango(desde, hasta);
+        return resumenDiarioTarjetaRepository.totalizarProducto(idProducto, rango[0], rango[1]);
+    }
+
+    // Sin fechas: los últimos 30 días hasta hoy
+    private static LocalDate[] validarRango(LocalDate desde, LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(30);
+        if (inicio.isAfter(fin)) {
+            throw new RuntimeException("La fecha inicial no puede ser posterior a la fecha final");
+        }
+        if (inicio.plusDays(DIAS_MAXIMOS_REPORTE).isBefore(fin)) {
+            throw new RuntimeException("El rango no puede ser mayor a " + DIAS_MAXIMOS_REPORTE + " días");
+        }
+        return new LocalDate[] { inicio, fin };
+    }
+}
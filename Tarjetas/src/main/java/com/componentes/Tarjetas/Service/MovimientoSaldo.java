@@ -0,0 +1,21 @@
+package com.componentes.Tarjetas.Service;
+
+import java.math.BigDecimal;
+
+// Registro del diario del libro de saldos. Una COMPRA genera una fila en
+// TRANSACIONES (exitosa o rechazada); un AJUSTE solo cambia el saldo (recargas
+// y anulaciones, cuya transacción se registra por su propio flujo).
+// saldoCentavos es el saldo de la tarjeta después de aplicar el movimiento.
+// llave es la llave de idempotencia de la compra, si el cliente la envió.
+record MovimientoSaldo(long secuencia, byte tipo, long idTarjeta, Long idTrans, BigDecimal valor,
+                       long saldoCentavos, long fecha, boolean exitosa, String moneda, String descripcion,
+                       String llave) {
+
+    static final byte COMPRA = 1;
+    static final byte AJUSTE = 2;
+
+    MovimientoSaldo conSecuencia(long nuevaSecuencia) {
+        return new MovimientoSaldo(nuevaSecuencia, tipo, idTarjeta, idTrans, valor, saldoCentavos, fecha,
+                exitosa, moneda, descripcion, llave);
+    }
+}
@@ -1,22 +1,30 @@
 package com.componentes.Tarjetas.Service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.componentes.Tarjetas.Entity.Tarjeta;
 import com.componentes.Tarjetas.Repository.ProductoRepository;
 import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.dtos.PaginaDTO;
+import com.componentes.Tarjetas.dtos.ProgresoAprovisionamientoDTO;
 import com.componentes.Tarjetas.dtos.SaldoTarjDTO;
 import com.componentes.Tarjetas.dtos.TarjetaDTO;
 import com.componentes.Tarjetas.mappers.TarjetaMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+import com.componentes.Tarjetas.util.Dinero;
+import com.componentes.Tarjetas.util.FechaMesAnio;
+import com.componentes.Tarjetas.util.NumeroTarjeta;
+import com.componentes.Tarjetas.util.Paginacion;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 public class TarjetaService {
@@ -30,13 +38,33 @@ public class TarjetaService {
     @Autowired
     private TarjetaMapper tarjetaMapper;
     
-    private SimpleDateFormat formatoFecha = new SimpleDateFormat("MM/yyyy");
+    @Autowired
+    private GeneradorNumeroTarjeta generadorNumeroTarjeta;
+    
+    @Autowired
+    private LibroSaldos libroSaldos;
+    
+    @Autowired
+    private MetricasTransacciones metricasTransacciones;
+    
+    public static final int CANTIDAD_APROVISIONAMIENTO_MAXIMA = 100_000;
+    public static final int TAMANO_BLOQUE_APROVISIONAMIENTO = 1000;
 
-    public List<TarjetaDTO> getAllTarjetas() {
-        return tarjetaRepository.findAll()
-                .stream()
-                .map(tarjetaMapper::toDto)
-                .collect(Collectors.toList());
+    // Listar tarjetas paginadas por cursor (el último ID_TARJETA recibido)
+    public PaginaDTO<TarjetaDTO> getTarjetas(Long cursor, Integer tamano) {
+        int tamanoPagina = Paginacion.validarTamanoPagina(tamano);
+        long desde = cursor != null ? cursor : 0L;
+        
+        // Se pide un registro extra solo para saber si existe otra página
+        List<Tarjeta> tarjetas = tarjetaRepository
+                .findByIdTarjetaGreaterThanOrderByIdTarjetaAsc(desde, Limit.of(tamanoPagina + 1));
+        
+        Long siguienteCursor = null;
+        if (tarjetas.size() > tamanoPagina) {
+            tarjetas = tarjetas.subList(0, tamanoPagina);
+            siguienteCursor = tarjetas.get(tamanoPagina - 1).getIdTarjeta();
+        }
+        return new PaginaDTO<>(tarjetaMapper.toDtoList(tarjetas), siguienteCursor, tamanoPagina);
     }
 
     public Optional<TarjetaDTO> getTarjetaById(Long id) {
@@ -66,17 +94,14 @@ public class TarjetaService {
         // Establecer valores por defecto y calculados
         tarjetaDTO.setCardId(numeroTarjetaCompleto);
         tarjetaDTO.setIdEstado(2L);  // Estado por defecto
-        tarjetaDTO.setSaldo(0.0);    // Saldo inicial
+        tarjetaDTO.setSaldo(Dinero.desdeCentavos(0L));    // Saldo inicial
         tarjetaDTO.setMoneda("USD");;
         // Establecer fechas
         Date fechaActual = new Date();
-        tarjetaDTO.setFechaCreacion(formatoFecha.format(fechaActual));
+        tarjetaDTO.setFechaCreacion(FechaMesAnio.formatear(fechaActual));
         
         // Calcular fecha de vencimiento (3 años después)
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(fechaActual);
-        calendar.add(Calendar.YEAR, 3);
-        tarjetaDTO.setFechaVencimiento(formatoFecha.format(calendar.getTime()));
+        tarjetaDTO.setFechaVencimiento(FechaMesAnio.formatearMasAnios(fechaActual, 3));
         
         // Asignar el número de tarjeta generado
         tarjetaDTO.setCardId(numeroTarjetaCompleto);
@@ -109,18 +134,15 @@ public class TarjetaService {
         // Establecer valores por defecto
         tarjetaDTO.setIdEstado(2L);  // Estado por defecto (inactivo)
         tarjetaDTO.setTitular("sin cliente asignado");
-        tarjetaDTO.setSaldo(0.0);
+        tarjetaDTO.setSaldo(Dinero.desdeCentavos(0L));
         tarjetaDTO.setMoneda("USD");;
         
         // Establecer fechas
         Date fechaActual = new Date();
-        tarjetaDTO.setFechaCreacion(formatoFecha.format(fechaActual));
+        tarjetaDTO.setFechaCreacion(FechaMesAnio.formatear(fechaActual));
         
         // Calcular fecha de vencimiento (3 años después)
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(fechaActual);
-        calendar.add(Calendar.YEAR, 3);
-        tarjetaDTO.setFechaVencimiento(formatoFecha.format(calendar.getTime()));
+        tarjetaDTO.setFechaVencimiento(FechaMesAnio.formatearMasAnios(fechaActual, 3));
         
         // Guardar la tarjeta
         Tarjeta tarjeta = tarjetaMapper.toEntity(tarjetaDTO);
@@ -128,44 +150,80 @@ public class TarjetaService {
         return tarjetaMapper.toDto(savedTarjeta);
     }
 
-    private Long generateCardNumber(Long idProducto) {
-        // Validar que el ID del producto tenga 6 dígitos
-        String idProductoStr = String.format("%06d", idProducto);
-        if (idProductoStr.length() != 6) {
+    // Validaciones del aprovisionamiento masivo, antes de empezar a enviar el avance
+    public void validarAprovisionamiento(Long idProducto, Integer cantidad) {
+        if (cantidad == null || cantidad <= 0) {
+            throw new RuntimeException("La cantidad de tarjetas debe ser mayor a 0");
+        }
+        if (cantidad > CANTIDAD_APROVISIONAMIENTO_MAXIMA) {
+            throw new RuntimeException("No se pueden aprovisionar más de " + CANTIDAD_APROVISIONAMIENTO_MAXIMA
+                    + " tarjetas por solicitud");
+        }
+        if (idProducto < 0 || idProducto > NumeroTarjeta.PRODUCTO_MAXIMO) {
             throw new RuntimeException("El ID del producto debe tener 6 dígitos");
         }
-
-        // Generar 10 dígitos aleatorios
-        Random random = new Random();
-        StringBuilder randomPart = new StringBuilder();
-        for (int i = 0; i < 10; i++) {
-            randomPart.append(random.nextInt(10));
+        if (!productoRepository.existsById(idProducto)) {
+            throw new RuntimeException("No existe un producto con el ID: " + idProducto);
         }
-
-        // Combinar ID del producto con números aleatorios
-        String cardNumber = idProductoStr + randomPart.toString();
-        
-        // Verificar que el número generado no exista ya
-        Long numeroTarjeta = Long.parseLong(cardNumber);
-        int intentos = 0;
-        while (tarjetaRepository.existsById(numeroTarjeta) && intentos < 5) {
-            // Si existe, generar otro número
-            randomPart = new StringBuilder();
-            for (int i = 0; i < 10; i++) {
-                randomPart.append(random.nextInt(10));
+    }
+    
+    // Crea tarjetas sin cliente asignado (los mismos valores que generateTarjeta)
+    // en bloques de TAMANO_BLOQUE_APROVISIONAMIENTO: un NEXTVAL y un lote JDBC por
+    // bloque. Después de cada bloque se informa el avance; si un bloque falla, los
+    // anteriores ya quedaron guardados.
+    public ProgresoAprovisionamientoDTO aprovisionarTarjetas(Long idProducto, Integer cantidad,
+                                                            Consumer<ProgresoAprovisionamientoDTO> avance) {
+        validarAprovisionamiento(idProducto, cantidad);
+        
+        // Las fechas se guardan como el primer día del mes, igual que al mapear el DTO
+        Date fechaActual = new Date();
+        Date fechaCreacion = FechaMesAnio.parsear(FechaMesAnio.formatear(fechaActual));
+        Date fechaVencimiento = FechaMesAnio.parsear(FechaMesAnio.formatearMasAnios(fechaActual, 3));
+        BigDecimal saldoInicial = Dinero.desdeCentavos(0L);
+        
+        int creadas = 0;
+        while (creadas < cantidad) {
+            int tamanoBloque = Math.min(TAMANO_BLOQUE_APROVISIONAMIENTO, cantidad - creadas);
+            long[] numeros = generadorNumeroTarjeta.generar(idProducto, tamanoBloque);
+            
+            List<Tarjeta> bloque = new ArrayList<>(tamanoBloque);
+            for (long numero : numeros) {
+                Tarjeta tarjeta = new Tarjeta();
+                tarjeta.setIdTarjeta(numero);
+                tarjeta.setIdProducto(idProducto);
+                tarjeta.setIdEstado(2L);  // Estado por defecto (inactivo)
+                tarjeta.setTitular("sin cliente asignado");
+                tarjeta.setFechaCreacion(fechaCreacion);
+                tarjeta.setFechaVencimiento(fechaVencimiento);
+                tarjeta.setSaldo(saldoInicial);
+                tarjeta.setMONEDA("USD");
+                bloque.add(tarjeta);
+            }
+            tarjetaRepository.insertarLote(bloque);
+            creadas += tamanoBloque;
+            
+            if (creadas < cantidad) {
+                avance.accept(new ProgresoAprovisionamientoDTO(idProducto, creadas, cantidad, false));
             }
-            cardNumber = idProductoStr + randomPart.toString();
-            numeroTarjeta = Long.parseLong(cardNumber);
-            intentos++;
         }
         
-        if (intentos >= 5) {
-            throw new RuntimeException("No se pudo generar un número de tarjeta único después de 5 intentos");
-        }
+        ProgresoAprovisionamientoDTO resultado = new ProgresoAprovisionamientoDTO(idProducto, creadas, cantidad, true);
+        avance.accept(resultado);
+        return resultado;
+    }
 
-        return numeroTarjeta;
+    // Número de tarjeta sin consultar la base de datos (ver GeneradorNumeroTarjeta)
+    private Long generateCardNumber(Long idProducto) {
+        // Validar que el ID del producto tenga 6 dígitos
+        if (idProducto < 0 || idProducto > NumeroTarjeta.PRODUCTO_MAXIMO) {
+            throw new RuntimeException("El ID del producto debe tener 6 dígitos");
+        }
+        return generadorNumeroTarjeta.generar(idProducto);
     }
 
+    // El saldo y el estado se confirman juntos: los dos UPDATE participan de esta
+    // transacción en lugar de confirmarse cada uno por su cuenta
+    @Transactional
     public TarjetaDTO updateTarjeta(Long id, TarjetaDTO tarjetaDTO) {
         // Verificar que la tarjeta existe
         Tarjeta tarjetaExistente = tarjetaRepository.findById(id)
@@ -184,21 +242,26 @@ public class TarjetaService {
         tarjetaDTO.setCardId(id);
         tarjetaDTO.setIdProducto(tarjetaExistente.getIdProducto());
         tarjetaDTO.setTitular(tarjetaExistente.getTitular());
-        tarjetaDTO.setFechaCreacion(formatoFecha.format(tarjetaExistente.getFechaCreacion()));
-        tarjetaDTO.setFechaVencimiento(formatoFecha.format(tarjetaExistente.getFechaVencimiento()));
+        tarjetaDTO.setFechaCreacion(FechaMesAnio.formatear(tarjetaExistente.getFechaCreacion()));
+        tarjetaDTO.setFechaVencimiento(FechaMesAnio.formatear(tarjetaExistente.getFechaVencimiento()));
         
         // Solo permitir actualizar saldo y estado
+        if (tarjetaDTO.getSaldo() != null && libroSaldos.administra(id)) {
+            throw new RuntimeException("El saldo de esta tarjeta solo se modifica con compras, recargas y anulaciones");
+        }
+        // Un saldo explícito es un ajuste administrativo: se fija tal cual se recibió
         if (tarjetaDTO.getSaldo() != null) {
+            tarjetaRepository.fijarSaldo(id, tarjetaDTO.getSaldo());
             tarjetaExistente.setSaldo(tarjetaDTO.getSaldo());
         }
         
         if (tarjetaDTO.getIdEstado() != null) {
+            tarjetaRepository.cambiarEstado(id, tarjetaDTO.getIdEstado());
             tarjetaExistente.setIdEstado(tarjetaDTO.getIdEstado());
+            avisarLibroSaldos(tarjetaExistente);
         }
         tarjetaDTO.setMoneda(tarjetaExistente.getMONEDA());
-        // Guardar los cambios
-        Tarjeta updatedTarjeta = tarjetaRepository.save(tarjetaExistente);
-        return tarjetaMapper.toDto(updatedTarjeta);
+        return tarjetaMapper.toDto(tarjetaExistente);
     }
     //Activar la tarjeta 
     public TarjetaDTO activarTarjeta(Long id) {
@@ -212,11 +275,7 @@ public class TarjetaService {
         }
         
         // Cambiar a estado activo
-        tarjeta.setIdEstado(1L);
-        
-        // Guardar los cambios
-        Tarjeta updatedTarjeta = tarjetaRepository.save(tarjeta);
-        return tarjetaMapper.toDto(updatedTarjeta);
+        return cambiarEstado(tarjeta, 1L);
     }
     //desactivar la tarjeta 
     public TarjetaDTO desactivarTarjeta(Long id) {
@@ -230,11 +289,23 @@ public class TarjetaService {
         }
         
         // Cambiar a estado inactivo
-        tarjeta.setIdEstado(2L);
-        
-        // Guardar los cambios
-        Tarjeta updatedTarjeta = tarjetaRepository.save(tarjeta);
-        return tarjetaMapper.toDto(updatedTarjeta);
+        return cambiarEstado(tarjeta, 2L);
+    }
+
+    // Cambia solo ID_ESTADO (no se vuelve a escribir el saldo leído antes)
+    private TarjetaDTO cambiarEstado(Tarjeta tarjeta, Long idEstado) {
+        tarjetaRepository.cambiarEstado(tarjeta.getIdTarjeta(), idEstado);
+        tarjeta.setIdEstado(idEstado);
+        avisarLibroSaldos(tarjeta);
+        return tarjetaMapper.toDto(tarjeta);
+    }
+
+    // Si la tarjeta está en el libro de saldos, le avisa para que refresque el
+    // estado; la respuesta lleva el saldo del libro
+    private void avisarLibroSaldos(Tarjeta tarjeta) {
+        if (libroSaldos.administra(tarjeta.getIdTarjeta())) {
+            libroSaldos.actualizarTarjeta(tarjeta);
+        }
     }
 
     public void deleteTarjeta(Long id) {
@@ -252,19 +323,30 @@ public class TarjetaService {
             throw new RuntimeException("La tarjeta ya se encuentra bloqueada");
         }
         
-        // Cambiar a estado bloqueado (2)
-        tarjeta.setIdEstado(3L);
-        
-        // Guardar los cambios
-        Tarjeta updatedTarjeta = tarjetaRepository.save(tarjeta);
-        return tarjetaMapper.toDto(updatedTarjeta);
+        // Cambiar a estado bloqueado (3)
+        return cambiarEstado(tarjeta, 3L);
     }
     
     //recargar saldo 
-    public TarjetaDTO recargarTarjeta(Long cardId, Double montoRecarga) {
+    public TarjetaDTO recargarTarjeta(Long cardId, BigDecimal montoRecarga) {
+        long inicio = System.nanoTime();
+        Tarjeta tarjeta = tarjetaRepository.findById(cardId).orElse(null);
+        Long idProducto = tarjeta != null ? tarjeta.getIdProducto() : null;
+        try {
+            TarjetaDTO recargada = recargar(cardId, tarjeta, montoRecarga);
+            metricasTransacciones.recarga(idProducto, null, inicio, montoRecarga);
+            return recargada;
+        } catch (RuntimeException e) {
+            metricasTransacciones.recarga(idProducto, e.getMessage(), inicio, montoRecarga);
+            throw e;
+        }
+    }
+    
+    private TarjetaDTO recargar(Long cardId, Tarjeta tarjeta, BigDecimal montoRecarga) {
         // Verificar que la tarjeta existe
-        Tarjeta tarjeta = tarjetaRepository.findById(cardId)
-                .orElseThrow(() -> new RuntimeException("No existe una tarjeta con el ID: " + cardId));
+        if (tarjeta == null) {
+            throw new RuntimeException("No existe una tarjeta con el ID: " + cardId);
+        }
         
         // Validar el estado de la tarjeta
         if (tarjeta.getIdEstado() == 2L) {
@@ -281,17 +363,28 @@ public class TarjetaService {
         }
                 
         // Validar que el monto de recarga sea positivo
-        if (montoRecarga <= 0) {
+        if (montoRecarga.signum() <= 0) {
             throw new RuntimeException("El monto de recarga debe ser mayor a 0");
         }
         
-        // Sumar el nuevo saldo
-        Double saldoActual = tarjeta.getSaldo();
-        tarjeta.setSaldo(saldoActual + montoRecarga);
+        if (!Dinero.escalaValida(montoRecarga)) {
+            throw new RuntimeException("El monto de recarga no puede tener más de 2 decimales");
+        }
         
-        // Guardar los cambios
-        Tarjeta updatedTarjeta = tarjetaRepository.save(tarjeta);
-        return tarjetaMapper.toDto(updatedTarjeta);
+        // Las tarjetas del libro de saldos se recargan en memoria (sin save)
+        if (libroSaldos.administra(cardId)) {
+            tarjeta.setSaldo(libroSaldos.acreditar(cardId, montoRecarga));
+            return tarjetaMapper.toDto(tarjeta);
+        }
+        
+        // La suma la hace la base de datos en un solo UPDATE: una compra que
+        // debita la misma tarjeta entre la lectura y la recarga no se pierde
+        if (tarjetaRepository.acreditarSaldo(cardId, montoRecarga) == 0) {
+            throw new RuntimeException("No existe una tarjeta con el ID: " + cardId);
+        }
+        TarjetaDTO recargada = tarjetaMapper.toDto(tarjeta);
+        recargada.setSaldo(tarjetaRepository.consultarSaldo(cardId));
+        return recargada;
     }
     
     //saldo de la tarjeta 
@@ -303,7 +396,7 @@ public class TarjetaService {
         // Crear DTO con la información solicitada
         SaldoTarjDTO saldoInfo = new SaldoTarjDTO();
         saldoInfo.setCardId(cardId);
-        saldoInfo.setBalance(tarjeta.getSaldo());
+        saldoInfo.setBalance(libroSaldos.administra(cardId) ? libroSaldos.saldo(cardId) : tarjeta.getSaldo());
         
         return saldoInfo;
     }
@@ -324,11 +417,12 @@ public class TarjetaService {
             throw new RuntimeException("La tarjeta ya tiene un titular asignado");
         }
         
-        // Asignar el nuevo titular
+        // Asignar el nuevo titular; si otra petición lo asignó primero no se pisa
+        if (tarjetaRepository.asignarTitular(cardId, titular) == 0) {
+            throw new RuntimeException("La tarjeta ya tiene un titular asignado");
+        }
         tarjeta.setTitular(titular);
-        
-        // Guardar los cambios
-        Tarjeta updatedTarjeta = tarjetaRepository.save(tarjeta);
-        return tarjetaMapper.toDto(updatedTarjeta);
+        avisarLibroSaldos(tarjeta);
+        return tarjetaMapper.toDto(tarjeta);
     }
 }
\ No newline at end of file
@@ -1,11 +1,22 @@
 package com.componentes.Tarjetas.Service;
 
-import java.text.SimpleDateFormat;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.componentes.Tarjetas.Entity.EstadoTrans;
 import com.componentes.Tarjetas.Entity.Tarjeta;
@@ -16,8 +27,15 @@ import com.componentes.Tarjetas.Repository.TransaccionRepository;
 import com.componentes.Tarjetas.dtos.TransAnulacionDTO;
 import com.componentes.Tarjetas.dtos.TransCompraDTO;
 import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.componentes.Tarjetas.dtos.PaginaDTO;
 import com.componentes.Tarjetas.dtos.RespAnuTransDTO;
+import com.componentes.Tarjetas.dtos.ResultadoCompraDTO;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
 import com.componentes.Tarjetas.mappers.TransaccionMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+import com.componentes.Tarjetas.util.Dinero;
+import com.componentes.Tarjetas.util.NumeroTarjeta;
+import com.componentes.Tarjetas.util.Paginacion;
 
 @Service
 public class TransaccionService {
@@ -33,12 +51,53 @@ public class TransaccionService {
     
     @Autowired
     private TarjetaRepository tarjetaRepository;
-
-    private SimpleDateFormat formatoFecha = new SimpleDateFormat("MM/yyyy");
     
-    // Obtener todas las transacciones
-    public List<TransaccionDTO> getAllTransacciones() {
-        List<Transaccion> transacciones = transaccionRepository.findAll();
+    @Autowired
+    private LibroSaldos libroSaldos;
+    
+    @Autowired
+    private DiarioTransacciones diarioTransacciones;
+    
+    @Autowired
+    private MetricasTransacciones metricasTransacciones;
+    
+    public static final int TAMANO_LOTE_MAXIMO = 500;
+    
+    // Obtener transacciones paginadas por cursor (el último ID recibido)
+    public PaginaDTO<TransaccionDTO> getTransacciones(Long cursor, Integer tamano) {
+        int tamanoPagina = Paginacion.validarTamanoPagina(tamano);
+        long desde = cursor != null ? cursor : 0L;
+        
+        // Se pide un registro extra solo para saber si existe otra página
+        List<Transaccion> transacciones = transaccionRepository
+                .findByIdTransGreaterThanOrderByIdTransAsc(desde, Limit.of(tamanoPagina + 1));
+        
+        Long siguienteCursor = null;
+        if (transacciones.size() > tamanoPagina) {
+            transacciones = transacciones.subList(0, tamanoPagina);
+            siguienteCursor = transacciones.get(tamanoPagina - 1).getIdTrans();
+        }
+        return new PaginaDTO<>(transaccionMapper.toDtoList(transacciones), siguienteCursor, tamanoPagina);
+    }
+    
+    // Historial de transacciones de una tarjeta, de la más reciente a la más antigua.
+    // Las fechas son inclusivas; sin filtros se toman las últimas transacciones.
+    public List<TransaccionDTO> getTransaccionesPorTarjeta(Long idTarjeta, LocalDate desde, LocalDate hasta,
+                                                           Long idEstadoTrans, Integer tamano) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new RuntimeException("La fecha inicial no puede ser posterior a la fecha final");
+        }
+        int tamanoPagina = Paginacion.validarTamanoPagina(tamano);
+        
+        // Siempre se envía un rango cerrado para que la consulta use el índice
+        ZoneId zona = ZoneId.systemDefault();
+        Date inicio = desde != null ? Date.from(desde.atStartOfDay(zona).toInstant()) : new Date(0L);
+        Date fin = hasta != null
+                ? Date.from(hasta.plusDays(1).atStartOfDay(zona).toInstant())
+                : Date.from(LocalDate.now(zona).plusDays(1).atStartOfDay(zona).toInstant());
+        
+        List<Transaccion> transacciones = transaccionRepository.buscarHistorialTarjeta(
+                idTarjeta, inicio, fin, idEstadoTrans, Limit.of(tamanoPagina));
         return transaccionMapper.toDtoList(transacciones);
     }
     
@@ -95,54 +154,22 @@ public class TransaccionService {
     }
     
     // hacer una compra
-    
+    // El débito y el registro de la transacción se confirman en un mismo commit.
+    // Las compras rechazadas también quedan registradas, por eso no hacen rollback.
+    // La métrica se registra al confirmar: una compra que se deshace (y que la
+    // escritura agrupada vuelve a ejecutar) no se cuenta.
+    @Transactional(noRollbackFor = CompraRechazadaException.class)
     public TransaccionDTO procesarCompra(TransCompraDTO compraDTO) {
-        // Variable para controlar si la transacción es exitosa
-        boolean transaccionExitosa = true;
-        String mensajeError = "Exitoso";
-
-        // Validar moneda
-        if (!"USD".equalsIgnoreCase(compraDTO.getMoneda())) {
-            transaccionExitosa = false;
-            mensajeError = "Solo se permiten compras en USD";
-        }
-
-        // Verificar que la tarjeta existe
-        Tarjeta tarjeta = null;
-        try {
-            tarjeta = tarjetaRepository.findById(compraDTO.getCardId())
-                    .orElseThrow(() -> new RuntimeException("No existe una tarjeta con el ID: " + compraDTO.getCardId()));
-        } catch (RuntimeException e) {
-            transaccionExitosa = false;
-            mensajeError = e.getMessage();
-        }
-
-        // Solo continuar con las validaciones si la tarjeta existe
-        if (tarjeta != null) {
-            // Validar estado de la tarjeta
-            if (tarjeta.getIdEstado() != 1L) {
-                transaccionExitosa = false;
-                mensajeError = "La tarjeta debe estar activa para realizar compras";
-            }
-
-            // Validar fecha de vencimiento
-            try {
-                Date fechaVencimiento = tarjeta.getFechaVencimiento();
-                Date fechaActual = new Date();
-                if (fechaActual.after(fechaVencimiento)) {
-                    transaccionExitosa = false;
-                    mensajeError = "La tarjeta está vencida";
-                }
-            } catch (Exception e) {
-                transaccionExitosa = false;
-                mensajeError = "Error al validar la fecha de vencimiento";
-            }
-
-            // Validar saldo suficiente
-            if (tarjeta.getSaldo() < compraDTO.getPrice()) {
-                transaccionExitosa = false;
-                mensajeError = "Saldo insuficiente para realizar la compra";
-            }
+        long inicio = System.nanoTime();
+        // Verificar que la tarjeta existe y aplicar las validaciones
+        Tarjeta tarjeta = compraDTO.getCardId() != null
+                ? tarjetaRepository.findById(compraDTO.getCardId()).orElse(null)
+                : null;
+        Long idProducto = tarjeta != null ? tarjeta.getIdProducto() : null;
+        String mensajeError = validarCompra(compraDTO, tarjeta, tarjeta != null ? centavosSaldo(tarjeta) : 0L);
+        boolean transaccionExitosa = mensajeError == null;
+        if (transaccionExitosa) {
+            mensajeError = "Exitoso";
         }
 
         // Crear nueva transacción
@@ -155,20 +182,26 @@ public class TransaccionService {
         transaccionDTO.setDescripcion(mensajeError);
 
         if (transaccionExitosa) {
-            transaccionDTO.setIdEstadoTrans(1L); // Estado exitoso
-            // Actualizar saldo de la tarjeta
-            tarjeta.setSaldo(tarjeta.getSaldo() - compraDTO.getPrice());
-            tarjetaRepository.save(tarjeta);
+            // Debitar con un UPDATE condicional: si otra compra concurrente ya
+            // consumió el saldo, la sentencia no afecta ninguna fila
+            int filasActualizadas = tarjetaRepository.debitarSaldo(compraDTO.getCardId(), compraDTO.getPrice());
+            if (filasActualizadas == 0) {
+                transaccionExitosa = false;
+                mensajeError = "Saldo insuficiente para realizar la compra";
+                transaccionDTO.setDescripcion(mensajeError);
+            } else {
+                transaccionDTO.setIdEstadoTrans(1L); // Estado exitoso
+            }
         }
 
         // Guardar la transacción
         EstadoTrans estadoTrans = estadoTransRepository.findById(transaccionDTO.getIdEstadoTrans())
                 .orElseThrow(() -> new RuntimeException("Estado de transacción no encontrado"));
         
-        Transaccion savedTransaccion = transaccionRepository.save(transaccionMapper.toEntity(
-            transaccionDTO, 
-            estadoTrans
-        ));
+        Transaccion transaccion = transaccionMapper.toEntity(transaccionDTO, estadoTrans);
+        // Índice único: un reintento concurrente de otra instancia no se registra dos veces
+        transaccion.setLlaveIdempotencia(compraDTO.getIdempotencyKey());
+        Transaccion savedTransaccion = guardarTransaccion(transaccion);
         
         // Crear DTO de respuesta con los campos requeridos
         TransaccionDTO respuestaDTO = new TransaccionDTO();
@@ -179,17 +212,209 @@ public class TransaccionService {
         respuestaDTO.setValorTrans(savedTransaccion.getValorTrans());
         respuestaDTO.setMoneda(savedTransaccion.getMONEDA());
         
+        String rechazo = transaccionExitosa ? null : mensajeError;
+        despuesDeConfirmar(() -> metricasTransacciones.compra(idProducto, rechazo, inicio, compraDTO.getPrice()));
         if (!transaccionExitosa) {
-            throw new RuntimeException(mensajeError);
+            throw new CompraRechazadaException(mensajeError);
         }
         
         return respuestaDTO;
     }
+    // Compras en lote. Las tarjetas del lote se bloquean con una sola consulta,
+    // cada compra se valida en memoria contra el saldo que dejaron las anteriores
+    // de la misma tarjeta, y los débitos (UPDATE) y las transacciones (INSERT)
+    // se envían agrupados en lotes JDBC al confirmar (hibernate.jdbc.batch_size).
+    // Las compras rechazadas quedan registradas igual que en el flujo individual.
+    // Las tarjetas del libro de saldos en memoria no se aceptan en lote.
+    // Las métricas de cada compra se registran al confirmar el lote, con la
+    // duración del lote completo.
+    @Transactional
+    public List<ResultadoCompraDTO> procesarComprasLote(List<TransCompraDTO> compras) {
+        long inicio = System.nanoTime();
+        if (compras == null || compras.isEmpty()) {
+            throw new RuntimeException("El lote de compras está vacío");
+        }
+        if (compras.size() > TAMANO_LOTE_MAXIMO) {
+            throw new RuntimeException("El lote no puede tener más de " + TAMANO_LOTE_MAXIMO + " compras");
+        }
+
+        // Agrupar por tarjeta: una sola consulta para todas las tarjetas del lote
+        Set<Long> idsTarjetas = new HashSet<>();
+        for (TransCompraDTO compra : compras) {
+            if (compra.getCardId() != null && !libroSaldos.administra(compra.getCardId())) {
+                idsTarjetas.add(compra.getCardId());
+            }
+        }
+        Map<Long, Tarjeta> tarjetas = new HashMap<>();
+        Map<Long, long[]> saldosCentavos = new HashMap<>();
+        for (Tarjeta tarjeta : tarjetaRepository.findByIdTarjetaInOrderByIdTarjetaAsc(idsTarjetas)) {
+            tarjetas.put(tarjeta.getIdTarjeta(), tarjeta);
+            saldosCentavos.put(tarjeta.getIdTarjeta(), new long[] { centavosSaldo(tarjeta) });
+        }
+
+        EstadoTrans estadoExitoso = estadoTransRepository.findById(1L)
+                .orElseThrow(() -> new RuntimeException("Estado de transacción no encontrado"));
+        EstadoTrans estadoFallido = estadoTransRepository.findById(3L)
+                .orElseThrow(() -> new RuntimeException("Estado de transacción no encontrado"));
+
+        Date fechaLote = new Date();
+        List<Transaccion> transacciones = new ArrayList<>(compras.size());
+        for (TransCompraDTO compra : compras) {
+            Tarjeta tarjeta = tarjetas.get(compra.getCardId());
+            long[] saldo = saldosCentavos.get(compra.getCardId());
+            String mensajeError = libroSaldos.administra(compra.getCardId())
+                    ? "La tarjeta " + compra.getCardId() + " solo admite compras individuales"
+                    : validarCompra(compra, tarjeta, saldo != null ? saldo[0] : 0L);
+            if (mensajeError == null) {
+                saldo[0] = Dinero.debitar(saldo[0], Dinero.aCentavos(compra.getPrice()));
+            }
+
+            TransaccionDTO transaccionDTO = new TransaccionDTO();
+            transaccionDTO.setIdTarjeta(compra.getCardId());
+            transaccionDTO.setFechaTrans(fechaLote);
+            transaccionDTO.setMoneda(compra.getMoneda());
+            transaccionDTO.setValorTrans(compra.getPrice());
+            transaccionDTO.setDescripcion(mensajeError == null ? "Exitoso" : mensajeError);
+            transacciones.add(transaccionMapper.toEntity(transaccionDTO,
+                    mensajeError == null ? estadoExitoso : estadoFallido));
+        }
+
+        // Las tarjetas están bloqueadas y administradas: un UPDATE por tarjeta en el flush
+        for (Tarjeta tarjeta : tarjetas.values()) {
+            long saldoFinal = saldosCentavos.get(tarjeta.getIdTarjeta())[0];
+            if (saldoFinal != centavosSaldo(tarjeta)) {
+                tarjeta.setSaldo(Dinero.desdeCentavos(saldoFinal));
+            }
+        }
+
+        List<Transaccion> guardadas = transaccionRepository.saveAll(transacciones);
+
+        List<ResultadoCompraDTO> resultados = new ArrayList<>(guardadas.size());
+        for (int i = 0; i < guardadas.size(); i++) {
+            Transaccion transaccion = guardadas.get(i);
+            ResultadoCompraDTO resultado = new ResultadoCompraDTO();
+            resultado.setPosicion(i);
+            resultado.setCardId(transaccion.getIdTarjeta());
+            resultado.setExitosa(estadoExitoso.getIdEstadoTrans().equals(transaccion.getEstadoTrans().getIdEstadoTrans()));
+            resultado.setIdTrans(transaccion.getIdTrans());
+            resultado.setEstadoTransDescripcion(transaccion.getEstadoTrans().getDescripcion());
+            resultado.setMensaje(transaccion.getDESCRIPCION());
+            resultados.add(resultado);
+        }
+        despuesDeConfirmar(() -> registrarMetricasLote(compras, tarjetas, resultados, inicio));
+        return resultados;
+    }
+
+    private void registrarMetricasLote(List<TransCompraDTO> compras, Map<Long, Tarjeta> tarjetas,
+            List<ResultadoCompraDTO> resultados, long inicio) {
+        for (int i = 0; i < compras.size(); i++) {
+            TransCompraDTO compra = compras.get(i);
+            Tarjeta tarjeta = tarjetas.get(compra.getCardId());
+            ResultadoCompraDTO resultado = resultados.get(i);
+            metricasTransacciones.compra(tarjeta != null ? tarjeta.getIdProducto() : null,
+                    resultado.getExitosa() ? null : resultado.getMensaje(), inicio, compra.getPrice());
+        }
+    }
+
+    // Con el diario de transacciones habilitado la fila se escribe en disco y se
+    // inserta después en lote; si no, se guarda directamente
+    private Transaccion guardarTransaccion(Transaccion transaccion) {
+        return diarioTransacciones.habilitado()
+                ? diarioTransacciones.registrar(transaccion)
+                : transaccionRepository.save(transaccion);
+    }
+
+    // Ejecuta la acción cuando confirma la transacción en curso (o de inmediato
+    // si no hay una)
+    private static void despuesDeConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    // Validaciones de una compra contra el saldo disponible de la tarjeta (en centavos).
+    // Retorna null si la compra es válida, o el mensaje del último error encontrado.
+    // También la usa LibroSaldos para las tarjetas que administra en memoria.
+    static String validarCompra(TransCompraDTO compraDTO, Tarjeta tarjeta, long saldoCentavos) {
+        String mensajeError = null;
+
+        // Validar moneda
+        if (!"USD".equalsIgnoreCase(compraDTO.getMoneda())) {
+            mensajeError = "Solo se permiten compras en USD";
+        }
+
+        // Sin tarjeta no se puede continuar con las demás validaciones
+        if (tarjeta == null) {
+            return "No existe una tarjeta con el ID: " + compraDTO.getCardId();
+        }
+
+        // Validar estado de la tarjeta
+        if (tarjeta.getIdEstado() != 1L) {
+            mensajeError = "La tarjeta debe estar activa para realizar compras";
+        }
+
+        // Validar fecha de vencimiento
+        try {
+            Date fechaVencimiento = tarjeta.getFechaVencimiento();
+            Date fechaActual = new Date();
+            if (fechaActual.after(fechaVencimiento)) {
+                mensajeError = "La tarjeta está vencida";
+            }
+        } catch (Exception e) {
+            mensajeError = "Error al validar la fecha de vencimiento";
+        }
+
+        // Validar valor y saldo suficiente
+        BigDecimal precio = compraDTO.getPrice();
+        if (precio == null || precio.signum() <= 0) {
+            mensajeError = "El valor de la compra debe ser mayor a 0";
+        } else if (!Dinero.escalaValida(precio)) {
+            mensajeError = "El valor de la compra no puede tener más de 2 decimales";
+        } else if (!Dinero.alcanza(saldoCentavos, Dinero.aCentavos(precio))) {
+            mensajeError = "Saldo insuficiente para realizar la compra";
+        }
+
+        return mensajeError;
+    }
+
+    static long centavosSaldo(Tarjeta tarjeta) {
+        return tarjeta.getSaldo() != null ? Dinero.aCentavos(tarjeta.getSaldo()) : 0L;
+    }
     //anular transaccion
+    // La reversa, la marca ID_ANULA de la original y el crédito del saldo se
+    // confirman juntos. La marca es condicional (ID_ANULA todavía nulo): si dos
+    // anulaciones de la misma compra compiten, la segunda hace rollback completo.
+    // Una anulación aprobada se cuenta al confirmar; una rechazada, de inmediato.
+    @Transactional
     public RespAnuTransDTO anularTransaccion(TransAnulacionDTO anulacionDTO) {
+        long inicio = System.nanoTime();
+        try {
+            RespAnuTransDTO respuesta = anular(anulacionDTO);
+            Long idProducto = NumeroTarjeta.producto(respuesta.getIdTarjeta());
+            despuesDeConfirmar(() -> metricasTransacciones.anulacion(idProducto, null, inicio));
+            return respuesta;
+        } catch (RuntimeException e) {
+            metricasTransacciones.anulacion(null, e.getMessage(), inicio);
+            throw e;
+        }
+    }
+    
+    private RespAnuTransDTO anular(TransAnulacionDTO anulacionDTO) {
         // Convertir IDs de String a Long
         Long idTransaccion = Long.parseLong(anulacionDTO.getTransactionId());
         Long idTarjeta = Long.parseLong(anulacionDTO.getCardId());
+        
+        // Una compra reciente puede seguir en el diario de transacciones o en el
+        // del libro de saldos
+        diarioTransacciones.esperarInsercion(idTransaccion);
+        libroSaldos.esperarInsercion(idTransaccion);
 
         // Buscar la transacción original
         Transaccion transaccion = transaccionRepository.findById(idTransaccion)
@@ -217,14 +442,6 @@ public class TransaccionService {
             throw new RuntimeException("No se pueden anular transacciones con más de 24 horas de antigüedad");
         }
 
-        // Buscar la tarjeta
-        Tarjeta tarjeta = tarjetaRepository.findById(idTarjeta)
-                .orElseThrow(() -> new RuntimeException("Tarjeta no encontrada"));
-
-        // Devolver el saldo a la tarjeta
-        tarjeta.setSaldo(tarjeta.getSaldo() + transaccion.getValorTrans());
-        tarjetaRepository.save(tarjeta);
-
         // Crear transacción de anulación
         TransaccionDTO transaccionDTO = new TransaccionDTO();
         transaccionDTO.setIdTarjeta(idTarjeta);
@@ -238,13 +455,23 @@ public class TransaccionService {
         EstadoTrans estadoTrans = estadoTransRepository.findById(3L)
                 .orElseThrow(() -> new RuntimeException("Estado de transacción no encontrado"));
         
-        Transaccion savedTransaccion = transaccionRepository.save(transaccionMapper.toEntity(
+        Transaccion savedTransaccion = guardarTransaccion(transaccionMapper.toEntity(
             transaccionDTO, 
             estadoTrans
         ));
         
-        transaccion.setIdanula(savedTransaccion.getIdTrans());
-        transaccionRepository.save(transaccion);
+        // Marcar la original con el ID de la reversa
+        if (transaccionRepository.marcarAnulada(idTransaccion, savedTransaccion.getIdTrans()) == 0) {
+            throw new RuntimeException("La transacción ya fue anulada");
+        }
+
+        // Devolver el saldo a la tarjeta
+        if (libroSaldos.administra(idTarjeta)) {
+            // El libro de saldos no participa del rollback: se acredita al confirmar
+            despuesDeConfirmar(() -> libroSaldos.acreditar(idTarjeta, transaccion.getValorTrans()));
+        } else if (tarjetaRepository.acreditarSaldo(idTarjeta, transaccion.getValorTrans()) == 0) {
+            throw new RuntimeException("Tarjeta no encontrada");
+        }
         
         // Preparar respuesta
         RespAnuTransDTO respuestaDTO = new RespAnuTransDTO();
@@ -0,0 +1,44 @@
+package com.componentes.Tarjetas.dtos;
+
+import java.util.List;
+
+public class PaginaDTO<T> {
+    private List<T> contenido;
+    private Long siguienteCursor; // null cuando no hay más páginas
+    private Integer tamano;
+    
+    // Constructor vacío
+    public PaginaDTO() {}
+    
+    // Constructor con parámetros
+    public PaginaDTO(List<T> contenido, Long siguienteCursor, Integer tamano) {
+        this.contenido = contenido;
+        this.siguienteCursor = siguienteCursor;
+        this.tamano = tamano;
+    }
+
+	public List<T> getContenido() {
+		return contenido;
+	}
+
+	public void setContenido(List<T> contenido) {
+		this.contenido = contenido;
+	}
+
+	public Long getSiguienteCursor() {
+		return siguienteCursor;
+	}
+
+	public void setSiguienteCursor(Long siguienteCursor) {
+		this.siguienteCursor = siguienteCursor;
+	}
+
+	public Integer getTamano() {
+		return tamano;
+	}
+
+	public void setTamano(Integer tamano) {
+		this.tamano = tamano;
+	}
+    
+}
@@ -0,0 +1,50 @@
+package com.componentes.Tarjetas.dtos;
+
+// Avance del aprovisionamiento masivo de tarjetas; se envía una línea por bloque insertado
+public class ProgresoAprovisionamientoDTO {
+    private Long idProducto;
+    private Integer creadas;
+    private Integer total;
+    private Boolean terminado;
+    private String mensaje;
+    
+    public ProgresoAprovisionamientoDTO() {}
+    
+    public ProgresoAprovisionamientoDTO(Long idProducto, Integer creadas, Integer total, Boolean terminado) {
+        this.idProducto = idProducto;
+        this.creadas = creadas;
+        this.total = total;
+        this.terminado = terminado;
+    }
+    
+	public Long getIdProducto() {
+		return idProducto;
+	}
+	public void setIdProducto(Long idProducto) {
+		this.idProducto = idProducto;
+	}
+	public Integer getCreadas() {
+		return creadas;
+	}
+	public void setCreadas(Integer creadas) {
+		this.creadas = creadas;
+	}
+	public Integer getTotal() {
+		return total;
+	}
+	public void setTotal(Integer total) {
+		this.total = total;
+	}
+	public Boolean getTerminado() {
+		return terminado;
+	}
+	public void setTerminado(Boolean terminado) {
+		this.terminado = terminado;
+	}
+	public String getMensaje() {
+		return mensaje;
+	}
+	public void setMensaje(String mensaje) {
+		this.mensaje = mensaje;
+	}
+}
@@ -1,12 +1,13 @@
 package com.componentes.Tarjetas.dtos;
 
+import java.math.BigDecimal;
 import java.util.Date;
 
 public class RespAnuTransDTO {
     private Long idTrans;
     private Long idTarjeta;
     private Date fechaTrans;
-    private Double valorTrans;
+    private BigDecimal valorTrans;
     private String descripcion;
     
     
@@ -28,10 +29,10 @@ public class RespAnuTransDTO {
 	public void setFechaTrans(Date fechaTrans) {
 		this.fechaTrans = fechaTrans;
 	}
-	public Double getValorTrans() {
+	public BigDecimal getValorTrans() {
 		return valorTrans;
 	}
-	public void setValorTrans(Double valorTrans) {
+	public void setValorTrans(BigDecimal valorTrans) {
 		this.valorTrans = valorTrans;
 	}
 	public String getDescripcion() {
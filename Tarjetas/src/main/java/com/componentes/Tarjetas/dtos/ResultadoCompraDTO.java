@@ -0,0 +1,50 @@
+package com.componentes.Tarjetas.dtos;
+
+// Resultado de cada compra de un lote, en el mismo orden en que se recibió
+public class ResultadoCompraDTO {
+    private Integer posicion;
+    private Long cardId;
+    private Boolean exitosa;
+    private Long idTrans;
+    private String estadoTransDescripcion;
+    private String mensaje;
+    
+    
+	public Integer getPosicion() {
+		return posicion;
+	}
+	public void setPosicion(Integer posicion) {
+		this.posicion = posicion;
+	}
+	public Long getCardId() {
+		return cardId;
+	}
+	public void setCardId(Long cardId) {
+		this.cardId = cardId;
+	}
+	public Boolean getExitosa() {
+		return exitosa;
+	}
+	public void setExitosa(Boolean exitosa) {
+		this.exitosa = exitosa;
+	}
+	public Long getIdTrans() {
+		return idTrans;
+	}
+	public void setIdTrans(Long idTrans) {
+		this.idTrans = idTrans;
+	}
+	public String getEstadoTransDescripcion() {
+		return estadoTransDescripcion;
+	}
+	public void setEstadoTransDescripcion(String estadoTransDescripcion) {
+		this.estadoTransDescripcion = estadoTransDescripcion;
+	}
+	public String getMensaje() {
+		return mensaje;
+	}
+	public void setMensaje(String mensaje) {
+		this.mensaje = mensaje;
+	}
+    
+}
@@ -0,0 +1,114 @@
+package com.componentes.Tarjetas.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Totales de un día (por tarjeta, o por producto con idTarjeta en null)
+public class ResumenDiarioDTO {
+    private Long idTarjeta;
+    private Long idProducto;
+    private LocalDate fecha;
+    private BigDecimal montoAprobado;
+    private Long cantidadAprobadas;
+    private BigDecimal montoRechazado;
+    private Long cantidadRechazadas;
+    private BigDecimal montoAnulado;
+    private Long cantidadAnuladas;
+
+    // Constructor vacío
+    public ResumenDiarioDTO() {}
+
+    // Totales por producto (consulta agregada de ResumenDiarioTarjetaRepository)
+    public ResumenDiarioDTO(Long idProducto, LocalDate fecha, BigDecimal montoAprobado, Long cantidadAprobadas,
+                            BigDecimal montoRechazado, Long cantidadRechazadas, BigDecimal montoAnulado,
+                            Long cantidadAnuladas) {
+        this.idProducto = idProducto;
+        this.fecha = fecha;
+        this.montoAprobado = montoAprobado;
+        this.cantidadAprobadas = cantidadAprobadas;
+        this.montoRechazado = montoRechazado;
+        this.cantidadRechazadas = cantidadRechazadas;
+        this.montoAnulado = montoAnulado;
+        this.cantidadAnuladas = cantidadAnuladas;
+    }
+
+    // Aprobado menos anulado
+    public BigDecimal getMontoNeto() {
+        if (montoAprobado == null || montoAnulado == null) {
+            return null;
+        }
+        return montoAprobado.subtract(montoAnulado);
+    }
+
+	public Long getIdTarjeta() {
+		return idTarjeta;
+	}
+
+	public void setIdTarjeta(Long idTarjeta) {
+		this.idTarjeta = idTarjeta;
+	}
+
+	public Long getIdProducto() {
+		return idProducto;
+	}
+
+	public void setIdProducto(Long idProducto) {
+		this.idProducto = idProducto;
+	}
+
+	public LocalDate getFecha() {
+		return fecha;
+	}
+
+	public void setFecha(LocalDate fecha) {
+		this.fecha = fecha;
+	}
+
+	public BigDecimal getMontoAprobado() {
+		return montoAprobado;
+	}
+
+	public void setMontoAprobado(BigDecimal montoAprobado) {
+		this.montoAprobado = montoAprobado;
+	}
+
+	public Long getCantidadAprobadas() {
+		return cantidadAprobadas;
+	}
+
+	public void setCantidadAprobadas(Long cantidadAprobadas) {
+		this.cantidadAprobadas = cantidadAprobadas;
+	}
+
+	public BigDecimal getMontoRechazado() {
+		return montoRechazado;
+	}
+
+	public void setMontoRechazado(BigDecimal montoRechazado) {
+		this.montoRechazado = montoRechazado;
+	}
+
+	public Long getCantidadRechazadas() {
+		return cantidadRechazadas;
+	}
+
+	public void setCantidadRechazadas(Long cantidadRechazadas) {
+		this.cantidadRechazadas = cantidadRechazadas;
+	}
+
+	public BigDecimal getMontoAnulado() {
+		return montoAnulado;
+	}
+
+	public void setMontoAnulado(BigDecimal montoAnulado) {
+		this.montoAnulado = montoAnulado;
+	}
+
+	public Long getCantidadAnuladas() {
+		return cantidadAnuladas;
+	}
+
+	public void setCantidadAnuladas(Long cantidadAnuladas) {
+		this.cantidadAnuladas = cantidadAnuladas;
+	}
+}
@@ -1,9 +1,11 @@
 package com.componentes.Tarjetas.dtos;
 
+import java.math.BigDecimal;
+
 public class SaldoTarjDTO {
 	
     private Long cardId;
-    private Double balance;
+    private BigDecimal balance;
     
     // Constructor vacío
     public SaldoTarjDTO() {}
@@ -15,10 +17,10 @@ public class SaldoTarjDTO {
 	public void setCardId(Long cardId) {
 		this.cardId = cardId;
 	}
-	public Double getBalance() {
+	public BigDecimal getBalance() {
 		return balance;
 	}
-	public void setBalance(Double balance) {
+	public void setBalance(BigDecimal balance) {
 		this.balance = balance;
 	}
     
@@ -1,5 +1,6 @@
 package com.componentes.Tarjetas.dtos;
 
+import java.math.BigDecimal;
 import java.util.Date;
 
 public class TarjetaDTO {
@@ -11,7 +12,7 @@ public class TarjetaDTO {
     private String titular;
     private String fechaCreacion;      // Cambiado a String
     private String fechaVencimiento;   // Cambiado a String
-    private Double saldo;
+    private BigDecimal saldo;
     private String moneda;
     private String descripcion;
     
@@ -84,11 +85,11 @@ public class TarjetaDTO {
 		this.fechaVencimiento = fechaVencimiento;
 	}
 
-	public Double getSaldo() {
+	public BigDecimal getSaldo() {
 		return saldo;
 	}
 
-	public void setSaldo(Double saldo) {
+	public void setSaldo(BigDecimal saldo) {
 		this.saldo = saldo;
 	}
 
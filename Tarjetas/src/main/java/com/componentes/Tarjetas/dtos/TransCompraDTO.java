@@ -1,10 +1,14 @@
 package com.componentes.Tarjetas.dtos;
 
+import java.math.BigDecimal;
+
 public class TransCompraDTO {
 	
     private Long cardId;
-    private Double price;
+    private BigDecimal price;
     private String moneda;
+    // Opcional: un reintento con la misma llave retorna la compra original
+    private String idempotencyKey;
     
     
 	public Long getCardId() {
@@ -13,10 +17,10 @@ public class TransCompraDTO {
 	public void setCardId(Long cardId) {
 		this.cardId = cardId;
 	}
-	public Double getPrice() {
+	public BigDecimal getPrice() {
 		return price;
 	}
-	public void setPrice(Double price) {
+	public void setPrice(BigDecimal price) {
 		this.price = price;
 	}
 	public String getMoneda() {
@@ -25,6 +29,12 @@ public class TransCompraDTO {
 	public void setMoneda(String moneda) {
 		this.moneda = moneda;
 	}
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+	public void setIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+	}
 
     
     
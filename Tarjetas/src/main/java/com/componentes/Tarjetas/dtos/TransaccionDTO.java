@@ -1,5 +1,6 @@
 package com.componentes.Tarjetas.dtos;
 
+import java.math.BigDecimal;
 import java.util.Date;
 
 public class TransaccionDTO {
@@ -8,7 +9,7 @@ public class TransaccionDTO {
     private Long idEstadoTrans; // Para recibir el ID
     private String estadoTransDescripcion; // Para mostrar la descripción
     private Date fechaTrans;
-    private Double valorTrans;
+    private BigDecimal valorTrans;
     private String moneda; // Para mostrar la descripción
     private String descripcion; // Para mostrar la descripción
     
@@ -17,7 +18,7 @@ public class TransaccionDTO {
     
     // Constructor con parámetros
     public TransaccionDTO(Long idTrans, Long idTarjeta, Long idEstadoTrans, 
-                         String estadoTransDescripcion, Date fechaTrans, Double valorTrans) {
+                         String estadoTransDescripcion, Date fechaTrans, BigDecimal valorTrans) {
         this.idTrans = idTrans;
         this.idTarjeta = idTarjeta;
         this.idEstadoTrans = idEstadoTrans;
@@ -67,11 +68,11 @@ public class TransaccionDTO {
 		this.fechaTrans = fechaTrans;
 	}
 
-	public Double getValorTrans() {
+	public BigDecimal getValorTrans() {
 		return valorTrans;
 	}
 
-	public void setValorTrans(Double valorTrans) {
+	public void setValorTrans(BigDecimal valorTrans) {
 		this.valorTrans = valorTrans;
 	}
 
@@ -0,0 +1,12 @@
+package com.componentes.Tarjetas.exceptions;
+
+// Compra rechazada por una regla de negocio. La transacción en estado RECHAZADO
+// ya quedó registrada, por eso no debe provocar rollback.
+public class CompraRechazadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CompraRechazadaException(String mensaje) {
+        super(mensaje);
+    }
+}
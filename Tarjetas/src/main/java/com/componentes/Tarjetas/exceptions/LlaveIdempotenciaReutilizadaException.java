@@ -0,0 +1,13 @@
+package com.componentes.Tarjetas.exceptions;
+
+// Reintento con una llave de idempotencia que ya se usó para otra compra
+// (otra tarjeta, otro valor u otra moneda). No se ejecuta ni se repite la
+// respuesta original: el controlador responde 422.
+public class LlaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LlaveIdempotenciaReutilizadaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,37 @@
+package com.componentes.Tarjetas.mappers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.componentes.Tarjetas.Entity.ResumenDiarioTarjeta;
+import com.componentes.Tarjetas.dtos.ResumenDiarioDTO;
+
+@Component
+public class ResumenDiarioMapper {
+
+    public ResumenDiarioDTO toDto(ResumenDiarioTarjeta entity) {
+        if (entity == null) {
+            return null;
+        }
+        ResumenDiarioDTO dto = new ResumenDiarioDTO(entity.getIdProducto(), entity.getFecha(),
+                entity.getMontoAprobado(), entity.getCantidadAprobadas(), entity.getMontoRechazado(),
+                entity.getCantidadRechazadas(), entity.getMontoAnulado(), entity.getCantidadAnuladas());
+        dto.setIdTarjeta(entity.getIdTarjeta());
+        return dto;
+    }
+
+    public List<ResumenDiarioDTO> toDtoList(List<ResumenDiarioTarjeta> entities) {
+        if (entities == null) {
+            return Collections.emptyList();
+        }
+
+        List<ResumenDiarioDTO> dtoList = new ArrayList<>();
+        for (ResumenDiarioTarjeta entity : entities) {
+            dtoList.add(toDto(entity));
+        }
+        return dtoList;
+    }
+}
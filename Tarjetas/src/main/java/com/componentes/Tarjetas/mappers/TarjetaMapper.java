@@ -1,15 +1,24 @@
 package com.componentes.Tarjetas.mappers;
 
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.componentes.Tarjetas.Entity.EstadoTarjeta;
+import com.componentes.Tarjetas.Entity.Producto;
 import com.componentes.Tarjetas.Entity.Tarjeta;
 import com.componentes.Tarjetas.Repository.EstadoTarjetaRepository;
 import com.componentes.Tarjetas.Repository.ProductoRepository;
 import com.componentes.Tarjetas.dtos.TarjetaDTO;
+import com.componentes.Tarjetas.util.FechaMesAnio;
 
 @Component
 public class TarjetaMapper {
@@ -20,40 +29,81 @@ public class TarjetaMapper {
     @Autowired
     private EstadoTarjetaRepository estadoRepository;
     
-    private SimpleDateFormat formatoFecha = new SimpleDateFormat("MM/yyyy");
 
     public TarjetaDTO toDto(Tarjeta entity) {
         if (entity == null) {
             return null;
         }
         
-        TarjetaDTO dto = new TarjetaDTO();
-        dto.setCardId(entity.getIdTarjeta());
-        dto.setIdProducto(entity.getIdProducto()); // Usar el idProducto de la entidad
+        TarjetaDTO dto = toDtoSinDescripciones(entity);
         
         // Obtener descripción del producto
         productoRepository.findById(entity.getIdProducto()).ifPresent(producto -> 
             dto.setDescripcionProducto(producto.getDescripcion())
         );
         
-        dto.setIdEstado(entity.getIdEstado());
-        
         // Obtener descripción del estado
         estadoRepository.findById(entity.getIdEstado()).ifPresent(estado -> 
             dto.setDescripcionEstado(estado.getDescripcion())
         );
         
+        return dto;
+    }
+    
+    // Mapea una lista de tarjetas resolviendo las descripciones de producto y
+    // estado con una sola consulta por tabla, sin importar el tamaño de la lista
+    public List<TarjetaDTO> toDtoList(List<Tarjeta> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Set<Long> idsProducto = new HashSet<>();
+        Set<Long> idsEstado = new HashSet<>();
+        for (Tarjeta entity : entities) {
+            if (entity.getIdProducto() != null) {
+                idsProducto.add(entity.getIdProducto());
+            }
+            if (entity.getIdEstado() != null) {
+                idsEstado.add(entity.getIdEstado());
+            }
+        }
+        
+        Map<Long, String> productos = new HashMap<>();
+        for (Producto producto : productoRepository.findAllById(idsProducto)) {
+            productos.put(producto.getIdProducto(), producto.getDescripcion());
+        }
+        
+        Map<Long, String> estados = new HashMap<>();
+        for (EstadoTarjeta estado : estadoRepository.findAllById(idsEstado)) {
+            estados.put(estado.getIdEstado(), estado.getDescripcion());
+        }
+        
+        List<TarjetaDTO> dtoList = new ArrayList<>(entities.size());
+        for (Tarjeta entity : entities) {
+            TarjetaDTO dto = toDtoSinDescripciones(entity);
+            dto.setDescripcionProducto(productos.get(entity.getIdProducto()));
+            dto.setDescripcionEstado(estados.get(entity.getIdEstado()));
+            dtoList.add(dto);
+        }
+        return dtoList;
+    }
+    
+    private TarjetaDTO toDtoSinDescripciones(Tarjeta entity) {
+        TarjetaDTO dto = new TarjetaDTO();
+        dto.setCardId(entity.getIdTarjeta());
+        dto.setIdProducto(entity.getIdProducto()); // Usar el idProducto de la entidad
+        dto.setIdEstado(entity.getIdEstado());
         dto.setTitular(entity.getTitular());
         dto.setSaldo(entity.getSaldo());
         dto.setMoneda(entity.getMONEDA());
 
         // Establecer fechas en el formato requerido
         if (entity.getFechaCreacion() != null) {
-            dto.setFechaCreacion(formatoFecha.format(entity.getFechaCreacion()));
+            dto.setFechaCreacion(FechaMesAnio.formatear(entity.getFechaCreacion()));
         }
         
         if (entity.getFechaVencimiento() != null) {
-            dto.setFechaVencimiento(formatoFecha.format(entity.getFechaVencimiento()));
+            dto.setFechaVencimiento(FechaMesAnio.formatear(entity.getFechaVencimiento()));
         }
         
         return dto;
@@ -74,10 +124,10 @@ public class TarjetaMapper {
         // Para el caso del save, estas fechas vendrán del Service
         try {
             if (dto.getFechaCreacion() != null) {
-                entity.setFechaCreacion(formatoFecha.parse(dto.getFechaCreacion()));
+                entity.setFechaCreacion(FechaMesAnio.parsear(dto.getFechaCreacion()));
             }
             if (dto.getFechaVencimiento() != null) {
-                entity.setFechaVencimiento(formatoFecha.parse(dto.getFechaVencimiento()));
+                entity.setFechaVencimiento(FechaMesAnio.parsear(dto.getFechaVencimiento()));
             }
         } catch (Exception e) {
             throw new RuntimeException("Error al parsear las fechas");
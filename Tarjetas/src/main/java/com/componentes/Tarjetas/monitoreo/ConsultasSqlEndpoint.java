@@ -0,0 +1,44 @@
+package com.componentes.Tarjetas.monitoreo;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// /actuator/consultassql: GET muestra la configuración de la traza de SQL y
+// POST {"habilitada": false} o {"umbralMs": 50} la cambia sin reiniciar. Solo se
+// puede activar si la aplicación inició con la traza activa (disponible).
+@Component
+@Endpoint(id = "consultassql")
+public class ConsultasSqlEndpoint {
+
+    @Autowired
+    private TrazaConsultas trazaConsultas;
+
+    @ReadOperation
+    public Map<String, Object> estado() {
+        return Map.of("habilitada", trazaConsultas.isHabilitada(), "disponible", trazaConsultas.isDisponible(),
+                "umbralMs", trazaConsultas.getUmbralMs());
+    }
+
+    @WriteOperation
+    public Map<String, Object> configurar(@Nullable Boolean habilitada, @Nullable Long umbralMs) {
+        if (umbralMs != null && umbralMs < 0) {
+            throw new IllegalArgumentException("El umbral no puede ser negativo");
+        }
+        if (Boolean.TRUE.equals(habilitada) && !trazaConsultas.isDisponible()) {
+            throw new IllegalArgumentException("La traza de consultas no se activó al iniciar la aplicación");
+        }
+        if (habilitada != null) {
+            trazaConsultas.setHabilitada(habilitada);
+        }
+        if (umbralMs != null) {
+            trazaConsultas.setUmbralMs(umbralMs);
+        }
+        return estado();
+    }
+}
@@ -0,0 +1,141 @@
+package com.componentes.Tarjetas.monitoreo;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Cuenta las sentencias SQL de cada petición y las publica por endpoint en
+// /actuator/metrics/http.server.requests.sentencias (tags method y uri, la uri
+// es el patrón del mapping: /api/card/{cardId} y no cada tarjeta).
+//
+// Con consultas.traza.cabecera (ambientes que no son producción) la cuenta
+// también va en la cabecera X-Sentencias-SQL de la respuesta, y si una misma
+// sentencia se repite consultas.traza.repeticiones-maximas veces o más en una
+// petición se registra un posible N+1 en el log.
+@Component
+public class FiltroConsultasPeticion extends OncePerRequestFilter {
+
+    public static final String CABECERA = "X-Sentencias-SQL";
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroConsultasPeticion.class);
+
+    // Opcionales: los @WebMvcTest cargan los filtros pero no la traza ni el registro de métricas
+    @Autowired(required = false)
+    private TrazaConsultas trazaConsultas;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${consultas.traza.cabecera:false}")
+    private boolean cabecera;
+
+    // 0 = no se buscan sentencias repetidas
+    @Value("${consultas.traza.repeticiones-maximas:0}")
+    private int repeticionesMaximas;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (trazaConsultas == null || meterRegistry == null || !trazaConsultas.isHabilitada()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        trazaConsultas.iniciarPeticion();
+        try {
+            filterChain.doFilter(request, cabecera ? new RespuestaConCabecera(response) : response);
+        } finally {
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = patron != null ? patron.toString() : "UNKNOWN";
+            revisarRepeticiones(request.getMethod(), uri);
+            int sentencias = trazaConsultas.terminarPeticion();
+            DistributionSummary.builder("http.server.requests.sentencias")
+                    .description("Sentencias SQL ejecutadas por peticion")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(sentencias);
+        }
+    }
+
+    private void revisarRepeticiones(String metodo, String uri) {
+        if (repeticionesMaximas <= 0) {
+            return;
+        }
+        TrazaConsultas.SentenciaRepetida repetida = trazaConsultas.sentenciaMasRepetida();
+        if (repetida != null && repetida.repeticiones() >= repeticionesMaximas) {
+            log.warn("posible_n_mas_1 method={} uri={} sentencias={} repeticiones={} sql=\"{}\"", metodo, uri,
+                    trazaConsultas.sentenciasPeticion(), repetida.repeticiones(), repetida.sql());
+        }
+    }
+
+    // La cabecera solo se puede agregar antes de que la respuesta se confirme: se
+    // pone con la cuenta que haya justo antes de escribir el cuerpo (los servicios
+    // ya terminaron; no incluye lo que se cargue al serializar).
+    private final class RespuestaConCabecera extends HttpServletResponseWrapper {
+
+        private boolean puesta;
+
+        private RespuestaConCabecera(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void poner() {
+            if (!puesta && !isCommitted()) {
+                setIntHeader(CABECERA, trazaConsultas.sentenciasPeticion());
+            }
+            puesta = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            poner();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            poner();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            poner();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            poner();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            poner();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            poner();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.componentes.Tarjetas.monitoreo;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Métricas de negocio de compras, anulaciones y recargas, en /actuator/prometheus:
+//   tarjetas.compras / tarjetas.anulaciones / tarjetas.recargas (timers):
+//     resultado = aprobada | rechazada, motivo = código del rechazo, producto
+//   tarjetas.compras.monto / tarjetas.recargas.monto (contadores): monto aprobado
+// El motivo se deriva del mensaje de la excepción con una tabla fija de códigos
+// (los mensajes llevan números de tarjeta o de transacción y no pueden ser tags).
+// Los buckets del histograma se fijan con management.metrics.distribution.slo.
+@Component
+public class MetricasTransacciones {
+
+    public static final String APROBADA = "aprobada";
+    public static final String RECHAZADA = "rechazada";
+    public static final String SIN_MOTIVO = "ninguno";
+    public static final String OTRO_MOTIVO = "otro";
+    public static final String SIN_PRODUCTO = "desconocido";
+
+    // Prefijo del mensaje -> motivo. El orden importa: gana el primero que coincide.
+    private static final Map<String, String> MOTIVOS = new LinkedHashMap<>();
+
+    static {
+        MOTIVOS.put("Solo se permiten compras en USD", "moneda");
+        MOTIVOS.put("No existe una tarjeta con el ID", "tarjeta_inexistente");
+        MOTIVOS.put("Tarjeta no encontrada", "tarjeta_inexistente");
+        MOTIVOS.put("La tarjeta debe estar activa", "tarjeta_inactiva");
+        MOTIVOS.put("La tarjeta está inactiva", "tarjeta_inactiva");
+        MOTIVOS.put("La tarjeta está bloqueada", "tarjeta_bloqueada");
+        MOTIVOS.put("La tarjeta está vencida", "tarjeta_vencida");
+        MOTIVOS.put("Error al validar la fecha de vencimiento", "vencimiento_invalido");
+        MOTIVOS.put("El valor de la compra", "valor_invalido");
+        MOTIVOS.put("El monto de recarga", "valor_invalido");
+        MOTIVOS.put("Saldo insuficiente", "saldo_insuficiente");
+        MOTIVOS.put("Transacción no encontrada", "transaccion_inexistente");
+        MOTIVOS.put("La transacción no corresponde a la tarjeta", "tarjeta_distinta");
+        MOTIVOS.put("Solo se pueden anular transacciones exitosas", "transaccion_no_exitosa");
+        MOTIVOS.put("La transacción ya fue anulada", "ya_anulada");
+        MOTIVOS.put("No se pueden anular transacciones con más de 24 horas", "fuera_de_plazo");
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // mensajeRechazo null = aprobada. inicioNanos es System.nanoTime() al empezar.
+    public void compra(Long idProducto, String mensajeRechazo, long inicioNanos, BigDecimal monto) {
+        registrar("tarjetas.compras", idProducto, mensajeRechazo, inicioNanos);
+        if (mensajeRechazo == null && monto != null) {
+            monto("tarjetas.compras.monto", idProducto, monto);
+        }
+    }
+
+    public void anulacion(Long idProducto, String mensajeRechazo, long inicioNanos) {
+        registrar("tarjetas.anulaciones", idProducto, mensajeRechazo, inicioNanos);
+    }
+
+    public void recarga(Long idProducto, String mensajeRechazo, long inicioNanos, BigDecimal monto) {
+        registrar("tarjetas.recargas", idProducto, mensajeRechazo, inicioNanos);
+        if (mensajeRechazo == null && monto != null) {
+            monto("tarjetas.recargas.monto", idProducto, monto);
+        }
+    }
+
+    public static String motivo(String mensaje) {
+        if (mensaje == null) {
+            return OTRO_MOTIVO;
+        }
+        for (Map.Entry<String, String> motivo : MOTIVOS.entrySet()) {
+            if (mensaje.startsWith(motivo.getKey())) {
+                return motivo.getValue();
+            }
+        }
+        return OTRO_MOTIVO;
+    }
+
+    private void registrar(String nombre, Long idProducto, String mensajeRechazo, long inicioNanos) {
+        Timer.builder(nombre)
+                .tag("resultado", mensajeRechazo == null ? APROBADA : RECHAZADA)
+                .tag("motivo", mensajeRechazo == null ? SIN_MOTIVO : motivo(mensajeRechazo))
+                .tag("producto", producto(idProducto))
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicioNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void monto(String nombre, Long idProducto, BigDecimal monto) {
+        Counter.builder(nombre)
+                .baseUnit("USD")
+                .tag("producto", producto(idProducto))
+                .register(meterRegistry)
+                .increment(monto.doubleValue());
+    }
+
+    private static String producto(Long idProducto) {
+        return idProducto != null ? idProducto.toString() : SIN_PRODUCTO;
+    }
+}
@@ -0,0 +1,251 @@
+package com.componentes.Tarjetas.monitoreo;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Traza de las sentencias SQL (reemplaza spring.jpa.show-sql). Con
+// consultas.traza.habilitada=true al iniciar, el DataSource se envuelve para medir
+// cada ejecución: solo se registran en el log las que pasan de
+// consultas.traza.umbral-ms, con los parámetros enmascarados (solo su tipo).
+// También cuenta las sentencias de la petición HTTP en curso (ver
+// FiltroConsultasPeticion). Viene desactivada: sin la propiedad el DataSource no
+// se envuelve y las sentencias no pasan por los proxies. El endpoint
+// /actuator/consultassql la desactiva, la vuelve a activar y cambia el umbral sin
+// reiniciar, pero solo si se inició activada.
+//
+// Solo se cuentan las sentencias del hilo de la petición: las que ejecutan los
+// hilos de fondo (drenados de los diarios, escritura agrupada, endpoints
+// asíncronos) se miden pero no se suman a ninguna petición.
+//
+// Por petición también se cuenta cuántas veces se repite cada texto SQL: la misma
+// sentencia preparada ejecutada muchas veces en una petición es el patrón N+1
+// (una consulta por cada elemento de una lista).
+@Component
+public class TrazaConsultas implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger log = LoggerFactory.getLogger(TrazaConsultas.class);
+
+    private volatile boolean habilitada;
+
+    // El DataSource se envolvió al iniciar
+    private volatile boolean disponible;
+
+    private volatile long umbralMs;
+
+    private final ThreadLocal<Peticion> peticion = new ThreadLocal<>();
+
+    // Un BeanPostProcessor se crea antes de que se resuelvan los @Value: la
+    // configuración se lee directamente del Environment
+    @Override
+    public void setEnvironment(Environment environment) {
+        habilitada = environment.getProperty("consultas.traza.habilitada", Boolean.class, false);
+        umbralMs = environment.getProperty("consultas.traza.umbral-ms", Long.class, 200L);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && habilitada) {
+            disponible = true;
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                    new Envoltura(dataSource, null));
+        }
+        return bean;
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public void setHabilitada(boolean habilitada) {
+        if (habilitada && !disponible) {
+            throw new IllegalStateException(
+                    "La traza de consultas no se puede activar: la aplicación inició con consultas.traza.habilitada=false");
+        }
+        this.habilitada = habilitada;
+    }
+
+    public long getUmbralMs() {
+        return umbralMs;
+    }
+
+    public void setUmbralMs(long umbralMs) {
+        this.umbralMs = umbralMs;
+    }
+
+    // Empieza a contar las sentencias del hilo actual
+    public void iniciarPeticion() {
+        peticion.set(new Peticion());
+    }
+
+    // Sentencias ejecutadas desde iniciarPeticion() en este hilo
+    public int sentenciasPeticion() {
+        Peticion actual = peticion.get();
+        return actual != null ? actual.sentencias : 0;
+    }
+
+    // La sentencia que más se repitió en la petición en curso (null si no hubo ninguna)
+    public SentenciaRepetida sentenciaMasRepetida() {
+        Peticion actual = peticion.get();
+        if (actual == null || actual.sqlMasRepetida == null) {
+            return null;
+        }
+        return new SentenciaRepetida(actual.sqlMasRepetida, actual.repeticionesMaximas);
+    }
+
+    public int terminarPeticion() {
+        int sentencias = sentenciasPeticion();
+        peticion.remove();
+        return sentencias;
+    }
+
+    public record SentenciaRepetida(String sql, int repeticiones) {
+    }
+
+    // parametros es la lista de la sentencia: solo se recorre si se registra en el log
+    private void registrar(String sql, long nanos, List<Class<?>> parametros) {
+        Peticion actual = peticion.get();
+        if (actual != null) {
+            actual.contar(sql);
+        }
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (duracionMs >= umbralMs) {
+            log.warn("consulta_lenta duracionMs={} sql=\"{}\" parametros={}", duracionMs, sql, tipos(parametros));
+        }
+    }
+
+    // Solo el tipo: los valores (números de tarjeta, montos) no van al log
+    private static List<String> tipos(List<Class<?>> parametros) {
+        List<String> tipos = new ArrayList<>(parametros.size());
+        for (Class<?> tipo : parametros) {
+            tipos.add(tipo == null ? "?" : tipo == Void.class ? "null" : tipo.getSimpleName());
+        }
+        return tipos;
+    }
+
+    private static final class Peticion {
+
+        private int sentencias;
+        private final Map<String, int[]> repeticiones = new HashMap<>();
+        private String sqlMasRepetida;
+        private int repeticionesMaximas;
+
+        private void contar(String sql) {
+            sentencias++;
+            if (sql == null) {
+                return;
+            }
+            int[] contador = repeticiones.computeIfAbsent(sql, clave -> new int[1]);
+            if (++contador[0] > repeticionesMaximas) {
+                repeticionesMaximas = contador[0];
+                sqlMasRepetida = sql;
+            }
+        }
+    }
+
+    // Un solo manejador para DataSource, Connection y las sentencias. sql es el
+    // texto de la sentencia preparada (null en DataSource, Connection y Statement).
+    private final class Envoltura implements InvocationHandler {
+
+        private final Object objetivo;
+        private final String sql;
+        // El tipo de cada parámetro (Void.class si es null, null si no se asignó)
+        private final List<Class<?>> parametros = new ArrayList<>();
+
+        private Envoltura(Object objetivo, String sql) {
+            this.objetivo = objetivo;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            if (nombre.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (nombre.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (objetivo instanceof Statement && nombre.startsWith("execute")) {
+                String texto = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                long inicio = System.nanoTime();
+                try {
+                    return invocar(metodo, args);
+                } finally {
+                    registrar(texto, System.nanoTime() - inicio, parametros);
+                }
+            }
+            if (objetivo instanceof PreparedStatement) {
+                if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                    parametro(indice, args[1]);
+                } else if (nombre.equals("clearParameters")) {
+                    parametros.clear();
+                }
+            }
+
+            Object resultado = invocar(metodo, args);
+            if (!habilitada) {
+                return resultado;
+            }
+            if (resultado instanceof Connection conexion && nombre.equals("getConnection")) {
+                return envolver(conexion, Connection.class, null);
+            }
+            if (objetivo instanceof Connection) {
+                String texto = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                if (resultado instanceof CallableStatement sentencia) {
+                    return envolver(sentencia, CallableStatement.class, texto);
+                }
+                if (resultado instanceof PreparedStatement sentencia) {
+                    return envolver(sentencia, PreparedStatement.class, texto);
+                }
+                if (resultado instanceof Statement sentencia) {
+                    return envolver(sentencia, Statement.class, null);
+                }
+            }
+            return resultado;
+        }
+
+        private Object invocar(Method metodo, Object[] args) throws Throwable {
+            try {
+                return metodo.invoke(objetivo, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void parametro(int indice, Object valor) {
+            while (parametros.size() < indice) {
+                parametros.add(null);
+            }
+            parametros.set(indice - 1, valor != null ? valor.getClass() : Void.class);
+        }
+
+        private Object envolver(Object objeto, Class<?> tipo, String texto) {
+            return Proxy.newProxyInstance(TrazaConsultas.class.getClassLoader(), new Class<?>[] { tipo },
+                    new Envoltura(objeto, texto));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.componentes.Tarjetas.util;
+
+import java.math.BigDecimal;
+
+// Aritmética de montos en centavos (long) para el camino de compras y recargas.
+// Los montos se reciben y se guardan como BigDecimal con 2 decimales
+// (NUMBER(15,2)); la conversión se hace una vez por valor y las operaciones
+// sobre centavos no crean objetos. Los desbordamientos lanzan ArithmeticException.
+public final class Dinero {
+
+    public static final int ESCALA = 2;
+
+    private Dinero() {}
+
+    // Convierte un monto a centavos; falla si tiene más de 2 decimales
+    public static long aCentavos(BigDecimal monto) {
+        return monto.movePointRight(ESCALA).longValueExact();
+    }
+
+    public static BigDecimal desdeCentavos(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    // true si el monto no tiene más de 2 decimales significativos
+    public static boolean escalaValida(BigDecimal monto) {
+        return monto.scale() <= ESCALA || monto.stripTrailingZeros().scale() <= ESCALA;
+    }
+
+    public static boolean alcanza(long saldoCentavos, long montoCentavos) {
+        return saldoCentavos >= montoCentavos;
+    }
+
+    public static long debitar(long saldoCentavos, long montoCentavos) {
+        return Math.subtractExact(saldoCentavos, montoCentavos);
+    }
+
+    public static long acreditar(long saldoCentavos, long montoCentavos) {
+        return Math.addExact(saldoCentavos, montoCentavos);
+    }
+}
@@ -0,0 +1,102 @@
+package com.componentes.Tarjetas.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+
+// Formato MM/yyyy de las fechas de creación y vencimiento de las tarjetas.
+// Reemplaza los SimpleDateFormat compartidos (no son seguros entre hilos):
+// el inicio de cada mes entre 1970 y 2199 y su texto se calculan una sola vez
+// en la zona del sistema, así formatear es una búsqueda binaria sin crear
+// objetos. Las fechas fuera de ese rango usan java.time directamente.
+public final class FechaMesAnio {
+
+    public static final String PATRON = "MM/yyyy";
+
+    private static final int ANIO_INICIAL = 1970;
+    private static final int ANIO_FINAL = 2199;
+    private static final int MESES = (ANIO_FINAL - ANIO_INICIAL + 1) * 12;
+
+    private static final ZoneId ZONA = ZoneId.systemDefault();
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("MM/uuuu");
+
+    // INICIO_MES[i] es el instante (ms) en que empieza el mes i; tiene un
+    // elemento extra con el final del último mes del rango
+    private static final long[] INICIO_MES = new long[MESES + 1];
+    private static final String[] TEXTO_MES = new String[MESES];
+
+    static {
+        YearMonth mes = YearMonth.of(ANIO_INICIAL, 1);
+        for (int i = 0; i <= MESES; i++) {
+            INICIO_MES[i] = inicioDelMes(mes);
+            if (i < MESES) {
+                TEXTO_MES[i] = FORMATO.format(mes);
+            }
+            mes = mes.plusMonths(1);
+        }
+    }
+
+    private FechaMesAnio() {}
+
+    public static String formatear(Date fecha) {
+        return formatearMasAnios(fecha, 0);
+    }
+
+    // Mes de la fecha más cierta cantidad de años (vencimiento de una tarjeta)
+    public static String formatearMasAnios(Date fecha, int anios) {
+        int indice = indiceDelMes(fecha.getTime());
+        if (indice >= 0) {
+            int desplazado = indice + anios * 12;
+            if (desplazado >= 0 && desplazado < MESES) {
+                return TEXTO_MES[desplazado];
+            }
+        }
+        // Se usa getTime() porque java.sql.Date no soporta toInstant()
+        YearMonth mes = YearMonth.from(Instant.ofEpochMilli(fecha.getTime()).atZone(ZONA));
+        return FORMATO.format(mes.plusYears(anios));
+    }
+
+    // Primer día del mes a las 00:00, igual que SimpleDateFormat("MM/yyyy").parse
+    public static Date parsear(String texto) {
+        if (texto == null || texto.length() != 7 || texto.charAt(2) != '/') {
+            throw new DateTimeException("La fecha debe tener el formato " + PATRON + ": " + texto);
+        }
+        int mes = digitos(texto, 0, 2);
+        int anio = digitos(texto, 3, 7);
+        if (mes < 1 || mes > 12) {
+            throw new DateTimeException("Mes inválido: " + texto);
+        }
+        if (anio >= ANIO_INICIAL && anio <= ANIO_FINAL) {
+            return new Date(INICIO_MES[(anio - ANIO_INICIAL) * 12 + mes - 1]);
+        }
+        return new Date(inicioDelMes(YearMonth.of(anio, mes)));
+    }
+
+    private static int indiceDelMes(long milis) {
+        if (milis < INICIO_MES[0] || milis >= INICIO_MES[MESES]) {
+            return -1;
+        }
+        int posicion = Arrays.binarySearch(INICIO_MES, milis);
+        return posicion >= 0 ? posicion : -posicion - 2;
+    }
+
+    private static int digitos(String texto, int desde, int hasta) {
+        int valor = 0;
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeException("La fecha debe tener el formato " + PATRON + ": " + texto);
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    private static long inicioDelMes(YearMonth mes) {
+        return mes.atDay(1).atStartOfDay(ZONA).toInstant().toEpochMilli();
+    }
+}
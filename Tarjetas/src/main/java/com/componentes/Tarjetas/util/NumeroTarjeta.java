@@ -0,0 +1,86 @@
+package com.componentes.Tarjetas.util;
+
+// Número de tarjeta de 16 dígitos: 6 del producto, 9 de serie y 1 de control Luhn.
+// La serie sale de un contador (cada valor se entrega una sola vez) y se pasa por
+// una permutación de [0, 10^9) para que números consecutivos no sean predecibles
+// a simple vista. Al ser una permutación, dos series distintas nunca dan el mismo
+// número, así que no hace falta consultar la base de datos para evitar duplicados.
+// Las claves no son secretas: ocultan el orden, no protegen el número.
+public final class NumeroTarjeta {
+
+    public static final long SERIES_POR_PRODUCTO = 1_000_000_000L;
+    public static final long PRODUCTO_MAXIMO = 999_999L;
+
+    // Red de Feistel de 30 bits (2^30 > 10^9) en dos mitades de 15 bits
+    private static final int BITS_MITAD = 15;
+    private static final int MASCARA_MITAD = (1 << BITS_MITAD) - 1;
+    private static final int[] CLAVES = { 0x5BD1E995, 0x1B873593, 0x27D4EB2F, 0x165667B1 };
+
+    private NumeroTarjeta() {}
+
+    public static long componer(long idProducto, long serie) {
+        if (idProducto < 0 || idProducto > PRODUCTO_MAXIMO) {
+            throw new IllegalArgumentException("El ID del producto debe tener 6 dígitos");
+        }
+        if (serie < 0 || serie >= SERIES_POR_PRODUCTO) {
+            throw new IllegalArgumentException("Serie fuera de rango: " + serie);
+        }
+        long sinDigito = idProducto * SERIES_POR_PRODUCTO + permutar(serie);
+        return sinDigito * 10 + digitoLuhn(sinDigito);
+    }
+
+    // Los 6 primeros dígitos de un número de 16
+    public static long producto(long numero) {
+        return numero / (SERIES_POR_PRODUCTO * 10);
+    }
+
+    public static boolean esValido(long numero) {
+        return numero >= 10 && digitoLuhn(numero / 10) == numero % 10;
+    }
+
+    // Permutación de [0, 10^9): se aplica la red de Feistel hasta que el resultado
+    // vuelva a caer en el rango (cycle-walking, en promedio 1.07 vueltas)
+    static long permutar(long serie) {
+        long valor = serie;
+        do {
+            valor = feistel(valor);
+        } while (valor >= SERIES_POR_PRODUCTO);
+        return valor;
+    }
+
+    static int digitoLuhn(long sinDigito) {
+        int suma = 0;
+        boolean doblar = true;
+        for (long resto = sinDigito; resto > 0; resto /= 10) {
+            int digito = (int) (resto % 10);
+            if (doblar) {
+                digito *= 2;
+                if (digito > 9) {
+                    digito -= 9;
+                }
+            }
+            suma += digito;
+            doblar = !doblar;
+        }
+        return (10 - suma % 10) % 10;
+    }
+
+    private static long feistel(long valor) {
+        int izquierda = (int) (valor >>> BITS_MITAD) & MASCARA_MITAD;
+        int derecha = (int) valor & MASCARA_MITAD;
+        for (int clave : CLAVES) {
+            int nueva = izquierda ^ (ronda(derecha, clave) & MASCARA_MITAD);
+            izquierda = derecha;
+            derecha = nueva;
+        }
+        return ((long) izquierda << BITS_MITAD) | derecha;
+    }
+
+    private static int ronda(int valor, int clave) {
+        int h = (valor ^ clave) * 0x9E3779B1;
+        h ^= h >>> 15;
+        h *= 0x85EBCA77;
+        h ^= h >>> 13;
+        return h;
+    }
+}
@@ -0,0 +1,22 @@
+package com.componentes.Tarjetas.util;
+
+// Tamaño de página de los listados por cursor (tarjetas, transacciones e
+// historial por tarjeta): sin tamaño se usa el de defecto y lo que pase del
+// máximo se recorta.
+public final class Paginacion {
+
+    public static final int TAMANO_PAGINA_DEFECTO = 50;
+    public static final int TAMANO_PAGINA_MAXIMO = 500;
+
+    private Paginacion() {}
+
+    public static int validarTamanoPagina(Integer tamano) {
+        if (tamano == null) {
+            return TAMANO_PAGINA_DEFECTO;
+        }
+        if (tamano <= 0) {
+            throw new RuntimeException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(tamano, TAMANO_PAGINA_MAXIMO);
+    }
+}
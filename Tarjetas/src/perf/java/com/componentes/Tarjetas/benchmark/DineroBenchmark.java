@@ -0,0 +1,94 @@
+package com.componentes.Tarjetas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.componentes.Tarjetas.util.Dinero;
+
+// Validación de saldo y débito de una compra con cada representación:
+// Double (como estaba), BigDecimal (entidades) y centavos con Dinero.
+// Correr con -prof gc para ver la asignación por operación.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DineroBenchmark {
+
+    private static final int COMPRAS = 100;
+
+    private Double saldoDouble;
+    private Double precioDouble;
+    private BigDecimal saldoDecimal;
+    private BigDecimal precioDecimal;
+    private long saldoCentavos;
+    private long precioCentavos;
+
+    @Setup
+    public void preparar() {
+        saldoDouble = 1_000_000.0;
+        precioDouble = 19.99;
+        saldoDecimal = new BigDecimal("1000000.00");
+        precioDecimal = new BigDecimal("19.99");
+        saldoCentavos = Dinero.aCentavos(saldoDecimal);
+        precioCentavos = Dinero.aCentavos(precioDecimal);
+    }
+
+    @Benchmark
+    public Double debitarDouble() {
+        Double saldo = saldoDouble;
+        for (int i = 0; i < COMPRAS; i++) {
+            if (saldo >= precioDouble) {
+                saldo = saldo - precioDouble;
+            }
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public BigDecimal debitarBigDecimal() {
+        BigDecimal saldo = saldoDecimal;
+        for (int i = 0; i < COMPRAS; i++) {
+            if (saldo.compareTo(precioDecimal) >= 0) {
+                saldo = saldo.subtract(precioDecimal);
+            }
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public long debitarCentavos() {
+        long saldo = saldoCentavos;
+        for (int i = 0; i < COMPRAS; i++) {
+            if (Dinero.alcanza(saldo, precioCentavos)) {
+                saldo = Dinero.debitar(saldo, precioCentavos);
+            }
+        }
+        return saldo;
+    }
+
+    // Incluye las conversiones de entrada y salida que hace el servicio
+    @Benchmark
+    public BigDecimal debitarCentavosConConversion() {
+        long saldo = Dinero.aCentavos(saldoDecimal);
+        long precio = Dinero.aCentavos(precioDecimal);
+        for (int i = 0; i < COMPRAS; i++) {
+            if (Dinero.alcanza(saldo, precio)) {
+                saldo = Dinero.debitar(saldo, precio);
+            }
+        }
+        return Dinero.desdeCentavos(saldo);
+    }
+}
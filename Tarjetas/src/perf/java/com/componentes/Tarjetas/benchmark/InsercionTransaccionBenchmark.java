@@ -0,0 +1,78 @@
+package com.componentes.Tarjetas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.componentes.Tarjetas.TarjetasApplication;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+
+// Inserciones por segundo de TRANSACIONES según el INCREMENT BY de SEQ_TRANSACION:
+// 1 = un NEXTVAL por inserción (antes), 50 = un NEXTVAL por bloque (pooled-lo).
+// Por defecto corre contra H2 en memoria; para medir contra Oracle basta con
+// pasar -Dspring.datasource.url/username/password al JVM del benchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsercionTransaccionBenchmark {
+
+    @Param({"1", "50"})
+    private int incremento;
+
+    private ConfigurableApplicationContext contexto;
+    private TransaccionRepository repository;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        String urlH2 = "jdbc:h2:mem:insercion" + incremento + ";DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SEQUENCE IF NOT EXISTS seq_transacion START WITH 1 INCREMENT BY " + incremento;
+        boolean usaH2 = System.getProperty("spring.datasource.url") == null;
+        contexto = new SpringApplicationBuilder(TarjetasApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + System.getProperty("spring.datasource.url", urlH2),
+                        "--spring.datasource.driver-class-name=" + (usaH2 ? "org.h2.Driver" : "oracle.jdbc.OracleDriver"),
+                        "--spring.jpa.database-platform=" + (usaH2 ? "org.hibernate.dialect.H2Dialect"
+                                : "org.hibernate.dialect.OracleDialect"),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        repository = contexto.getBean(TransaccionRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Transaccion insertar() {
+        Transaccion transaccion = new Transaccion();
+        transaccion.setIdTarjeta(1020301234567801L);
+        transaccion.setFechaTrans(new Date());
+        transaccion.setValorTrans(new BigDecimal("100.00"));
+        transaccion.setMONEDA("USD");
+        transaccion.setDESCRIPCION("Compra benchmark");
+        return repository.save(transaccion);
+    }
+}
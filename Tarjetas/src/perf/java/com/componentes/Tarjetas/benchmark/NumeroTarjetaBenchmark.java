@@ -0,0 +1,95 @@
+package com.componentes.Tarjetas.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.componentes.Tarjetas.Service.GeneradorNumeroTarjeta;
+import com.componentes.Tarjetas.Service.TarjetaService;
+import com.componentes.Tarjetas.util.NumeroTarjeta;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+// Throughput de TarjetaService.generateCardNumber con 4 hilos compitiendo por
+// el candado del generador. La secuencia SEQ_NUMERO_TARJETA se reemplaza por un
+// contador en memoria: se mide la reserva de series y la composición del
+// número (un NEXTVAL cada GeneradorNumeroTarjeta.TAMANO_BLOQUE números).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class NumeroTarjetaBenchmark {
+
+    // generateCardNumber es privado; un MethodHandle constante no agrega el
+    // costo de la reflexión a la medición
+    private static final MethodHandle GENERAR_NUMERO;
+
+    static {
+        try {
+            GENERAR_NUMERO = MethodHandles.privateLookupIn(TarjetaService.class, MethodHandles.lookup())
+                    .findVirtual(TarjetaService.class, "generateCardNumber", MethodType.methodType(Long.class, Long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private TarjetaService tarjetaService;
+    private Long idProducto;
+
+    @Setup
+    public void preparar() {
+        GeneradorNumeroTarjeta generador = new GeneradorNumeroTarjeta();
+        ReflectionTestUtils.setField(generador, "consultaSecuencia", "NEXTVAL");
+        ReflectionTestUtils.setField(generador, "entityManager", secuenciaEnMemoria());
+
+        tarjetaService = new TarjetaService();
+        ReflectionTestUtils.setField(tarjetaService, "generadorNumeroTarjeta", generador);
+        idProducto = 102030L;
+    }
+
+    @Benchmark
+    public Long generateCardNumber() throws Throwable {
+        return (Long) GENERAR_NUMERO.invokeExact(tarjetaService, idProducto);
+    }
+
+    // Solo responde createNativeQuery(...).getSingleResult(). Vuelve a empezar
+    // antes de agotar las series para que una medición larga no falle.
+    private static EntityManager secuenciaEnMemoria() {
+        AtomicLong secuencia = new AtomicLong();
+        long ultimoBloque = NumeroTarjeta.SERIES_POR_PRODUCTO - GeneradorNumeroTarjeta.TAMANO_BLOQUE;
+        Query nextval = (Query) Proxy.newProxyInstance(Query.class.getClassLoader(), new Class<?>[] { Query.class },
+                (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("getSingleResult")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    return secuencia.getAndAdd(GeneradorNumeroTarjeta.TAMANO_BLOQUE) % ultimoBloque;
+                });
+        return (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+                new Class<?>[] { EntityManager.class }, (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("createNativeQuery")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    return nextval;
+                });
+    }
+}
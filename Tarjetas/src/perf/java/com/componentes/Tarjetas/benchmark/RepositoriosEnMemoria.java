@@ -0,0 +1,59 @@
+package com.componentes.Tarjetas.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Repositorios respaldados por un Map, para medir mappers y servicios sin base
+// de datos. Implementan las consultas por ID y las operaciones que se pasen por
+// nombre (save, debitarSaldo...); el resto de métodos lanza
+// UnsupportedOperationException.
+final class RepositoriosEnMemoria {
+
+    private RepositoriosEnMemoria() {}
+
+    static <R> R crear(Class<R> tipo, Map<Long, ?> datos) {
+        return crear(tipo, datos, Map.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> R crear(Class<R> tipo, Map<Long, ?> datos, Map<String, Function<Object[], Object>> operaciones) {
+        return (R) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, (proxy, metodo, args) -> {
+            Function<Object[], Object> operacion = operaciones.get(metodo.getName());
+            if (operacion != null) {
+                return operacion.apply(args);
+            }
+            switch (metodo.getName()) {
+                case "findById":
+                    return Optional.ofNullable(datos.get(args[0]));
+                case "existsById":
+                    return datos.containsKey(args[0]);
+                case "findAllById": {
+                    List<Object> encontrados = new ArrayList<>();
+                    for (Object id : (Iterable<?>) args[0]) {
+                        Object valor = datos.get(id);
+                        if (valor != null) {
+                            encontrados.add(valor);
+                        }
+                    }
+                    return encontrados;
+                }
+                case "findAll":
+                    return new ArrayList<>(datos.values());
+                case "count":
+                    return (long) datos.size();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return tipo.getSimpleName() + "EnMemoria";
+                default:
+                    throw new UnsupportedOperationException(metodo.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.componentes.Tarjetas.benchmark;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.componentes.Tarjetas.Entity.EstadoTarjeta;
+import com.componentes.Tarjetas.Entity.Producto;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.EstadoTarjetaRepository;
+import com.componentes.Tarjetas.Repository.ProductoRepository;
+import com.componentes.Tarjetas.dtos.TarjetaDTO;
+import com.componentes.Tarjetas.mappers.TarjetaMapper;
+import com.componentes.Tarjetas.util.FechaMesAnio;
+
+// Throughput de TarjetaMapper.toDto y toEntity con 4 hilos concurrentes (como
+// lo usa un singleton bajo carga), y el costo de formatear MM/yyyy con FechaMesAnio
+// frente a un SimpleDateFormat nuevo por llamada (la alternativa segura que
+// tenía el código anterior).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class TarjetaMapperBenchmark {
+
+    private TarjetaMapper mapper;
+    private Tarjeta tarjeta;
+    private TarjetaDTO tarjetaDTO;
+    private Date fecha;
+
+    @Setup
+    public void preparar() throws Exception {
+        mapper = new TarjetaMapper();
+        ReflectionTestUtils.setField(mapper, "productoRepository", RepositoriosEnMemoria.crear(
+                ProductoRepository.class, Map.of(102030L, new Producto(102030L, "TARJETA DEBITO"))));
+        ReflectionTestUtils.setField(mapper, "estadoRepository", RepositoriosEnMemoria.crear(
+                EstadoTarjetaRepository.class, Map.of(1L, new EstadoTarjeta(1L, "ACTIVA"))));
+
+        fecha = new SimpleDateFormat("dd/MM/yyyy").parse("30/01/2025");
+        tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(1020301234567801L);
+        tarjeta.setIdProducto(102030L);
+        tarjeta.setIdEstado(1L);
+        tarjeta.setTitular("JESUS SUAREZ");
+        tarjeta.setFechaCreacion(fecha);
+        tarjeta.setFechaVencimiento(new SimpleDateFormat("dd/MM/yyyy").parse("30/01/2028"));
+        tarjeta.setSaldo(new BigDecimal("1000000.00"));
+        tarjeta.setMONEDA("USD");
+        tarjetaDTO = mapper.toDto(tarjeta);
+    }
+
+    @Benchmark
+    public TarjetaDTO toDto() {
+        return mapper.toDto(tarjeta);
+    }
+
+    @Benchmark
+    public Tarjeta toEntity() {
+        return mapper.toEntity(tarjetaDTO);
+    }
+
+    @Benchmark
+    public String formatearFechaMesAnio() {
+        return FechaMesAnio.formatear(fecha);
+    }
+
+    @Benchmark
+    public String formatearSimpleDateFormat() {
+        return new SimpleDateFormat("MM/yyyy").format(fecha);
+    }
+}
@@ -0,0 +1,66 @@
+package com.componentes.Tarjetas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.componentes.Tarjetas.mappers.TransaccionMapper;
+import com.componentes.Tarjetas.util.Paginacion;
+
+// Tiempo de TransaccionMapper.toDtoList para una página por defecto y una
+// página máxima del listado y del historial de transacciones.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransaccionMapperBenchmark {
+
+    @Param({ "" + Paginacion.TAMANO_PAGINA_DEFECTO, "" + Paginacion.TAMANO_PAGINA_MAXIMO })
+    private int tamano;
+
+    private TransaccionMapper mapper;
+    private List<Transaccion> transacciones;
+
+    @Setup
+    public void preparar() {
+        mapper = new TransaccionMapper();
+        EstadoTrans exitosa = new EstadoTrans(1L, "EXITOSA");
+        Date fecha = new Date();
+        transacciones = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            Transaccion transaccion = new Transaccion();
+            transaccion.setIdTrans((long) i + 1);
+            transaccion.setIdTarjeta(1020301234567801L);
+            transaccion.setEstadoTrans(exitosa);
+            transaccion.setFechaTrans(fecha);
+            transaccion.setValorTrans(new BigDecimal("19.99"));
+            transaccion.setMONEDA("USD");
+            transaccion.setDESCRIPCION("Exitoso");
+            transacciones.add(transaccion);
+        }
+    }
+
+    @Benchmark
+    public List<TransaccionDTO> toDtoList() {
+        return mapper.toDtoList(transacciones);
+    }
+}
@@ -0,0 +1,97 @@
+package com.componentes.Tarjetas.benchmark;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.DiarioTransacciones;
+import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.TransCompraDTO;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
+import com.componentes.Tarjetas.mappers.TransaccionMapper;
+
+// Tiempo de TransaccionService.procesarCompra sin base de datos: validaciones,
+// armado de la transacción y respuesta, con repositorios en memoria (el débito
+// siempre afecta una fila y save solo asigna el ID). Un escenario por resultado;
+// los rechazos incluyen el costo de lanzar CompraRechazadaException.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionCompraBenchmark {
+
+    @Param({ "exitosa", "moneda", "inactiva", "vencida", "saldo" })
+    private String escenario;
+
+    private TransaccionService transaccionService;
+    private TransCompraDTO compra;
+
+    @Setup
+    public void preparar() throws Exception {
+        SimpleDateFormat formato = new SimpleDateFormat("dd/MM/yyyy");
+        Tarjeta tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(1020301234567801L);
+        tarjeta.setIdProducto(102030L);
+        tarjeta.setIdEstado(escenario.equals("inactiva") ? 2L : 1L);
+        tarjeta.setTitular("JESUS SUAREZ");
+        tarjeta.setFechaCreacion(formato.parse("30/01/2025"));
+        tarjeta.setFechaVencimiento(escenario.equals("vencida") ? formato.parse("30/01/2020") : formato.parse("30/01/2099"));
+        tarjeta.setSaldo(new BigDecimal("100.00"));
+        tarjeta.setMONEDA("USD");
+
+        AtomicLong idTransaccion = new AtomicLong();
+        transaccionService = new TransaccionService();
+        ReflectionTestUtils.setField(transaccionService, "tarjetaRepository", RepositoriosEnMemoria.crear(
+                TarjetaRepository.class, Map.of(tarjeta.getIdTarjeta(), tarjeta),
+                Map.of("debitarSaldo", args -> 1)));
+        ReflectionTestUtils.setField(transaccionService, "estadoTransRepository", RepositoriosEnMemoria.crear(
+                EstadoTransRepository.class,
+                Map.of(1L, new EstadoTrans(1L, "EXITOSA"), 3L, new EstadoTrans(3L, "FALLIDA"))));
+        ReflectionTestUtils.setField(transaccionService, "transaccionRepository", RepositoriosEnMemoria.crear(
+                TransaccionRepository.class, Map.of(), Map.of("save", args -> {
+                    Transaccion transaccion = (Transaccion) args[0];
+                    transaccion.setIdTrans(idTransaccion.incrementAndGet());
+                    return transaccion;
+                })));
+        ReflectionTestUtils.setField(transaccionService, "transaccionMapper", new TransaccionMapper());
+        ReflectionTestUtils.setField(transaccionService, "diarioTransacciones", new DiarioTransacciones());
+
+        compra = new TransCompraDTO();
+        compra.setCardId(tarjeta.getIdTarjeta());
+        compra.setPrice(escenario.equals("saldo") ? new BigDecimal("500.00") : new BigDecimal("19.99"));
+        compra.setMoneda(escenario.equals("moneda") ? "EUR" : "USD");
+    }
+
+    @Benchmark
+    public Object procesarCompra() {
+        try {
+            return transaccionService.procesarCompra(compra);
+        } catch (CompraRechazadaException e) {
+            return e;
+        }
+    }
+}
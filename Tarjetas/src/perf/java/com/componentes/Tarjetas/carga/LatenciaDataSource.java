@@ -0,0 +1,64 @@
+package com.componentes.Tarjetas.carga;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+// Envuelve el DataSource para que cada sentencia ejecutada espere latenciaMs,
+// como la ida y vuelta de red a una base de datos remota
+final class LatenciaDataSource implements BeanPostProcessor {
+
+    private final int latenciaMs;
+
+    LatenciaDataSource(int latenciaMs) {
+        this.latenciaMs = latenciaMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String nombre) {
+        if (latenciaMs <= 0 || !(bean instanceof DataSource)) {
+            return bean;
+        }
+        return envolver(bean, DataSource.class, (objetivo, metodo, args) -> {
+            Object resultado = invocar(objetivo, metodo, args);
+            return resultado instanceof Connection
+                    ? envolver(resultado, Connection.class, this::conexion)
+                    : resultado;
+        });
+    }
+
+    private Object conexion(Object objetivo, java.lang.reflect.Method metodo, Object[] args) throws Throwable {
+        Object resultado = invocar(objetivo, metodo, args);
+        return resultado instanceof PreparedStatement
+                ? envolver(resultado, PreparedStatement.class, (sentencia, m, a) -> {
+                    if (m.getName().startsWith("execute")) {
+                        Thread.sleep(latenciaMs);
+                    }
+                    return invocar(sentencia, m, a);
+                })
+                : resultado;
+    }
+
+    private interface Manejador {
+        Object manejar(Object objetivo, java.lang.reflect.Method metodo, Object[] args) throws Throwable;
+    }
+
+    private static Object envolver(Object objetivo, Class<?> tipo, Manejador manejador) {
+        InvocationHandler handler = (proxy, metodo, args) -> manejador.manejar(objetivo, metodo, args);
+        return Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, handler);
+    }
+
+    private static Object invocar(Object objetivo, java.lang.reflect.Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(objetivo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
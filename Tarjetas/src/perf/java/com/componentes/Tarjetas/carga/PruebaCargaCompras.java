@@ -0,0 +1,177 @@
+package com.componentes.Tarjetas.carga;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.componentes.Tarjetas.TarjetasApplication;
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+
+// Prueba de carga de POST /api/transaction/purchase: compara la latencia p99 y la
+// máxima concurrencia sostenible entre los hilos de plataforma (por defecto) y el
+// perfil "virtual".
+//
+//   mvn -Pbenchmark -DskipTests test-compile exec:exec@prueba-carga
+//
+// Sin carga.url levanta la aplicación dos veces en este proceso sobre H2 y agrega
+// carga.latenciaBdMs a cada sentencia para simular la ida y vuelta a Oracle Cloud.
+// Con carga.url=http://host:puerto mide un servidor ya desplegado (el modo lo
+// define cómo se inició ese servidor) usando las tarjetas de carga.tarjetas.
+public final class PruebaCargaCompras {
+
+    private static final int TARJETAS_SEMBRADAS = 200;
+    private static final long PRIMERA_TARJETA = 9990000000000000L;
+
+    private PruebaCargaCompras() {}
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("carga.url");
+        int[] niveles = Arrays.stream(System.getProperty("carga.concurrencia", "50,200,500,1000").split(","))
+                .mapToInt(n -> Integer.parseInt(n.trim())).toArray();
+        int compras = Integer.getInteger("carga.compras", 5000);
+        long p99MaximoMs = Long.getLong("carga.p99MaximoMs", 500L);
+        int latenciaBdMs = Integer.getInteger("carga.latenciaBdMs", 5);
+
+        List<String> filas = new ArrayList<>();
+        if (url != null) {
+            long[] tarjetas = Arrays.stream(System.getProperty("carga.tarjetas", "").split(","))
+                    .filter(t -> !t.isBlank()).mapToLong(t -> Long.parseLong(t.trim())).toArray();
+            if (tarjetas.length == 0) {
+                throw new IllegalArgumentException("Con carga.url se deben indicar las tarjetas en carga.tarjetas");
+            }
+            medirModo("servidor " + url, url, tarjetas, niveles, compras, p99MaximoMs, filas);
+        } else {
+            long[] tarjetas = new long[TARJETAS_SEMBRADAS];
+            for (int i = 0; i < tarjetas.length; i++) {
+                tarjetas[i] = PRIMERA_TARJETA + i;
+            }
+            for (boolean virtual : new boolean[] { false, true }) {
+                try (ConfigurableApplicationContext contexto = iniciar(virtual, latenciaBdMs)) {
+                    sembrar(contexto, tarjetas);
+                    String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+                    medirModo(virtual ? "virtual" : "plataforma", base, tarjetas, niveles, compras, p99MaximoMs, filas);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-12s %12s %10s %10s %10s %8s%n", "modo", "concurrencia", "compras/s", "p50 ms", "p99 ms", "errores");
+        filas.forEach(System.out::println);
+    }
+
+    private static void medirModo(String modo, String base, long[] tarjetas, int[] niveles, int compras,
+                                  long p99MaximoMs, List<String> filas) throws Exception {
+        int maximaSostenible = 0;
+        HttpClient cliente = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        // Calentamiento
+        medirNivel(cliente, base, tarjetas, 20, Math.min(compras, 1000));
+        for (int concurrencia : niveles) {
+            Resultado resultado = medirNivel(cliente, base, tarjetas, concurrencia, compras);
+            filas.add(String.format("%-12s %12d %10.0f %10.1f %10.1f %8d", modo, concurrencia,
+                    resultado.comprasPorSegundo, resultado.p50Ms, resultado.p99Ms, resultado.errores));
+            if (resultado.p99Ms <= p99MaximoMs && resultado.errores == 0) {
+                maximaSostenible = concurrencia;
+            }
+        }
+        filas.add(String.format("%-12s máxima concurrencia con p99 <= %d ms y sin errores: %d",
+                modo, p99MaximoMs, maximaSostenible));
+    }
+
+    private static Resultado medirNivel(HttpClient cliente, String base, long[] tarjetas,
+                                        int concurrencia, int compras) throws Exception {
+        URI uri = URI.create(base + "/api/transaction/purchase");
+        long[] latencias = new long[compras];
+        AtomicInteger errores = new AtomicInteger();
+        Semaphore permisos = new Semaphore(concurrencia);
+        CountDownLatch pendientes = new CountDownLatch(compras);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < compras; i++) {
+            long tarjeta = tarjetas[ThreadLocalRandom.current().nextInt(tarjetas.length)];
+            HttpRequest peticion = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"cardId\":" + tarjeta + ",\"price\":1.00,\"moneda\":\"USD\"}"))
+                    .build();
+            permisos.acquire();
+            int indice = i;
+            long enviada = System.nanoTime();
+            cliente.sendAsync(peticion, HttpResponse.BodyHandlers.discarding()).whenComplete((respuesta, error) -> {
+                latencias[indice] = System.nanoTime() - enviada;
+                if (error != null || respuesta.statusCode() != 200) {
+                    errores.incrementAndGet();
+                }
+                permisos.release();
+                pendientes.countDown();
+            });
+        }
+        pendientes.await();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        Arrays.sort(latencias);
+        return new Resultado(compras / segundos, percentilMs(latencias, 0.50), percentilMs(latencias, 0.99),
+                errores.get());
+    }
+
+    private static double percentilMs(long[] ordenadas, double percentil) {
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+
+    private static ConfigurableApplicationContext iniciar(boolean virtual, int latenciaBdMs) {
+        String base = virtual ? "cargavirtual" : "cargaplataforma";
+        return new SpringApplicationBuilder(TarjetasApplication.class)
+                .initializers(contexto -> contexto.getBeanFactory()
+                        .addBeanPostProcessor(new LatenciaDataSource(latenciaBdMs)))
+                .run(
+                        "--spring.profiles.active=" + (virtual ? "virtual" : "default"),
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:" + base + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+    }
+
+    private static void sembrar(ConfigurableApplicationContext contexto, long[] idsTarjetas) {
+        EstadoTransRepository estados = contexto.getBean(EstadoTransRepository.class);
+        estados.save(new EstadoTrans(1L, "EXITOSA"));
+        estados.save(new EstadoTrans(3L, "FALLIDA"));
+
+        List<Tarjeta> tarjetas = new ArrayList<>();
+        for (long id : idsTarjetas) {
+            Tarjeta tarjeta = new Tarjeta();
+            tarjeta.setIdTarjeta(id);
+            tarjeta.setIdProducto(999000L);
+            tarjeta.setIdEstado(1L);
+            tarjeta.setTitular("PRUEBA DE CARGA");
+            tarjeta.setFechaCreacion(new Date());
+            tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 365L * 86400000L));
+            tarjeta.setSaldo(new BigDecimal("1000000000.00"));
+            tarjeta.setMONEDA("USD");
+            tarjetas.add(tarjeta);
+        }
+        contexto.getBean(TarjetaRepository.class).saveAll(tarjetas);
+    }
+
+    private record Resultado(double comprasPorSegundo, double p50Ms, double p99Ms, int errores) {}
+}
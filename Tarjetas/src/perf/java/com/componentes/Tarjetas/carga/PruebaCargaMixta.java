@@ -0,0 +1,258 @@
+package com.componentes.Tarjetas.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.componentes.Tarjetas.TarjetasApplication;
+
+// Prueba de carga de extremo a extremo con una mezcla de compras, anulaciones,
+// recargas y consultas de saldo. Reporta por endpoint las peticiones por
+// segundo, la latencia p50/p99, los rechazos (4xx, reglas de negocio como saldo
+// insuficiente) y los errores (5xx o fallas de conexión).
+//
+//   mvn -Pbenchmark -DskipTests test-compile exec:exec@prueba-carga-mixta
+//
+// Sin carga.url levanta la aplicación con el perfil "carga" (H2 en memoria en
+// modo Oracle), la siembra con "Base de datos/BasePruebas.sql" y usa sus
+// tarjetas activas; carga.latenciaBdMs simula la ida y vuelta a Oracle Cloud.
+// Con carga.url=http://host:puerto mide un servidor ya desplegado usando las
+// tarjetas de carga.tarjetas. El resultado también queda en carga.resultados
+// (JSON) para comparar entre versiones.
+public final class PruebaCargaMixta {
+
+    private static final Pattern ID_TRANSACCION = Pattern.compile("\"idTrans\"\\s*:\\s*(\\d+)");
+
+    private enum Operacion {
+        COMPRA("POST /api/transaction/purchase"),
+        ANULACION("POST /api/transaction/anulation"),
+        RECARGA("POST /api/tarjetas/card/balance"),
+        SALDO("GET /api/tarjetas/card/balance/{cardId}");
+
+        private final String endpoint;
+
+        Operacion(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private PruebaCargaMixta() {}
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("carga.url");
+        int concurrencia = Integer.getInteger("carga.mixta.concurrencia", 50);
+        int peticiones = Integer.getInteger("carga.mixta.peticiones", 10000);
+        Map<Operacion, Integer> mezcla = leerMezcla(System.getProperty("carga.mixta.mezcla",
+                "compra=50,anulacion=10,recarga=10,saldo=30"));
+        int latenciaBdMs = Integer.getInteger("carga.latenciaBdMs", 5);
+        Path semilla = Path.of(System.getProperty("carga.semilla", "../Base de datos/BasePruebas.sql"));
+        Path resultados = Path.of(System.getProperty("carga.resultados", "target/carga-resultados.json"));
+
+        if (url != null) {
+            long[] tarjetas = Arrays.stream(System.getProperty("carga.tarjetas", "").split(","))
+                    .filter(t -> !t.isBlank()).mapToLong(t -> Long.parseLong(t.trim())).toArray();
+            if (tarjetas.length == 0) {
+                throw new IllegalArgumentException("Con carga.url se deben indicar las tarjetas en carga.tarjetas");
+            }
+            medir(url, tarjetas, concurrencia, peticiones, mezcla, resultados);
+            return;
+        }
+
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(TarjetasApplication.class)
+                .initializers(c -> c.getBeanFactory().addBeanPostProcessor(new LatenciaDataSource(latenciaBdMs)))
+                .profiles("carga")
+                .run()) {
+            JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+            int filas = SemillaBasePruebas.cargar(jdbc, semilla);
+            long[] tarjetas = jdbc.queryForList(
+                    "SELECT ID_TARJETA FROM TARJETA WHERE ID_ESTADO = 1 AND FECHA_VENCIMIENTO > CURRENT_DATE",
+                    Long.class).stream().mapToLong(Long::longValue).toArray();
+            System.out.printf("Semilla: %d filas de %s, %d tarjetas activas%n", filas, semilla, tarjetas.length);
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+            medir(base, tarjetas, concurrencia, peticiones, mezcla, resultados);
+        }
+    }
+
+    private static void medir(String base, long[] tarjetas, int concurrencia, int peticiones,
+                              Map<Operacion, Integer> mezcla, Path resultados) throws Exception {
+        HttpClient cliente = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Queue<long[]> anulables = new ConcurrentLinkedQueue<>();
+
+        // Calentamiento
+        ejecutar(cliente, base, tarjetas, Math.min(concurrencia, 20), Math.min(peticiones, 1000), mezcla, anulables);
+        long inicio = System.nanoTime();
+        Map<Operacion, Estadisticas> estadisticas = ejecutar(cliente, base, tarjetas, concurrencia, peticiones,
+                mezcla, anulables);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        List<String> json = new ArrayList<>();
+        System.out.println();
+        System.out.printf("concurrencia %d, %d peticiones en %.1f s%n", concurrencia, peticiones, segundos);
+        System.out.printf("%-42s %10s %10s %10s %10s %9s %9s%n",
+                "endpoint", "peticiones", "por seg", "p50 ms", "p99 ms", "rechazos", "errores");
+        for (Map.Entry<Operacion, Estadisticas> entrada : estadisticas.entrySet()) {
+            Estadisticas e = entrada.getValue();
+            int cantidad = e.cantidad.get();
+            if (cantidad == 0) {
+                continue;
+            }
+            long[] latencias = Arrays.copyOf(e.latencias, cantidad);
+            Arrays.sort(latencias);
+            double p50 = percentilMs(latencias, 0.50);
+            double p99 = percentilMs(latencias, 0.99);
+            System.out.printf("%-42s %10d %10.0f %10.1f %10.1f %8.1f%% %8.1f%%%n", entrada.getKey().endpoint, cantidad,
+                    cantidad / segundos, p50, p99, 100.0 * e.rechazos.get() / cantidad, 100.0 * e.errores.get() / cantidad);
+            json.add(String.format(Locale.ROOT,
+                    "{\"endpoint\":\"%s\",\"peticiones\":%d,\"porSegundo\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f,"
+                            + "\"rechazos\":%d,\"errores\":%d}",
+                    entrada.getKey().endpoint, cantidad, cantidad / segundos, p50, p99, e.rechazos.get(),
+                    e.errores.get()));
+        }
+
+        Files.createDirectories(resultados.toAbsolutePath().getParent());
+        Files.writeString(resultados, String.format(Locale.ROOT,
+                "{\"concurrencia\":%d,\"peticiones\":%d,\"segundos\":%.2f,\"endpoints\":[%s]}%n",
+                concurrencia, peticiones, segundos, String.join(",", json)), StandardCharsets.UTF_8);
+        System.out.println("Resultados en " + resultados.toAbsolutePath());
+    }
+
+    private static Map<Operacion, Estadisticas> ejecutar(HttpClient cliente, String base, long[] tarjetas,
+                                                         int concurrencia, int peticiones,
+                                                         Map<Operacion, Integer> mezcla, Queue<long[]> anulables)
+            throws InterruptedException {
+        Map<Operacion, Estadisticas> estadisticas = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            estadisticas.put(operacion, new Estadisticas(peticiones));
+        }
+        int pesoTotal = mezcla.values().stream().mapToInt(Integer::intValue).sum();
+        Semaphore permisos = new Semaphore(concurrencia);
+        CountDownLatch pendientes = new CountDownLatch(peticiones);
+
+        for (int i = 0; i < peticiones; i++) {
+            Operacion operacion = elegir(mezcla, ThreadLocalRandom.current().nextInt(pesoTotal));
+            long tarjeta = tarjetas[ThreadLocalRandom.current().nextInt(tarjetas.length)];
+            long[] anulable = operacion == Operacion.ANULACION ? anulables.poll() : null;
+            if (operacion == Operacion.ANULACION && anulable == null) {
+                // Todavía no hay compras aprobadas para anular
+                operacion = Operacion.COMPRA;
+            }
+            HttpRequest peticion = peticion(base, operacion, tarjeta, anulable);
+            Operacion medida = operacion;
+            permisos.acquire();
+            long enviada = System.nanoTime();
+            cliente.sendAsync(peticion, HttpResponse.BodyHandlers.ofString()).whenComplete((respuesta, error) -> {
+                estadisticas.get(medida).registrar(System.nanoTime() - enviada, error != null ? 0 : respuesta.statusCode());
+                if (error == null && medida == Operacion.COMPRA && respuesta.statusCode() == 200) {
+                    Matcher id = ID_TRANSACCION.matcher(respuesta.body());
+                    if (id.find()) {
+                        anulables.add(new long[] { tarjeta, Long.parseLong(id.group(1)) });
+                    }
+                }
+                permisos.release();
+                pendientes.countDown();
+            });
+        }
+        pendientes.await();
+        return estadisticas;
+    }
+
+    private static HttpRequest peticion(String base, Operacion operacion, long tarjeta, long[] anulable) {
+        return switch (operacion) {
+            case COMPRA -> post(base + "/api/transaction/purchase",
+                    "{\"cardId\":" + tarjeta + ",\"price\":1.00,\"moneda\":\"USD\"}");
+            case ANULACION -> post(base + "/api/transaction/anulation",
+                    "{\"cardId\":\"" + anulable[0] + "\",\"transactionId\":\"" + anulable[1] + "\"}");
+            case RECARGA -> post(base + "/api/tarjetas/card/balance",
+                    "{\"cardId\":" + tarjeta + ",\"balance\":10.00}");
+            case SALDO -> HttpRequest.newBuilder(URI.create(base + "/api/tarjetas/card/balance/" + tarjeta)).GET().build();
+        };
+    }
+
+    private static HttpRequest post(String url, String cuerpo) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    private static Operacion elegir(Map<Operacion, Integer> mezcla, int sorteo) {
+        for (Map.Entry<Operacion, Integer> entrada : mezcla.entrySet()) {
+            sorteo -= entrada.getValue();
+            if (sorteo < 0) {
+                return entrada.getKey();
+            }
+        }
+        throw new IllegalStateException("Mezcla vacía");
+    }
+
+    // "compra=50,anulacion=10,recarga=10,saldo=30": pesos relativos de cada operación
+    private static Map<Operacion, Integer> leerMezcla(String mezcla) {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        for (String parte : mezcla.split(",")) {
+            String[] clave = parte.trim().split("=");
+            if (clave.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida: " + mezcla);
+            }
+            int peso = Integer.parseInt(clave[1].trim());
+            if (peso > 0) {
+                pesos.put(Operacion.valueOf(clave[0].trim().toUpperCase(Locale.ROOT)), peso);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla debe tener al menos una operación con peso mayor a 0");
+        }
+        return pesos;
+    }
+
+    private static double percentilMs(long[] ordenadas, double percentil) {
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+
+    private static final class Estadisticas {
+
+        private final long[] latencias;
+        private final AtomicInteger cantidad = new AtomicInteger();
+        private final AtomicInteger rechazos = new AtomicInteger();
+        private final AtomicInteger errores = new AtomicInteger();
+
+        private Estadisticas(int capacidad) {
+            latencias = new long[capacidad];
+        }
+
+        // estado 0 = la petición no obtuvo respuesta
+        private void registrar(long nanos, int estado) {
+            latencias[cantidad.getAndIncrement()] = nanos;
+            if (estado >= 400 && estado < 500) {
+                rechazos.incrementAndGet();
+            } else if (estado < 200 || estado >= 300) {
+                errores.incrementAndGet();
+            }
+        }
+    }
+}
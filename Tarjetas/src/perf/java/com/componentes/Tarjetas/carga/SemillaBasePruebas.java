@@ -0,0 +1,54 @@
+package com.componentes.Tarjetas.carga;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Carga los datos de "Base de datos/BasePruebas.sql" en la base del perfil
+// "carga". El script completo es un export de Oracle (STORAGE, TABLESPACE,
+// triggers) que H2 no entiende: el esquema lo crea Hibernate y de aquí solo se
+// ejecutan los "Insert into" (H2 en modo Oracle acepta to_date). Las tablas que
+// ya no existen en las entidades (USUARIOS) se omiten.
+final class SemillaBasePruebas {
+
+    private SemillaBasePruebas() {}
+
+    // Retorna las filas insertadas
+    static int cargar(JdbcTemplate jdbc, Path script) throws IOException {
+        List<String> inserts = Files.readAllLines(script, StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(linea -> linea.regionMatches(true, 0, "Insert into ", 0, 12))
+                .map(linea -> linea.endsWith(";") ? linea.substring(0, linea.length() - 1) : linea)
+                .toList();
+
+        int filas = 0;
+        for (String insert : inserts) {
+            String tabla = insert.substring(12, insert.indexOf(' ', 12)).toUpperCase(Locale.ROOT);
+            if (!existeTabla(jdbc, tabla)) {
+                continue;
+            }
+            try {
+                filas += jdbc.update(insert);
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("No se pudo cargar la fila de " + tabla + ": " + insert, e);
+            }
+        }
+
+        // Las transacciones del script traen ID fijos: la secuencia debe empezar después
+        Long maximo = jdbc.queryForObject("SELECT COALESCE(MAX(ID_TRANSACION), 0) FROM TRANSACIONES", Long.class);
+        jdbc.execute("ALTER SEQUENCE SEQ_TRANSACION RESTART WITH " + (maximo + 1));
+        return filas;
+    }
+
+    private static boolean existeTabla(JdbcTemplate jdbc, String tabla) {
+        Integer tablas = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?", Integer.class, tabla);
+        return tablas != null && tablas > 0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.componentes.Tarjetas.ControllerTest;
+
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.componentes.Tarjetas.Controller.LiquidacionController;
+import com.componentes.Tarjetas.Service.LiquidacionDiaria;
+import com.componentes.Tarjetas.dtos.ResumenDiarioDTO;
+
+@ExtendWith(MockitoExtension.class)
+public class LiquidacionControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private LiquidacionDiaria liquidacionDiaria;
+
+    @InjectMocks
+    private LiquidacionController liquidacionController;
+
+    private ResumenDiarioDTO resumen;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(liquidacionController).build();
+        resumen = new ResumenDiarioDTO(102030L, LocalDate.of(2025, 3, 10), new BigDecimal("150.00"), 2L,
+                new BigDecimal("20.00"), 1L, new BigDecimal("50.00"), 1L);
+        resumen.setIdTarjeta(1020301234567801L);
+    }
+
+    @Test
+    void resumenTarjeta_ShouldReturnDailyTotals() throws Exception {
+        when(liquidacionDiaria.resumenTarjeta(1020301234567801L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31)))
+                .thenReturn(Arrays.asList(resumen));
+
+        mockMvc.perform(get("/api/liquidacion/card/1020301234567801")
+                .param("desde", "2025-03-01")
+                .param("hasta", "2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idTarjeta").value(1020301234567801L))
+                .andExpect(jsonPath("$[0].montoAprobado").value(150.00))
+                .andExpect(jsonPath("$[0].montoNeto").value(100.00));
+    }
+
+    @Test
+    void resumenProducto_WhenInvalidRange_ShouldReturnBadRequest() throws Exception {
+        when(liquidacionDiaria.resumenProducto(102030L, LocalDate.of(2025, 3, 31), LocalDate.of(2025, 3, 1)))
+                .thenThrow(new RuntimeException("La fecha inicial no puede ser posterior a la fecha final"));
+
+        mockMvc.perform(get("/api/liquidacion/producto/102030")
+                .param("desde", "2025-03-31")
+                .param("hasta", "2025-03-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("La fecha inicial no puede ser posterior a la fecha final"));
+    }
+
+    @Test
+    void ejecutar_ShouldReturnAccumulatedRows() throws Exception {
+        when(liquidacionDiaria.liquidar()).thenReturn(42);
+
+        mockMvc.perform(post("/api/liquidacion/ejecutar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.acumuladas").value(42));
+    }
+}
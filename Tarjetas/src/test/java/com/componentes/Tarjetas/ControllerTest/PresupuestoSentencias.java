@@ -0,0 +1,58 @@
+package com.componentes.Tarjetas.ControllerTest;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.componentes.Tarjetas.monitoreo.FiltroConsultasPeticion;
+
+// Presupuesto de sentencias SQL por endpoint para las pruebas con base de datos.
+// Los límites están en presupuesto-sentencias.properties (src/test/resources) y
+// se pueden cambiar sin tocar la prueba con -Dsentencias.<endpoint>=<n>. Una
+// regresión N+1 (una consulta por cada elemento) supera el límite y falla.
+public final class PresupuestoSentencias {
+
+    private static final String ARCHIVO = "presupuesto-sentencias.properties";
+
+    private static final Properties PRESUPUESTOS = cargar();
+
+    private PresupuestoSentencias() {
+    }
+
+    public static ResultMatcher dentroDelPresupuesto(String endpoint) {
+        int maximo = presupuesto(endpoint);
+        return resultado -> {
+            String cabecera = resultado.getResponse().getHeader(FiltroConsultasPeticion.CABECERA);
+            assertNotNull(cabecera, "La respuesta no tiene la cabecera " + FiltroConsultasPeticion.CABECERA);
+            int sentencias = Integer.parseInt(cabecera);
+            assertTrue(sentencias <= maximo, "El endpoint " + endpoint + " ejecutó " + sentencias
+                    + " sentencias SQL y su presupuesto es " + maximo + " (" + ARCHIVO + ")");
+        };
+    }
+
+    public static int presupuesto(String endpoint) {
+        String valor = System.getProperty("sentencias." + endpoint, PRESUPUESTOS.getProperty(endpoint));
+        if (valor == null) {
+            throw new IllegalArgumentException("No hay presupuesto de sentencias para el endpoint " + endpoint);
+        }
+        return Integer.parseInt(valor.trim());
+    }
+
+    private static Properties cargar() {
+        Properties propiedades = new Properties();
+        try (InputStream entrada = PresupuestoSentencias.class.getClassLoader().getResourceAsStream(ARCHIVO)) {
+            if (entrada != null) {
+                propiedades.load(entrada);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return propiedades;
+    }
+}
@@ -0,0 +1,208 @@
+package com.componentes.Tarjetas.ControllerTest;
+
+import static com.componentes.Tarjetas.ControllerTest.PresupuestoSentencias.dentroDelPresupuesto;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.componentes.Tarjetas.Entity.EstadoTarjeta;
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Producto;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.EstadoTarjetaRepository;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.ProductoRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Recorre los endpoints contra H2 con la cabecera X-Sentencias-SQL activa y
+// falla si alguno ejecuta más sentencias que su presupuesto. Las cachés se
+// vacían antes de cada prueba: se mide el peor caso (catálogos sin cargar).
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:presupuesto;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "consultas.traza.habilitada=true",
+        "consultas.traza.cabecera=true" })
+@AutoConfigureMockMvc
+public class PresupuestoSentenciasTest {
+
+    private static final Long PRODUCTO = 102030L;
+    private static final Long TARJETA = 1020301234567801L;
+    private static final Long TARJETA_INACTIVA = 1020301234567802L;
+    private static final int TRANSACCIONES = 10;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private EstadoTarjetaRepository estadoTarjetaRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        productoRepository.save(new Producto(PRODUCTO, "CREDITO"));
+        estadoTarjetaRepository.save(new EstadoTarjeta(1L, "ACTIVA"));
+        estadoTarjetaRepository.save(new EstadoTarjeta(2L, "INACTIVA"));
+        estadoTransRepository.save(new EstadoTrans(1L, "EXITOSA"));
+        estadoTransRepository.save(new EstadoTrans(2L, "ANULADA"));
+        estadoTransRepository.save(new EstadoTrans(3L, "FALLIDA"));
+        tarjetaRepository.save(tarjeta(TARJETA, 1L, "JESUS SUAREZ"));
+        tarjetaRepository.save(tarjeta(TARJETA_INACTIVA, 2L, "sin cliente asignado"));
+        for (int i = 0; i < TRANSACCIONES; i++) {
+            comprar("1.00");
+        }
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaccionRepository.deleteAll();
+        tarjetaRepository.deleteAll();
+        estadoTransRepository.deleteAll();
+        estadoTarjetaRepository.deleteAll();
+        productoRepository.deleteAll();
+    }
+
+    @Test
+    void consultarTarjeta_DebeRespetarElPresupuesto() throws Exception {
+        mockMvc.perform(get("/api/tarjetas/{id}", TARJETA))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("tarjetas.consulta"));
+    }
+
+    @Test
+    void consultarSaldo_DebeRespetarElPresupuesto() throws Exception {
+        mockMvc.perform(get("/api/tarjetas/card/balance/{cardId}", TARJETA))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("tarjetas.saldo"));
+    }
+
+    @Test
+    void recargarTarjeta_DebeRespetarElPresupuesto() throws Exception {
+        mockMvc.perform(post("/api/tarjetas/card/balance")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cardId\":" + TARJETA + ",\"balance\":50.00}"))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("tarjetas.recarga"));
+    }
+
+    @Test
+    void activarTarjeta_DebeRespetarElPresupuesto() throws Exception {
+        mockMvc.perform(post("/api/tarjetas/card/enroll")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cardId\":" + TARJETA_INACTIVA + "}"))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("tarjetas.activacion"));
+    }
+
+    @Test
+    void asignarTitular_DebeRespetarElPresupuesto() throws Exception {
+        mockMvc.perform(put("/api/tarjetas/card/titular")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cardId\":" + TARJETA_INACTIVA + ",\"titular\":\"ANA PEREZ\"}"))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("tarjetas.titular"));
+    }
+
+    @Test
+    void listarTarjetas_DebeRespetarElPresupuesto() throws Exception {
+        mockMvc.perform(get("/api/tarjetas"))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("tarjetas.pagina"));
+    }
+
+    // Una consulta por transacción (estado, tarjeta) haría crecer la cuenta con TRANSACCIONES
+    @Test
+    void consultarTransaccionesDeTarjeta_NoDebeCrecerConLasFilas() throws Exception {
+        mockMvc.perform(get("/api/tarjetas/card/{cardId}/transactions", TARJETA))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(TRANSACCIONES))
+                .andExpect(dentroDelPresupuesto("tarjetas.transacciones"));
+    }
+
+    @Test
+    void listarTransacciones_NoDebeCrecerConLasFilas() throws Exception {
+        mockMvc.perform(get("/api/transaction"))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("transacciones.pagina"));
+    }
+
+    @Test
+    void realizarCompra_DebeRespetarElPresupuesto() throws Exception {
+        mockMvc.perform(post("/api/transaction/purchase")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(compra("5.00")))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("transacciones.compra"));
+    }
+
+    @Test
+    void anularTransaccion_DebeRespetarElPresupuesto() throws Exception {
+        JsonNode compra = JSON.readTree(comprar("5.00"));
+
+        mockMvc.perform(post("/api/transaction/anulation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cardId\":\"" + TARJETA + "\",\"transactionId\":\"" + compra.get("idTrans").asLong() + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(dentroDelPresupuesto("transacciones.anulacion"));
+    }
+
+    private String comprar(String valor) throws Exception {
+        return mockMvc.perform(post("/api/transaction/purchase")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(compra(valor)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private static String compra(String valor) {
+        return "{\"cardId\":" + TARJETA + ",\"price\":" + valor + ",\"moneda\":\"USD\"}";
+    }
+
+    private static Tarjeta tarjeta(Long id, Long estado, String titular) {
+        Tarjeta tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(id);
+        tarjeta.setIdProducto(PRODUCTO);
+        tarjeta.setIdEstado(estado);
+        tarjeta.setTitular(titular);
+        tarjeta.setFechaCreacion(new Date());
+        tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000L * 365));
+        tarjeta.setSaldo(new BigDecimal("1000.00"));
+        tarjeta.setMONEDA("USD");
+        return tarjeta;
+    }
+}
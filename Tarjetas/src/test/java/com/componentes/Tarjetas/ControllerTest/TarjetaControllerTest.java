@@ -5,12 +5,21 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,14 +31,19 @@ import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.componentes.Tarjetas.Controller.TarjetaController;
 import com.componentes.Tarjetas.Service.TarjetaService;
+import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.PaginaDTO;
+import com.componentes.Tarjetas.dtos.ProgresoAprovisionamientoDTO;
 import com.componentes.Tarjetas.dtos.SaldoTarjDTO;
 import com.componentes.Tarjetas.dtos.TarjetaDTO;
+import com.componentes.Tarjetas.dtos.TransaccionDTO;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +62,9 @@ public class TarjetaControllerTest {
     @Mock
     private TarjetaService tarjetaService;
 
+    @Mock
+    private TransaccionService transaccionService;
+
     @InjectMocks
     private TarjetaController tarjetaController;
 
@@ -67,24 +84,79 @@ public class TarjetaControllerTest {
         tarjetaDTO.setCardId(123456789012L);
         tarjetaDTO.setIdProducto(123456L);
         tarjetaDTO.setTitular("John Doe");
-        tarjetaDTO.setSaldo(100.0);
+        tarjetaDTO.setSaldo(new BigDecimal("100.00"));
         tarjetaDTO.setMoneda("USD");
 
         saldoDTO = new SaldoTarjDTO();
         saldoDTO.setCardId(123456789012L);
-        saldoDTO.setBalance(100.0);
+        saldoDTO.setBalance(new BigDecimal("100.00"));
     }
 
     @Test
     void getAllTarjetas_ShouldReturnListOfTarjetas() throws Exception {
         // Arrange
-        when(tarjetaService.getAllTarjetas()).thenReturn(Arrays.asList(tarjetaDTO));
+        PaginaDTO<TarjetaDTO> pagina = new PaginaDTO<>(Arrays.asList(tarjetaDTO), 123456789012L, 1);
+        when(tarjetaService.getTarjetas(null, 1)).thenReturn(pagina);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tarjetas")
+                .param("tamano", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(pagina)))
+                .andExpect(jsonPath("$.siguienteCursor").value(123456789012L));
+    }
+
+    @Test
+    void getAllTarjetas_WithCursor_ShouldPassCursorToService() throws Exception {
+        // Arrange
+        PaginaDTO<TarjetaDTO> pagina = new PaginaDTO<>(Arrays.asList(tarjetaDTO), null, 50);
+        when(tarjetaService.getTarjetas(123456789011L, null)).thenReturn(pagina);
 
         // Act & Assert
         mockMvc.perform(get("/api/tarjetas")
+                .param("cursor", "123456789011")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(content().json(objectMapper.writeValueAsString(Arrays.asList(tarjetaDTO))));
+                .andExpect(jsonPath("$.contenido[0].cardId").value(123456789012L))
+                .andExpect(jsonPath("$.siguienteCursor").doesNotExist());
+    }
+
+    @Test
+    void consultarTransacciones_WithFilters_ShouldReturnHistorial() throws Exception {
+        // Arrange
+        TransaccionDTO transaccionDTO = new TransaccionDTO();
+        transaccionDTO.setIdTrans(10L);
+        transaccionDTO.setIdTarjeta(123456789012L);
+        when(transaccionService.getTransaccionesPorTarjeta(123456789012L,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 1L, 20))
+                .thenReturn(Arrays.asList(transaccionDTO));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tarjetas/card/123456789012/transactions")
+                .param("desde", "2025-01-01")
+                .param("hasta", "2025-01-31")
+                .param("estado", "1")
+                .param("tamano", "20")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idTrans").value(10L));
+    }
+
+    @Test
+    void consultarTransacciones_WithInvalidRange_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        when(transaccionService.getTransaccionesPorTarjeta(123456789012L,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), null, null))
+                .thenThrow(new RuntimeException("La fecha inicial no puede ser posterior a la fecha final"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tarjetas/card/123456789012/transactions")
+                .param("desde", "2025-02-01")
+                .param("hasta", "2025-01-01")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("La fecha inicial no puede ser posterior a la fecha final"));
     }
 
     @Test
@@ -175,7 +247,7 @@ public class TarjetaControllerTest {
     @Test
     void recargarTarjeta_WhenValidInput_ShouldReturnUpdatedTarjeta() throws Exception {
         // Arrange
-        when(tarjetaService.recargarTarjeta(eq(123456789012L), any(Double.class))).thenReturn(tarjetaDTO);
+        when(tarjetaService.recargarTarjeta(eq(123456789012L), any(BigDecimal.class))).thenReturn(tarjetaDTO);
 
         // Act & Assert
         mockMvc.perform(post("/api/tarjetas/card/balance")
@@ -228,7 +300,7 @@ public class TarjetaControllerTest {
     void recargarTarjeta_WhenNoCardId_ShouldReturnBadRequest() throws Exception {
         // Arrange
         SaldoTarjDTO invalidSaldoDTO = new SaldoTarjDTO();
-        invalidSaldoDTO.setBalance(100.0);
+        invalidSaldoDTO.setBalance(new BigDecimal("100.00"));
 
         // Act & Assert
         mockMvc.perform(post("/api/tarjetas/card/balance")
@@ -288,6 +360,76 @@ public class TarjetaControllerTest {
                 .andExpect(content().string("Invalid product ID"));
     }
 
+    @Test
+    void aprovisionarTarjetas_DebeEnviarElAvanceComoNdjson() throws Exception {
+        // Arrange
+        when(tarjetaService.aprovisionarTarjetas(eq(123456L), eq(1500), any())).thenAnswer(invocation -> {
+            Consumer<ProgresoAprovisionamientoDTO> avance = invocation.getArgument(2);
+            avance.accept(new ProgresoAprovisionamientoDTO(123456L, 1000, 1500, false));
+            ProgresoAprovisionamientoDTO fin = new ProgresoAprovisionamientoDTO(123456L, 1500, 1500, true);
+            avance.accept(fin);
+            return fin;
+        });
+
+        // Act
+        MvcResult resultado = mockMvc.perform(post("/api/tarjetas/card/123456/number/batch")
+                .param("cantidad", "1500"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String[] lineas = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lineas.length);
+        assertEquals(1000, objectMapper.readTree(lineas[0]).get("creadas").asInt());
+        assertTrue(objectMapper.readTree(lineas[1]).get("terminado").asBoolean());
+        verify(tarjetaService).validarAprovisionamiento(123456L, 1500);
+    }
+
+    @Test
+    void aprovisionarTarjetas_WhenFallaUnBloque_DebeTerminarConElError() throws Exception {
+        // Arrange
+        when(tarjetaService.aprovisionarTarjetas(eq(123456L), eq(1500), any())).thenAnswer(invocation -> {
+            Consumer<ProgresoAprovisionamientoDTO> avance = invocation.getArgument(2);
+            avance.accept(new ProgresoAprovisionamientoDTO(123456L, 1000, 1500, false));
+            throw new RuntimeException("Se agotaron los números de tarjeta disponibles");
+        });
+
+        // Act
+        MvcResult resultado = mockMvc.perform(post("/api/tarjetas/card/123456/number/batch")
+                .param("cantidad", "1500"))
+                .andReturn();
+
+        // Assert
+        String[] lineas = mockMvc.perform(asyncDispatch(resultado))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lineas.length);
+        assertEquals(1000, objectMapper.readTree(lineas[1]).get("creadas").asInt());
+        assertFalse(objectMapper.readTree(lineas[1]).get("terminado").asBoolean());
+        assertEquals("Se agotaron los números de tarjeta disponibles",
+                objectMapper.readTree(lineas[1]).get("mensaje").asText());
+    }
+
+    @Test
+    void aprovisionarTarjetas_WhenValidacionFalla_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        doThrow(new RuntimeException("No existe un producto con el ID: 123456"))
+                .when(tarjetaService).validarAprovisionamiento(123456L, 10);
+
+        // Act
+        MvcResult resultado = mockMvc.perform(post("/api/tarjetas/card/123456/number/batch")
+                .param("cantidad", "10"))
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("No existe un producto con el ID: 123456"));
+        verify(tarjetaService, never()).aprovisionarTarjetas(any(), any(), any());
+    }
+
     @Test
     void updateTarjeta_WhenServiceThrowsException_ShouldReturnNotFound() throws Exception {
         // Arrange
@@ -410,7 +552,7 @@ public class TarjetaControllerTest {
     @Test
     void recargarTarjeta_WhenServiceThrowsException_ShouldReturnBadRequest() throws Exception {
         // Arrange
-        when(tarjetaService.recargarTarjeta(eq(123456789012L), any(Double.class)))
+        when(tarjetaService.recargarTarjeta(eq(123456789012L), any(BigDecimal.class)))
                 .thenThrow(new RuntimeException("Invalid balance"));
 
         // Act & Assert
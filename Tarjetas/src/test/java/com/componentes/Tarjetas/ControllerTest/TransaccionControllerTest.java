@@ -1,13 +1,19 @@
 package com.componentes.Tarjetas.ControllerTest;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,11 +23,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.componentes.Tarjetas.Controller.TransaccionController;
+import com.componentes.Tarjetas.Service.EjecutorTransacciones;
+import com.componentes.Tarjetas.Service.EscritorAgrupado;
+import com.componentes.Tarjetas.Service.IndiceIdempotencia;
+import com.componentes.Tarjetas.Service.LibroSaldos;
 import com.componentes.Tarjetas.Service.TransaccionService;
 import com.componentes.Tarjetas.dtos.*;
+import com.componentes.Tarjetas.exceptions.LlaveIdempotenciaReutilizadaException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +44,18 @@ class TransaccionControllerTest {
     @Mock
     private TransaccionService transaccionService;
     
+    @Mock
+    private LibroSaldos libroSaldos;
+    
+    @Mock
+    private EscritorAgrupado escritorAgrupado;
+    
+    @Mock
+    private IndiceIdempotencia indiceIdempotencia;
+    
+    @Mock
+    private EjecutorTransacciones ejecutorTransacciones;
+    
     @InjectMocks
     private TransaccionController transaccionController;
     
@@ -50,11 +74,11 @@ class TransaccionControllerTest {
         transaccionDTO.setIdTrans(1L);
         transaccionDTO.setIdTarjeta(123456789012L);
         transaccionDTO.setFechaTrans(new Date());
-        transaccionDTO.setValorTrans(100.0);
+        transaccionDTO.setValorTrans(new BigDecimal("100.00"));
 
         compraDTO = new TransCompraDTO();
         compraDTO.setCardId(123456789012L);
-        compraDTO.setPrice(100.0);
+        compraDTO.setPrice(new BigDecimal("100.00"));
         compraDTO.setMoneda("USD");
 
         anulacionDTO = new TransAnulacionDTO();
@@ -68,12 +92,27 @@ class TransaccionControllerTest {
 
     @Test
     void getAllTransacciones_ShouldReturnListOfTransacciones() throws Exception {
-        when(transaccionService.getAllTransacciones()).thenReturn(Arrays.asList(transaccionDTO));
+        PaginaDTO<TransaccionDTO> pagina = new PaginaDTO<>(Arrays.asList(transaccionDTO), 1L, 1);
+        when(transaccionService.getTransacciones(0L, 1)).thenReturn(pagina);
 
         mockMvc.perform(get("/api/transaction")
+                .param("cursor", "0")
+                .param("tamano", "1")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(content().json(objectMapper.writeValueAsString(Arrays.asList(transaccionDTO))));
+                .andExpect(content().json(objectMapper.writeValueAsString(pagina)));
+    }
+
+    @Test
+    void getAllTransacciones_WhenInvalidPageSize_ShouldReturnBadRequest() throws Exception {
+        when(transaccionService.getTransacciones(null, 0))
+                .thenThrow(new RuntimeException("El tamaño de página debe ser mayor a 0"));
+
+        mockMvc.perform(get("/api/transaction")
+                .param("tamano", "0")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("El tamaño de página debe ser mayor a 0"));
     }
 
     @Test
@@ -132,6 +171,123 @@ class TransaccionControllerTest {
                 .andExpect(jsonPath("$.error").value("Error en la compra"));
     }
 
+    @Test
+    void realizarCompra_WhenTarjetaEnLibroSaldos_ShouldUseLibro() throws Exception {
+        when(libroSaldos.administra(compraDTO.getCardId())).thenReturn(true);
+        when(libroSaldos.procesarCompra(any(TransCompraDTO.class))).thenReturn(transaccionDTO);
+
+        mockMvc.perform(post("/api/transaction/purchase")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(compraDTO)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(transaccionDTO)));
+        verifyNoInteractions(transaccionService);
+    }
+
+    @Test
+    void realizarCompra_WhenEscrituraAgrupada_ShouldUseEscritor() throws Exception {
+        when(escritorAgrupado.habilitada()).thenReturn(true);
+        when(escritorAgrupado.ejecutar(any())).thenReturn(transaccionDTO);
+
+        mockMvc.perform(post("/api/transaction/purchase")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(compraDTO)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(transaccionDTO)));
+        verifyNoInteractions(transaccionService);
+    }
+
+    @Test
+    void realizarCompra_WhenIdempotencyKey_ShouldUseIndice() throws Exception {
+        when(indiceIdempotencia.ejecutar(argThat(compra -> "compra-123".equals(compra.getIdempotencyKey())), any()))
+                .thenReturn(transaccionDTO);
+
+        mockMvc.perform(post("/api/transaction/purchase")
+                .header("Idempotency-Key", "compra-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(compraDTO)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(transaccionDTO)));
+        verifyNoInteractions(transaccionService);
+    }
+
+    @Test
+    void realizarCompra_WhenIdempotencyKeyReutilizada_ShouldReturnUnprocessableEntity() throws Exception {
+        when(indiceIdempotencia.ejecutar(any(), any())).thenThrow(
+                new LlaveIdempotenciaReutilizadaException("La llave de idempotencia compra-123 ya se usó para otra compra"));
+
+        mockMvc.perform(post("/api/transaction/purchase")
+                .header("Idempotency-Key", "compra-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(compraDTO)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("La llave de idempotencia compra-123 ya se usó para otra compra"));
+        verifyNoInteractions(transaccionService);
+    }
+
+    @Test
+    void realizarCompraAsync_WhenValid_ShouldReturnTransaccion() throws Exception {
+        when(ejecutorTransacciones.enviar(any()))
+                .thenAnswer(invocacion -> CompletableFuture.completedFuture(((Supplier<?>) invocacion.getArgument(0)).get()));
+        when(transaccionService.procesarCompra(any(TransCompraDTO.class))).thenReturn(transaccionDTO);
+
+        MvcResult resultado = mockMvc.perform(post("/api/transaction/purchase/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(compraDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(transaccionDTO)));
+    }
+
+    @Test
+    void realizarCompraAsync_WhenEjecutorSaturado_ShouldReturnTooManyRequests() throws Exception {
+        when(ejecutorTransacciones.enviar(any())).thenThrow(new RejectedExecutionException());
+
+        MvcResult resultado = mockMvc.perform(post("/api/transaction/purchase/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(compraDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Hay demasiadas transacciones en proceso, intente de nuevo"));
+        verifyNoInteractions(transaccionService);
+    }
+
+    @Test
+    void realizarComprasLote_WhenValid_ShouldReturnResultados() throws Exception {
+        ResultadoCompraDTO resultado = new ResultadoCompraDTO();
+        resultado.setPosicion(0);
+        resultado.setCardId(123456789012L);
+        resultado.setExitosa(true);
+        resultado.setIdTrans(1L);
+        when(transaccionService.procesarComprasLote(any())).thenReturn(Arrays.asList(resultado));
+
+        mockMvc.perform(post("/api/transaction/purchase/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(compraDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].exitosa").value(true))
+                .andExpect(jsonPath("$[0].idTrans").value(1L));
+    }
+
+    @Test
+    void realizarComprasLote_WhenEmpty_ShouldReturnBadRequest() throws Exception {
+        when(transaccionService.procesarComprasLote(any()))
+                .thenThrow(new RuntimeException("El lote de compras está vacío"));
+
+        mockMvc.perform(post("/api/transaction/purchase/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("El lote de compras está vacío"));
+    }
+
     @Test
     void anularTransaccion_WhenValid_ShouldReturnRespAnuTransDTO() throws Exception {
         when(transaccionService.anularTransaccion(any(TransAnulacionDTO.class))).thenReturn(respAnuDTO);
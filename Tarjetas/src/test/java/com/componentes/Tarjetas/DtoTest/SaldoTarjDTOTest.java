@@ -1,5 +1,6 @@
 package com.componentes.Tarjetas.DtoTest;
 
+import java.math.BigDecimal;
 import org.junit.jupiter.api.Test;
 
 import com.componentes.Tarjetas.dtos.SaldoTarjDTO;
@@ -13,7 +14,7 @@ public class SaldoTarjDTOTest {
         // Arrange
         SaldoTarjDTO dto = new SaldoTarjDTO();
         Long cardId = 123456789012L;
-        Double balance = 100.0;
+        BigDecimal balance = new BigDecimal("100.00");
 
         // Act
         dto.setCardId(cardId);
@@ -39,7 +40,7 @@ public class SaldoTarjDTOTest {
         // Arrange
         SaldoTarjDTO dto = new SaldoTarjDTO();
         dto.setCardId(123456789012L);
-        dto.setBalance(100.0);
+        dto.setBalance(new BigDecimal("100.00"));
 
         // Act
         dto.setCardId(null);
@@ -56,17 +57,17 @@ public class SaldoTarjDTOTest {
         SaldoTarjDTO dto = new SaldoTarjDTO();
 
         // Act
-        dto.setBalance(0.0);
+        dto.setBalance(new BigDecimal("0.00"));
 
         // Assert
-        assertEquals(0.0, dto.getBalance());
+        assertEquals(new BigDecimal("0.00"), dto.getBalance());
     }
 
     @Test
     void setBalance_ShouldAcceptNegativeValues() {
         // Arrange
         SaldoTarjDTO dto = new SaldoTarjDTO();
-        Double negativeBalance = -100.0;
+        BigDecimal negativeBalance = new BigDecimal("-100.00");
 
         // Act
         dto.setBalance(negativeBalance);
@@ -2,6 +2,7 @@ package com.componentes.Tarjetas.DtoTest;
 
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
 import org.junit.jupiter.api.Test;
 
 import com.componentes.Tarjetas.dtos.TarjetaDTO;
@@ -20,7 +21,7 @@ public class TarjetaDTOTest {
         String titular = "John Doe";
         String fechaCreacion = "01/2024";
         String fechaVencimiento = "01/2027";
-        Double saldo = 100.0;
+        BigDecimal saldo = new BigDecimal("100.00");
         String moneda = "USD";
         String descripcion = "Descripción de prueba";
 
@@ -76,7 +77,7 @@ public class TarjetaDTOTest {
         TarjetaDTO dto = new TarjetaDTO();
         dto.setCardId(123456789012L);
         dto.setIdProducto(123456L);
-        dto.setSaldo(100.0);
+        dto.setSaldo(new BigDecimal("100.00"));
 
         // Act
         dto.setCardId(null);
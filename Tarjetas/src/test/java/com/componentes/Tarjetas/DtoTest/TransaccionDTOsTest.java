@@ -4,6 +4,7 @@ package com.componentes.Tarjetas.DtoTest;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
 import java.util.Date;
 import com.componentes.Tarjetas.dtos.*;
 
@@ -23,7 +24,7 @@ class TransaccionDTOsTest {
         dto.setIdEstadoTrans(1L);
         dto.setEstadoTransDescripcion("ACTIVA");
         dto.setFechaTrans(fechaTest);
-        dto.setValorTrans(100.0);
+        dto.setValorTrans(new BigDecimal("100.00"));
         dto.setMoneda("USD");
         dto.setDescripcion("Test transaction");
 
@@ -32,29 +33,29 @@ class TransaccionDTOsTest {
         assertEquals(1L, dto.getIdEstadoTrans());
         assertEquals("ACTIVA", dto.getEstadoTransDescripcion());
         assertEquals(fechaTest, dto.getFechaTrans());
-        assertEquals(100.0, dto.getValorTrans());
+        assertEquals(new BigDecimal("100.00"), dto.getValorTrans());
         assertEquals("USD", dto.getMoneda());
         assertEquals("Test transaction", dto.getDescripcion());
 
         // Test constructor with parameters
-        TransaccionDTO dtoConstructor = new TransaccionDTO(1L, 123456789012L, 1L, "ACTIVA", fechaTest, 100.0);
+        TransaccionDTO dtoConstructor = new TransaccionDTO(1L, 123456789012L, 1L, "ACTIVA", fechaTest, new BigDecimal("100.00"));
         assertEquals(1L, dtoConstructor.getIdTrans());
         assertEquals(123456789012L, dtoConstructor.getIdTarjeta());
         assertEquals(1L, dtoConstructor.getIdEstadoTrans());
         assertEquals("ACTIVA", dtoConstructor.getEstadoTransDescripcion());
         assertEquals(fechaTest, dtoConstructor.getFechaTrans());
-        assertEquals(100.0, dtoConstructor.getValorTrans());
+        assertEquals(new BigDecimal("100.00"), dtoConstructor.getValorTrans());
     }
 
     @Test
     void testTransCompraDTO() {
         TransCompraDTO dto = new TransCompraDTO();
         dto.setCardId(123456789012L);
-        dto.setPrice(100.0);
+        dto.setPrice(new BigDecimal("100.00"));
         dto.setMoneda("USD");
 
         assertEquals(123456789012L, dto.getCardId());
-        assertEquals(100.0, dto.getPrice());
+        assertEquals(new BigDecimal("100.00"), dto.getPrice());
         assertEquals("USD", dto.getMoneda());
     }
 
@@ -79,13 +80,13 @@ class TransaccionDTOsTest {
         dto.setIdTrans(1L);
         dto.setIdTarjeta(123456789012L);
         dto.setFechaTrans(fechaTest);
-        dto.setValorTrans(100.0);
+        dto.setValorTrans(new BigDecimal("100.00"));
         dto.setDescripcion("Anulación");
 
         assertEquals(1L, dto.getIdTrans());
         assertEquals(123456789012L, dto.getIdTarjeta());
         assertEquals(fechaTest, dto.getFechaTrans());
-        assertEquals(100.0, dto.getValorTrans());
+        assertEquals(new BigDecimal("100.00"), dto.getValorTrans());
         assertEquals("Anulación", dto.getDescripcion());
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 
 import com.componentes.Tarjetas.Entity.Tarjeta;
 
+import java.math.BigDecimal;
 import java.util.Date;
 
 public class TarjetaTest {
@@ -19,7 +20,7 @@ public class TarjetaTest {
         String titular = "John Doe";
         Date fechaCreacion = new Date();
         Date fechaVencimiento = new Date();
-        Double saldo = 100.0;
+        BigDecimal saldo = new BigDecimal("100.00");
         String moneda = "USD";
 
         // Act
@@ -65,7 +66,7 @@ public class TarjetaTest {
         Tarjeta tarjeta = new Tarjeta();
         tarjeta.setIdTarjeta(123456789012L);
         tarjeta.setIdProducto(123456L);
-        tarjeta.setSaldo(100.0);
+        tarjeta.setSaldo(new BigDecimal("100.00"));
 
         // Act
         tarjeta.setIdTarjeta(null);
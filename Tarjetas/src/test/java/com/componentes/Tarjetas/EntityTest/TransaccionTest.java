@@ -4,6 +4,7 @@ package com.componentes.Tarjetas.EntityTest;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
 import java.util.Date;
 import com.componentes.Tarjetas.Entity.*;
 
@@ -24,7 +25,7 @@ class TransaccionTest {
         transaccion.setIdTarjeta(123456789012L);
         transaccion.setEstadoTrans(estadoTrans);
         transaccion.setFechaTrans(fechaTest);
-        transaccion.setValorTrans(100.0);
+        transaccion.setValorTrans(new BigDecimal("100.00"));
         transaccion.setMONEDA("USD");
         transaccion.setDESCRIPCION("Test transaction");
         transaccion.setIdanula(null);
@@ -36,7 +37,7 @@ class TransaccionTest {
         assertEquals(123456789012L, transaccion.getIdTarjeta());
         assertEquals(estadoTrans, transaccion.getEstadoTrans());
         assertEquals(fechaTest, transaccion.getFechaTrans());
-        assertEquals(100.0, transaccion.getValorTrans());
+        assertEquals(new BigDecimal("100.00"), transaccion.getValorTrans());
         assertEquals("USD", transaccion.getMONEDA());
         assertEquals("Test transaction", transaccion.getDESCRIPCION());
         assertNull(transaccion.getIdanula());
@@ -50,7 +51,7 @@ class TransaccionTest {
         transaccion.setIdTarjeta(987654321098L);
         transaccion.setEstadoTrans(newEstado);
         transaccion.setFechaTrans(newDate);
-        transaccion.setValorTrans(200.0);
+        transaccion.setValorTrans(new BigDecimal("200.00"));
         transaccion.setMONEDA("EUR");
         transaccion.setDESCRIPCION("Updated transaction");
         transaccion.setIdanula(1L);
@@ -59,7 +60,7 @@ class TransaccionTest {
         assertEquals(987654321098L, transaccion.getIdTarjeta());
         assertEquals(newEstado, transaccion.getEstadoTrans());
         assertEquals(newDate, transaccion.getFechaTrans());
-        assertEquals(200.0, transaccion.getValorTrans());
+        assertEquals(new BigDecimal("200.00"), transaccion.getValorTrans());
         assertEquals("EUR", transaccion.getMONEDA());
         assertEquals("Updated transaction", transaccion.getDESCRIPCION());
         assertEquals(1L, transaccion.getIdanula());
@@ -67,13 +68,13 @@ class TransaccionTest {
 
     @Test
     void testTransaccionConstructor() {
-        Transaccion transConstructor = new Transaccion(1L, 123456789012L, estadoTrans, fechaTest, 100.0);
+        Transaccion transConstructor = new Transaccion(1L, 123456789012L, estadoTrans, fechaTest, new BigDecimal("100.00"));
         
         assertEquals(1L, transConstructor.getIdTrans());
         assertEquals(123456789012L, transConstructor.getIdTarjeta());
         assertEquals(estadoTrans, transConstructor.getEstadoTrans());
         assertEquals(fechaTest, transConstructor.getFechaTrans());
-        assertEquals(100.0, transConstructor.getValorTrans());
+        assertEquals(new BigDecimal("100.00"), transConstructor.getValorTrans());
     }
 
     @Test
@@ -0,0 +1,62 @@
+package com.componentes.Tarjetas.MappersTest;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.componentes.Tarjetas.Entity.ResumenDiarioTarjeta;
+import com.componentes.Tarjetas.dtos.ResumenDiarioDTO;
+import com.componentes.Tarjetas.mappers.ResumenDiarioMapper;
+
+public class ResumenDiarioMapperTest {
+
+    private ResumenDiarioMapper mapper;
+    private ResumenDiarioTarjeta entity;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new ResumenDiarioMapper();
+        entity = new ResumenDiarioTarjeta(1020301234567801L, LocalDate.of(2025, 3, 10), 102030L);
+        entity.sumarAprobada(new BigDecimal("100.00"));
+        entity.sumarAprobada(new BigDecimal("50.00"));
+        entity.sumarRechazada(new BigDecimal("20.00"));
+        entity.sumarAnulada(new BigDecimal("50.00"));
+    }
+
+    @Test
+    void toDto_WhenValidEntity_ShouldReturnDTO() {
+        // Act
+        ResumenDiarioDTO result = mapper.toDto(entity);
+
+        // Assert
+        assertEquals(1020301234567801L, result.getIdTarjeta());
+        assertEquals(102030L, result.getIdProducto());
+        assertEquals(LocalDate.of(2025, 3, 10), result.getFecha());
+        assertEquals(new BigDecimal("150.00"), result.getMontoAprobado());
+        assertEquals(2L, result.getCantidadAprobadas());
+        assertEquals(new BigDecimal("20.00"), result.getMontoRechazado());
+        assertEquals(1L, result.getCantidadRechazadas());
+        assertEquals(new BigDecimal("50.00"), result.getMontoAnulado());
+        assertEquals(new BigDecimal("100.00"), result.getMontoNeto());
+    }
+
+    @Test
+    void toDto_WhenNullEntity_ShouldReturnNull() {
+        assertNull(mapper.toDto(null));
+    }
+
+    @Test
+    void toDtoList_ShouldMapEveryEntity() {
+        List<ResumenDiarioDTO> result = mapper.toDtoList(Arrays.asList(entity, entity));
+
+        assertEquals(2, result.size());
+        assertTrue(mapper.toDtoList(null).isEmpty());
+    }
+}
@@ -1,11 +1,17 @@
 package com.componentes.Tarjetas.MappersTest;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -59,7 +65,7 @@ public class TarjetaMapperTest {
         entity.setIdProducto(123456L);
         entity.setIdEstado(1L);
         entity.setTitular("John Doe");
-        entity.setSaldo(100.0);
+        entity.setSaldo(new BigDecimal("100.00"));
         entity.setMONEDA("USD");
         entity.setFechaCreacion(fechaActual);
         entity.setFechaVencimiento(fechaActual);
@@ -69,7 +75,7 @@ public class TarjetaMapperTest {
         dto.setIdProducto(123456L);
         dto.setIdEstado(1L);
         dto.setTitular("John Doe");
-        dto.setSaldo(100.0);
+        dto.setSaldo(new BigDecimal("100.00"));
         dto.setMoneda("USD");
         dto.setFechaCreacion(formatoFecha.format(fechaActual));
         dto.setFechaVencimiento(formatoFecha.format(fechaActual));
@@ -137,6 +143,56 @@ public class TarjetaMapperTest {
         assertNull(result.getDescripcionEstado());
     }
 
+    @Test
+    void toDtoList_WhenValidEntities_ShouldQueryEachCatalogOnce() {
+        // Arrange
+        Tarjeta otra = new Tarjeta();
+        otra.setIdTarjeta(123456789013L);
+        otra.setIdProducto(123456L);
+        otra.setIdEstado(1L);
+        otra.setSaldo(new BigDecimal("50.00"));
+        when(productoRepository.findAllById(Set.of(123456L))).thenReturn(Arrays.asList(producto));
+        when(estadoRepository.findAllById(Set.of(1L))).thenReturn(Arrays.asList(estado));
+
+        // Act
+        List<TarjetaDTO> result = mapper.toDtoList(Arrays.asList(entity, otra));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(entity.getIdTarjeta(), result.get(0).getCardId());
+        assertEquals(otra.getIdTarjeta(), result.get(1).getCardId());
+        assertEquals(producto.getDescripcion(), result.get(1).getDescripcionProducto());
+        assertEquals(estado.getDescripcion(), result.get(1).getDescripcionEstado());
+        assertEquals(formatoFecha.format(entity.getFechaCreacion()), result.get(0).getFechaCreacion());
+        verify(productoRepository, times(1)).findAllById(any());
+        verify(estadoRepository, times(1)).findAllById(any());
+        verify(productoRepository, never()).findById(any());
+        verify(estadoRepository, never()).findById(any());
+    }
+
+    @Test
+    void toDtoList_WhenCatalogMissing_ShouldMapWithoutDescripciones() {
+        // Arrange
+        when(productoRepository.findAllById(any())).thenReturn(Collections.emptyList());
+        when(estadoRepository.findAllById(any())).thenReturn(Collections.emptyList());
+
+        // Act
+        List<TarjetaDTO> result = mapper.toDtoList(Arrays.asList(entity));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getDescripcionProducto());
+        assertNull(result.get(0).getDescripcionEstado());
+    }
+
+    @Test
+    void toDtoList_WhenNullOrEmpty_ShouldReturnEmptyListWithoutQueries() {
+        // Act & Assert
+        assertTrue(mapper.toDtoList(null).isEmpty());
+        assertTrue(mapper.toDtoList(Collections.emptyList()).isEmpty());
+        verifyNoInteractions(productoRepository, estadoRepository);
+    }
+
     @Test
     void toEntity_WhenValidDTO_ShouldMapAllFields() {
         // Act
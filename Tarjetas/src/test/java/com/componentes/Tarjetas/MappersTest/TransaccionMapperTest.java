@@ -3,6 +3,7 @@ package com.componentes.Tarjetas.MappersTest;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -33,7 +34,7 @@ class TransaccionMapperTest {
         transaccion.setIdTarjeta(123456789012L);
         transaccion.setEstadoTrans(estadoTrans);
         transaccion.setFechaTrans(fechaTest);
-        transaccion.setValorTrans(100.0);
+        transaccion.setValorTrans(new BigDecimal("100.00"));
         transaccion.setMONEDA("USD");
         transaccion.setDESCRIPCION("Test transaction");
 
@@ -41,7 +42,7 @@ class TransaccionMapperTest {
         transaccionDTO.setIdTarjeta(123456789012L);
         transaccionDTO.setIdEstadoTrans(1L);
         transaccionDTO.setFechaTrans(fechaTest);
-        transaccionDTO.setValorTrans(100.0);
+        transaccionDTO.setValorTrans(new BigDecimal("100.00"));
         transaccionDTO.setMoneda("USD");
         transaccionDTO.setDescripcion("Test transaction");
     }
@@ -0,0 +1,66 @@
+package com.componentes.Tarjetas.ServicesTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.componentes.Tarjetas.Service.EjecutorTransacciones;
+
+public class EjecutorTransaccionesTest {
+
+    private EjecutorTransacciones ejecutorTransacciones;
+    private CountDownLatch liberar;
+
+    @BeforeEach
+    void setUp() {
+        ejecutorTransacciones = new EjecutorTransacciones();
+        ReflectionTestUtils.setField(ejecutorTransacciones, "hilos", 1);
+        ReflectionTestUtils.setField(ejecutorTransacciones, "cola", 1);
+        ejecutorTransacciones.iniciar();
+        liberar = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        liberar.countDown();
+        ejecutorTransacciones.detener();
+    }
+
+    @Test
+    void enviar_DebeCompletarConElResultado() {
+        assertEquals("ok", ejecutorTransacciones.enviar(() -> "ok").join());
+    }
+
+    @Test
+    void enviar_WhenHilosYColaLlenos_ThrowsRejectedExecutionException() throws InterruptedException {
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CompletableFuture<String> enCurso = ejecutorTransacciones.enviar(() -> {
+            iniciada.countDown();
+            esperar(liberar);
+            return "primera";
+        });
+        iniciada.await();
+        CompletableFuture<String> enCola = ejecutorTransacciones.enviar(() -> "segunda");
+
+        assertThrows(RejectedExecutionException.class, () -> ejecutorTransacciones.enviar(() -> "tercera"));
+
+        liberar.countDown();
+        assertEquals("primera", enCurso.join());
+        assertEquals("segunda", enCola.join());
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
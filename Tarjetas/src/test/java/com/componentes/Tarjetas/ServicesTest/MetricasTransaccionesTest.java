@@ -0,0 +1,74 @@
+package com.componentes.Tarjetas.ServicesTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasTransaccionesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricasTransacciones metricasTransacciones;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricasTransacciones = new MetricasTransacciones();
+        ReflectionTestUtils.setField(metricasTransacciones, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void compra_Aprobada_DebeRegistrarTiempoYMonto() {
+        metricasTransacciones.compra(102030L, null, System.nanoTime(), new BigDecimal("40.50"));
+        metricasTransacciones.compra(102030L, null, System.nanoTime(), new BigDecimal("9.50"));
+
+        Timer timer = meterRegistry.get("tarjetas.compras")
+                .tags("resultado", "aprobada", "motivo", "ninguno", "producto", "102030").timer();
+        assertEquals(2, timer.count());
+        assertEquals(50.0, meterRegistry.get("tarjetas.compras.monto").tag("producto", "102030").counter().count());
+    }
+
+    @Test
+    void compra_Rechazada_DebeRegistrarElMotivoSinMonto() {
+        metricasTransacciones.compra(102030L, "Saldo insuficiente para realizar la compra", System.nanoTime(),
+                new BigDecimal("500.00"));
+
+        assertEquals(1, meterRegistry.get("tarjetas.compras")
+                .tags("resultado", "rechazada", "motivo", "saldo_insuficiente").timer().count());
+        assertNull(meterRegistry.find("tarjetas.compras.monto").counter());
+    }
+
+    @Test
+    void anulacion_SinProducto_DebeUsarProductoDesconocido() {
+        metricasTransacciones.anulacion(null, "Transacción no encontrada", System.nanoTime());
+
+        assertEquals(1, meterRegistry.get("tarjetas.anulaciones")
+                .tags("motivo", "transaccion_inexistente", "producto", "desconocido").timer().count());
+    }
+
+    @Test
+    void recarga_Aprobada_DebeRegistrarElMonto() {
+        metricasTransacciones.recarga(102030L, null, System.nanoTime(), new BigDecimal("100.00"));
+
+        assertEquals(1, meterRegistry.get("tarjetas.recargas").tag("resultado", "aprobada").timer().count());
+        assertEquals(100.0, meterRegistry.get("tarjetas.recargas.monto").counter().count());
+    }
+
+    @Test
+    void motivo_DebeUsarCodigosFijos() {
+        assertEquals("tarjeta_inexistente", MetricasTransacciones.motivo("No existe una tarjeta con el ID: 123"));
+        assertEquals("tarjeta_vencida", MetricasTransacciones.motivo("La tarjeta está vencida"));
+        assertEquals("fuera_de_plazo",
+                MetricasTransacciones.motivo("No se pueden anular transacciones con más de 24 horas"));
+        assertEquals("otro", MetricasTransacciones.motivo("Error inesperado 42"));
+        assertEquals("otro", MetricasTransacciones.motivo(null));
+    }
+}
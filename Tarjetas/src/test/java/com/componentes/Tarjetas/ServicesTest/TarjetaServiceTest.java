@@ -2,13 +2,17 @@ package com.componentes.Tarjetas.ServicesTest;
 
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
+import java.math.BigDecimal;
 import java.awt.PageAttributes.MediaType;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -17,14 +21,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import com.componentes.Tarjetas.Entity.Tarjeta;
 import com.componentes.Tarjetas.Repository.ProductoRepository;
 import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Service.GeneradorNumeroTarjeta;
+import com.componentes.Tarjetas.Service.LibroSaldos;
 import com.componentes.Tarjetas.Service.TarjetaService;
+import com.componentes.Tarjetas.dtos.PaginaDTO;
+import com.componentes.Tarjetas.dtos.ProgresoAprovisionamientoDTO;
 import com.componentes.Tarjetas.dtos.SaldoTarjDTO;
 import com.componentes.Tarjetas.dtos.TarjetaDTO;
 import com.componentes.Tarjetas.mappers.TarjetaMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+import com.componentes.Tarjetas.util.Paginacion;
 
 @ExtendWith(MockitoExtension.class)
 public class TarjetaServiceTest {
@@ -38,6 +49,15 @@ public class TarjetaServiceTest {
     @Mock
     private TarjetaMapper tarjetaMapper;
 
+    @Mock
+    private GeneradorNumeroTarjeta generadorNumeroTarjeta;
+
+    @Mock
+    private LibroSaldos libroSaldos;
+
+    @Mock
+    private MetricasTransacciones metricasTransacciones;
+
     @InjectMocks
     private TarjetaService tarjetaService;
 
@@ -54,7 +74,7 @@ public class TarjetaServiceTest {
         tarjeta.setIdProducto(123456L);
         tarjeta.setIdEstado(1L);
         tarjeta.setTitular("John Doe");
-        tarjeta.setSaldo(100.0);
+        tarjeta.setSaldo(new BigDecimal("100.00"));
         tarjeta.setMONEDA("USD");
         tarjeta.setFechaCreacion(new Date());
         tarjeta.setFechaVencimiento(new Date());
@@ -64,26 +84,68 @@ public class TarjetaServiceTest {
         tarjetaDTO.setIdProducto(123456L);
         tarjetaDTO.setIdEstado(1L);
         tarjetaDTO.setTitular("John Doe");
-        tarjetaDTO.setSaldo(100.0);
+        tarjetaDTO.setSaldo(new BigDecimal("100.00"));
         tarjetaDTO.setMoneda("USD");
         tarjetaDTO.setFechaCreacion(formatoFecha.format(new Date()));
         tarjetaDTO.setFechaVencimiento(formatoFecha.format(new Date()));
     }
 
     @Test
-    void getAllTarjetas_ShouldReturnListOfTarjetas() {
+    void getTarjetas_WhenMoreRowsThanPage_ShouldReturnNextCursor() {
         // Arrange
-        when(tarjetaRepository.findAll()).thenReturn(Arrays.asList(tarjeta));
-        when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
+        Tarjeta siguiente = new Tarjeta();
+        siguiente.setIdTarjeta(123456789013L);
+        when(tarjetaRepository.findByIdTarjetaGreaterThanOrderByIdTarjetaAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(tarjeta, siguiente));
+        when(tarjetaMapper.toDtoList(Arrays.asList(tarjeta))).thenReturn(Arrays.asList(tarjetaDTO));
 
         // Act
-        var result = tarjetaService.getAllTarjetas();
+        PaginaDTO<TarjetaDTO> result = tarjetaService.getTarjetas(null, 1);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(tarjetaDTO.getCardId(), result.get(0).getCardId());
-        verify(tarjetaRepository).findAll();
+        assertEquals(1, result.getContenido().size());
+        assertEquals(tarjetaDTO.getCardId(), result.getContenido().get(0).getCardId());
+        assertEquals(123456789012L, result.getSiguienteCursor());
+        assertEquals(1, result.getTamano());
+    }
+
+    @Test
+    void getTarjetas_WhenLastPage_ShouldReturnNullCursor() {
+        // Arrange
+        when(tarjetaRepository.findByIdTarjetaGreaterThanOrderByIdTarjetaAsc(123456789011L, Limit.of(51)))
+                .thenReturn(Arrays.asList(tarjeta));
+        when(tarjetaMapper.toDtoList(Arrays.asList(tarjeta))).thenReturn(Arrays.asList(tarjetaDTO));
+
+        // Act
+        PaginaDTO<TarjetaDTO> result = tarjetaService.getTarjetas(123456789011L, null);
+
+        // Assert
+        assertEquals(1, result.getContenido().size());
+        assertNull(result.getSiguienteCursor());
+        assertEquals(Paginacion.TAMANO_PAGINA_DEFECTO, result.getTamano());
+        verify(tarjetaRepository, never()).findAll();
+    }
+
+    @Test
+    void getTarjetas_WhenPageTooLarge_ShouldClampToMaximum() {
+        // Arrange
+        when(tarjetaRepository.findByIdTarjetaGreaterThanOrderByIdTarjetaAsc(0L, Limit.of(Paginacion.TAMANO_PAGINA_MAXIMO + 1)))
+                .thenReturn(Arrays.asList());
+        when(tarjetaMapper.toDtoList(any())).thenReturn(Arrays.asList());
+
+        // Act
+        PaginaDTO<TarjetaDTO> result = tarjetaService.getTarjetas(null, 100000);
+
+        // Assert
+        assertEquals(Paginacion.TAMANO_PAGINA_MAXIMO, result.getTamano());
+    }
+
+    @Test
+    void getTarjetas_WhenInvalidPageSize_ShouldThrowException() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> tarjetaService.getTarjetas(null, 0));
+        assertEquals("El tamaño de página debe ser mayor a 0", exception.getMessage());
     }
 
     @Test
@@ -104,6 +166,7 @@ public class TarjetaServiceTest {
     void saveTarjeta_WhenValidInput_ShouldSaveTarjeta() {
         // Arrange
         when(productoRepository.existsById(123456L)).thenReturn(true);
+        when(generadorNumeroTarjeta.generar(123456L)).thenReturn(1234561234567897L);
         when(tarjetaMapper.toEntity(any(TarjetaDTO.class))).thenReturn(tarjeta);
         when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjeta);
         when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
@@ -116,6 +179,8 @@ public class TarjetaServiceTest {
         assertEquals(tarjetaDTO.getCardId(), result.getCardId());
         verify(productoRepository).existsById(123456L);
         verify(tarjetaRepository).save(any(Tarjeta.class));
+        // El número se genera sin consultar si la tarjeta ya existe
+        verify(tarjetaRepository, never()).existsById(any());
     }
 
     @Test
@@ -132,7 +197,6 @@ public class TarjetaServiceTest {
         // Arrange
         tarjeta.setIdEstado(2L);
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
-        when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjeta);
         when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
 
         // Act
@@ -141,7 +205,8 @@ public class TarjetaServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1L, tarjeta.getIdEstado());
-        verify(tarjetaRepository).save(tarjeta);
+        verify(tarjetaRepository).cambiarEstado(123456789012L, 1L);
+        verify(tarjetaRepository, never()).save(any());
     }
 
     @Test
@@ -159,7 +224,6 @@ public class TarjetaServiceTest {
         // Arrange
         tarjeta.setIdEstado(1L);
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
-        when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjeta);
         when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
 
         // Act
@@ -168,18 +232,20 @@ public class TarjetaServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(3L, tarjeta.getIdEstado());
-        verify(tarjetaRepository).save(tarjeta);
+        verify(tarjetaRepository).cambiarEstado(123456789012L, 3L);
+        verify(tarjetaRepository, never()).save(any());
     }
 
     @Test
     void recargarTarjeta_WhenValidAmount_ShouldRecharge() {
         // Arrange
         tarjeta.setIdEstado(1L);
-        tarjeta.setSaldo(100.0);
-        Double montoRecarga = 50.0;
+        tarjeta.setSaldo(new BigDecimal("100.00"));
+        BigDecimal montoRecarga = new BigDecimal("50.00");
         
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
-        when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjeta);
+        when(tarjetaRepository.acreditarSaldo(123456789012L, montoRecarga)).thenReturn(1);
+        when(tarjetaRepository.consultarSaldo(123456789012L)).thenReturn(new BigDecimal("150.00"));
         when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
 
         // Act
@@ -187,8 +253,38 @@ public class TarjetaServiceTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals(150.0, tarjeta.getSaldo());
-        verify(tarjetaRepository).save(tarjeta);
+        assertEquals(new BigDecimal("150.00"), result.getSaldo());
+        verify(tarjetaRepository).acreditarSaldo(123456789012L, montoRecarga);
+        verify(tarjetaRepository, never()).save(any());
+        verify(metricasTransacciones).recarga(eq(tarjeta.getIdProducto()), isNull(), anyLong(), eq(montoRecarga));
+    }
+
+    @Test
+    void recargarTarjeta_WhenTarjetaEnLibroSaldos_ShouldCreditLibro() {
+        tarjeta.setIdEstado(1L);
+        tarjeta.setSaldo(new BigDecimal("100.00"));
+
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(libroSaldos.administra(123456789012L)).thenReturn(true);
+        when(libroSaldos.acreditar(123456789012L, new BigDecimal("50.00"))).thenReturn(new BigDecimal("170.00"));
+        when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
+
+        tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00"));
+
+        assertEquals(new BigDecimal("170.00"), tarjeta.getSaldo());
+        verify(tarjetaRepository, never()).save(any());
+    }
+
+    @Test
+    void updateTarjeta_WhenSaldoDeTarjetaEnLibroSaldos_ShouldThrowException() {
+        tarjetaDTO.setSaldo(new BigDecimal("10.00"));
+        tarjetaDTO.setTitular(null);
+        tarjetaDTO.setIdProducto(null);
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(libroSaldos.administra(123456789012L)).thenReturn(true);
+
+        assertThrows(RuntimeException.class, () -> tarjetaService.updateTarjeta(123456789012L, tarjetaDTO));
+        verify(tarjetaRepository, never()).save(any());
     }
 
     @Test
@@ -199,7 +295,7 @@ public class TarjetaServiceTest {
 
         // Act & Assert
         assertThrows(RuntimeException.class, 
-            () -> tarjetaService.recargarTarjeta(123456789012L, 50.0));
+            () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00")));
     }
 
     @Test
@@ -221,7 +317,7 @@ public class TarjetaServiceTest {
         // Arrange
         tarjeta.setTitular("sin cliente asignado");
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
-        when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjeta);
+        when(tarjetaRepository.asignarTitular(123456789012L, "Nuevo Titular")).thenReturn(1);
         when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
 
         // Act
@@ -230,7 +326,20 @@ public class TarjetaServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Nuevo Titular", tarjeta.getTitular());
-        verify(tarjetaRepository).save(tarjeta);
+        verify(tarjetaRepository).asignarTitular(123456789012L, "Nuevo Titular");
+        verify(tarjetaRepository, never()).save(any());
+    }
+
+    @Test
+    void asignarTitular_WhenAsignadoPorOtraPeticion_ShouldThrowException() {
+        // La lectura dice "sin cliente asignado" pero el UPDATE condicional no afecta filas
+        tarjeta.setTitular("sin cliente asignado");
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(tarjetaRepository.asignarTitular(123456789012L, "Nuevo Titular")).thenReturn(0);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> tarjetaService.asignarTitular(123456789012L, "Nuevo Titular"));
+        assertEquals("La tarjeta ya tiene un titular asignado", exception.getMessage());
     }
 
     @Test
@@ -240,7 +349,7 @@ public class TarjetaServiceTest {
         tarjetaGenerada.setIdProducto(123456L);
         tarjetaGenerada.setIdEstado(2L); // Estado inactivo
         tarjetaGenerada.setTitular("sin cliente asignado");
-        tarjetaGenerada.setSaldo(0.0);
+        tarjetaGenerada.setSaldo(new BigDecimal("0.00"));
         tarjetaGenerada.setMONEDA("USD");
         // Las fechas se establecerán en el servicio
 
@@ -248,10 +357,11 @@ public class TarjetaServiceTest {
         tarjetaGeneradaDTO.setIdProducto(123456L);
         tarjetaGeneradaDTO.setIdEstado(2L);
         tarjetaGeneradaDTO.setTitular("sin cliente asignado");
-        tarjetaGeneradaDTO.setSaldo(0.0);
+        tarjetaGeneradaDTO.setSaldo(new BigDecimal("0.00"));
         tarjetaGeneradaDTO.setMoneda("USD");
         
         when(productoRepository.existsById(123456L)).thenReturn(true);
+        when(generadorNumeroTarjeta.generar(123456L)).thenReturn(1234561234567897L);
         // Capturamos el DTO que se pasa al mapper para verificar sus valores
         when(tarjetaMapper.toEntity(any(TarjetaDTO.class))).thenReturn(tarjetaGenerada);
         when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjetaGenerada);
@@ -264,11 +374,12 @@ public class TarjetaServiceTest {
         assertNotNull(result);
         assertEquals("sin cliente asignado", result.getTitular());
         assertEquals(2L, result.getIdEstado());
-        assertEquals(0.0, result.getSaldo());
+        assertEquals(new BigDecimal("0.00"), result.getSaldo());
         assertEquals("USD", result.getMoneda());
         verify(productoRepository).existsById(123456L);
         verify(tarjetaRepository).save(any(Tarjeta.class));
         verify(tarjetaMapper).toDto(any(Tarjeta.class));
+        verify(tarjetaRepository, never()).existsById(any());
     }
 
     @Test
@@ -276,7 +387,6 @@ public class TarjetaServiceTest {
         // Arrange
         tarjeta.setIdEstado(1L);
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
-        when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjeta);
         when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
 
         // Act
@@ -285,7 +395,8 @@ public class TarjetaServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(2L, tarjeta.getIdEstado());
-        verify(tarjetaRepository).save(tarjeta);
+        verify(tarjetaRepository).cambiarEstado(123456789012L, 2L);
+        verify(tarjetaRepository, never()).save(any());
     }
     
     @Test
@@ -370,10 +481,41 @@ public class TarjetaServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> tarjetaService.recargarTarjeta(123456789012L, -50.0));
+            () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("-50.00")));
         assertEquals("El monto de recarga debe ser mayor a 0", exception.getMessage());
     }
 
+    @Test
+    void recargarTarjeta_WhenMontoConMasDeDosDecimales_ShouldThrowException() {
+        // Arrange
+        tarjeta.setIdEstado(1L);
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("10.005")));
+        assertEquals("El monto de recarga no puede tener más de 2 decimales", exception.getMessage());
+        verify(tarjetaRepository, never()).acreditarSaldo(any(), any());
+    }
+
+    @Test
+    void recargarTarjeta_WhenMontosDecimales_ShouldKeepExactBalance() {
+        // Arrange: 0.10 + 0.20 con Double daba 0.30000000000000004
+        tarjeta.setIdEstado(1L);
+        tarjeta.setSaldo(new BigDecimal("0.10"));
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(tarjetaRepository.acreditarSaldo(123456789012L, new BigDecimal("0.20"))).thenReturn(1);
+        when(tarjetaRepository.consultarSaldo(123456789012L)).thenReturn(new BigDecimal("0.30"));
+        when(tarjetaMapper.toDto(any(Tarjeta.class))).thenReturn(tarjetaDTO);
+
+        // Act
+        TarjetaDTO result = tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("0.20"));
+
+        // Assert: el monto llega exacto al UPDATE, sin pasar por Double
+        verify(tarjetaRepository).acreditarSaldo(123456789012L, new BigDecimal("0.20"));
+        assertEquals(new BigDecimal("0.30"), result.getSaldo());
+    }
+
     @Test
     void recargarTarjeta_WhenTarjetaBloqueada_ShouldThrowException() {
         // Arrange
@@ -382,7 +524,7 @@ public class TarjetaServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> tarjetaService.recargarTarjeta(123456789012L, 50.0));
+            () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00")));
         assertEquals("La tarjeta está bloqueada. Debe desbloquear la tarjeta antes de realizar una recarga", 
             exception.getMessage());
     }
@@ -462,12 +604,14 @@ public class TarjetaServiceTest {
     void generateTarjeta_WhenCardNumberGenerationFails_ShouldThrowException() {
         // Arrange
         when(productoRepository.existsById(123456L)).thenReturn(true);
-        when(tarjetaRepository.existsById(any())).thenReturn(true); // Simular que siempre existe el número
+        when(generadorNumeroTarjeta.generar(123456L))
+            .thenThrow(new RuntimeException("Se agotaron los números de tarjeta disponibles"));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
             () -> tarjetaService.generateTarjeta(123456L));
-        assertEquals("No se pudo generar un número de tarjeta único después de 5 intentos", exception.getMessage());
+        assertEquals("Se agotaron los números de tarjeta disponibles", exception.getMessage());
+        verify(tarjetaRepository, never()).save(any(Tarjeta.class));
     }
 
     @Test
@@ -511,8 +655,10 @@ public class TarjetaServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> tarjetaService.recargarTarjeta(123456789012L, 100.0));
+            () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("100.00")));
         assertEquals("No existe una tarjeta con el ID: 123456789012", exception.getMessage());
+        verify(metricasTransacciones).recarga(isNull(), eq("No existe una tarjeta con el ID: 123456789012"),
+                anyLong(), eq(new BigDecimal("100.00")));
     }
 
     @Test
@@ -534,18 +680,17 @@ public class TarjetaServiceTest {
         existingTarjeta.setIdTarjeta(123456789012L);
         existingTarjeta.setIdProducto(123456L);
         existingTarjeta.setTitular("John Doe");
-        existingTarjeta.setSaldo(100.0);
+        existingTarjeta.setSaldo(new BigDecimal("100.00"));
         existingTarjeta.setIdEstado(1L);
         existingTarjeta.setFechaCreacion(new Date());
         existingTarjeta.setFechaVencimiento(new Date());
         existingTarjeta.setMONEDA("USD");
 
         TarjetaDTO updateDTO = new TarjetaDTO();
-        updateDTO.setSaldo(200.0);
+        updateDTO.setSaldo(new BigDecimal("200.00"));
         updateDTO.setIdEstado(2L);
 
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(existingTarjeta));
-        when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(existingTarjeta);
         when(tarjetaMapper.toDto(any(Tarjeta.class))).thenReturn(tarjetaDTO);
 
         // Act
@@ -553,7 +698,9 @@ public class TarjetaServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(tarjetaRepository).save(any(Tarjeta.class));
+        verify(tarjetaRepository).fijarSaldo(123456789012L, new BigDecimal("200.00"));
+        verify(tarjetaRepository).cambiarEstado(123456789012L, 2L);
+        verify(tarjetaRepository, never()).save(any());
     }
 
     @Test
@@ -561,7 +708,6 @@ public class TarjetaServiceTest {
         // Arrange
         tarjeta.setIdEstado(1L); // Tarjeta activa
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
-        when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjeta);
         when(tarjetaMapper.toDto(tarjeta)).thenReturn(tarjetaDTO);
 
         // Act
@@ -570,7 +716,8 @@ public class TarjetaServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(2L, tarjeta.getIdEstado());
-        verify(tarjetaRepository).save(tarjeta);
+        verify(tarjetaRepository).cambiarEstado(123456789012L, 2L);
+        verify(tarjetaRepository, never()).save(any());
         verify(tarjetaMapper).toDto(tarjeta);
     }
 
@@ -578,18 +725,18 @@ public class TarjetaServiceTest {
     void recargarTarjeta_WhenTarjetaExistsAndActive_ShouldUpdateSaldo() {
         // Arrange
         tarjeta.setIdEstado(1L);
-        tarjeta.setSaldo(100.0);
+        tarjeta.setSaldo(new BigDecimal("100.00"));
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
-        when(tarjetaRepository.save(any(Tarjeta.class))).thenReturn(tarjeta);
+        when(tarjetaRepository.acreditarSaldo(123456789012L, new BigDecimal("50.00"))).thenReturn(1);
+        when(tarjetaRepository.consultarSaldo(123456789012L)).thenReturn(new BigDecimal("150.00"));
         when(tarjetaMapper.toDto(any(Tarjeta.class))).thenReturn(tarjetaDTO);
 
         // Act
-        TarjetaDTO result = tarjetaService.recargarTarjeta(123456789012L, 50.0);
+        TarjetaDTO result = tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00"));
 
         // Assert
         assertNotNull(result);
-        assertEquals(150.0, tarjeta.getSaldo());
-        verify(tarjetaRepository).save(tarjeta);
+        assertEquals(new BigDecimal("150.00"), result.getSaldo());
     }
     @Test
     void asignarTitular_WhenTarjetaNotFound_ShouldThrowException() {
@@ -609,27 +756,25 @@ public class TarjetaServiceTest {
         Tarjeta tarjetaInicial = new Tarjeta();
         tarjetaInicial.setIdTarjeta(123456789012L);
         tarjetaInicial.setIdEstado(1L);
-        tarjetaInicial.setSaldo(100.0);
-
-        Tarjeta tarjetaFinal = new Tarjeta();
-        tarjetaFinal.setIdTarjeta(123456789012L);
-        tarjetaFinal.setIdEstado(1L);
-        tarjetaFinal.setSaldo(150.0);
+        tarjetaInicial.setSaldo(new BigDecimal("100.00"));
 
         when(tarjetaRepository.findById(123456789012L))
             .thenReturn(Optional.of(tarjetaInicial));
-        when(tarjetaRepository.save(any(Tarjeta.class)))
-            .thenReturn(tarjetaFinal);
-        when(tarjetaMapper.toDto(tarjetaFinal))
+        when(tarjetaRepository.acreditarSaldo(123456789012L, new BigDecimal("50.00")))
+            .thenReturn(1);
+        when(tarjetaRepository.consultarSaldo(123456789012L))
+            .thenReturn(new BigDecimal("150.00"));
+        when(tarjetaMapper.toDto(tarjetaInicial))
             .thenReturn(new TarjetaDTO());
 
         // Act
-        TarjetaDTO result = tarjetaService.recargarTarjeta(123456789012L, 50.0);
+        TarjetaDTO result = tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00"));
 
         // Assert
         assertNotNull(result);
+        assertEquals(new BigDecimal("150.00"), result.getSaldo());
         verify(tarjetaRepository).findById(123456789012L);
-        verify(tarjetaRepository).save(any(Tarjeta.class));
+        verify(tarjetaRepository).acreditarSaldo(123456789012L, new BigDecimal("50.00"));
         verify(tarjetaMapper).toDto(any(Tarjeta.class));
     }
 
@@ -640,15 +785,9 @@ public class TarjetaServiceTest {
         tarjetaInicial.setIdTarjeta(123456789012L);
         tarjetaInicial.setIdEstado(1L);
 
-        Tarjeta tarjetaFinal = new Tarjeta();
-        tarjetaFinal.setIdTarjeta(123456789012L);
-        tarjetaFinal.setIdEstado(2L);
-
         when(tarjetaRepository.findById(123456789012L))
             .thenReturn(Optional.of(tarjetaInicial));
-        when(tarjetaRepository.save(any(Tarjeta.class)))
-            .thenReturn(tarjetaFinal);
-        when(tarjetaMapper.toDto(tarjetaFinal))
+        when(tarjetaMapper.toDto(tarjetaInicial))
             .thenReturn(new TarjetaDTO());
 
         // Act
@@ -656,8 +795,9 @@ public class TarjetaServiceTest {
 
         // Assert
         assertNotNull(result);
+        assertEquals(2L, tarjetaInicial.getIdEstado());
         verify(tarjetaRepository).findById(123456789012L);
-        verify(tarjetaRepository).save(any(Tarjeta.class));
+        verify(tarjetaRepository).cambiarEstado(123456789012L, 2L);
         verify(tarjetaMapper).toDto(any(Tarjeta.class));
     }
 
@@ -669,7 +809,7 @@ public class TarjetaServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> tarjetaService.recargarTarjeta(123456789012L, 50.0));
+            () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00")));
         assertEquals("No existe una tarjeta con el ID: 123456789012", exception.getMessage());
     }
 
@@ -690,7 +830,7 @@ public class TarjetaServiceTest {
         // Arrange
         Tarjeta tarjeta = new Tarjeta();
         tarjeta.setIdTarjeta(123456789012L);
-        tarjeta.setSaldo(100.0);
+        tarjeta.setSaldo(new BigDecimal("100.00"));
 
         // Test cada estado posible
         for (Long estado : Arrays.asList(1L, 2L, 3L)) {
@@ -700,12 +840,12 @@ public class TarjetaServiceTest {
 
             if (estado == 1L) {
                 // Estado activo - debería procesar correctamente
-                when(tarjetaRepository.save(any(Tarjeta.class)))
-                    .thenReturn(tarjeta);
+                when(tarjetaRepository.acreditarSaldo(123456789012L, new BigDecimal("50.00")))
+                    .thenReturn(1);
                 when(tarjetaMapper.toDto(any(Tarjeta.class)))
                     .thenReturn(new TarjetaDTO());
 
-                TarjetaDTO result = tarjetaService.recargarTarjeta(123456789012L, 50.0);
+                TarjetaDTO result = tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00"));
                 assertNotNull(result);
             } else {
                 // Estados inactivo o bloqueado - deberían lanzar excepción
@@ -714,7 +854,7 @@ public class TarjetaServiceTest {
                     "La tarjeta está bloqueada. Debe desbloquear la tarjeta antes de realizar una recarga";
 
                 RuntimeException exception = assertThrows(RuntimeException.class,
-                    () -> tarjetaService.recargarTarjeta(123456789012L, 50.0));
+                    () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00")));
                 assertEquals(expectedMessage, exception.getMessage());
             }
         }
@@ -742,10 +882,10 @@ public class TarjetaServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> tarjetaService.recargarTarjeta(123456789012L, 50.0));
+            () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00")));
         assertEquals("La tarjeta debe estar activa para realizar recargas", exception.getMessage());
         verify(tarjetaRepository).findById(123456789012L);
-        verify(tarjetaRepository, never()).save(any(Tarjeta.class));
+        verify(tarjetaRepository, never()).acreditarSaldo(any(), any());
     }
 
     @Test
@@ -756,10 +896,73 @@ public class TarjetaServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
-            () -> tarjetaService.recargarTarjeta(123456789012L, 50.0));
+            () -> tarjetaService.recargarTarjeta(123456789012L, new BigDecimal("50.00")));
         assertEquals("La tarjeta debe estar activa para realizar recargas", exception.getMessage());
     }
     
 
     
+    @Test
+    void aprovisionarTarjetas_DebeInsertarPorBloquesEInformarAvance() {
+        // Arrange
+        when(productoRepository.existsById(123456L)).thenReturn(true);
+        when(generadorNumeroTarjeta.generar(eq(123456L), anyInt()))
+            .thenAnswer(invocation -> new long[invocation.<Integer>getArgument(1)]);
+        List<ProgresoAprovisionamientoDTO> avances = new ArrayList<>();
+
+        // Act
+        ProgresoAprovisionamientoDTO resultado = tarjetaService.aprovisionarTarjetas(123456L, 2500, avances::add);
+
+        // Assert
+        verify(generadorNumeroTarjeta, times(2)).generar(123456L, 1000);
+        verify(generadorNumeroTarjeta).generar(123456L, 500);
+        verify(tarjetaRepository, times(3)).insertarLote(anyList());
+        verify(tarjetaRepository, never()).existsById(any());
+        assertEquals(Arrays.asList(1000, 2000, 2500),
+            avances.stream().map(ProgresoAprovisionamientoDTO::getCreadas).toList());
+        assertTrue(resultado.getTerminado());
+        assertEquals(2500, resultado.getCreadas());
+    }
+
+    @Test
+    void aprovisionarTarjetas_DebeCrearTarjetasSinClienteInactivas() {
+        // Arrange
+        when(productoRepository.existsById(123456L)).thenReturn(true);
+        when(generadorNumeroTarjeta.generar(123456L, 2)).thenReturn(new long[] { 1L, 2L });
+
+        // Act
+        tarjetaService.aprovisionarTarjetas(123456L, 2, avance -> {});
+
+        // Assert
+        verify(tarjetaRepository).insertarLote(argThat(bloque -> bloque.size() == 2
+            && bloque.stream().allMatch(t -> t.getIdEstado() == 2L
+                && "sin cliente asignado".equals(t.getTitular())
+                && new BigDecimal("0.00").equals(t.getSaldo())
+                && "USD".equals(t.getMONEDA())
+                && t.isNew())));
+    }
+
+    @Test
+    void validarAprovisionamiento_ConCantidadInvalida_DebeFallar() {
+        RuntimeException sinCantidad = assertThrows(RuntimeException.class,
+            () -> tarjetaService.validarAprovisionamiento(123456L, 0));
+        assertEquals("La cantidad de tarjetas debe ser mayor a 0", sinCantidad.getMessage());
+
+        RuntimeException excedida = assertThrows(RuntimeException.class,
+            () -> tarjetaService.validarAprovisionamiento(123456L, TarjetaService.CANTIDAD_APROVISIONAMIENTO_MAXIMA + 1));
+        assertEquals("No se pueden aprovisionar más de 100000 tarjetas por solicitud", excedida.getMessage());
+        verify(productoRepository, never()).existsById(any());
+    }
+
+    @Test
+    void aprovisionarTarjetas_WhenProductoNotExists_ShouldThrowException() {
+        // Arrange
+        when(productoRepository.existsById(123456L)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> tarjetaService.aprovisionarTarjetas(123456L, 10, avance -> {}));
+        assertEquals("No existe un producto con el ID: 123456", exception.getMessage());
+        verify(tarjetaRepository, never()).insertarLote(anyList());
+    }
 }
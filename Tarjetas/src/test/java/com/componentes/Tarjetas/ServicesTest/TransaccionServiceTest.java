@@ -5,8 +5,13 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +20,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import com.componentes.Tarjetas.Entity.EstadoTrans;
 import com.componentes.Tarjetas.Entity.Tarjeta;
@@ -22,9 +28,13 @@ import com.componentes.Tarjetas.Entity.Transaccion;
 import com.componentes.Tarjetas.Repository.EstadoTransRepository;
 import com.componentes.Tarjetas.Repository.TarjetaRepository;
 import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.DiarioTransacciones;
+import com.componentes.Tarjetas.Service.LibroSaldos;
 import com.componentes.Tarjetas.Service.TransaccionService;
 import com.componentes.Tarjetas.dtos.*;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
 import com.componentes.Tarjetas.mappers.TransaccionMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
 
 @ExtendWith(MockitoExtension.class)
 class TransaccionServiceTest {
@@ -37,6 +47,12 @@ class TransaccionServiceTest {
     private TarjetaRepository tarjetaRepository;
     @Mock
     private TransaccionMapper transaccionMapper;
+    @Mock
+    private LibroSaldos libroSaldos;
+    @Mock
+    private DiarioTransacciones diarioTransacciones;
+    @Mock
+    private MetricasTransacciones metricasTransacciones;
     
     @InjectMocks
     private TransaccionService transaccionService;
@@ -58,7 +74,7 @@ class TransaccionServiceTest {
         tarjeta = new Tarjeta();
         tarjeta.setIdTarjeta(123456789012L);
         tarjeta.setIdEstado(1L);
-        tarjeta.setSaldo(1000.0);
+        tarjeta.setSaldo(new BigDecimal("1000.00"));
         tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000)); // tomorrow
 
         transaccion = new Transaccion();
@@ -66,7 +82,7 @@ class TransaccionServiceTest {
         transaccion.setIdTarjeta(123456789012L);
         transaccion.setEstadoTrans(estadoTrans);
         transaccion.setFechaTrans(fechaTest);
-        transaccion.setValorTrans(100.0);
+        transaccion.setValorTrans(new BigDecimal("100.00"));
         transaccion.setMONEDA("USD");
 
         transaccionDTO = new TransaccionDTO();
@@ -74,16 +90,66 @@ class TransaccionServiceTest {
         transaccionDTO.setIdTarjeta(123456789012L);
         transaccionDTO.setIdEstadoTrans(1L);
         transaccionDTO.setFechaTrans(fechaTest);
-        transaccionDTO.setValorTrans(100.0);
+        transaccionDTO.setValorTrans(new BigDecimal("100.00"));
         transaccionDTO.setMoneda("USD");
     }
 
     @Test
-    void getAllTransacciones_ReturnsListOfTransacciones() {
-        when(transaccionRepository.findAll()).thenReturn(Arrays.asList(transaccion));
+    void getTransacciones_ReturnsFirstPage() {
+        when(transaccionRepository.findByIdTransGreaterThanOrderByIdTransAsc(0L, Limit.of(51)))
+                .thenReturn(Arrays.asList(transaccion));
+        when(transaccionMapper.toDtoList(any())).thenReturn(Arrays.asList(transaccionDTO));
+
+        PaginaDTO<TransaccionDTO> pagina = transaccionService.getTransacciones(null, null);
+
+        assertEquals(1, pagina.getContenido().size());
+        assertNull(pagina.getSiguienteCursor());
+        verify(transaccionRepository, never()).findAll();
+    }
+
+    @Test
+    void getTransacciones_WhenMoreRows_ReturnsCursorOfLastItem() {
+        Transaccion siguiente = new Transaccion();
+        siguiente.setIdTrans(2L);
+        when(transaccionRepository.findByIdTransGreaterThanOrderByIdTransAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(transaccion, siguiente));
+        when(transaccionMapper.toDtoList(Arrays.asList(transaccion))).thenReturn(Arrays.asList(transaccionDTO));
+
+        PaginaDTO<TransaccionDTO> pagina = transaccionService.getTransacciones(0L, 1);
+
+        assertEquals(1, pagina.getContenido().size());
+        assertEquals(1L, pagina.getSiguienteCursor());
+    }
+
+    @Test
+    void getTransacciones_WhenInvalidPageSize_ThrowsException() {
+        assertThrows(RuntimeException.class, () -> transaccionService.getTransacciones(null, -1));
+    }
+
+    @Test
+    void getTransaccionesPorTarjeta_WithDateRange_QueriesClosedRange() {
+        when(transaccionRepository.buscarHistorialTarjeta(eq(123456789012L), any(Date.class), any(Date.class),
+                eq(1L), eq(Limit.of(20)))).thenReturn(Arrays.asList(transaccion));
+        when(transaccionMapper.toDtoList(Arrays.asList(transaccion))).thenReturn(Arrays.asList(transaccionDTO));
+
+        assertEquals(1, transaccionService.getTransaccionesPorTarjeta(123456789012L,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 1L, 20).size());
+    }
+
+    @Test
+    void getTransaccionesPorTarjeta_WithoutFilters_UsesDefaultPageSize() {
+        when(transaccionRepository.buscarHistorialTarjeta(eq(123456789012L), any(Date.class), any(Date.class),
+                isNull(), eq(Limit.of(50)))).thenReturn(Arrays.asList(transaccion));
         when(transaccionMapper.toDtoList(any())).thenReturn(Arrays.asList(transaccionDTO));
 
-        assertEquals(1, transaccionService.getAllTransacciones().size());
+        assertEquals(1, transaccionService.getTransaccionesPorTarjeta(123456789012L, null, null, null, null).size());
+    }
+
+    @Test
+    void getTransaccionesPorTarjeta_WhenRangeInverted_ThrowsException() {
+        assertThrows(RuntimeException.class, () -> transaccionService.getTransaccionesPorTarjeta(123456789012L,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), null, null));
+        verifyNoInteractions(transaccionRepository);
     }
 
     @Test
@@ -123,27 +189,198 @@ class TransaccionServiceTest {
     void procesarCompra_WhenValidPurchase_ReturnsTransaccion() {
         TransCompraDTO compraDTO = new TransCompraDTO();
         compraDTO.setCardId(123456789012L);
-        compraDTO.setPrice(100.0);
+        compraDTO.setPrice(new BigDecimal("100.00"));
         compraDTO.setMoneda("USD");
 
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(tarjetaRepository.debitarSaldo(123456789012L, new BigDecimal("100.00"))).thenReturn(1);
         when(estadoTransRepository.findById(1L)).thenReturn(Optional.of(estadoTrans));
         when(transaccionMapper.toEntity(any(), any())).thenReturn(transaccion);
         when(transaccionRepository.save(any())).thenReturn(transaccion);
 
         assertDoesNotThrow(() -> transaccionService.procesarCompra(compraDTO));
+        verify(tarjetaRepository, never()).save(any());
+        verify(metricasTransacciones).compra(eq(tarjeta.getIdProducto()), isNull(), anyLong(),
+                eq(new BigDecimal("100.00")));
+    }
+
+    @Test
+    void procesarCompra_WhenDiarioHabilitado_RegistersInsteadOfSaving() {
+        TransCompraDTO compraDTO = new TransCompraDTO();
+        compraDTO.setCardId(123456789012L);
+        compraDTO.setPrice(new BigDecimal("100.00"));
+        compraDTO.setMoneda("USD");
+
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(tarjetaRepository.debitarSaldo(123456789012L, new BigDecimal("100.00"))).thenReturn(1);
+        when(estadoTransRepository.findById(1L)).thenReturn(Optional.of(estadoTrans));
+        when(transaccionMapper.toEntity(any(), any())).thenReturn(transaccion);
+        when(diarioTransacciones.habilitado()).thenReturn(true);
+        when(diarioTransacciones.registrar(transaccion)).thenReturn(transaccion);
+
+        TransaccionDTO resultado = transaccionService.procesarCompra(compraDTO);
+
+        assertEquals(1L, resultado.getIdTrans());
+        verify(transaccionRepository, never()).save(any());
+    }
+
+    @Test
+    void procesarCompra_WhenConcurrentDebitConsumedBalance_ThrowsException() {
+        TransCompraDTO compraDTO = new TransCompraDTO();
+        compraDTO.setCardId(123456789012L);
+        compraDTO.setPrice(new BigDecimal("100.00"));
+        compraDTO.setMoneda("USD");
+
+        // La lectura ve saldo suficiente, pero el UPDATE condicional no afecta filas
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(tarjetaRepository.debitarSaldo(123456789012L, new BigDecimal("100.00"))).thenReturn(0);
+        when(estadoTransRepository.findById(3L)).thenReturn(Optional.of(estadoTrans));
+        when(transaccionMapper.toEntity(any(), any())).thenReturn(transaccion);
+        when(transaccionRepository.save(any())).thenReturn(transaccion);
+
+        RuntimeException exception = assertThrows(CompraRechazadaException.class,
+            () -> transaccionService.procesarCompra(compraDTO));
+        assertEquals("Saldo insuficiente para realizar la compra", exception.getMessage());
+        verify(transaccionRepository).save(any());
     }
 
     @Test
     void procesarCompra_WhenInvalidCurrency_ThrowsException() {
         TransCompraDTO compraDTO = new TransCompraDTO();
         compraDTO.setCardId(123456789012L);
-        compraDTO.setPrice(100.0);
+        compraDTO.setPrice(new BigDecimal("100.00"));
         compraDTO.setMoneda("EUR");
 
         assertThrows(RuntimeException.class, () -> transaccionService.procesarCompra(compraDTO));
     }
 
+    @Test
+    void procesarCompra_WhenPriceNotPositive_ThrowsException() {
+        TransCompraDTO compraDTO = new TransCompraDTO();
+        compraDTO.setCardId(123456789012L);
+        compraDTO.setPrice(new BigDecimal("-50.00"));
+        compraDTO.setMoneda("USD");
+
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(estadoTransRepository.findById(3L)).thenReturn(Optional.of(estadoTrans));
+        when(transaccionMapper.toEntity(any(), any())).thenReturn(transaccion);
+        when(transaccionRepository.save(any())).thenReturn(transaccion);
+
+        RuntimeException exception = assertThrows(CompraRechazadaException.class,
+            () -> transaccionService.procesarCompra(compraDTO));
+        assertEquals("El valor de la compra debe ser mayor a 0", exception.getMessage());
+        verify(tarjetaRepository, never()).debitarSaldo(any(), any());
+    }
+
+    @Test
+    void procesarCompra_WhenPriceHasMoreThanTwoDecimals_ThrowsException() {
+        TransCompraDTO compraDTO = compra(123456789012L, new BigDecimal("10.001"));
+
+        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
+        when(estadoTransRepository.findById(3L)).thenReturn(Optional.of(estadoTrans));
+        when(transaccionMapper.toEntity(any(), any())).thenReturn(transaccion);
+        when(transaccionRepository.save(any())).thenReturn(transaccion);
+
+        RuntimeException exception = assertThrows(CompraRechazadaException.class,
+            () -> transaccionService.procesarCompra(compraDTO));
+        assertEquals("El valor de la compra no puede tener más de 2 decimales", exception.getMessage());
+        verify(tarjetaRepository, never()).debitarSaldo(any(), any());
+    }
+
+    @Test
+    void procesarComprasLote_AppliesRunningBalancePerCard() {
+        EstadoTrans fallida = new EstadoTrans();
+        fallida.setIdEstadoTrans(3L);
+        fallida.setDescripcion("FALLIDA");
+
+        when(tarjetaRepository.findByIdTarjetaInOrderByIdTarjetaAsc(any())).thenReturn(Arrays.asList(tarjeta));
+        when(estadoTransRepository.findById(1L)).thenReturn(Optional.of(estadoTrans));
+        when(estadoTransRepository.findById(3L)).thenReturn(Optional.of(fallida));
+        when(transaccionMapper.toEntity(any(), any())).thenAnswer(invocacion -> {
+            TransaccionDTO dto = invocacion.getArgument(0);
+            Transaccion entidad = new Transaccion();
+            entidad.setIdTarjeta(dto.getIdTarjeta());
+            entidad.setDESCRIPCION(dto.getDescripcion());
+            entidad.setEstadoTrans(invocacion.getArgument(1));
+            return entidad;
+        });
+        when(transaccionRepository.saveAll(any())).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        // Saldo 1000: 600 aprobada, 600 rechazada, 400 aprobada; la tarjeta 999 no existe
+        List<TransCompraDTO> compras = new ArrayList<>();
+        compras.add(compra(123456789012L, new BigDecimal("600.00")));
+        compras.add(compra(123456789012L, new BigDecimal("600.00")));
+        compras.add(compra(999L, new BigDecimal("10.00")));
+        compras.add(compra(123456789012L, new BigDecimal("400.00")));
+
+        List<ResultadoCompraDTO> resultados = transaccionService.procesarComprasLote(compras);
+
+        assertEquals(4, resultados.size());
+        assertTrue(resultados.get(0).getExitosa());
+        assertFalse(resultados.get(1).getExitosa());
+        assertEquals("Saldo insuficiente para realizar la compra", resultados.get(1).getMensaje());
+        assertEquals("No existe una tarjeta con el ID: 999", resultados.get(2).getMensaje());
+        assertTrue(resultados.get(3).getExitosa());
+        assertEquals(3, resultados.get(3).getPosicion());
+        assertEquals(new BigDecimal("0.00"), tarjeta.getSaldo());
+        verify(tarjetaRepository, times(1)).findByIdTarjetaInOrderByIdTarjetaAsc(any());
+        verify(tarjetaRepository, never()).debitarSaldo(any(), any());
+        verify(metricasTransacciones).compra(eq(tarjeta.getIdProducto()), isNull(), anyLong(),
+                eq(new BigDecimal("600.00")));
+        verify(metricasTransacciones).compra(eq(tarjeta.getIdProducto()),
+                eq("Saldo insuficiente para realizar la compra"), anyLong(), eq(new BigDecimal("600.00")));
+        verify(metricasTransacciones).compra(isNull(), eq("No existe una tarjeta con el ID: 999"), anyLong(),
+                eq(new BigDecimal("10.00")));
+        verify(metricasTransacciones).compra(eq(tarjeta.getIdProducto()), isNull(), anyLong(),
+                eq(new BigDecimal("400.00")));
+    }
+
+    @Test
+    void procesarComprasLote_WhenTarjetaEnLibroSaldos_RejectsIt() {
+        when(libroSaldos.administra(555L)).thenReturn(true);
+        when(tarjetaRepository.findByIdTarjetaInOrderByIdTarjetaAsc(any())).thenReturn(Collections.emptyList());
+        when(estadoTransRepository.findById(1L)).thenReturn(Optional.of(estadoTrans));
+        when(estadoTransRepository.findById(3L)).thenReturn(Optional.of(estadoTrans));
+        when(transaccionMapper.toEntity(any(), any())).thenAnswer(invocacion -> {
+            TransaccionDTO dto = invocacion.getArgument(0);
+            Transaccion entidad = new Transaccion();
+            entidad.setDESCRIPCION(dto.getDescripcion());
+            entidad.setEstadoTrans(invocacion.getArgument(1));
+            return entidad;
+        });
+        when(transaccionRepository.saveAll(any())).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        List<ResultadoCompraDTO> resultados = transaccionService.procesarComprasLote(
+                Arrays.asList(compra(555L, new BigDecimal("1.00"))));
+
+        assertEquals("La tarjeta 555 solo admite compras individuales", resultados.get(0).getMensaje());
+        verify(tarjetaRepository).findByIdTarjetaInOrderByIdTarjetaAsc(Collections.emptySet());
+    }
+
+    @Test
+    void procesarComprasLote_WhenEmpty_ThrowsException() {
+        assertThrows(RuntimeException.class,
+            () -> transaccionService.procesarComprasLote(Collections.emptyList()));
+        verifyNoInteractions(tarjetaRepository, transaccionRepository);
+    }
+
+    @Test
+    void procesarComprasLote_WhenTooLarge_ThrowsException() {
+        List<TransCompraDTO> compras = Collections.nCopies(TransaccionService.TAMANO_LOTE_MAXIMO + 1,
+                compra(123456789012L, new BigDecimal("1.00")));
+
+        assertThrows(RuntimeException.class, () -> transaccionService.procesarComprasLote(compras));
+        verifyNoInteractions(tarjetaRepository, transaccionRepository);
+    }
+
+    private TransCompraDTO compra(Long cardId, BigDecimal price) {
+        TransCompraDTO compraDTO = new TransCompraDTO();
+        compraDTO.setCardId(cardId);
+        compraDTO.setPrice(price);
+        compraDTO.setMoneda("USD");
+        return compraDTO;
+    }
+
     @Test
     void anularTransaccion_WhenValid_ReturnsRespAnuTransDTO() {
         TransAnulacionDTO anulacionDTO = new TransAnulacionDTO();
@@ -151,13 +388,15 @@ class TransaccionServiceTest {
         anulacionDTO.setTransactionId("1");
 
         when(transaccionRepository.findById(1L)).thenReturn(Optional.of(transaccion));
-        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
         when(estadoTransRepository.findById(3L)).thenReturn(Optional.of(estadoTrans));
         when(transaccionMapper.toEntity(any(), any())).thenReturn(transaccion);
         when(transaccionRepository.save(any())).thenReturn(transaccion);
+        when(transaccionRepository.marcarAnulada(eq(1L), any())).thenReturn(1);
+        when(tarjetaRepository.acreditarSaldo(123456789012L, transaccion.getValorTrans())).thenReturn(1);
 
         RespAnuTransDTO result = transaccionService.anularTransaccion(anulacionDTO);
         assertNotNull(result);
+        verify(metricasTransacciones).anulacion(anyLong(), isNull(), anyLong());
     }
 
     @Test
@@ -198,7 +437,7 @@ class TransaccionServiceTest {
     void procesarCompra_WhenCardInactive_ThrowsException() {
         TransCompraDTO compraDTO = new TransCompraDTO();
         compraDTO.setCardId(123456789012L);
-        compraDTO.setPrice(100.0);
+        compraDTO.setPrice(new BigDecimal("100.00"));
         compraDTO.setMoneda("USD");
 
         tarjeta.setIdEstado(2L); // Inactive state
@@ -217,7 +456,7 @@ class TransaccionServiceTest {
     void procesarCompra_WhenCardExpired_ThrowsException() {
         TransCompraDTO compraDTO = new TransCompraDTO();
         compraDTO.setCardId(123456789012L);
-        compraDTO.setPrice(100.0);
+        compraDTO.setPrice(new BigDecimal("100.00"));
         compraDTO.setMoneda("USD");
 
         tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() - 86400000)); // yesterday
@@ -235,7 +474,7 @@ class TransaccionServiceTest {
     void procesarCompra_WhenInsufficientBalance_ThrowsException() {
         TransCompraDTO compraDTO = new TransCompraDTO();
         compraDTO.setCardId(123456789012L);
-        compraDTO.setPrice(2000.0);
+        compraDTO.setPrice(new BigDecimal("2000.00"));
         compraDTO.setMoneda("USD");
 
         when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
@@ -246,6 +485,8 @@ class TransaccionServiceTest {
         RuntimeException exception = assertThrows(RuntimeException.class,
             () -> transaccionService.procesarCompra(compraDTO));
         assertEquals("Saldo insuficiente para realizar la compra", exception.getMessage());
+        verify(metricasTransacciones).compra(eq(tarjeta.getIdProducto()),
+                eq("Saldo insuficiente para realizar la compra"), anyLong(), eq(new BigDecimal("2000.00")));
     }
 
     @Test
@@ -292,6 +533,24 @@ class TransaccionServiceTest {
         assertEquals("La transacción ya fue anulada bajo el id 2", exception.getMessage());
     }
 
+    @Test
+    void anularTransaccion_WhenAnuladaConcurrentemente_ThrowsException() {
+        TransAnulacionDTO anulacionDTO = new TransAnulacionDTO();
+        anulacionDTO.setCardId("123456789012");
+        anulacionDTO.setTransactionId("1");
+
+        when(transaccionRepository.findById(1L)).thenReturn(Optional.of(transaccion));
+        when(estadoTransRepository.findById(3L)).thenReturn(Optional.of(estadoTrans));
+        when(transaccionMapper.toEntity(any(), any())).thenReturn(transaccion);
+        when(transaccionRepository.save(any())).thenReturn(transaccion);
+        when(transaccionRepository.marcarAnulada(eq(1L), any())).thenReturn(0);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, 
+            () -> transaccionService.anularTransaccion(anulacionDTO));
+        assertEquals("La transacción ya fue anulada", exception.getMessage());
+        verify(tarjetaRepository, never()).acreditarSaldo(any(), any());
+    }
+
     @Test
     void anularTransaccion_WhenTooLate_ThrowsException() {
         TransAnulacionDTO anulacionDTO = new TransAnulacionDTO();
@@ -310,7 +569,7 @@ class TransaccionServiceTest {
     void procesarCompra_WhenDateValidationFails_ThrowsException() {
         TransCompraDTO compraDTO = new TransCompraDTO();
         compraDTO.setCardId(123456789012L);
-        compraDTO.setPrice(100.0);
+        compraDTO.setPrice(new BigDecimal("100.00"));
         compraDTO.setMoneda("USD");
 
         tarjeta.setFechaVencimiento(null); // This will cause a NPE during date validation
@@ -331,11 +590,15 @@ class TransaccionServiceTest {
         anulacionDTO.setTransactionId("1");
 
         when(transaccionRepository.findById(1L)).thenReturn(Optional.of(transaccion));
-        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.empty());
+        when(estadoTransRepository.findById(3L)).thenReturn(Optional.of(estadoTrans));
+        when(transaccionMapper.toEntity(any(), any())).thenReturn(transaccion);
+        when(transaccionRepository.save(any())).thenReturn(transaccion);
+        when(transaccionRepository.marcarAnulada(eq(1L), any())).thenReturn(1);
+        when(tarjetaRepository.acreditarSaldo(123456789012L, transaccion.getValorTrans())).thenReturn(0);
 
-        assertThrows(RuntimeException.class, 
-            () -> transaccionService.anularTransaccion(anulacionDTO),
-            "Tarjeta no encontrada");
+        RuntimeException exception = assertThrows(RuntimeException.class, 
+            () -> transaccionService.anularTransaccion(anulacionDTO));
+        assertEquals("Tarjeta no encontrada", exception.getMessage());
     }
 
     @Test
@@ -345,7 +608,6 @@ class TransaccionServiceTest {
         anulacionDTO.setTransactionId("1");
 
         when(transaccionRepository.findById(1L)).thenReturn(Optional.of(transaccion));
-        when(tarjetaRepository.findById(123456789012L)).thenReturn(Optional.of(tarjeta));
         when(estadoTransRepository.findById(3L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, 
@@ -0,0 +1,56 @@
+package com.componentes.Tarjetas.UtilTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.componentes.Tarjetas.util.Dinero;
+
+class DineroTest {
+
+    @Test
+    void aCentavos_ConDosDecimales_DebeConvertir() {
+        assertEquals(12345L, Dinero.aCentavos(new BigDecimal("123.45")));
+        assertEquals(10000L, Dinero.aCentavos(new BigDecimal("100")));
+        assertEquals(10L, Dinero.aCentavos(new BigDecimal("0.100")));
+    }
+
+    @Test
+    void aCentavos_ConMasDeDosDecimales_DebeFallar() {
+        assertThrows(ArithmeticException.class, () -> Dinero.aCentavos(new BigDecimal("1.005")));
+    }
+
+    @Test
+    void desdeCentavos_DebeUsarEscalaDos() {
+        assertEquals(new BigDecimal("0.30"), Dinero.desdeCentavos(30L));
+    }
+
+    @Test
+    void acreditar_NoDebeAcumularErrorDeRedondeo() {
+        long saldo = 0L;
+        for (int i = 0; i < 10; i++) {
+            saldo = Dinero.acreditar(saldo, Dinero.aCentavos(new BigDecimal("0.10")));
+        }
+        assertEquals(new BigDecimal("1.00"), Dinero.desdeCentavos(saldo));
+    }
+
+    @Test
+    void debitar_DebeRestarYDetectarDesbordamiento() {
+        assertEquals(2500L, Dinero.debitar(10000L, 7500L));
+        assertThrows(ArithmeticException.class, () -> Dinero.debitar(Long.MIN_VALUE, 1L));
+    }
+
+    @Test
+    void alcanza_DebeCompararSaldoYMonto() {
+        assertTrue(Dinero.alcanza(10000L, 10000L));
+        assertFalse(Dinero.alcanza(9999L, 10000L));
+    }
+
+    @Test
+    void escalaValida_DebeIgnorarCerosFinales() {
+        assertTrue(Dinero.escalaValida(new BigDecimal("10.5000")));
+        assertFalse(Dinero.escalaValida(new BigDecimal("10.501")));
+    }
+}
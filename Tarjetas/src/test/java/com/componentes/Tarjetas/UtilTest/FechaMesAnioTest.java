@@ -0,0 +1,96 @@
+package com.componentes.Tarjetas.UtilTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.componentes.Tarjetas.util.FechaMesAnio;
+
+class FechaMesAnioTest {
+
+    @Test
+    void formatear_DebeCoincidirConSimpleDateFormat() throws Exception {
+        SimpleDateFormat referencia = new SimpleDateFormat("MM/yyyy");
+        Date fecha = referencia.parse("02/2025");
+
+        assertEquals("02/2025", FechaMesAnio.formatear(fecha));
+        assertEquals("02/2028", FechaMesAnio.formatearMasAnios(fecha, 3));
+    }
+
+    @Test
+    void formatear_ConJavaSqlDate_DebeFuncionar() {
+        java.sql.Date fecha = java.sql.Date.valueOf("2025-01-30");
+
+        assertEquals("01/2025", FechaMesAnio.formatear(fecha));
+    }
+
+    @Test
+    void formatear_FueraDelRangoPrecalculado_DebeFuncionar() throws Exception {
+        Date fecha = new SimpleDateFormat("dd/MM/yyyy").parse("15/06/1965");
+
+        assertEquals("06/1965", FechaMesAnio.formatear(fecha));
+        assertEquals("06/2205", FechaMesAnio.formatearMasAnios(fecha, 240));
+    }
+
+    @Test
+    void parsear_DebeRetornarPrimerDiaDelMes() throws Exception {
+        Date esperada = new SimpleDateFormat("MM/yyyy").parse("12/2027");
+
+        assertEquals(esperada, FechaMesAnio.parsear("12/2027"));
+    }
+
+    @Test
+    void parsear_ConFormatoInvalido_DebeFallar() {
+        assertThrows(DateTimeException.class, () -> FechaMesAnio.parsear("2027-12"));
+        assertThrows(DateTimeException.class, () -> FechaMesAnio.parsear("13/2027"));
+        assertThrows(DateTimeException.class, () -> FechaMesAnio.parsear("1a/2027"));
+        assertThrows(DateTimeException.class, () -> FechaMesAnio.parsear(null));
+    }
+
+    @Test
+    void formatearYParsear_ConVariosHilos_NoDebeCorromperFechas() throws Exception {
+        int hilos = 8;
+        int iteraciones = 20_000;
+        long desde = new SimpleDateFormat("MM/yyyy").parse("01/1990").getTime();
+        long hasta = new SimpleDateFormat("MM/yyyy").parse("12/2060").getTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Callable<Integer>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(() -> {
+                    // Referencia confinada al hilo
+                    SimpleDateFormat referencia = new SimpleDateFormat("MM/yyyy");
+                    int errores = 0;
+                    for (int i = 0; i < iteraciones; i++) {
+                        Date fecha = new Date(ThreadLocalRandom.current().nextLong(desde, hasta));
+                        String texto = FechaMesAnio.formatear(fecha);
+                        if (!texto.equals(referencia.format(fecha))
+                                || !FechaMesAnio.parsear(texto).equals(referencia.parse(texto))) {
+                            errores++;
+                        }
+                    }
+                    return errores;
+                });
+            }
+            int errores = 0;
+            for (Future<Integer> resultado : executor.invokeAll(tareas)) {
+                errores += resultado.get();
+            }
+            assertEquals(0, errores);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
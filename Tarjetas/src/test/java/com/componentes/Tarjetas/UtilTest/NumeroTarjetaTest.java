@@ -0,0 +1,55 @@
+package com.componentes.Tarjetas.UtilTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.componentes.Tarjetas.util.NumeroTarjeta;
+
+class NumeroTarjetaTest {
+
+    @Test
+    void esValido_ConNumerosLuhnConocidos() {
+        assertTrue(NumeroTarjeta.esValido(4539148803436467L));
+        assertTrue(NumeroTarjeta.esValido(79927398713L));
+        assertFalse(NumeroTarjeta.esValido(4539148803436468L));
+        assertFalse(NumeroTarjeta.esValido(79927398710L));
+    }
+
+    @Test
+    void componer_DebeConservarPrefijoYDigitoDeControl() {
+        long numero = NumeroTarjeta.componer(102030L, 0L);
+
+        assertEquals(102030L, numero / 10_000_000_000L);
+        assertTrue(NumeroTarjeta.esValido(numero));
+    }
+
+    @Test
+    void componer_SeriesDistintasNoDebenRepetirNumero() {
+        Set<Long> numeros = new HashSet<>();
+        for (long serie = 0; serie < 200_000; serie++) {
+            long numero = NumeroTarjeta.componer(102030L, serie);
+            assertTrue(NumeroTarjeta.esValido(numero));
+            assertTrue(numeros.add(numero), "Número repetido para la serie " + serie);
+        }
+    }
+
+    @Test
+    void componer_SeriesConsecutivasNoDebenSerConsecutivas() {
+        long primero = NumeroTarjeta.componer(102030L, 1L);
+        long segundo = NumeroTarjeta.componer(102030L, 2L);
+
+        assertNotEquals(10L, Math.abs(segundo - primero));
+    }
+
+    @Test
+    void componer_FueraDeRango_DebeFallar() {
+        assertThrows(IllegalArgumentException.class, () -> NumeroTarjeta.componer(1_000_000L, 0L));
+        assertThrows(IllegalArgumentException.class,
+                () -> NumeroTarjeta.componer(102030L, NumeroTarjeta.SERIES_POR_PRODUCTO));
+        assertThrows(IllegalArgumentException.class, () -> NumeroTarjeta.componer(102030L, -1L));
+    }
+}
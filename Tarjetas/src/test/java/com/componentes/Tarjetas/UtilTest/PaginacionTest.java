@@ -0,0 +1,28 @@
+package com.componentes.Tarjetas.UtilTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.componentes.Tarjetas.util.Paginacion;
+
+class PaginacionTest {
+
+    @Test
+    void validarTamanoPagina_SinTamano_DebeUsarElDeDefecto() {
+        assertEquals(Paginacion.TAMANO_PAGINA_DEFECTO, Paginacion.validarTamanoPagina(null));
+    }
+
+    @Test
+    void validarTamanoPagina_MayorAlMaximo_DebeRecortarse() {
+        assertEquals(Paginacion.TAMANO_PAGINA_MAXIMO, Paginacion.validarTamanoPagina(10_000));
+        assertEquals(20, Paginacion.validarTamanoPagina(20));
+    }
+
+    @Test
+    void validarTamanoPagina_CeroONegativo_DebeLanzarExcepcion() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> Paginacion.validarTamanoPagina(0));
+        assertEquals("El tamaño de página debe ser mayor a 0", exception.getMessage());
+        assertThrows(RuntimeException.class, () -> Paginacion.validarTamanoPagina(-5));
+    }
+}
@@ -0,0 +1,66 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.componentes.Tarjetas.Entity.Producto;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.ProductoRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Service.GeneradorNumeroTarjeta;
+import com.componentes.Tarjetas.Service.LibroSaldos;
+import com.componentes.Tarjetas.Service.TarjetaService;
+import com.componentes.Tarjetas.dtos.ProgresoAprovisionamientoDTO;
+import com.componentes.Tarjetas.mappers.TarjetaMapper;
+import com.componentes.Tarjetas.util.NumeroTarjeta;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({TarjetaService.class, TarjetaMapper.class, GeneradorNumeroTarjeta.class, LibroSaldos.class,
+        MetricasTransacciones.class, SimpleMeterRegistry.class})
+class AprovisionamientoTarjetasTest {
+
+    private static final Long PRODUCTO = 102030L;
+
+    @Autowired
+    private TarjetaService tarjetaService;
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @BeforeEach
+    void setUp() {
+        productoRepository.save(new Producto(PRODUCTO, "Tarjeta de prueba"));
+    }
+
+    @Test
+    void aprovisionarTarjetas_DebeGuardarTodasLasTarjetas() {
+        List<ProgresoAprovisionamientoDTO> avances = new ArrayList<>();
+
+        tarjetaService.aprovisionarTarjetas(PRODUCTO, 2500, avances::add);
+
+        assertEquals(3, avances.size());
+        assertTrue(avances.get(2).getTerminado());
+        List<Tarjeta> tarjetas = tarjetaRepository.findAll();
+        assertEquals(2500, tarjetas.size());
+        for (Tarjeta tarjeta : tarjetas) {
+            assertEquals(PRODUCTO, tarjeta.getIdProducto());
+            assertEquals(2L, tarjeta.getIdEstado());
+            assertTrue(NumeroTarjeta.esValido(tarjeta.getIdTarjeta()));
+        }
+    }
+}
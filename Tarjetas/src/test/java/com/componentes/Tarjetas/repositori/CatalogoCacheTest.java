@@ -0,0 +1,138 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Producto;
+import com.componentes.Tarjetas.Repository.CacheCatalogos;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.ProductoRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import(CacheCatalogos.class)
+class CatalogoCacheTest {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        productoRepository.save(new Producto(102030L, "CREDITO"));
+        estadoTransRepository.save(new EstadoTrans(1L, "APROBADO"));
+    }
+
+    @Test
+    void findById_SegundaLectura_DebeServirseDesdeCache() {
+        CacheStats antes = estadisticas("productos");
+
+        productoRepository.findById(102030L);
+        productoRepository.findById(102030L);
+        productoRepository.findById(102030L);
+
+        CacheStats despues = estadisticas("productos").minus(antes);
+        assertEquals(1, despues.missCount());
+        assertEquals(2, despues.hitCount());
+    }
+
+    @Test
+    void save_DebeInvalidarCache() {
+        assertEquals("CREDITO", productoRepository.findById(102030L).get().getDescripcion());
+
+        productoRepository.save(new Producto(102030L, "CREDITO ORO"));
+
+        assertEquals("CREDITO ORO", productoRepository.findById(102030L).get().getDescripcion());
+    }
+
+    @Test
+    void deleteById_DebeInvalidarExistencia() {
+        assertTrue(productoRepository.existsById(102030L));
+
+        productoRepository.deleteById(102030L);
+
+        assertFalse(productoRepository.existsById(102030L));
+    }
+
+    @Test
+    void estadoTrans_LecturasRepetidas_DebenSerAciertos() {
+        CacheStats antes = estadisticas("estadosTrans");
+
+        for (int i = 0; i < 10; i++) {
+            estadoTransRepository.findById(1L);
+        }
+
+        CacheStats despues = estadisticas("estadosTrans").minus(antes);
+        assertEquals(1, despues.missCount());
+        assertEquals(9, despues.hitCount());
+    }
+
+    @Test
+    void saveAll_DebeInvalidarCache() {
+        assertEquals(1, productoRepository.findAll().size());
+
+        productoRepository.saveAll(List.of(new Producto(102031L, "DEBITO"), new Producto(102032L, "PREPAGO")));
+
+        assertEquals(3, productoRepository.findAll().size());
+    }
+
+    @Test
+    void deleteAllInBatch_DebeInvalidarCache() {
+        assertTrue(estadoTransRepository.existsById(1L));
+
+        estadoTransRepository.deleteAllInBatch();
+
+        assertFalse(estadoTransRepository.existsById(1L));
+    }
+
+    @Test
+    void deleteAllById_DebeInvalidarCache() {
+        assertTrue(productoRepository.findById(102030L).isPresent());
+
+        productoRepository.deleteAllById(List.of(102030L));
+
+        assertFalse(productoRepository.findById(102030L).isPresent());
+    }
+
+    @Test
+    void findById_ModificarElResultado_NoDebeCambiarLaCache() {
+        // Se carga la cache; las lecturas siguientes son aciertos y entregan copias
+        productoRepository.findById(102030L);
+        productoRepository.findAll();
+
+        Producto leido = productoRepository.findById(102030L).get();
+        leido.setDescripcion("MODIFICADO");
+
+        Producto otraLectura = productoRepository.findById(102030L).get();
+        assertEquals("CREDITO", otraLectura.getDescripcion());
+        assertFalse(leido == otraLectura);
+
+        List<Producto> todos = productoRepository.findAll();
+        todos.get(0).setDescripcion("MODIFICADO");
+        assertEquals("CREDITO", productoRepository.findAll().get(0).getDescripcion());
+    }
+
+    private CacheStats estadisticas(String nombre) {
+        return ((CaffeineCache) cacheManager.getCache(nombre)).getNativeCache().stats();
+    }
+}
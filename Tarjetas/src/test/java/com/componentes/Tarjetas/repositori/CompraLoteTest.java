@@ -0,0 +1,163 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.DiarioTransacciones;
+import com.componentes.Tarjetas.Service.LibroSaldos;
+import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.ResultadoCompraDTO;
+import com.componentes.Tarjetas.dtos.TransCompraDTO;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
+import com.componentes.Tarjetas.mappers.TransaccionMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({TransaccionService.class, TransaccionMapper.class, LibroSaldos.class, DiarioTransacciones.class,
+        MetricasTransacciones.class, SimpleMeterRegistry.class})
+class CompraLoteTest {
+
+    private static final Long TARJETA_A = 1020301234567801L;
+    private static final Long TARJETA_B = 1020301234567802L;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        estadoTransRepository.save(estado(1L, "EXITOSA"));
+        estadoTransRepository.save(estado(3L, "FALLIDA"));
+        tarjetaRepository.save(tarjeta(TARJETA_A, new BigDecimal("100.00")));
+        tarjetaRepository.save(tarjeta(TARJETA_B, new BigDecimal("50.00")));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void procesarComprasLote_DebeDebitarYRegistrarCadaCompra() {
+        List<TransCompraDTO> compras = new ArrayList<>();
+        compras.add(compra(TARJETA_A, new BigDecimal("40.00")));
+        compras.add(compra(TARJETA_B, new BigDecimal("50.00")));
+        compras.add(compra(TARJETA_A, new BigDecimal("70.00")));
+        compras.add(compra(TARJETA_A, new BigDecimal("60.00")));
+
+        List<ResultadoCompraDTO> resultados = transaccionService.procesarComprasLote(compras);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(resultados.get(0).getExitosa());
+        assertTrue(resultados.get(1).getExitosa());
+        assertFalse(resultados.get(2).getExitosa());
+        assertTrue(resultados.get(3).getExitosa());
+        assertEquals(new BigDecimal("0.00"), tarjetaRepository.findById(TARJETA_A).get().getSaldo());
+        assertEquals(new BigDecimal("0.00"), tarjetaRepository.findById(TARJETA_B).get().getSaldo());
+        assertEquals(4, transaccionRepository.count());
+    }
+
+    @Test
+    void procesarComprasLote_DebeRegistrarLasMetricasAlConfirmar() {
+        List<TransCompraDTO> compras = new ArrayList<>();
+        compras.add(compra(TARJETA_A, new BigDecimal("40.00")));
+        compras.add(compra(TARJETA_B, new BigDecimal("80.00")));
+        compras.add(compra(TARJETA_A, new BigDecimal("60.00")));
+
+        transaccionService.procesarComprasLote(compras);
+        // Mientras el lote no confirma no se cuenta nada
+        assertEquals(0, compras("aprobada"));
+        assertEquals(0, compras("rechazada"));
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            assertEquals(2, compras("aprobada"));
+            assertEquals(1, compras("rechazada"));
+            assertEquals(100.0, meterRegistry.get("tarjetas.compras.monto").counter().count());
+        } finally {
+            transaccionRepository.deleteAll();
+            tarjetaRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void procesarCompra_ConRollback_NoDebeRegistrarMetricas() {
+        transaccionService.procesarCompra(compra(TARJETA_A, new BigDecimal("10.00")));
+        assertThrows(CompraRechazadaException.class,
+                () -> transaccionService.procesarCompra(compra(TARJETA_B, new BigDecimal("90.00"))));
+
+        TestTransaction.end();
+
+        assertEquals(0, compras("aprobada"));
+        assertEquals(0, compras("rechazada"));
+    }
+
+    private long compras(String resultado) {
+        Timer timer = meterRegistry.find("tarjetas.compras").tag("resultado", resultado).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private EstadoTrans estado(Long id, String descripcion) {
+        EstadoTrans estado = new EstadoTrans();
+        estado.setIdEstadoTrans(id);
+        estado.setDescripcion(descripcion);
+        return estado;
+    }
+
+    private Tarjeta tarjeta(Long id, BigDecimal saldo) {
+        Tarjeta tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(id);
+        tarjeta.setIdProducto(102030L);
+        tarjeta.setIdEstado(1L);
+        tarjeta.setTitular("JESUS SUAREZ");
+        tarjeta.setFechaCreacion(new Date());
+        tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000));
+        tarjeta.setSaldo(saldo);
+        tarjeta.setMONEDA("USD");
+        return tarjeta;
+    }
+
+    private TransCompraDTO compra(Long cardId, BigDecimal price) {
+        TransCompraDTO compra = new TransCompraDTO();
+        compra.setCardId(cardId);
+        compra.setPrice(price);
+        compra.setMoneda("USD");
+        return compra;
+    }
+}
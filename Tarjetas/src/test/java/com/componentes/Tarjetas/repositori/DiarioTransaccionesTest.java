@@ -0,0 +1,272 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.ReservaIdempotenciaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.DiarioTransacciones;
+
+// El drenado automático queda desactivado (intervalo de una hora): cada prueba
+// llama drenar() para decidir cuándo se insertan las filas
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(DiarioTransacciones.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DiarioTransaccionesTest {
+
+    private static final Long TARJETA = 1020301234567801L;
+    private static final Path DIRECTORIO;
+
+    static {
+        try {
+            DIRECTORIO = Files.createTempDirectory("diario-transacciones");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        registry.add("transacciones.diario.habilitado", () -> "true");
+        registry.add("transacciones.diario.directorio", DIRECTORIO::toString);
+        registry.add("transacciones.diario.intervalo-ms", () -> "3600000");
+    }
+
+    @Autowired
+    private DiarioTransacciones diarioTransacciones;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private ReservaIdempotenciaRepository reservaIdempotenciaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private EstadoTrans exitosa;
+
+    @BeforeEach
+    void setUp() {
+        exitosa = estadoTransRepository.save(new EstadoTrans(1L, "EXITOSA"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        diarioTransacciones.drenar();
+        transaccionRepository.deleteAll();
+        reservaIdempotenciaRepository.deleteAll();
+    }
+
+    @Test
+    void registrar_DebeAsignarIdEInsertarAlDrenar() {
+        Transaccion registrada = diarioTransacciones.registrar(compra(new BigDecimal("12.34")));
+
+        assertNotNull(registrada.getIdTrans());
+        assertFalse(transaccionRepository.existsById(registrada.getIdTrans()));
+
+        assertEquals(1, diarioTransacciones.drenar());
+
+        Transaccion guardada = transaccionRepository.findById(registrada.getIdTrans()).get();
+        assertEquals(new BigDecimal("12.34"), guardada.getValorTrans());
+        assertEquals(TARJETA, guardada.getIdTarjeta());
+        assertEquals("Exitoso", guardada.getDESCRIPCION());
+        assertEquals(1L, guardada.getEstadoTrans().getIdEstadoTrans());
+    }
+
+    @Test
+    void registrar_DentroDeTransaccionConRollback_NoDebeInsertar() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long idTrans = transactionTemplate.execute(estado -> {
+            Long id = diarioTransacciones.registrar(compra(new BigDecimal("5.00"))).getIdTrans();
+            // Mientras la transacción no confirma, la fila no se inserta
+            assertEquals(0, diarioTransacciones.drenar());
+            estado.setRollbackOnly();
+            return id;
+        });
+
+        assertEquals(0, diarioTransacciones.drenar());
+        assertFalse(transaccionRepository.existsById(idTrans));
+    }
+
+    @Test
+    void esperarInsercion_DebeInsertarLaFilaPendiente() {
+        Long idTrans = diarioTransacciones.registrar(compra(new BigDecimal("7.00"))).getIdTrans();
+
+        diarioTransacciones.esperarInsercion(idTrans);
+
+        assertTrue(transaccionRepository.existsById(idTrans));
+    }
+
+    @Test
+    void registrar_LlaveYaReservada_DebeFallarSinEntrarAlDiario() {
+        Long idTrans = diarioTransacciones.registrar(compra(new BigDecimal("8.00"), "llave-1")).getIdTrans();
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> diarioTransacciones.registrar(compra(new BigDecimal("8.00"), "llave-1")));
+
+        assertEquals(1, diarioTransacciones.drenar());
+        assertEquals("llave-1", transaccionRepository.findById(idTrans).get().getLlaveIdempotencia());
+    }
+
+    @Test
+    void drenar_LlaveYaRegistrada_DebeInsertarLaFilaSinLlave() {
+        transaccionRepository.save(compra(new BigDecimal("9.00"), "llave-2"));
+        Long idTrans = diarioTransacciones.registrar(compra(new BigDecimal("9.00"), "llave-2")).getIdTrans();
+
+        // La fila ya debitó la tarjeta: se inserta aunque su llave choque
+        assertEquals(1, diarioTransacciones.drenar());
+        assertNull(transaccionRepository.findById(idTrans).get().getLlaveIdempotencia());
+    }
+
+    @Test
+    void drenar_LlaveRepetidaEnElLote_DebeInsertarLasDosFilas() {
+        Long primera = diarioTransacciones.registrar(compra(new BigDecimal("3.00"), "llave-3")).getIdTrans();
+        reservaIdempotenciaRepository.deleteAll();
+        Long segunda = diarioTransacciones.registrar(compra(new BigDecimal("3.00"), "llave-3")).getIdTrans();
+
+        assertEquals(2, diarioTransacciones.drenar());
+        assertEquals("llave-3", transaccionRepository.findById(primera).get().getLlaveIdempotencia());
+        assertNull(transaccionRepository.findById(segunda).get().getLlaveIdempotencia());
+    }
+
+    @Test
+    void iniciar_DebeInsertarLasFilasPendientesDelDiario() throws Exception {
+        Long idTrans = diarioTransacciones.registrar(compra(new BigDecimal("250.00"))).getIdTrans();
+
+        // Simula una caída: otra instancia arranca con una copia del diario sin drenar
+        reiniciar(copiarDiario());
+        assertTrue(transaccionRepository.existsById(idTrans));
+
+        // Volver a insertar las mismas filas no las duplica
+        diarioTransacciones.drenar();
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void iniciar_FilaConfirmadaDentroDeTransaccion_DebeInsertarse() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long idTrans = transactionTemplate.execute(
+                estado -> diarioTransacciones.registrar(compra(new BigDecimal("30.00"))).getIdTrans());
+
+        reiniciar(copiarDiario());
+
+        assertTrue(transaccionRepository.existsById(idTrans));
+    }
+
+    @Test
+    void iniciar_CaidaAntesDeConfirmar_NoDebeInsertarLaFila() throws Exception {
+        // La fila ya está en el diario, pero la caída llega antes de que su
+        // transacción confirme: la copia no tiene ni CONFIRMAR ni DESCARTAR
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Path[] copia = new Path[1];
+        Long idTrans = transactionTemplate.execute(estado -> {
+            Long id = diarioTransacciones.registrar(compra(new BigDecimal("40.00"))).getIdTrans();
+            try {
+                copia[0] = copiarDiario();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            estado.setRollbackOnly();
+            return id;
+        });
+
+        reiniciar(copia[0]);
+
+        assertFalse(transaccionRepository.existsById(idTrans));
+        assertEquals(0, transaccionRepository.count());
+    }
+
+    @Test
+    void iniciar_AnulacionSinConfirmarConCompraMarcada_DebeInsertarse() throws Exception {
+        // La anulación confirmó (la compra original ya apunta a su reversa) pero la
+        // caída llegó antes de escribir la marca CONFIRMAR
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Path[] copia = new Path[1];
+        Long idReversa = transactionTemplate.execute(estado -> {
+            Long id = diarioTransacciones.registrar(compra(new BigDecimal("15.00"))).getIdTrans();
+            try {
+                copia[0] = copiarDiario();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            estado.setRollbackOnly();
+            return id;
+        });
+        Transaccion original = compra(new BigDecimal("15.00"));
+        original.setIdanula(idReversa);
+        transaccionRepository.save(original);
+
+        reiniciar(copia[0]);
+
+        assertTrue(transaccionRepository.existsById(idReversa));
+    }
+
+    private Path copiarDiario() throws IOException {
+        Path copia = Files.createTempDirectory("diario-transacciones-copia");
+        try (Stream<Path> archivos = Files.list(DIRECTORIO)) {
+            for (Path archivo : archivos.toList()) {
+                Files.copy(archivo, copia.resolve(archivo.getFileName()));
+            }
+        }
+        return copia;
+    }
+
+    // Arranca otra instancia sobre la copia del diario, inserta lo que corresponda y se detiene
+    private void reiniciar(Path copia) throws IOException {
+        DiarioTransacciones reiniciado = new DiarioTransacciones();
+        beanFactory.autowireBean(reiniciado);
+        ReflectionTestUtils.setField(reiniciado, "directorio", copia.toString());
+        reiniciado.iniciar();
+        reiniciado.detener();
+    }
+
+    private Transaccion compra(BigDecimal valor) {
+        Transaccion transaccion = new Transaccion(null, TARJETA, exitosa, new Date(), valor);
+        transaccion.setMONEDA("USD");
+        transaccion.setDESCRIPCION("Exitoso");
+        return transaccion;
+    }
+
+    private Transaccion compra(BigDecimal valor, String llave) {
+        Transaccion transaccion = compra(valor);
+        transaccion.setLlaveIdempotencia(llave);
+        return transaccion;
+    }
+}
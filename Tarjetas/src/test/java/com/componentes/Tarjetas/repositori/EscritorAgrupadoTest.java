@@ -0,0 +1,234 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.DiarioTransacciones;
+import com.componentes.Tarjetas.Service.EscritorAgrupado;
+import com.componentes.Tarjetas.Service.LibroSaldos;
+import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.RespAnuTransDTO;
+import com.componentes.Tarjetas.dtos.TransAnulacionDTO;
+import com.componentes.Tarjetas.dtos.TransCompraDTO;
+import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
+import com.componentes.Tarjetas.mappers.TransaccionMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Espera larga (50 ms) para que las solicitudes concurrentes caigan en el mismo lote
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({TransaccionService.class, TransaccionMapper.class, LibroSaldos.class, DiarioTransacciones.class,
+        EscritorAgrupado.class, MetricasTransacciones.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EscritorAgrupadoTest {
+
+    private static final Long TARJETA = 1020301234567801L;
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        registry.add("escritura.agrupada.habilitada", () -> "true");
+        registry.add("escritura.agrupada.espera-maxima-ms", () -> "50");
+    }
+
+    @Autowired
+    private EscritorAgrupado escritorAgrupado;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        estadoTransRepository.save(new EstadoTrans(1L, "EXITOSA"));
+        estadoTransRepository.save(new EstadoTrans(3L, "FALLIDA"));
+        Tarjeta tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(TARJETA);
+        tarjeta.setIdProducto(102030L);
+        tarjeta.setIdEstado(1L);
+        tarjeta.setTitular("JESUS SUAREZ");
+        tarjeta.setFechaCreacion(new Date());
+        tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000));
+        tarjeta.setSaldo(new BigDecimal("500.00"));
+        tarjeta.setMONEDA("USD");
+        tarjetaRepository.save(tarjeta);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaccionRepository.deleteAll();
+        tarjetaRepository.deleteAll();
+    }
+
+    @Test
+    void ejecutar_ComprasConcurrentes_DebeConfirmarCadaUnaUnaVez() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < 80; i++) {
+                Callable<Boolean> tarea = () -> {
+                    try {
+                        escritorAgrupado.ejecutar(() -> transaccionService.procesarCompra(compra(new BigDecimal("10.00"))));
+                        return true;
+                    } catch (CompraRechazadaException e) {
+                        return false;
+                    }
+                };
+                resultados.add(hilos.submit(tarea));
+            }
+            int exitosas = 0;
+            for (Future<Boolean> resultado : resultados) {
+                exitosas += resultado.get() ? 1 : 0;
+            }
+
+            // 50 compras agotan el saldo; las rechazadas también quedan registradas
+            assertEquals(50, exitosas);
+            assertEquals(new BigDecimal("0.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+            assertEquals(80, transaccionRepository.count());
+        } finally {
+            hilos.shutdown();
+        }
+    }
+
+    @Test
+    void ejecutar_ErrorEnUnaSolicitud_NoDebeAfectarAlRestoDelLote() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            Future<TransaccionDTO> fallida = hilos.submit(() -> escritorAgrupado.ejecutar(() -> {
+                transaccionService.procesarCompra(compra(new BigDecimal("100.00")));
+                throw new RuntimeException("Error al procesar la compra");
+            }));
+            Future<TransaccionDTO> exitosa = hilos.submit(
+                    () -> escritorAgrupado.ejecutar(() -> transaccionService.procesarCompra(compra(new BigDecimal("30.00")))));
+
+            ExecutionException error = assertThrows(ExecutionException.class, fallida::get);
+            assertEquals("Error al procesar la compra", error.getCause().getMessage());
+            assertTrue(transaccionRepository.existsById(exitosa.get().getIdTrans()));
+
+            // Solo se conserva el débito de la compra que no falló
+            assertEquals(new BigDecimal("470.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+            assertEquals(1, transaccionRepository.count());
+        } finally {
+            hilos.shutdown();
+        }
+    }
+
+    @Test
+    void ejecutar_Anulacion_DebeDevolverElSaldo() {
+        TransaccionDTO compra = escritorAgrupado.ejecutar(
+                () -> transaccionService.procesarCompra(compra(new BigDecimal("120.00"))));
+
+        TransAnulacionDTO anulacion = new TransAnulacionDTO();
+        anulacion.setCardId(TARJETA.toString());
+        anulacion.setTransactionId(compra.getIdTrans().toString());
+        RespAnuTransDTO respuesta = escritorAgrupado.ejecutar(() -> transaccionService.anularTransaccion(anulacion));
+
+        assertEquals(new BigDecimal("500.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(respuesta.getIdTrans(), transaccionRepository.findById(compra.getIdTrans()).get().getIdanula());
+    }
+
+    @Test
+    void ejecutar_AnulacionRechazadaEnElLote_SoloDebeFallarEsaSolicitud() throws Exception {
+        TransaccionDTO original = escritorAgrupado.ejecutar(
+                () -> transaccionService.procesarCompra(compra(new BigDecimal("100.00"))));
+        long comprasAntes = contar("tarjetas.compras", "aprobada");
+        long anulacionesAntes = contar("tarjetas.anulaciones", "aprobada");
+        long rechazosAntes = contar("tarjetas.anulaciones", "rechazada");
+
+        // Dos anulaciones de la misma compra y dos compras nuevas, en el mismo lote
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> anulaciones = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                anulaciones.add(hilos.submit(
+                        () -> escritorAgrupado.ejecutar(() -> transaccionService.anularTransaccion(anulacion(original)))));
+            }
+            Future<TransaccionDTO> compraA = hilos.submit(
+                    () -> escritorAgrupado.ejecutar(() -> transaccionService.procesarCompra(compra(new BigDecimal("20.00")))));
+            Future<TransaccionDTO> compraB = hilos.submit(
+                    () -> escritorAgrupado.ejecutar(() -> transaccionService.procesarCompra(compra(new BigDecimal("30.00")))));
+
+            int rechazadas = 0;
+            for (Future<?> anulacion : anulaciones) {
+                try {
+                    anulacion.get();
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause().getMessage().startsWith("La transacción ya fue anulada"));
+                    rechazadas++;
+                }
+            }
+            assertEquals(1, rechazadas);
+            assertTrue(transaccionRepository.existsById(compraA.get().getIdTrans()));
+            assertTrue(transaccionRepository.existsById(compraB.get().getIdTrans()));
+        } finally {
+            hilos.shutdown();
+        }
+
+        // 500 - 100 + 100 - 20 - 30, y cada resultado se cuenta una sola vez
+        assertEquals(new BigDecimal("450.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(4, transaccionRepository.count());
+        assertEquals(comprasAntes + 2, contar("tarjetas.compras", "aprobada"));
+        assertEquals(anulacionesAntes + 1, contar("tarjetas.anulaciones", "aprobada"));
+        assertEquals(rechazosAntes + 1, contar("tarjetas.anulaciones", "rechazada"));
+    }
+
+    private long contar(String nombre, String resultado) {
+        Timer timer = meterRegistry.find(nombre).tag("resultado", resultado).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private TransAnulacionDTO anulacion(TransaccionDTO compra) {
+        TransAnulacionDTO anulacion = new TransAnulacionDTO();
+        anulacion.setCardId(TARJETA.toString());
+        anulacion.setTransactionId(compra.getIdTrans().toString());
+        return anulacion;
+    }
+
+    private TransCompraDTO compra(BigDecimal price) {
+        TransCompraDTO compra = new TransCompraDTO();
+        compra.setCardId(TARJETA);
+        compra.setPrice(price);
+        compra.setMoneda("USD");
+        return compra;
+    }
+}
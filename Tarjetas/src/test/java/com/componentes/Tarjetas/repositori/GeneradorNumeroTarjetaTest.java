@@ -0,0 +1,61 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.componentes.Tarjetas.Service.GeneradorNumeroTarjeta;
+import com.componentes.Tarjetas.util.NumeroTarjeta;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(GeneradorNumeroTarjeta.class)
+class GeneradorNumeroTarjetaTest {
+
+    @Autowired
+    private GeneradorNumeroTarjeta generador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generar_EnLote_DebeEntregarNumerosUnicosReservandoBloques() {
+        long[] numeros = generador.generar(102030L, 2500);
+
+        Set<Long> distintos = new HashSet<>();
+        for (long numero : numeros) {
+            assertEquals(102030L, numero / 10_000_000_000L);
+            assertTrue(NumeroTarjeta.esValido(numero));
+            distintos.add(numero);
+        }
+        assertEquals(2500, distintos.size());
+
+        // 2500 números = 3 bloques de 1000: el siguiente NEXTVAL es el cuarto bloque
+        Long siguiente = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR seq_numero_tarjeta", Long.class);
+        assertEquals(0L, siguiente % GeneradorNumeroTarjeta.TAMANO_BLOQUE);
+        assertTrue(siguiente >= 3L * GeneradorNumeroTarjeta.TAMANO_BLOQUE);
+    }
+
+    @Test
+    void generar_ProductosDistintos_NoDebenCompartirNumero() {
+        long uno = generador.generar(102030L);
+        long otro = generador.generar(405060L);
+
+        assertEquals(102030L, uno / 10_000_000_000L);
+        assertEquals(405060L, otro / 10_000_000_000L);
+    }
+
+    @Test
+    void generar_ConProductoInvalido_DebeFallar() {
+        assertThrows(RuntimeException.class, () -> generador.generar(1_000_000L));
+        assertThrows(RuntimeException.class, () -> generador.generar(102030L, 0));
+    }
+}
@@ -0,0 +1,209 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.ReservaIdempotencia;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.ReservaIdempotenciaRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.DiarioTransacciones;
+import com.componentes.Tarjetas.Service.IndiceIdempotencia;
+import com.componentes.Tarjetas.Service.LibroSaldos;
+import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.TransCompraDTO;
+import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
+import com.componentes.Tarjetas.exceptions.LlaveIdempotenciaReutilizadaException;
+import com.componentes.Tarjetas.mappers.TransaccionMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({IndiceIdempotencia.class, TransaccionService.class, TransaccionMapper.class, LibroSaldos.class,
+        DiarioTransacciones.class, MetricasTransacciones.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IndiceIdempotenciaTest {
+
+    private static final Long TARJETA = 1020301234567801L;
+
+    @Autowired
+    private IndiceIdempotencia indiceIdempotencia;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private ReservaIdempotenciaRepository reservaIdempotenciaRepository;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @BeforeEach
+    void setUp() {
+        estadoTransRepository.save(new EstadoTrans(1L, "EXITOSA"));
+        estadoTransRepository.save(new EstadoTrans(3L, "FALLIDA"));
+        Tarjeta tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(TARJETA);
+        tarjeta.setIdProducto(102030L);
+        tarjeta.setIdEstado(1L);
+        tarjeta.setTitular("JESUS SUAREZ");
+        tarjeta.setFechaCreacion(new Date());
+        tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000));
+        tarjeta.setSaldo(new BigDecimal("100.00"));
+        tarjeta.setMONEDA("USD");
+        tarjetaRepository.save(tarjeta);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaccionRepository.deleteAll();
+        tarjetaRepository.deleteAll();
+        reservaIdempotenciaRepository.deleteAll();
+    }
+
+    @Test
+    void ejecutar_ConLaMismaLlave_DebeRetornarLaCompraOriginal() {
+        TransCompraDTO compra = compra("reintento-1", new BigDecimal("40.00"));
+
+        TransaccionDTO original = indiceIdempotencia.ejecutar(compra, () -> transaccionService.procesarCompra(compra));
+        TransaccionDTO repetida = indiceIdempotencia.ejecutar(compra, () -> transaccionService.procesarCompra(compra));
+
+        assertEquals(original.getIdTrans(), repetida.getIdTrans());
+        assertEquals(new BigDecimal("60.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void ejecutar_CompraRechazada_DebeRepetirElMismoRechazo() {
+        TransCompraDTO compra = compra("reintento-2", new BigDecimal("500.00"));
+
+        CompraRechazadaException original = assertThrows(CompraRechazadaException.class,
+                () -> indiceIdempotencia.ejecutar(compra, () -> transaccionService.procesarCompra(compra)));
+        // Mientras tanto la tarjeta recibe saldo: el reintento no vuelve a validar
+        tarjetaRepository.findById(TARJETA).ifPresent(tarjeta -> {
+            tarjeta.setSaldo(new BigDecimal("1000.00"));
+            tarjetaRepository.save(tarjeta);
+        });
+        CompraRechazadaException repetida = assertThrows(CompraRechazadaException.class,
+                () -> indiceIdempotencia.ejecutar(compra, () -> transaccionService.procesarCompra(compra)));
+
+        assertEquals(original.getMessage(), repetida.getMessage());
+        assertEquals(new BigDecimal("1000.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void ejecutar_LlaveSoloEnBaseDeDatos_DebeRetornarLaTransaccionRegistrada() {
+        TransCompraDTO compra = compra("reintento-3", new BigDecimal("25.00"));
+        TransaccionDTO original = indiceIdempotencia.ejecutar(compra, () -> transaccionService.procesarCompra(compra));
+
+        // Otra instancia (o la misma después de reiniciar) no tiene la llave en memoria
+        IndiceIdempotencia reiniciado = new IndiceIdempotencia();
+        beanFactory.autowireBean(reiniciado);
+        TransaccionDTO repetida = reiniciado.ejecutar(compra, () -> transaccionService.procesarCompra(compra));
+
+        assertEquals(original.getIdTrans(), repetida.getIdTrans());
+        assertEquals(new BigDecimal("75.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void ejecutar_MismaLlaveConOtraCompra_DebeRechazarse() {
+        TransCompraDTO compra = compra("reintento-5", new BigDecimal("30.00"));
+        indiceIdempotencia.ejecutar(compra, () -> transaccionService.procesarCompra(compra));
+
+        TransCompraDTO otra = compra("reintento-5", new BigDecimal("45.00"));
+        assertThrows(LlaveIdempotenciaReutilizadaException.class,
+                () -> indiceIdempotencia.ejecutar(otra, () -> transaccionService.procesarCompra(otra)));
+
+        // La misma compra con otra escala del valor sí es un reintento
+        TransCompraDTO reintento = compra("reintento-5", new BigDecimal("30.0"));
+        indiceIdempotencia.ejecutar(reintento, () -> transaccionService.procesarCompra(reintento));
+
+        assertEquals(new BigDecimal("70.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void ejecutar_MismaLlaveConOtraCompraSoloEnBaseDeDatos_DebeRechazarse() {
+        TransCompraDTO compra = compra("reintento-6", new BigDecimal("20.00"));
+        indiceIdempotencia.ejecutar(compra, () -> transaccionService.procesarCompra(compra));
+
+        IndiceIdempotencia reiniciado = new IndiceIdempotencia();
+        beanFactory.autowireBean(reiniciado);
+        TransCompraDTO otra = compra("reintento-6", new BigDecimal("20.00"));
+        otra.setCardId(1020301234567802L);
+        assertThrows(LlaveIdempotenciaReutilizadaException.class,
+                () -> reiniciado.ejecutar(otra, () -> transaccionService.procesarCompra(otra)));
+
+        assertEquals(new BigDecimal("80.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    @Test
+    void ejecutar_LlaveReservadaConLaCompraEnOtroDiario_NoDebeDebitar() {
+        // Otra instancia autorizó la compra y su fila sigue en su diario
+        ReservaIdempotencia reserva = new ReservaIdempotencia();
+        reserva.setLlave("reintento-7");
+        reserva.setIdTransaccion(999L);
+        reserva.setFechaReserva(new Date());
+        reservaIdempotenciaRepository.save(reserva);
+
+        TransCompraDTO compra = compra("reintento-7", new BigDecimal("15.00"));
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> indiceIdempotencia.ejecutar(compra, () -> transaccionService.procesarCompra(compra)));
+
+        assertEquals("La compra con la llave de idempotencia reintento-7 todavía se está registrando, intente de nuevo",
+                error.getMessage());
+        assertEquals(new BigDecimal("100.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(0, transaccionRepository.count());
+    }
+
+    @Test
+    void procesarCompra_LlaveRepetida_DebeHacerRollbackDelDebito() {
+        transaccionService.procesarCompra(compra("reintento-4", new BigDecimal("10.00")));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> transaccionService.procesarCompra(compra("reintento-4", new BigDecimal("10.00"))));
+
+        assertEquals(new BigDecimal("90.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(1, transaccionRepository.count());
+    }
+
+    private TransCompraDTO compra(String llave, BigDecimal price) {
+        TransCompraDTO compra = new TransCompraDTO();
+        compra.setCardId(TARJETA);
+        compra.setPrice(price);
+        compra.setMoneda("USD");
+        compra.setIdempotencyKey(llave);
+        return compra;
+    }
+}
@@ -0,0 +1,255 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.DiarioTransacciones;
+import com.componentes.Tarjetas.Service.LibroSaldos;
+import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.RespAnuTransDTO;
+import com.componentes.Tarjetas.dtos.TransAnulacionDTO;
+import com.componentes.Tarjetas.dtos.TransCompraDTO;
+import com.componentes.Tarjetas.dtos.TransaccionDTO;
+import com.componentes.Tarjetas.exceptions.CompraRechazadaException;
+import com.componentes.Tarjetas.mappers.TransaccionMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// El drenado automático queda desactivado (intervalo de una hora): cada prueba
+// llama drenar() para decidir cuándo llegan los movimientos a la base de datos
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({LibroSaldos.class, TransaccionService.class, TransaccionMapper.class, DiarioTransacciones.class,
+        MetricasTransacciones.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LibroSaldosTest {
+
+    // Cada prueba usa su propia tarjeta: el libro guarda en memoria las que ya leyó
+    private static final Long TARJETA_COMPRA = 1020301234567801L;
+    private static final Long TARJETA_RECARGA = 1020301234567802L;
+    private static final Long TARJETA_CONCURRENCIA = 1020301234567803L;
+    private static final Long TARJETA_RECUPERACION = 1020301234567804L;
+    private static final Long TARJETA_ANULACION = 1020301234567805L;
+    private static final Path DIRECTORIO;
+
+    static {
+        try {
+            DIRECTORIO = Files.createTempDirectory("diario-saldos");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        registry.add("saldos.memoria.tarjetas", () -> TARJETA_COMPRA + "," + TARJETA_RECARGA + ","
+                + TARJETA_CONCURRENCIA + "," + TARJETA_RECUPERACION + "," + TARJETA_ANULACION);
+        registry.add("saldos.memoria.directorio", DIRECTORIO::toString);
+        registry.add("saldos.memoria.intervalo-ms", () -> "3600000");
+    }
+
+    @Autowired
+    private LibroSaldos libroSaldos;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @BeforeEach
+    void setUp() {
+        estadoTransRepository.save(estado(1L, "EXITOSA"));
+        estadoTransRepository.save(estado(3L, "FALLIDA"));
+        for (Long id : List.of(TARJETA_COMPRA, TARJETA_RECARGA, TARJETA_CONCURRENCIA, TARJETA_RECUPERACION,
+                TARJETA_ANULACION)) {
+            Tarjeta tarjeta = new Tarjeta();
+            tarjeta.setIdTarjeta(id);
+            tarjeta.setIdProducto(102030L);
+            tarjeta.setIdEstado(1L);
+            tarjeta.setTitular("JESUS SUAREZ");
+            tarjeta.setFechaCreacion(new Date());
+            tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000));
+            tarjeta.setSaldo(new BigDecimal("1000.00"));
+            tarjeta.setMONEDA("USD");
+            tarjetaRepository.save(tarjeta);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Vacía el diario para que la siguiente prueba empiece sin pendientes
+        libroSaldos.drenar();
+        transaccionRepository.deleteAll();
+        tarjetaRepository.deleteAll();
+    }
+
+    @Test
+    void procesarCompra_DebeAutorizarEnMemoriaYConfirmarAlDrenar() {
+        TransaccionDTO aprobada = libroSaldos.procesarCompra(compra(TARJETA_COMPRA, new BigDecimal("400.00")));
+        CompraRechazadaException rechazo = assertThrows(CompraRechazadaException.class,
+                () -> libroSaldos.procesarCompra(compra(TARJETA_COMPRA, new BigDecimal("700.00"))));
+
+        // Antes del drenado la base de datos no se ha tocado
+        assertEquals("Saldo insuficiente para realizar la compra", rechazo.getMessage());
+        assertEquals(new BigDecimal("600.00"), libroSaldos.saldo(TARJETA_COMPRA));
+        assertEquals(new BigDecimal("1000.00"), tarjetaRepository.findById(TARJETA_COMPRA).get().getSaldo());
+        assertEquals(0, transaccionRepository.count());
+
+        assertEquals(2, libroSaldos.drenar());
+
+        assertEquals(new BigDecimal("600.00"), tarjetaRepository.findById(TARJETA_COMPRA).get().getSaldo());
+        assertEquals(2, transaccionRepository.count());
+        Transaccion guardada = transaccionRepository.findById(aprobada.getIdTrans()).get();
+        assertEquals(1L, guardada.getEstadoTrans().getIdEstadoTrans());
+        assertEquals(new BigDecimal("400.00"), guardada.getValorTrans());
+    }
+
+    @Test
+    void acreditar_DebeSumarAlSaldoEnMemoria() {
+        libroSaldos.procesarCompra(compra(TARJETA_RECARGA, new BigDecimal("1000.00")));
+
+        assertEquals(new BigDecimal("25.50"), libroSaldos.acreditar(TARJETA_RECARGA, new BigDecimal("25.50")));
+        libroSaldos.procesarCompra(compra(TARJETA_RECARGA, new BigDecimal("25.50")));
+        libroSaldos.drenar();
+
+        assertEquals(new BigDecimal("0.00"), tarjetaRepository.findById(TARJETA_RECARGA).get().getSaldo());
+        assertEquals(2, transaccionRepository.count());
+    }
+
+    @Test
+    void procesarCompra_ComprasConcurrentes_NoDebePerderDebitos() throws Exception {
+        // 8 hilos intentan 40 compras de 10 USD cada uno sobre 1000 USD de saldo
+        int hilos = 8;
+        int comprasPorHilo = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        List<Callable<Integer>> tareas = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(() -> {
+                int aprobadas = 0;
+                for (int j = 0; j < comprasPorHilo; j++) {
+                    try {
+                        libroSaldos.procesarCompra(compra(TARJETA_CONCURRENCIA, new BigDecimal("10.00")));
+                        aprobadas++;
+                    } catch (CompraRechazadaException e) {
+                        // saldo agotado
+                    }
+                }
+                return aprobadas;
+            });
+        }
+        int totalAprobadas = 0;
+        for (Future<Integer> resultado : executor.invokeAll(tareas)) {
+            totalAprobadas += resultado.get();
+        }
+        executor.shutdown();
+        while (libroSaldos.drenar() > 0) {
+            // lotes de hasta 500 movimientos
+        }
+
+        assertEquals(100, totalAprobadas);
+        assertEquals(new BigDecimal("0.00"), tarjetaRepository.findById(TARJETA_CONCURRENCIA).get().getSaldo());
+        assertEquals(hilos * comprasPorHilo, transaccionRepository.count());
+    }
+
+    @Test
+    void iniciar_DebeAplicarLosMovimientosNoConfirmadosDelDiario() throws Exception {
+        TransaccionDTO compra = libroSaldos.procesarCompra(compra(TARJETA_RECUPERACION, new BigDecimal("250.00")));
+
+        // Simula una caída: otra instancia arranca con una copia del diario sin drenar
+        Path copia = Files.createTempDirectory("diario-saldos-copia");
+        try (Stream<Path> archivos = Files.list(DIRECTORIO)) {
+            for (Path archivo : archivos.toList()) {
+                Files.copy(archivo, copia.resolve(archivo.getFileName()));
+            }
+        }
+        LibroSaldos reiniciado = new LibroSaldos();
+        beanFactory.autowireBean(reiniciado);
+        ReflectionTestUtils.setField(reiniciado, "directorio", copia.toString());
+        reiniciado.iniciar();
+        try {
+            assertEquals(new BigDecimal("750.00"), tarjetaRepository.findById(TARJETA_RECUPERACION).get().getSaldo());
+            assertTrue(transaccionRepository.existsById(compra.getIdTrans()));
+            assertEquals(new BigDecimal("750.00"), reiniciado.saldo(TARJETA_RECUPERACION));
+        } finally {
+            reiniciado.detener();
+        }
+
+        // Volver a confirmar los mismos movimientos no duplica las transacciones
+        libroSaldos.drenar();
+        assertEquals(1, transaccionRepository.count());
+        assertEquals(new BigDecimal("750.00"), tarjetaRepository.findById(TARJETA_RECUPERACION).get().getSaldo());
+    }
+
+    @Test
+    void anularTransaccion_CompraSinDrenar_DebeEsperarSuInsercion() {
+        TransaccionDTO compra = libroSaldos.procesarCompra(compra(TARJETA_ANULACION, new BigDecimal("300.00")));
+        assertEquals(0, transaccionRepository.count());
+
+        // La anulación drena el diario hasta que la compra queda en TRANSACIONES
+        TransAnulacionDTO anulacion = new TransAnulacionDTO();
+        anulacion.setCardId(TARJETA_ANULACION.toString());
+        anulacion.setTransactionId(compra.getIdTrans().toString());
+        RespAnuTransDTO respuesta = transaccionService.anularTransaccion(anulacion);
+
+        assertEquals(respuesta.getIdTrans(), transaccionRepository.findById(compra.getIdTrans()).get().getIdanula());
+        assertEquals(new BigDecimal("1000.00"), libroSaldos.saldo(TARJETA_ANULACION));
+    }
+
+    private EstadoTrans estado(Long id, String descripcion) {
+        EstadoTrans estado = new EstadoTrans();
+        estado.setIdEstadoTrans(id);
+        estado.setDescripcion(descripcion);
+        return estado;
+    }
+
+    private TransCompraDTO compra(Long cardId, BigDecimal price) {
+        TransCompraDTO compra = new TransCompraDTO();
+        compra.setCardId(cardId);
+        compra.setPrice(price);
+        compra.setMoneda("USD");
+        return compra;
+    }
+}
@@ -0,0 +1,223 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.MarcaLiquidacionRepository;
+import com.componentes.Tarjetas.Repository.PendienteLiquidacionRepository;
+import com.componentes.Tarjetas.Repository.ResumenDiarioTarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.LiquidacionDiaria;
+import com.componentes.Tarjetas.dtos.ResumenDiarioDTO;
+import com.componentes.Tarjetas.mappers.ResumenDiarioMapper;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "liquidacion.habilitada=false" })
+@Import({LiquidacionDiaria.class, ResumenDiarioMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LiquidacionDiariaTest {
+
+    private static final Long PRODUCTO = 102030L;
+    private static final Long TARJETA_A = 1020301234567801L;
+    private static final Long TARJETA_B = 1020301234567802L;
+    private static final ZoneId ZONA = ZoneId.systemDefault();
+    private static final LocalDate AYER = LocalDate.now(ZONA).minusDays(1);
+    private static final LocalDate HOY = LocalDate.now(ZONA);
+
+    @Autowired
+    private LiquidacionDiaria liquidacionDiaria;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private ResumenDiarioTarjetaRepository resumenDiarioTarjetaRepository;
+
+    @Autowired
+    private MarcaLiquidacionRepository marcaLiquidacionRepository;
+
+    @Autowired
+    private PendienteLiquidacionRepository pendienteLiquidacionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EstadoTrans exitosa;
+    private EstadoTrans fallida;
+
+    @BeforeEach
+    void setUp() {
+        exitosa = estadoTransRepository.save(new EstadoTrans(1L, "EXITOSA"));
+        fallida = estadoTransRepository.save(new EstadoTrans(3L, "FALLIDA"));
+        ReflectionTestUtils.setField(liquidacionDiaria, "retardoSegundos", 0L);
+        ReflectionTestUtils.setField(liquidacionDiaria, "lote", 2);
+        ReflectionTestUtils.setField(liquidacionDiaria, "pendientesHoras", 24L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaccionRepository.deleteAll();
+        resumenDiarioTarjetaRepository.deleteAll();
+        marcaLiquidacionRepository.deleteAll();
+        pendienteLiquidacionRepository.deleteAll();
+    }
+
+    @Test
+    void liquidar_DebeAcumularAprobadasRechazadasYAnuladasPorTarjetaYDia() {
+        guardar(TARJETA_A, exitosa, "100.00", hora(AYER, 9));
+        Transaccion anulada = guardar(TARJETA_A, exitosa, "50.00", hora(AYER, 23));
+        guardar(TARJETA_A, fallida, "20.00", hora(AYER, 10));
+        guardar(TARJETA_B, exitosa, "30.00", hora(AYER, 11));
+        // La reversa se registra al día siguiente
+        anular(anulada, hora(HOY, 0));
+
+        assertEquals(5, liquidacionDiaria.liquidar());
+
+        List<ResumenDiarioDTO> resumen = liquidacionDiaria.resumenTarjeta(TARJETA_A, AYER, HOY);
+        assertEquals(2, resumen.size());
+        ResumenDiarioDTO ayer = resumen.get(0);
+        assertEquals(AYER, ayer.getFecha());
+        assertEquals(PRODUCTO, ayer.getIdProducto());
+        assertEquals(new BigDecimal("150.00"), ayer.getMontoAprobado());
+        assertEquals(2L, ayer.getCantidadAprobadas());
+        assertEquals(new BigDecimal("20.00"), ayer.getMontoRechazado());
+        assertEquals(1L, ayer.getCantidadRechazadas());
+        assertEquals(0L, ayer.getCantidadAnuladas());
+        ResumenDiarioDTO hoy = resumen.get(1);
+        assertEquals(new BigDecimal("50.00"), hoy.getMontoAnulado());
+        assertEquals(1L, hoy.getCantidadAnuladas());
+        assertEquals(new BigDecimal("-50.00"), hoy.getMontoNeto());
+    }
+
+    @Test
+    void liquidar_DosVeces_SoloDebeAcumularLasFilasNuevas() {
+        guardar(TARJETA_A, exitosa, "10.00", hora(AYER, 9));
+        assertEquals(1, liquidacionDiaria.liquidar());
+        assertEquals(0, liquidacionDiaria.liquidar());
+
+        guardar(TARJETA_A, exitosa, "5.00", hora(AYER, 12));
+        assertEquals(1, liquidacionDiaria.liquidar());
+
+        ResumenDiarioDTO ayer = liquidacionDiaria.resumenTarjeta(TARJETA_A, AYER, AYER).get(0);
+        assertEquals(new BigDecimal("15.00"), ayer.getMontoAprobado());
+        assertEquals(2L, ayer.getCantidadAprobadas());
+    }
+
+    @Test
+    void liquidar_FilaReciente_DebeDetenerseSinPasarPorEncima() {
+        ReflectionTestUtils.setField(liquidacionDiaria, "retardoSegundos", 3600L);
+        guardar(TARJETA_A, exitosa, "10.00", new Date(System.currentTimeMillis() - 7200000L));
+        guardar(TARJETA_A, exitosa, "20.00", new Date());
+        // ID mayor pero más antigua: espera a que la reciente cumpla el retardo
+        guardar(TARJETA_B, exitosa, "30.00", new Date(System.currentTimeMillis() - 7200000L));
+
+        assertEquals(1, liquidacionDiaria.liquidar());
+
+        ReflectionTestUtils.setField(liquidacionDiaria, "retardoSegundos", 0L);
+        assertEquals(2, liquidacionDiaria.liquidar());
+    }
+
+    @Test
+    void liquidar_FilaInsertadaDespuesConIdMenorQueLaMarca_DebeAcumularse() {
+        guardar(TARJETA_A, exitosa, "10.00", hora(AYER, 9));
+        Transaccion tardia = guardar(TARJETA_A, exitosa, "20.00", hora(AYER, 10));
+        guardar(TARJETA_A, exitosa, "30.00", hora(AYER, 11));
+        // El ID del medio todavía no existe cuando la marca pasa por encima
+        transaccionRepository.delete(tardia);
+
+        assertEquals(2, liquidacionDiaria.liquidar());
+        assertEquals(1, pendienteLiquidacionRepository.count());
+
+        insertarConId(tardia);
+        assertEquals(1, liquidacionDiaria.liquidar());
+        assertEquals(0, liquidacionDiaria.liquidar());
+
+        ResumenDiarioDTO ayer = liquidacionDiaria.resumenTarjeta(TARJETA_A, AYER, AYER).get(0);
+        assertEquals(new BigDecimal("60.00"), ayer.getMontoAprobado());
+        assertEquals(3L, ayer.getCantidadAprobadas());
+        assertEquals(0, pendienteLiquidacionRepository.count());
+    }
+
+    @Test
+    void liquidar_PendienteVencido_DebeDescartarse() {
+        guardar(TARJETA_A, exitosa, "10.00", hora(AYER, 9));
+        Transaccion perdida = guardar(TARJETA_A, exitosa, "20.00", hora(AYER, 10));
+        guardar(TARJETA_A, exitosa, "30.00", hora(AYER, 11));
+        transaccionRepository.delete(perdida);
+        assertEquals(2, liquidacionDiaria.liquidar());
+
+        ReflectionTestUtils.setField(liquidacionDiaria, "pendientesHoras", -1L);
+        assertEquals(0, liquidacionDiaria.liquidar());
+
+        assertEquals(0, pendienteLiquidacionRepository.count());
+    }
+
+    @Test
+    void resumenProducto_DebeTotalizarLasTarjetasDelProducto() {
+        guardar(TARJETA_A, exitosa, "10.00", hora(AYER, 9));
+        guardar(TARJETA_B, exitosa, "15.00", hora(AYER, 10));
+        guardar(TARJETA_B, fallida, "7.00", hora(AYER, 11));
+        liquidacionDiaria.liquidar();
+
+        List<ResumenDiarioDTO> resumen = liquidacionDiaria.resumenProducto(PRODUCTO, AYER, HOY);
+
+        assertEquals(1, resumen.size());
+        assertEquals(new BigDecimal("25.00"), resumen.get(0).getMontoAprobado());
+        assertEquals(2L, resumen.get(0).getCantidadAprobadas());
+        assertEquals(new BigDecimal("7.00"), resumen.get(0).getMontoRechazado());
+    }
+
+    @Test
+    void resumenTarjeta_RangoInvertido_ThrowsException() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> liquidacionDiaria.resumenTarjeta(TARJETA_A, HOY, AYER));
+        assertEquals("La fecha inicial no puede ser posterior a la fecha final", exception.getMessage());
+    }
+
+    private Transaccion guardar(Long tarjeta, EstadoTrans estado, String valor, Date fecha) {
+        Transaccion transaccion = new Transaccion(null, tarjeta, estado, fecha, new BigDecimal(valor));
+        transaccion.setMONEDA("USD");
+        return transaccionRepository.save(transaccion);
+    }
+
+    // La entidad genera el ID: la fila tardía se inserta con el ID que ya tenía
+    private void insertarConId(Transaccion transaccion) {
+        jdbcTemplate.update("INSERT INTO TRANSACIONES (ID_TRANSACION, ID_TARJETA, ID_ESTADO_TRANS, FECHA_TRANS, "
+                + "VALOR_TRANS, MONEDA) VALUES (?, ?, ?, ?, ?, ?)", transaccion.getIdTrans(),
+                transaccion.getIdTarjeta(), transaccion.getEstadoTrans().getIdEstadoTrans(),
+                transaccion.getFechaTrans(), transaccion.getValorTrans(), transaccion.getMONEDA());
+    }
+
+    private void anular(Transaccion original, Date fecha) {
+        Transaccion reversa = guardar(original.getIdTarjeta(), fallida, original.getValorTrans().toPlainString(), fecha);
+        transaccionRepository.marcarAnulada(original.getIdTrans(), reversa.getIdTrans());
+    }
+
+    private static Date hora(LocalDate dia, int hora) {
+        return Date.from(dia.atTime(hora, 30).atZone(ZONA).toInstant());
+    }
+}
@@ -0,0 +1,159 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+import com.componentes.Tarjetas.Service.DiarioTransacciones;
+import com.componentes.Tarjetas.Service.GeneradorNumeroTarjeta;
+import com.componentes.Tarjetas.Service.LibroSaldos;
+import com.componentes.Tarjetas.Service.TarjetaService;
+import com.componentes.Tarjetas.Service.TransaccionService;
+import com.componentes.Tarjetas.dtos.TarjetaDTO;
+import com.componentes.Tarjetas.dtos.TransCompraDTO;
+import com.componentes.Tarjetas.mappers.TarjetaMapper;
+import com.componentes.Tarjetas.mappers.TransaccionMapper;
+import com.componentes.Tarjetas.monitoreo.MetricasTransacciones;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Compras, recargas y cambios de estado sobre la misma tarjeta a la vez: ninguna
+// escritura debe volver a guardar un saldo leído antes de otra
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({TarjetaService.class, TarjetaMapper.class, GeneradorNumeroTarjeta.class, TransaccionService.class,
+        TransaccionMapper.class, LibroSaldos.class, DiarioTransacciones.class, MetricasTransacciones.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecargaConcurrenteTest {
+
+    private static final Long TARJETA = 1020301234567801L;
+
+    @Autowired
+    private TarjetaService tarjetaService;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @BeforeEach
+    void setUp() {
+        estadoTransRepository.save(new EstadoTrans(1L, "EXITOSA"));
+        estadoTransRepository.save(new EstadoTrans(3L, "FALLIDA"));
+        Tarjeta tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(TARJETA);
+        tarjeta.setIdProducto(102030L);
+        tarjeta.setIdEstado(1L);
+        tarjeta.setTitular("sin cliente asignado");
+        tarjeta.setFechaCreacion(new Date());
+        tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000));
+        tarjeta.setSaldo(new BigDecimal("1000.00"));
+        tarjeta.setMONEDA("USD");
+        tarjetaRepository.save(tarjeta);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaccionRepository.deleteAll();
+        tarjetaRepository.deleteAll();
+    }
+
+    @Test
+    void comprasYRecargasConcurrentes_NoDebenPerderMovimientos() throws Exception {
+        // 40 compras de 5 USD, 40 recargas de 3 USD y 40 cambios de estado (sigue activa)
+        int operaciones = 40;
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (int i = 0; i < operaciones; i++) {
+            tareas.add(() -> {
+                transaccionService.procesarCompra(compra(new BigDecimal("5.00")));
+                return null;
+            });
+            tareas.add(() -> {
+                tarjetaService.recargarTarjeta(TARJETA, new BigDecimal("3.00"));
+                return null;
+            });
+            tareas.add(() -> {
+                TarjetaDTO cambio = new TarjetaDTO();
+                cambio.setIdEstado(1L);
+                tarjetaService.updateTarjeta(TARJETA, cambio);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> resultado : hilos.invokeAll(tareas)) {
+                resultado.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        // 1000 - 40 * 5 + 40 * 3
+        assertEquals(new BigDecimal("920.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+        assertEquals(operaciones, transaccionRepository.count());
+    }
+
+    @Test
+    void asignarTitular_Concurrente_SoloUnoDebeAsignar() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        List<Callable<Boolean>> tareas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String titular = "TITULAR " + i;
+            tareas.add(() -> {
+                try {
+                    tarjetaService.asignarTitular(TARJETA, titular);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            });
+        }
+        int asignados = 0;
+        try {
+            for (Future<Boolean> resultado : hilos.invokeAll(tareas)) {
+                asignados += resultado.get() ? 1 : 0;
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        assertEquals(1, asignados);
+        assertEquals(new BigDecimal("1000.00"), tarjetaRepository.findById(TARJETA).get().getSaldo());
+    }
+
+    private TransCompraDTO compra(BigDecimal price) {
+        TransCompraDTO compra = new TransCompraDTO();
+        compra.setCardId(TARJETA);
+        compra.setPrice(price);
+        compra.setMoneda("USD");
+        return compra;
+    }
+}
@@ -0,0 +1,52 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+
+// Ambiente donde SEQ_TRANSACION todavía tiene INCREMENT BY 1
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:sinmigrar;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE SEQUENCE IF NOT EXISTS seq_transacion START WITH 61 INCREMENT BY 1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SecuenciaTransaccionSinMigrarTest {
+
+    @Autowired
+    private TransaccionRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void save_ConSecuenciaSinMigrar_DebeUsarElIncrementoReal() {
+        Long primero = repository.save(transaccion()).getIdTrans();
+        Long segundo = repository.save(transaccion()).getIdTrans();
+
+        // Se ajusta a bloques de 1: cada ID es un NEXTVAL y no hay colisiones
+        assertEquals(61L, primero);
+        assertEquals(62L, segundo);
+        assertEquals(63L, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR seq_transacion", Long.class));
+    }
+
+    private Transaccion transaccion() {
+        Transaccion transaccion = new Transaccion();
+        transaccion.setIdTarjeta(1020301234567801L);
+        transaccion.setFechaTrans(new Date());
+        transaccion.setValorTrans(new BigDecimal("100.00"));
+        transaccion.setMONEDA("USD");
+        return transaccion;
+    }
+}
@@ -0,0 +1,49 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class SecuenciaTransaccionTest {
+
+    @Autowired
+    private TransaccionRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void save_DebeReservarIdsEnBloquesDeCincuenta() {
+        Long primero = repository.save(transaccion()).getIdTrans();
+        Long segundo = repository.save(transaccion()).getIdTrans();
+        Long tercero = repository.save(transaccion()).getIdTrans();
+
+        // Los tres ID salen del mismo bloque, sin volver a pedir NEXTVAL
+        assertEquals(primero + 1, segundo);
+        assertEquals(primero + 2, tercero);
+        // pooled-lo: el siguiente NEXTVAL es el inicio del bloque siguiente
+        Long siguiente = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR seq_transacion", Long.class);
+        assertEquals(1L, siguiente % 50);
+        assertTrue(primero >= siguiente - 50 && tercero < siguiente);
+    }
+
+    private Transaccion transaccion() {
+        Transaccion transaccion = new Transaccion();
+        transaccion.setIdTarjeta(1020301234567801L);
+        transaccion.setFechaTrans(new Date());
+        transaccion.setValorTrans(new BigDecimal("100.00"));
+        transaccion.setMONEDA("USD");
+        return transaccion;
+    }
+}
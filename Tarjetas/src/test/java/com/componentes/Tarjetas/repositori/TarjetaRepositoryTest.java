@@ -0,0 +1,141 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TarjetaRepositoryTest {
+
+    private static final Long ID_TARJETA = 1020301234567801L;
+
+    @Autowired
+    private TarjetaRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Tarjeta tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(ID_TARJETA);
+        tarjeta.setIdProducto(102030L);
+        tarjeta.setIdEstado(1L);
+        tarjeta.setTitular("JESUS SUAREZ");
+        tarjeta.setFechaCreacion(new Date());
+        tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000));
+        tarjeta.setSaldo(new BigDecimal("1000.00"));
+        tarjeta.setMONEDA("USD");
+        repository.save(tarjeta);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void debitarSaldo_ConSaldoSuficiente_DebeDescontar() {
+        int filas = repository.debitarSaldo(ID_TARJETA, new BigDecimal("250.00"));
+
+        assertEquals(1, filas);
+        assertEquals(new BigDecimal("750.00"), repository.findById(ID_TARJETA).get().getSaldo());
+    }
+
+    @Test
+    void debitarSaldo_ConSaldoInsuficiente_NoDebeActualizar() {
+        int filas = repository.debitarSaldo(ID_TARJETA, new BigDecimal("1000.01"));
+
+        assertEquals(0, filas);
+        assertEquals(new BigDecimal("1000.00"), repository.findById(ID_TARJETA).get().getSaldo());
+    }
+
+    @Test
+    void debitarSaldo_ConTarjetaInactiva_NoDebeActualizar() {
+        Tarjeta tarjeta = repository.findById(ID_TARJETA).get();
+        tarjeta.setIdEstado(2L);
+        repository.save(tarjeta);
+
+        assertEquals(0, repository.debitarSaldo(ID_TARJETA, new BigDecimal("10.00")));
+    }
+
+    @Test
+    void findByIdTarjetaGreaterThan_DebeRecorrerPorLlave() {
+        for (long i = 1; i <= 4; i++) {
+            Tarjeta tarjeta = new Tarjeta();
+            tarjeta.setIdTarjeta(ID_TARJETA + i);
+            tarjeta.setIdProducto(102030L);
+            tarjeta.setIdEstado(2L);
+            tarjeta.setSaldo(new BigDecimal("0.00"));
+            repository.save(tarjeta);
+        }
+
+        List<Tarjeta> primera = repository.findByIdTarjetaGreaterThanOrderByIdTarjetaAsc(0L, Limit.of(3));
+        Long cursor = primera.get(primera.size() - 1).getIdTarjeta();
+        List<Tarjeta> segunda = repository.findByIdTarjetaGreaterThanOrderByIdTarjetaAsc(cursor, Limit.of(3));
+
+        assertEquals(3, primera.size());
+        assertEquals(ID_TARJETA, primera.get(0).getIdTarjeta());
+        assertEquals(2, segunda.size());
+        assertEquals(ID_TARJETA + 3, segunda.get(0).getIdTarjeta());
+        assertEquals(ID_TARJETA + 4, segunda.get(1).getIdTarjeta());
+    }
+
+    @Test
+    void debitarSaldo_ComprasConcurrentes_NoDebePerderDebitos() throws Exception {
+        // 8 hilos intentan 40 compras de 10 USD cada uno sobre 1000 USD de saldo:
+        // exactamente 100 deben aprobarse y el saldo debe quedar en cero
+        int hilos = 8;
+        int comprasPorHilo = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        List<Callable<Integer>> tareas = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(() -> {
+                int aprobadas = 0;
+                for (int j = 0; j < comprasPorHilo; j++) {
+                    Integer filas = transactionTemplate.execute(status -> repository.debitarSaldo(ID_TARJETA, new BigDecimal("10.00")));
+                    aprobadas += filas;
+                }
+                return aprobadas;
+            });
+        }
+
+        int totalAprobadas = 0;
+        try {
+            for (Future<Integer> resultado : executor.invokeAll(tareas)) {
+                totalAprobadas += resultado.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(100, totalAprobadas);
+        assertEquals(new BigDecimal("0.00"), repository.findById(ID_TARJETA).get().getSaldo());
+    }
+}
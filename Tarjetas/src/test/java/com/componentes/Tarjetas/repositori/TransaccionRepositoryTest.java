@@ -0,0 +1,108 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import com.componentes.Tarjetas.Entity.EstadoTrans;
+import com.componentes.Tarjetas.Entity.Transaccion;
+import com.componentes.Tarjetas.Repository.EstadoTransRepository;
+import com.componentes.Tarjetas.Repository.TransaccionRepository;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+class TransaccionRepositoryTest {
+
+    private static final Long ID_TARJETA = 1020301234567801L;
+    private static final long DIA = 86400000L;
+
+    @Autowired
+    private TransaccionRepository repository;
+
+    @Autowired
+    private EstadoTransRepository estadoTransRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private EstadoTrans exitosa;
+    private EstadoTrans anulada;
+    private Date hoy;
+
+    @BeforeEach
+    void setUp() {
+        exitosa = estadoTransRepository.save(estado(1L, "EXITOSA"));
+        anulada = estadoTransRepository.save(estado(3L, "ANULADA"));
+        hoy = new Date();
+
+        repository.save(transaccion(ID_TARJETA, exitosa, new Date(hoy.getTime() - 3 * DIA)));
+        repository.save(transaccion(ID_TARJETA, anulada, new Date(hoy.getTime() - 2 * DIA)));
+        repository.save(transaccion(ID_TARJETA, exitosa, new Date(hoy.getTime() - DIA)));
+        repository.save(transaccion(9990001112223334L, exitosa, hoy));
+    }
+
+    @Test
+    void buscarHistorialTarjeta_SinEstado_DebeOrdenarPorFechaDescendente() {
+        List<Transaccion> historial = repository.buscarHistorialTarjeta(ID_TARJETA,
+                new Date(0L), new Date(hoy.getTime() + DIA), null, Limit.of(10));
+
+        assertEquals(3, historial.size());
+        assertEquals(new Date(hoy.getTime() - DIA), historial.get(0).getFechaTrans());
+        assertEquals(new Date(hoy.getTime() - 3 * DIA), historial.get(2).getFechaTrans());
+    }
+
+    @Test
+    void buscarHistorialTarjeta_ConEstadoYRango_DebeFiltrar() {
+        List<Transaccion> historial = repository.buscarHistorialTarjeta(ID_TARJETA,
+                new Date(hoy.getTime() - 3 * DIA), new Date(hoy.getTime() - DIA), 1L, Limit.of(10));
+
+        assertEquals(1, historial.size());
+        assertEquals("EXITOSA", historial.get(0).getEstadoTrans().getDescripcion());
+    }
+
+    @Test
+    void buscarHistorialTarjeta_ConLimite_DebeTraerLasMasRecientes() {
+        List<Transaccion> historial = repository.buscarHistorialTarjeta(ID_TARJETA,
+                new Date(0L), new Date(hoy.getTime() + DIA), null, Limit.of(2));
+
+        assertEquals(2, historial.size());
+        assertEquals(new Date(hoy.getTime() - 2 * DIA), historial.get(1).getFechaTrans());
+    }
+
+    @Test
+    void marcarAnulada_DebeMarcarSoloLaPrimeraVez() {
+        Transaccion compra = repository.save(transaccion(ID_TARJETA, exitosa, hoy));
+
+        assertEquals(1, repository.marcarAnulada(compra.getIdTrans(), 100L));
+        assertEquals(0, repository.marcarAnulada(compra.getIdTrans(), 200L));
+
+        entityManager.clear();
+        assertEquals(100L, repository.findById(compra.getIdTrans()).get().getIdanula());
+    }
+
+    private EstadoTrans estado(Long id, String descripcion) {
+        EstadoTrans estado = new EstadoTrans();
+        estado.setIdEstadoTrans(id);
+        estado.setDescripcion(descripcion);
+        return estado;
+    }
+
+    private Transaccion transaccion(Long idTarjeta, EstadoTrans estado, Date fecha) {
+        Transaccion transaccion = new Transaccion();
+        transaccion.setIdTarjeta(idTarjeta);
+        transaccion.setEstadoTrans(estado);
+        transaccion.setFechaTrans(fecha);
+        transaccion.setValorTrans(new BigDecimal("100.00"));
+        transaccion.setMONEDA("USD");
+        return transaccion;
+    }
+}
@@ -0,0 +1,139 @@
+package com.componentes.Tarjetas.repositori;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.componentes.Tarjetas.Entity.Tarjeta;
+import com.componentes.Tarjetas.Repository.TarjetaRepository;
+import com.componentes.Tarjetas.monitoreo.TrazaConsultas;
+
+@DataJpaTest(properties = { "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "consultas.traza.habilitada=true" })
+@Import(TrazaConsultas.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ExtendWith(OutputCaptureExtension.class)
+class TrazaConsultasTest {
+
+    private static final Long TARJETA = 1020301234567801L;
+
+    @Autowired
+    private TrazaConsultas trazaConsultas;
+
+    @Autowired
+    private TarjetaRepository tarjetaRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        Tarjeta tarjeta = new Tarjeta();
+        tarjeta.setIdTarjeta(TARJETA);
+        tarjeta.setIdProducto(102030L);
+        tarjeta.setIdEstado(1L);
+        tarjeta.setTitular("JESUS SUAREZ");
+        tarjeta.setFechaCreacion(new Date());
+        tarjeta.setFechaVencimiento(new Date(System.currentTimeMillis() + 86400000));
+        tarjeta.setSaldo(new BigDecimal("100.00"));
+        tarjeta.setMONEDA("USD");
+        tarjetaRepository.save(tarjeta);
+    }
+
+    @AfterEach
+    void tearDown() {
+        trazaConsultas.setHabilitada(true);
+        trazaConsultas.setUmbralMs(200);
+        trazaConsultas.terminarPeticion();
+        tarjetaRepository.deleteAll();
+    }
+
+    @Test
+    void iniciarPeticion_DebeContarLasSentenciasDelHilo() {
+        trazaConsultas.iniciarPeticion();
+
+        tarjetaRepository.findById(TARJETA);
+        tarjetaRepository.count();
+
+        assertEquals(2, trazaConsultas.terminarPeticion());
+        assertEquals(0, trazaConsultas.sentenciasPeticion());
+    }
+
+    @Test
+    void sentenciaMasRepetida_DebeDetectarLaMismaConsultaEnBucle() {
+        trazaConsultas.iniciarPeticion();
+
+        for (int i = 0; i < 5; i++) {
+            tarjetaRepository.findById(TARJETA + i);
+        }
+        tarjetaRepository.count();
+
+        TrazaConsultas.SentenciaRepetida repetida = trazaConsultas.sentenciaMasRepetida();
+        assertEquals(5, repetida.repeticiones());
+        assertTrue(repetida.sql().toLowerCase().contains("from tarjeta "));
+        assertEquals(6, trazaConsultas.terminarPeticion());
+        assertNull(trazaConsultas.sentenciaMasRepetida());
+    }
+
+    @Test
+    void setHabilitada_False_NoDebeContarSentencias() {
+        trazaConsultas.setHabilitada(false);
+        trazaConsultas.iniciarPeticion();
+
+        tarjetaRepository.findById(TARJETA);
+
+        assertEquals(0, trazaConsultas.terminarPeticion());
+    }
+
+    @Test
+    void consultaSobreElUmbral_DebeRegistrarseSinLosValoresDeLosParametros(CapturedOutput salida) {
+        trazaConsultas.setUmbralMs(0);
+
+        tarjetaRepository.findById(TARJETA);
+
+        assertTrue(salida.getOut().contains("consulta_lenta"));
+        assertTrue(salida.getOut().contains("parametros=[Long]"));
+        assertFalse(salida.getOut().contains(TARJETA.toString()));
+    }
+
+    @Test
+    void sinPropiedad_NoDebeEnvolverElDataSource() {
+        TrazaConsultas desactivada = new TrazaConsultas();
+        desactivada.setEnvironment(new MockEnvironment());
+
+        assertSame(dataSource, desactivada.postProcessAfterInitialization(dataSource, "dataSource"));
+        assertFalse(desactivada.isHabilitada());
+        assertFalse(desactivada.isDisponible());
+        assertThrows(IllegalStateException.class, () -> desactivada.setHabilitada(true));
+    }
+
+    @Test
+    void consultaBajoElUmbral_NoDebeRegistrarse(CapturedOutput salida) {
+        trazaConsultas.setUmbralMs(60000);
+
+        tarjetaRepository.findById(TARJETA);
+
+        assertFalse(salida.getOut().contains("consulta_lenta"));
+    }
+}
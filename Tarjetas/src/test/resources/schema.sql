@@ -0,0 +1,3 @@
+-- Spring lo ejecuta en la base H2 de pruebas antes de que Hibernate actualice el esquema.
+-- Objetos que no salen de las entidades; en Oracle se crean con los scripts de "Base de datos".
+CREATE SEQUENCE IF NOT EXISTS SEQ_NUMERO_TARJETA START WITH 0 MINVALUE 0 INCREMENT BY 1000;